@@ -1,5 +1,7 @@
 package com.smartlogi.sdms.application.dto.routes;
 
+import com.smartlogi.sdms.domain.model.enums.MissionType;
+import com.smartlogi.sdms.domain.model.enums.PriorityColis;
 import lombok.*;
 
 import java.math.BigDecimal;
@@ -12,5 +14,27 @@ public class LocationDTO {
     private String id; // Peut-être l'ID de la Mission ou du Destinataire
     private double latitude;
     private double longitude;
-    private BigDecimal poidsDemande; // Optionnel : pour la capacité du véhicule
+    private BigDecimal poidsDemande; // Optionnel : pour la capacité du véhicule, en kg (comme capaciteVehicule)
+    // Adresse dans une zone à circulation restreinte (médina) : interdite aux véhicules sans accès (camions)
+    private boolean accesRestreint;
+    // Collecte / livraison (null = livraison d'un colis chargé au dépôt)
+    private MissionType typeMission;
+    // Livraison d'un colis collecté en route : id de la collecte, à visiter avant et par le même livreur
+    private String collecteId;
+    // Priorité du colis (null = NORMALE) : l'attente d'un colis HAUTE est pénalisée
+    private PriorityColis priorite;
+    // Fenêtre horaire, en heures depuis le départ du dépôt (null = pas de borne)
+    private Double fenetreDebutHeures; // Arrivée plus tôt : le livreur attend
+    private Double fenetreFinHeures;
+    // true : arrivée après fenetreFinHeures interdite ; false : retard pénalisé
+    private boolean fenetreStricte;
+    // Identifiant stable du lieu (dépôt, adresse du destinataire) : clé du stock de distances de la zone (null = non stocké)
+    private String pointId;
+
+    public LocationDTO(String id, double latitude, double longitude, BigDecimal poidsDemande) {
+        this.id = id;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.poidsDemande = poidsDemande;
+    }
 }
\ No newline at end of file
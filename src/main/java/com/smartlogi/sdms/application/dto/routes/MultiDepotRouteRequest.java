@@ -0,0 +1,29 @@
+package com.smartlogi.sdms.application.dto.routes;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Requête d'optimisation sur plusieurs dépôts (une zone = un dépôt et ses livreurs).
+ * <p>
+ * Les arrêts ne sont rattachés à aucun dépôt : l'optimisation choisit pour chacun le dépôt
+ * le moins coûteux, dans la limite de la capacité de ses livreurs.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiDepotRouteRequest {
+
+    private List<DepotData> depots;
+    private List<LocationDTO> locations;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DepotData {
+        private LocationDTO depot; // L'ID du dépôt est repris dans RouteDetails.depotId
+        private List<RouteRequest.LivreurData> livreurs;
+    }
+}
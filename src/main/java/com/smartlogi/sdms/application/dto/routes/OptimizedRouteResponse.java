@@ -11,20 +11,38 @@ import java.util.List;
 public class OptimizedRouteResponse {
     private String algorithm;
     private double totalDistanceKm;
-    private double totalEstimatedTimeHours; // (Ex: distance / 40 km/h)
+    private double totalEstimatedTimeHours; // Somme des tournées, chacune à la vitesse de son véhicule
+    private double totalCost; // Coûts fixes + kilométriques des véhicules utilisés (MAD)
 
     // Renommé de "optimizedRoutes" à "tournées"
     private List<RouteDetails> tournees;
 
+    // IDs des locations qu'aucune tournée n'a pu prendre (capacité ou livreurs insuffisants)
+    private List<String> unassignedStops;
+
+    // IDs des arrêts servis après la fin de leur fenêtre horaire (fenêtres souples)
+    private List<String> lateStops;
+
+    // false si l'échéance maxMillis a interrompu l'amélioration (meilleure solution trouvée à temps)
+    private boolean converged;
+    private long improvementIterations; // Mouvements améliorants appliqués (2opt, oropt...)
+
+    // Renseignés par /compare : temps de calcul (matrice exclue) et octets alloués par le solveur
+    private Double computeTimeMs;
+    private Long allocatedBytes;
+
     @Data
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
     public static class RouteDetails {
         private String livreurId;
+        private String depotId; // Dépôt de départ et de retour de la tournée
         private List<String> stopOrder; // Liste des IDs de LocationDTO
+        private List<Double> stopEtaHours; // Arrivée estimée à chaque arrêt (heures depuis le départ)
         private double routeDistanceKm;
-        private double routeEstimatedTimeHours;
+        private double routeEstimatedTimeHours; // distance / vitesse du véhicule
+        private double routeCost; // coût fixe + coût kilométrique · distance
         private double routeLoad; // Optionnel: Poids total
     }
 }
\ No newline at end of file
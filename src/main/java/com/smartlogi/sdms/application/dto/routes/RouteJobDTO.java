@@ -0,0 +1,27 @@
+package com.smartlogi.sdms.application.dto.routes;
+
+import com.smartlogi.sdms.domain.model.enums.StatutOptimisation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * État d'une tâche d'optimisation asynchrone (statut, progression, horodatages).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteJobDTO {
+    private String jobId;
+    private StatutOptimisation statut;
+    private String algorithm;
+    private Double bestDistanceKm; // Meilleure distance totale trouvée jusqu'ici (null avant la 1ère solution)
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
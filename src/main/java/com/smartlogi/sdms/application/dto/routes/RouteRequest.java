@@ -1,5 +1,6 @@
 package com.smartlogi.sdms.application.dto.routes;
 
+import com.smartlogi.sdms.domain.model.enums.TypeVehicule;
 import lombok.*;
 
 import java.util.List;
@@ -21,13 +22,30 @@ public class RouteRequest {
 
 
     /**
-     * Données sur le livreur et son véhicule pour cette requête
+     * Données sur le livreur et son véhicule pour cette requête.
+     * <p>
+     * Profil du véhicule : les champs non renseignés reprennent les valeurs par défaut de
+     * {@link TypeVehicule} ; sans type, vitesse de 40 km/h et coût égal à la distance.
      */
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
     public static class LivreurData {
         private String livreurId;
-        private double capaciteVehicule; // (en double, comme nous l'avons corrigé)
+        private double capaciteVehicule; // En kg, comme LocationDTO.poidsDemande
+        private TypeVehicule typeVehicule;
+        private Double vitesseKmh;
+        private Double coutFixe; // MAD par tournée
+        private Double coutParKm; // MAD par km
+
+        public LivreurData(String livreurId, double capaciteVehicule) {
+            this.livreurId = livreurId;
+            this.capaciteVehicule = capaciteVehicule;
+        }
+
+        public LivreurData(String livreurId, double capaciteVehicule, TypeVehicule typeVehicule) {
+            this(livreurId, capaciteVehicule);
+            this.typeVehicule = typeVehicule;
+        }
     }
 }
\ No newline at end of file
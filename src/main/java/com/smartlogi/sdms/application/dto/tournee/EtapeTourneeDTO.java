@@ -0,0 +1,21 @@
+package com.smartlogi.sdms.application.dto.tournee;
+
+import com.smartlogi.sdms.domain.model.enums.PriorityColis;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Arrêt d'une tournée : colis, rang de passage et heure d'arrivée estimée.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EtapeTourneeDTO {
+    private String colisId;
+    private Integer ordreLivraison;
+    private Double etaHeures; // Heures depuis le départ du dépôt, attente d'ouverture de fenêtre comprise
+    private PriorityColis priorite;
+}
@@ -0,0 +1,32 @@
+package com.smartlogi.sdms.application.dto.tournee;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rapport de la planification journalière : totaux toutes zones confondues et détail par zone.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanificationRapportDTO {
+    private LocalDate datePlanification;
+    private int nbZones;
+    private int zonesTerminees;
+    private int zonesIgnorees;
+    private int zonesEchouees;
+    private int zonesEnCours;
+    private int zonesReprises; // Déjà traitées lors d'une exécution précédente, non replanifiées
+    private int nbTournees;
+    private int nbColis;
+    private int nbColisNonAffectes;
+    private double distanceTotaleKm;
+    private Long dureeMs; // Durée de l'exécution (null pour un rapport relu)
+    private List<PlanificationZoneDTO> zones;
+}
@@ -0,0 +1,28 @@
+package com.smartlogi.sdms.application.dto.tournee;
+
+import com.smartlogi.sdms.domain.model.enums.StatutPlanification;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Résultat de la planification journalière d'une zone.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanificationZoneDTO {
+    private String zoneId;
+    private StatutPlanification statut;
+    private Integer nbTournees;
+    private Integer nbColis;
+    private Integer nbColisNonAffectes;
+    private Double distanceTotaleKm;
+    private String message;
+    private LocalDateTime debut;
+    private LocalDateTime fin;
+}
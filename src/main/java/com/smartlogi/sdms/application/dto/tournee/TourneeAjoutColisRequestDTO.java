@@ -0,0 +1,18 @@
+package com.smartlogi.sdms.application.dto.tournee;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Ajout de colis arrivés tard à une tournée planifiée.
+ */
+@Setter
+@Getter
+public class TourneeAjoutColisRequestDTO {
+
+    @NotEmpty(message = "La liste des IDs de colis ne peut pas être vide.")
+    private List<String> colisIds;
+}
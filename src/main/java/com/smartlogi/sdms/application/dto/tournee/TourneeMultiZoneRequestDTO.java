@@ -0,0 +1,34 @@
+package com.smartlogi.sdms.application.dto.tournee;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Planification conjointe de plusieurs zones : chaque colis est confié au dépôt et aux livreurs
+ * disponibles de la zone qui le sert au moindre coût.
+ */
+@Setter
+@Getter
+public class TourneeMultiZoneRequestDTO {
+
+    @NotNull(message = "La date de la tournée ne peut pas être nulle.")
+    private LocalDate dateTournee;
+
+    @NotEmpty(message = "La liste des IDs de zones ne peut pas être vide.")
+    private List<String> zoneIds;
+
+    @NotEmpty(message = "La liste des IDs de colis ne peut pas être vide.")
+    private List<String> colisIds;
+
+    @NotNull(message = "L'algorithme ne peut pas être nul.")
+    private String algorithme;
+
+    @Positive(message = "Le temps maximal d'optimisation doit être positif.")
+    private Long maxMillis; // Optionnel : échéance de l'optimisation de chaque zone
+}
@@ -0,0 +1,20 @@
+package com.smartlogi.sdms.application.dto.tournee;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Résultat d'une planification multi-zones : les tournées créées et les colis qu'aucune n'a pu prendre.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TourneeMultiZoneResponseDTO {
+    private List<TourneeResponseDTO> tournees;
+    private List<String> colisNonAffectes; // Capacité ou livreurs insuffisants : restent en stock, sans tournée
+}
@@ -0,0 +1,27 @@
+package com.smartlogi.sdms.application.dto.tournee;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Re-planification d'une tournée en cours à partir de la position actuelle du livreur.
+ */
+@Setter
+@Getter
+public class TourneeReplanificationRequestDTO {
+
+    @NotNull(message = "La latitude du livreur ne peut pas être nulle.")
+    private Double latitude;
+
+    @NotNull(message = "La longitude du livreur ne peut pas être nulle.")
+    private Double longitude;
+
+    @PositiveOrZero(message = "Le temps écoulé depuis le départ ne peut pas être négatif.")
+    private Double heuresEcoulees; // Optionnel : par défaut, ETA du dernier colis livré
+
+    @Positive(message = "Le temps maximal d'optimisation doit être positif.")
+    private Long maxMillis; // Optionnel
+}
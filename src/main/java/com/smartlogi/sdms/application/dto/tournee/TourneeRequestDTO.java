@@ -2,6 +2,7 @@ package com.smartlogi.sdms.application.dto.tournee;
 
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
@@ -26,5 +27,8 @@ public class TourneeRequestDTO {
     private List<String> colisIds; // Les IDs des colis à optimiser
 
     @NotNull(message = "L'algorithme ne peut pas être nul.")
-    private String algorithme; // Ex: "NearestNeighbor" ou "ClarkeWright"
+    private String algorithme; // Ex: "Auto", "Exact", "NearestNeighbor", "ClarkeWright", "ClarkeWright+2opt+oropt", "MultiStart", "Alns" ou "TimeWindows"
+
+    @Positive(message = "Le temps maximal d'optimisation doit être positif.")
+    private Long maxMillis; // Optionnel : échéance de l'optimisation (meilleure solution à temps)
 }
\ No newline at end of file
@@ -23,4 +23,5 @@ public class TourneeResponseDTO {
     private String zoneId;
     private String nomZone;
     private List<ColisResponseDTO> livraisons; // Retourne les détails des colis dans l'ordre
+    private List<EtapeTourneeDTO> etapes; // Ordre de passage et ETA de chaque colis
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.smartlogi.sdms.application.mapper;
 
+import com.smartlogi.sdms.application.dto.tournee.EtapeTourneeDTO;
 import com.smartlogi.sdms.application.dto.tournee.TourneeResponseDTO;
+import com.smartlogi.sdms.domain.model.entity.Colis;
 import com.smartlogi.sdms.domain.model.entity.Tournee;
 // Supprimez cette ligne : import jakarta.transaction.Transactional;
 import org.mapstruct.Mapper;
@@ -15,7 +17,11 @@ public interface TourneeMapper {
             @Mapping(source = "livreur.id", target = "livreurId"),
             @Mapping(source = "zone.id", target = "zoneId"),
             @Mapping(source = "zone.nom", target = "nomZone"),
-            @Mapping(source = "livraisons", target = "livraisons") // "livraisons" est le nom du champ dans l'entité
+            @Mapping(source = "livraisons", target = "livraisons"), // "livraisons" est le nom du champ dans l'entité
+            @Mapping(source = "livraisons", target = "etapes")
     })
     TourneeResponseDTO toResponseDTO(Tournee tournee);
+
+    @Mapping(source = "id", target = "colisId")
+    EtapeTourneeDTO toEtape(Colis colis);
 }
\ No newline at end of file
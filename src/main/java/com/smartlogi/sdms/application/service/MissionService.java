@@ -3,14 +3,21 @@ package com.smartlogi.sdms.application.service;
 
 import com.smartlogi.sdms.application.dto.mission.MissionRequestDTO;
 import com.smartlogi.sdms.application.dto.mission.MissionResponseDTO;
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
 import com.smartlogi.sdms.application.mapper.ColisMapper;
 import com.smartlogi.sdms.application.mapper.MissionMapper;
 import com.smartlogi.sdms.application.service.email.EmailExpediteurEvent;
+import com.smartlogi.sdms.application.service.routing.AlgorithmSpec;
 import com.smartlogi.sdms.domain.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.domain.model.entity.Colis;
 import com.smartlogi.sdms.domain.model.entity.Mission;
+import com.smartlogi.sdms.domain.model.entity.Zone;
 import com.smartlogi.sdms.domain.model.entity.users.Livreur;
+import com.smartlogi.sdms.domain.model.enums.MissionType;
 import com.smartlogi.sdms.domain.model.enums.StatutMission;
+import com.smartlogi.sdms.domain.model.vo.Adresse;
 import com.smartlogi.sdms.domain.repository.ColisRepository;
 import com.smartlogi.sdms.domain.repository.LivreurRepository;
 import com.smartlogi.sdms.domain.repository.MissionRepository;
@@ -19,6 +26,11 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class MissionService {
@@ -29,6 +41,7 @@ public class MissionService {
     private final MissionMapper missionMapper;
     private final ColisMapper colisMapper;
     private final EmailExpediteurEvent emailExpediteurEvent;
+    private final RouteOptimizationService routeOptimizationService;
 
     @Transactional
     public MissionResponseDTO createMission(MissionRequestDTO dto) throws MessagingException {
@@ -49,4 +62,78 @@ public class MissionService {
        emailExpediteurEvent.notifyCollecte(livreur , missionSaved);
         return missionMapper.toResponseDto(missionSaved);
     }
+
+    /**
+     * Journée d'un livreur qui entrelace collectes et livraisons : chaque mission devient une paire
+     * (origine -> destination) que le même livreur sert dans cet ordre, véhicule chargé au plus de
+     * sa capacité à tout instant. Une mission de livraison sans coordonnées d'origine part du dépôt
+     * de la zone, une collecte sans coordonnées de destination y revient.
+     * Les arrêts de la réponse sont nommés {@code <idMission>/COLLECTE} et {@code <idMission>/LIVRAISON}.
+     * Seules les missions du livreur encore à faire (AFFECTEE ou ENCOURS) peuvent être planifiées ;
+     * un identifiant répété n'est compté qu'une fois.
+     */
+    @Transactional
+    public OptimizedRouteResponse optimiserMissions(String livreurId, List<String> missionIds, Long maxMillis) {
+        Livreur livreur = livreurRepository.findById(livreurId)
+                .orElseThrow(() -> new ResourceNotFoundException("Livreur non trouvé avec l'ID: " + livreurId));
+        if (livreur.getVehicule() == null) {
+            throw new IllegalStateException("Le livreur " + livreurId + " n'a pas de véhicule assigné.");
+        }
+        Zone zone = livreur.getZoneAssignee();
+        if (zone == null || !hasCoordinates(zone.getAdresseDepot())) {
+            throw new IllegalStateException("Le livreur " + livreurId + " n'a pas de zone avec un dépôt géolocalisé.");
+        }
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(missionIds));
+        List<Mission> missions = missionRepository.findAllById(ids);
+        if (missions.size() != ids.size()) {
+            throw new ResourceNotFoundException("Certaines missions n'ont pas été trouvées.");
+        }
+        for (Mission mission : missions) {
+            if (mission.getLivreur() == null || !livreurId.equals(mission.getLivreur().getId())) {
+                throw new IllegalArgumentException("La mission " + mission.getId() + " n'est pas affectée au livreur " + livreurId + ".");
+            }
+            if (mission.getStatut() == StatutMission.TERMINEE) {
+                throw new IllegalStateException("La mission " + mission.getId() + " est déjà terminée.");
+            }
+        }
+
+        LocationDTO depot = new LocationDTO("DEPOT_" + zone.getId(),
+                zone.getAdresseDepot().latitude(), zone.getAdresseDepot().longitude(), BigDecimal.ZERO);
+        List<LocationDTO> locations = new ArrayList<>();
+        for (Mission mission : missions) {
+            if (mission.getColis() == null || mission.getColis().getPoids() == null) {
+                throw new IllegalStateException("La mission " + mission.getId() + " n'a pas de colis pesé.");
+            }
+            BigDecimal poids = mission.getColis().getPoids().enKilogrammes();
+            boolean pickup = hasCoordinates(mission.getOrigineAdresse());
+            boolean delivery = hasCoordinates(mission.getDestinationAdresse());
+            if ((!pickup && mission.getType() != MissionType.LIVRAISON) || (!delivery && mission.getType() != MissionType.COLLECTE)) {
+                throw new IllegalStateException("La mission " + mission.getId() + " n'a pas de coordonnées GPS valides.");
+            }
+            String collecteId = null;
+            if (pickup) {
+                collecteId = mission.getId() + "/" + MissionType.COLLECTE;
+                LocationDTO collecte = new LocationDTO(collecteId,
+                        mission.getOrigineAdresse().latitude(), mission.getOrigineAdresse().longitude(), poids);
+                collecte.setTypeMission(MissionType.COLLECTE);
+                locations.add(collecte);
+            }
+            if (delivery) {
+                LocationDTO livraison = new LocationDTO(mission.getId() + "/" + MissionType.LIVRAISON,
+                        mission.getDestinationAdresse().latitude(), mission.getDestinationAdresse().longitude(), poids);
+                livraison.setTypeMission(MissionType.LIVRAISON);
+                livraison.setCollecteId(collecteId);
+                locations.add(livraison);
+            }
+        }
+
+        RouteRequest.LivreurData livreurData = new RouteRequest.LivreurData(livreur.getId(),
+                livreur.getVehicule().capaciteMaximale(), livreur.getVehicule().type());
+        return routeOptimizationService.optimizeRoutes(new RouteRequest(depot, locations, List.of(livreurData)),
+                AlgorithmSpec.Construction.PICKUP_DELIVERY.label(), maxMillis);
+    }
+
+    private static boolean hasCoordinates(Adresse adresse) {
+        return adresse != null && adresse.latitude() != null && adresse.longitude() != null;
+    }
 }
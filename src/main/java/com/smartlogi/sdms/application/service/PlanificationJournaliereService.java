@@ -0,0 +1,254 @@
+package com.smartlogi.sdms.application.service;
+
+import com.smartlogi.sdms.application.dto.tournee.PlanificationRapportDTO;
+import com.smartlogi.sdms.application.dto.tournee.PlanificationZoneDTO;
+import com.smartlogi.sdms.application.service.routing.AlgorithmSpec;
+import com.smartlogi.sdms.domain.exception.ResourceNotFoundException;
+import com.smartlogi.sdms.domain.model.entity.PlanificationZone;
+import com.smartlogi.sdms.domain.model.entity.Zone;
+import com.smartlogi.sdms.domain.model.enums.StatutPlanification;
+import com.smartlogi.sdms.domain.repository.PlanificationZoneRepository;
+import com.smartlogi.sdms.domain.repository.ZoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Planification journalière : toutes les zones d'une date, en parallèle sur un pool borné
+ * ({@code parallelism} zones à la fois).
+ * <p>
+ * Chaque zone est planifiée dans sa propre transaction, qui écrit ses tournées, ses colis et sa
+ * ligne {@link PlanificationZone} TERMINEE ensemble : après un arrêt brutal, relancer la même date
+ * ne replanifie que les zones sans résultat validé (EN_COURS, ECHOUEE ou absentes).
+ */
+@Slf4j
+@Service
+public class PlanificationJournaliereService {
+
+    private static final int MESSAGE_MAX_LENGTH = 500;
+
+    private final TourneeService tourneeService;
+    private final ZoneRepository zoneRepository;
+    private final PlanificationZoneRepository planificationZoneRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<LocalDate> datesEnCours = ConcurrentHashMap.newKeySet();
+
+    @Value("${application.routing.planning.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${application.routing.planning.algorithm:Auto}")
+    private String algorithm = "Auto";
+
+    @Value("${application.routing.planning.max-millis-per-zone:10000}")
+    private long maxMillisPerZone = 10_000;
+
+    public PlanificationJournaliereService(TourneeService tourneeService, ZoneRepository zoneRepository,
+                                           PlanificationZoneRepository planificationZoneRepository,
+                                           TransactionTemplate transactionTemplate) {
+        this.tourneeService = tourneeService;
+        this.zoneRepository = zoneRepository;
+        this.planificationZoneRepository = planificationZoneRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Déclenchement automatique ({@code application.routing.planning.cron}, désactivé par défaut).
+     */
+    @Scheduled(cron = "${application.routing.planning.cron:-}")
+    public void planifierAujourdhui() {
+        PlanificationRapportDTO rapport = planifier(LocalDate.now(), null, null);
+        log.info("Planification du {} : {} tournées, {} colis non affectés, {} zones en échec",
+                rapport.getDatePlanification(), rapport.getNbTournees(), rapport.getNbColisNonAffectes(), rapport.getZonesEchouees());
+    }
+
+    /**
+     * Planifie toutes les zones pour {@code date} et attend la fin de chacune.
+     *
+     * @param algorithme algorithme d'optimisation (null = {@code application.routing.planning.algorithm})
+     * @param maxMillis  budget par zone (null = {@code application.routing.planning.max-millis-per-zone})
+     * @throws IllegalArgumentException si l'algorithme est inconnu
+     * @throws IllegalStateException    si une planification est déjà en cours pour cette date
+     */
+    public PlanificationRapportDTO planifier(LocalDate date, String algorithme, Long maxMillis) {
+        String algo = algorithme != null ? algorithme : algorithm;
+        long budget = maxMillis != null ? maxMillis : maxMillisPerZone;
+        AlgorithmSpec.parse(algo);
+        if (!datesEnCours.add(date)) {
+            throw new IllegalStateException("Une planification est déjà en cours pour le " + date);
+        }
+        long debut = System.nanoTime();
+        try {
+            Map<String, PlanificationZone> etats = planificationZoneRepository.findByDatePlanification(date).stream()
+                    .collect(Collectors.toMap(PlanificationZone::getZoneId, Function.identity()));
+
+            // Reprise : les zones déjà validées pour cette date ne sont pas replanifiées
+            List<Zone> aPlanifier = new ArrayList<>();
+            int reprises = 0;
+            for (Zone zone : zoneRepository.findAll()) {
+                PlanificationZone etat = etats.get(zone.getId());
+                if (etat != null && (etat.getStatut() == StatutPlanification.TERMINEE || etat.getStatut() == StatutPlanification.IGNOREE)) {
+                    reprises++;
+                } else {
+                    aPlanifier.add(zone);
+                }
+            }
+            log.info("Planification du {} : {} zones à planifier, {} déjà traitées", date, aPlanifier.size(), reprises);
+
+            if (!aPlanifier.isEmpty()) {
+                runAll(date, aPlanifier, etats, algo, budget);
+            }
+
+            PlanificationRapportDTO rapport = rapport(date, planificationZoneRepository.findByDatePlanification(date));
+            rapport.setZonesReprises(reprises);
+            rapport.setDureeMs((System.nanoTime() - debut) / 1_000_000);
+            return rapport;
+        } finally {
+            datesEnCours.remove(date);
+        }
+    }
+
+    /**
+     * Rapport relu depuis la base (suivi d'une exécution en cours ou passée).
+     */
+    public PlanificationRapportDTO getRapport(LocalDate date) {
+        List<PlanificationZone> etats = planificationZoneRepository.findByDatePlanification(date);
+        if (etats.isEmpty()) {
+            throw new ResourceNotFoundException("Aucune planification trouvée pour le " + date);
+        }
+        return rapport(date, etats);
+    }
+
+    private void runAll(LocalDate date, List<Zone> zones, Map<String, PlanificationZone> etats, String algo, long budget) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, zones.size())), runnable -> {
+            Thread thread = new Thread(runnable, "planification-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Zone zone : zones) {
+                PlanificationZone etat = etats.get(zone.getId());
+                futures.add(pool.submit(() -> planifierZone(date, zone, etat, algo, budget)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Planification du " + date + " interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur inattendue pendant la planification du " + date, e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void planifierZone(LocalDate date, Zone zone, PlanificationZone etat, String algo, long budget) {
+        PlanificationZone courant = etat != null ? etat : PlanificationZone.builder()
+                .datePlanification(date)
+                .zoneId(zone.getId())
+                .build();
+        courant.setStatut(StatutPlanification.EN_COURS);
+        courant.setMessage(null);
+        courant.setDebut(LocalDateTime.now());
+        courant.setFin(null);
+        PlanificationZone enCours = planificationZoneRepository.save(courant);
+
+        try {
+            // Tournées, colis et statut TERMINEE/IGNOREE validés ensemble, ou pas du tout
+            transactionTemplate.executeWithoutResult(status -> {
+                PlanificationZoneDTO resultat = tourneeService.planifierZone(zone, date, algo, budget);
+                enCours.setStatut(resultat.getStatut());
+                enCours.setNbTournees(resultat.getNbTournees());
+                enCours.setNbColis(resultat.getNbColis());
+                enCours.setNbColisNonAffectes(resultat.getNbColisNonAffectes());
+                enCours.setDistanceTotaleKm(resultat.getDistanceTotaleKm());
+                enCours.setMessage(resultat.getMessage());
+                enCours.setFin(LocalDateTime.now());
+                planificationZoneRepository.save(enCours);
+            });
+        } catch (RuntimeException e) {
+            log.error("Échec de la planification de la zone {} pour le {}", zone.getId(), date, e);
+            enCours.setStatut(StatutPlanification.ECHOUEE);
+            enCours.setNbTournees(0);
+            enCours.setMessage(truncate(e.getMessage()));
+            enCours.setFin(LocalDateTime.now());
+            planificationZoneRepository.save(enCours);
+        }
+    }
+
+    private PlanificationRapportDTO rapport(LocalDate date, List<PlanificationZone> etats) {
+        PlanificationRapportDTO rapport = PlanificationRapportDTO.builder()
+                .datePlanification(date)
+                .nbZones(etats.size())
+                .zones(etats.stream()
+                        .sorted(Comparator.comparing(PlanificationZone::getZoneId))
+                        .map(this::toDTO)
+                        .collect(Collectors.toList()))
+                .build();
+        for (PlanificationZone etat : etats) {
+            switch (etat.getStatut()) {
+                case TERMINEE -> rapport.setZonesTerminees(rapport.getZonesTerminees() + 1);
+                case IGNOREE -> rapport.setZonesIgnorees(rapport.getZonesIgnorees() + 1);
+                case ECHOUEE -> rapport.setZonesEchouees(rapport.getZonesEchouees() + 1);
+                case EN_COURS -> rapport.setZonesEnCours(rapport.getZonesEnCours() + 1);
+            }
+            rapport.setNbTournees(rapport.getNbTournees() + valueOf(etat.getNbTournees()));
+            rapport.setNbColis(rapport.getNbColis() + valueOf(etat.getNbColis()));
+            rapport.setNbColisNonAffectes(rapport.getNbColisNonAffectes() + valueOf(etat.getNbColisNonAffectes()));
+            rapport.setDistanceTotaleKm(rapport.getDistanceTotaleKm()
+                    + (etat.getDistanceTotaleKm() != null ? etat.getDistanceTotaleKm() : 0.0));
+        }
+        return rapport;
+    }
+
+    private PlanificationZoneDTO toDTO(PlanificationZone etat) {
+        return PlanificationZoneDTO.builder()
+                .zoneId(etat.getZoneId())
+                .statut(etat.getStatut())
+                .nbTournees(etat.getNbTournees())
+                .nbColis(etat.getNbColis())
+                .nbColisNonAffectes(etat.getNbColisNonAffectes())
+                .distanceTotaleKm(etat.getDistanceTotaleKm())
+                .message(etat.getMessage())
+                .debut(etat.getDebut())
+                .fin(etat.getFin())
+                .build();
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MESSAGE_MAX_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MESSAGE_MAX_LENGTH);
+    }
+
+    void configure(int parallelism, String algorithm, long maxMillisPerZone) {
+        this.parallelism = parallelism;
+        this.algorithm = algorithm;
+        this.maxMillisPerZone = maxMillisPerZone;
+    }
+}
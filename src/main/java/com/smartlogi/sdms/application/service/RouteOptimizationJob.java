@@ -0,0 +1,207 @@
+package com.smartlogi.sdms.application.service;
+
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import com.smartlogi.sdms.application.dto.routes.RouteJobDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.application.service.routing.SearchBudget;
+import com.smartlogi.sdms.domain.model.enums.StatutOptimisation;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tâche d'optimisation asynchrone : transitions d'état (synchronisées), progression et abonnés SSE.
+ */
+final class RouteOptimizationJob {
+
+    // Au plus un événement de progression toutes les 200 ms par tâche
+    private static final long INTERVALLE_PROGRESSION_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final String id;
+    private final String algorithm;
+    private final Long maxMillis;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    private RouteRequest request;
+    private StatutOptimisation statut = StatutOptimisation.EN_ATTENTE;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Double bestDistanceKm;
+    private OptimizedRouteResponse result;
+    private String error;
+    private SearchBudget budget;
+    private Future<?> future;
+    private long lastProgressNanos;
+
+    RouteOptimizationJob(String id, RouteRequest request, String algorithm, Long maxMillis) {
+        this.id = id;
+        this.request = request;
+        this.algorithm = algorithm;
+        this.maxMillis = maxMillis;
+    }
+
+    String id() {
+        return id;
+    }
+
+    String algorithm() {
+        return algorithm;
+    }
+
+    synchronized RouteRequest request() {
+        return request;
+    }
+
+    synchronized void attach(Future<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * Passe la tâche en cours ; le budget (échéance comptée à partir d'ici) est créé au démarrage
+     * pour que l'attente dans la file ne consomme pas le temps d'optimisation.
+     *
+     * @return null si la tâche a été annulée avant de démarrer
+     */
+    synchronized SearchBudget start() {
+        if (statut != StatutOptimisation.EN_ATTENTE) {
+            return null;
+        }
+        statut = StatutOptimisation.EN_COURS;
+        startedAt = LocalDateTime.now();
+        budget = SearchBudget.ofMillis(maxMillis).onProgress(this::progress);
+        return budget;
+    }
+
+    void complete(OptimizedRouteResponse response) {
+        synchronized (this) {
+            if (statut != StatutOptimisation.EN_COURS) {
+                return;
+            }
+            statut = StatutOptimisation.TERMINEE;
+            result = response;
+            bestDistanceKm = response.getTotalDistanceKm();
+            finish();
+        }
+        closeEmitters();
+    }
+
+    void fail(String message) {
+        synchronized (this) {
+            if (statut != StatutOptimisation.EN_COURS) {
+                return;
+            }
+            statut = StatutOptimisation.ECHOUEE;
+            error = message;
+            finish();
+        }
+        closeEmitters();
+    }
+
+    /**
+     * @return false si la tâche était déjà terminée
+     */
+    boolean cancel() {
+        synchronized (this) {
+            if (isFinished()) {
+                return false;
+            }
+            statut = StatutOptimisation.ANNULEE;
+            if (budget != null) {
+                budget.cancel();
+            }
+            if (future != null) {
+                future.cancel(false);
+            }
+            finish();
+        }
+        closeEmitters();
+        return true;
+    }
+
+    synchronized boolean isFinished() {
+        return statut == StatutOptimisation.TERMINEE
+                || statut == StatutOptimisation.ECHOUEE
+                || statut == StatutOptimisation.ANNULEE;
+    }
+
+    synchronized boolean finishedBefore(LocalDateTime limit) {
+        return finishedAt != null && finishedAt.isBefore(limit);
+    }
+
+    synchronized OptimizedRouteResponse result() {
+        return result;
+    }
+
+    synchronized RouteJobDTO toDTO() {
+        return RouteJobDTO.builder()
+                .jobId(id)
+                .statut(statut)
+                .algorithm(algorithm)
+                .bestDistanceKm(bestDistanceKm)
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Abonnement SSE : envoie l'état courant, puis la progression jusqu'à la fin de la tâche.
+     */
+    SseEmitter subscribe(long timeoutMillis) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitters.add(emitter);
+        send(emitter, "progress");
+        if (isFinished()) {
+            // La tâche a pu se terminer pendant l'abonnement : closeEmitters est idempotent
+            closeEmitters();
+        }
+        return emitter;
+    }
+
+    // Appelé dans le thread du solveur à chaque nouvelle meilleure distance
+    private void progress(double totalDistance) {
+        synchronized (this) {
+            bestDistanceKm = totalDistance;
+            long now = System.nanoTime();
+            if (now - lastProgressNanos < INTERVALLE_PROGRESSION_NANOS) {
+                return;
+            }
+            lastProgressNanos = now;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(emitter, "progress");
+        }
+    }
+
+    private void finish() {
+        finishedAt = LocalDateTime.now();
+        request = null; // Libère les données d'entrée, seul le résultat est conservé
+    }
+
+    private void closeEmitters() {
+        for (SseEmitter emitter : emitters) {
+            if (emitters.remove(emitter)) {
+                send(emitter, "done");
+                emitter.complete();
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, String event) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(toDTO()));
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté : on l'oublie simplement
+            emitters.remove(emitter);
+        }
+    }
+}
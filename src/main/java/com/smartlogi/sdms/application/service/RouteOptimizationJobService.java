@@ -0,0 +1,155 @@
+package com.smartlogi.sdms.application.service;
+
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import com.smartlogi.sdms.application.dto.routes.RouteJobDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.application.service.routing.AlgorithmSpec;
+import com.smartlogi.sdms.application.service.routing.SearchBudget;
+import com.smartlogi.sdms.domain.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optimisations asynchrones : soumission, suivi (polling ou SSE), résultat et annulation.
+ * <p>
+ * Les tâches tournent sur un pool dédié de taille fixe avec une file bornée ; quand la file
+ * est pleine la soumission est refusée (503) plutôt que d'occuper un thread HTTP.
+ * Les tâches terminées sont conservées {@code retention-minutes} puis oubliées.
+ */
+@Slf4j
+@Service
+public class RouteOptimizationJobService {
+
+    private final RouteOptimizationService routeOptimizationService;
+    private final Map<String, RouteOptimizationJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${application.routing.jobs.pool-size:2}")
+    private int poolSize = 2;
+
+    @Value("${application.routing.jobs.queue-capacity:20}")
+    private int queueCapacity = 20;
+
+    @Value("${application.routing.jobs.retention-minutes:30}")
+    private long retentionMinutes = 30;
+
+    @Value("${application.routing.jobs.sse-timeout-ms:300000}")
+    private long sseTimeoutMillis = 300_000;
+
+    private ThreadPoolExecutor executor;
+
+    public RouteOptimizationJobService(RouteOptimizationService routeOptimizationService) {
+        this.routeOptimizationService = routeOptimizationService;
+    }
+
+    /**
+     * @throws IllegalArgumentException   si l'algorithme est inconnu (vérifié avant la mise en file)
+     * @throws RejectedExecutionException si la file d'attente est pleine
+     */
+    public RouteJobDTO submit(RouteRequest request, String algorithm, Long maxMillis) {
+        AlgorithmSpec.parse(algorithm);
+        evictFinishedJobs();
+
+        RouteOptimizationJob job = new RouteOptimizationJob(UUID.randomUUID().toString(), request, algorithm, maxMillis);
+        jobs.put(job.id(), job);
+        try {
+            job.attach(executor().submit(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            throw e;
+        }
+        return job.toDTO();
+    }
+
+    public RouteJobDTO getStatus(String jobId) {
+        return findJob(jobId).toDTO();
+    }
+
+    /**
+     * @return le résultat, ou null si la tâche n'est pas (ou pas correctement) terminée
+     */
+    public OptimizedRouteResponse getResult(String jobId) {
+        return findJob(jobId).result();
+    }
+
+    public SseEmitter subscribe(String jobId) {
+        return findJob(jobId).subscribe(sseTimeoutMillis);
+    }
+
+    public RouteJobDTO cancel(String jobId) {
+        RouteOptimizationJob job = findJob(jobId);
+        if (job.cancel()) {
+            log.info("Tâche d'optimisation {} annulée", jobId);
+        }
+        return job.toDTO();
+    }
+
+    private void run(RouteOptimizationJob job) {
+        RouteRequest request = job.request();
+        SearchBudget budget = job.start();
+        if (budget == null) {
+            return; // Annulée pendant l'attente
+        }
+        try {
+            job.complete(routeOptimizationService.runOptimization(request, job.algorithm(), budget));
+        } catch (RuntimeException e) {
+            log.error("Échec de la tâche d'optimisation {}", job.id(), e);
+            job.fail(e.getMessage());
+        }
+    }
+
+    private RouteOptimizationJob findJob(String jobId) {
+        RouteOptimizationJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Tâche d'optimisation non trouvée avec l'ID: " + jobId);
+        }
+        return job;
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.finishedBefore(limit));
+    }
+
+    private synchronized ThreadPoolExecutor executor() {
+        if (executor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "route-optimization-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    // Jamais CallerRunsPolicy : le solveur ne doit pas tourner sur un thread HTTP
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executor != null) {
+            jobs.values().forEach(RouteOptimizationJob::cancel);
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    void configure(int poolSize, int queueCapacity) {
+        this.poolSize = poolSize;
+        this.queueCapacity = queueCapacity;
+    }
+}
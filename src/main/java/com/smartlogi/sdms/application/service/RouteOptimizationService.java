@@ -1,230 +1,609 @@
 package com.smartlogi.sdms.application.service;
 
 import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.MultiDepotRouteRequest;
 import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
 import com.smartlogi.sdms.application.dto.routes.RouteRequest;
-import com.smartlogi.sdms.infrastructure.utils.Haversine;
-import lombok.AllArgsConstructor;
-import lombok.Getter;
+import com.smartlogi.sdms.application.service.routing.AlgorithmSpec;
+import com.smartlogi.sdms.application.service.routing.AlnsSolver;
+import com.smartlogi.sdms.application.service.routing.CheapestInsertion;
+import com.smartlogi.sdms.application.service.routing.ClarkeWrightSolver;
+import com.smartlogi.sdms.application.service.routing.ClusterSolver;
+import com.smartlogi.sdms.application.service.routing.DepotAssignment;
+import com.smartlogi.sdms.application.service.routing.DistanceMatrix;
+import com.smartlogi.sdms.application.service.routing.DistanceMatrixBuilder;
+import com.smartlogi.sdms.application.service.routing.DistanceProvider;
+import com.smartlogi.sdms.application.service.routing.ExactSolver;
+import com.smartlogi.sdms.application.service.routing.LocalSearch;
+import com.smartlogi.sdms.application.service.routing.MultiStartSolver;
+import com.smartlogi.sdms.application.service.routing.NearestNeighborConstruction;
+import com.smartlogi.sdms.application.service.routing.OrOptImprover;
+import com.smartlogi.sdms.application.service.routing.PickupDeliverySolver;
+import com.smartlogi.sdms.application.service.routing.PlannedRoute;
+import com.smartlogi.sdms.application.service.routing.RestrictedAreas;
+import com.smartlogi.sdms.application.service.routing.RouteCache;
+import com.smartlogi.sdms.application.service.routing.RoutingMetrics;
+import com.smartlogi.sdms.application.service.routing.RoutingProblem;
+import com.smartlogi.sdms.application.service.routing.SearchBudget;
+import com.smartlogi.sdms.application.service.routing.TimeWindowSolver;
+import com.smartlogi.sdms.application.service.routing.TwoOptImprover;
+import com.smartlogi.sdms.application.service.routing.ZoneDistanceStore;
 import org.springframework.stereotype.Service;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class RouteOptimizationService {
 
-    private static final double VITESSE_MOYENNE_KMH = 40.0;
+    static final int MAX_ALGORITHMES_COMPARES = 8;
+    private static final String REPLAN = "Replan";
+
+    private final DistanceMatrixBuilder distanceMatrixBuilder;
+    private final MultiStartSolver multiStartSolver;
+    private final ExactSolver exactSolver;
+    private final AlnsSolver alnsSolver;
+    private final ClusterSolver clusterSolver;
+    private final RestrictedAreas restrictedAreas;
+    private final RouteCache routeCache;
+    private final ZoneDistanceStore zoneDistanceStore;
+    private final RoutingMetrics routingMetrics;
+
+    public RouteOptimizationService(DistanceMatrixBuilder distanceMatrixBuilder, MultiStartSolver multiStartSolver,
+                                    ExactSolver exactSolver, AlnsSolver alnsSolver, ClusterSolver clusterSolver,
+                                    RestrictedAreas restrictedAreas, RouteCache routeCache, ZoneDistanceStore zoneDistanceStore,
+                                    RoutingMetrics routingMetrics) {
+        this.distanceMatrixBuilder = distanceMatrixBuilder;
+        this.multiStartSolver = multiStartSolver;
+        this.exactSolver = exactSolver;
+        this.alnsSolver = alnsSolver;
+        this.clusterSolver = clusterSolver;
+        this.restrictedAreas = restrictedAreas;
+        this.routeCache = routeCache;
+        this.zoneDistanceStore = zoneDistanceStore;
+        this.routingMetrics = routingMetrics;
+    }
 
     /**
      * Méthode principale pour calculer les tournées optimisées.
+     * <p>
+     * {@code algorithm} = construction (NearestNeighbor, ClarkeWright, MultiStart, Alns, Exact ou Auto), suivie
+     * éventuellement d'étapes d'amélioration appliquées à chaque tournée : {@code ClarkeWright+2opt+oropt}.
+     * {@code Auto} résout exactement (Held-Karp) les petites tournées d'un seul livreur et se rabat sur
+     * Clarke-Wright + recherche locale au-delà ; le nom renvoyé est celui de l'algorithme réellement exécuté.
+     * La matrice des distances est calculée une seule fois puis partagée par toutes les étapes ;
+     * matrices et réponses sont aussi mises en cache entre requêtes ({@link RouteCache}).
+     * <p>
+     * Chaque livreur optimise avec le profil de son véhicule (vitesse, coût fixe et kilométrique,
+     * voir {@link RoutingProblem}) ; les arrêts situés en zone restreinte ({@link RestrictedAreas})
+     * ne sont confiés qu'aux véhicules qui y ont accès.
+     * <p>
+     * Une requête qui contient des collectes ({@code typeMission = COLLECTE}) n'est résolue que par
+     * {@code PickupDelivery}, choisi automatiquement par {@code Auto}, et ne peut porter ni fenêtres
+     * horaires ni colis prioritaires (refusée plutôt que de les ignorer en silence).
+     * <p>
+     * Fenêtres horaires et colis prioritaires ({@code priorite = HAUTE}) : {@code Auto} choisit
+     * {@code TimeWindows}. Les autres algorithmes ignorent priorités et fenêtres souples (les retards
+     * sont signalés dans {@code lateStops}) et refusent les fenêtres strictes. Chaque tournée donne
+     * l'heure d'arrivée estimée à chacun de ses arrêts ({@code stopEtaHours}).
+     * <p>
+     * Chaque optimisation calculée est mesurée ({@link RoutingMetrics}) : durée par algorithme et taille,
+     * optimisations en cours, arrêts non affectés et dépassements de capacité.
      */
     public OptimizedRouteResponse optimizeRoutes(RouteRequest request, String algorithm) {
-        if ("NearestNeighbor".equalsIgnoreCase(algorithm)) {
-            return solveNearestNeighbor(request);
-        } else if ("ClarkeWright".equalsIgnoreCase(algorithm)) {
-            return solveClarkeWright(request);
-        } else {
-            throw new IllegalArgumentException("Algorithme non supporté: " + algorithm);
-        }
-    }
-
-    // --- Matrice des Distances ---
-    private double[][] calculateDistanceMatrix(LocationDTO depot, List<LocationDTO> locations) {
-        int size = locations.size() + 1; // +1 pour le dépôt
-        double[][] matrix = new double[size][size];
-        List<LocationDTO> allPoints = new ArrayList<>();
-        allPoints.add(depot);
-        allPoints.addAll(locations);
-
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                LocationDTO p1 = allPoints.get(i);
-                LocationDTO p2 = allPoints.get(j);
-                // On suppose que Haversine.distance retourne un double
-                matrix[i][j] = Haversine.distance(p1.getLatitude(), p1.getLongitude(), p2.getLatitude(), p2.getLongitude());
-            }
-        }
-        return matrix;
+        return optimizeRoutes(request, algorithm, null);
     }
 
-    // --- Algorithme 1: Nearest Neighbor (Plus Proche Voisin) ---
-    private OptimizedRouteResponse solveNearestNeighbor(RouteRequest request) {
-        List<OptimizedRouteResponse.RouteDetails> routes = new ArrayList<>();
-        Set<LocationDTO> unvisited = new HashSet<>(request.getLocations());
-
-        String livreurId = request.getLivreurs().isEmpty() ? "LIVREUR_DEFAULT" : request.getLivreurs().get(0).getLivreurId();
-        // Capacite est un double (basé sur le code précédent du TourneeService)
-        double capacite = request.getLivreurs().isEmpty() ? Double.MAX_VALUE : request.getLivreurs().get(0).getCapaciteVehicule();
-
-        OptimizedRouteResponse.RouteDetails route = OptimizedRouteResponse.RouteDetails.builder()
-                .livreurId(livreurId)
-                .stopOrder(new ArrayList<>())
-                .build();
-
-        LocationDTO currentLocation = request.getDepot();
-
-        // --- CORRECTIONS ICI ---
-        double currentLoad = 0.0;
-        double currentDistance = 0.0;
-        // --- FIN CORRECTIONS ---
+    /**
+     * Variante « anytime » : au-delà de {@code maxMillis} (compté depuis l'appel, matrice comprise),
+     * les étapes d'amélioration s'arrêtent et la meilleure solution courante est renvoyée
+     * avec {@code converged = false}. {@code null} = pas de limite.
+     */
+    public OptimizedRouteResponse optimizeRoutes(RouteRequest request, String algorithm, Long maxMillis) {
+        return runOptimization(request, algorithm, SearchBudget.ofMillis(maxMillis));
+    }
 
-        while (!unvisited.isEmpty()) {
-            LocationDTO nearest = null;
-            double minDistance = Double.MAX_VALUE;
+    /**
+     * Optimisation pilotée par un budget fourni par l'appelant (échéance, annulation, progression),
+     * utilisée par les tâches asynchrones.
+     */
+    public OptimizedRouteResponse runOptimization(RouteRequest request, String algorithm, SearchBudget budget) {
+        AlgorithmSpec spec = AlgorithmSpec.parse(algorithm);
+        restrictedAreas.mark(request);
+        // Même fournisseur pour la clé et la matrice : une réponse Haversine n'est pas resservie une fois le réseau routier chargé
+        DistanceProvider distances = distanceMatrixBuilder.current();
+        String cacheKey = routeCache.responseKey(request, spec.name(), distances.name());
+        OptimizedRouteResponse cached = routeCache.response(cacheKey);
+        if (cached != null) {
+            budget.reportDistance(cached.getTotalDistanceKm());
+            return cached;
+        }
+        int stops = request.getLocations() == null ? 0 : request.getLocations().size();
+        OptimizedRouteResponse response = routingMetrics.record(spec.name(), stops,
+                () -> solve(spec, RoutingProblem.of(request, buildDistanceMatrix(request, distances)), budget));
+        // Une solution interrompue par l'échéance n'est pas réutilisée : une autre requête ferait mieux
+        if (response.isConverged()) {
+            routeCache.storeResponse(cacheKey, response);
+        }
+        return response;
+    }
 
-            for (LocationDTO loc : unvisited) {
-                // --- CORRECTIONS ICI ---
-                // 1. Haversine retourne un double
-                double dist = Haversine.distance(currentLocation.getLatitude(), currentLocation.getLongitude(), loc.getLatitude(), loc.getLongitude());
+    /**
+     * Compare plusieurs algorithmes (étapes d'amélioration comprises) sur la même requête.
+     * <p>
+     * La matrice des distances est construite une seule fois et partagée en lecture par tous les
+     * solveurs, lancés en parallèle, chacun avec son propre budget {@code maxMillis}. Chaque réponse
+     * indique son temps de calcul et les octets alloués par le thread du solveur ; le cache des
+     * réponses est ignoré pour que les mesures portent sur un vrai calcul.
+     *
+     * @return les réponses dans l'ordre demandé, indexées par le nom d'algorithme reçu
+     * @throws IllegalArgumentException si un algorithme est inconnu ou la liste vide ou trop longue
+     */
+    public Map<String, OptimizedRouteResponse> compareAlgorithms(RouteRequest request, List<String> algorithms, Long maxMillis) {
+        // Validation complète avant tout calcul : un nom erroné ne doit pas gaspiller les autres
+        Map<String, AlgorithmSpec> specs = new LinkedHashMap<>();
+        for (String algorithm : algorithms == null ? List.<String>of() : algorithms) {
+            specs.putIfAbsent(algorithm.trim(), AlgorithmSpec.parse(algorithm));
+        }
+        if (specs.isEmpty() || specs.size() > MAX_ALGORITHMES_COMPARES) {
+            throw new IllegalArgumentException("Entre 1 et " + MAX_ALGORITHMES_COMPARES + " algorithmes à comparer: " + algorithms);
+        }
+        restrictedAreas.mark(request);
+        RoutingProblem problem = RoutingProblem.of(request, buildDistanceMatrix(request));
+
+        Map<String, CompletableFuture<OptimizedRouteResponse>> futures = new LinkedHashMap<>();
+        specs.forEach((algorithm, spec) -> futures.put(algorithm,
+                CompletableFuture.supplyAsync(() -> measure(spec, problem, SearchBudget.ofMillis(maxMillis)))));
+
+        Map<String, OptimizedRouteResponse> comparison = new LinkedHashMap<>();
+        try {
+            futures.forEach((algorithm, future) -> comparison.put(algorithm, future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return comparison;
+    }
 
-                // 2. Convertir le poidsDemande (BigDecimal) en double pour la comparaison
-                double poidsDemandeDouble = loc.getPoidsDemande() != null ? loc.getPoidsDemande().doubleValue() : 0.0;
+    /**
+     * Optimisation sur plusieurs dépôts (zones voisines) et leurs livreurs, en un seul plan.
+     * <p>
+     * Chaque arrêt est d'abord rattaché au dépôt qui le sert au moindre coût, dans la limite de la
+     * capacité de ses livreurs ({@link DepotAssignment}) : les zones frontières ne sont plus
+     * découpées par l'appelant. Les sous-problèmes (un par dépôt) sont ensuite résolus en
+     * parallèle avec {@code algorithm}, chacun avec son budget {@code maxMillis}, puis fusionnés :
+     * totaux additionnés, {@code depotId} sur chaque tournée, arrêts non affectés regroupés.
+     *
+     * @throws IllegalArgumentException si l'algorithme est inconnu ou si aucun dépôt n'est fourni
+     */
+    public OptimizedRouteResponse optimizeMultiDepot(MultiDepotRouteRequest request, String algorithm, Long maxMillis) {
+        AlgorithmSpec spec = AlgorithmSpec.parse(algorithm);
+        List<MultiDepotRouteRequest.DepotData> depots = request.getDepots() == null ? List.of() : request.getDepots();
+        if (depots.isEmpty()) {
+            throw new IllegalArgumentException("Au moins un dépôt est requis pour l'optimisation multi-dépôts");
+        }
+        List<LocationDTO> locations = request.getLocations() == null ? List.of() : request.getLocations();
+        restrictedAreas.mark(locations);
+        int[] depotOf = DepotAssignment.assign(depots, locations);
 
-                // 3. Comparaison de doubles
-                if (dist < minDistance && (currentLoad + poidsDemandeDouble <= capacite)) {
-                    minDistance = dist;
-                    nearest = loc;
-                }
-                // --- FIN CORRECTIONS ---
+        List<List<LocationDTO>> parts = new ArrayList<>();
+        for (int d = 0; d < depots.size(); d++) {
+            parts.add(new ArrayList<>());
+        }
+        // Arrêts qu'aucun dépôt ne peut prendre (capacité ou accès), signalés comme non affectés
+        List<String> unassignedStops = new ArrayList<>();
+        for (int k = 0; k < locations.size(); k++) {
+            if (depotOf[k] < 0) {
+                unassignedStops.add(locations.get(k).getId());
+            } else {
+                parts.get(depotOf[k]).add(locations.get(k));
             }
+        }
 
-            if (nearest == null) {
-                // Soit plus de clients, soit la capacité est atteinte pour les clients restants
-                break;
+        List<CompletableFuture<OptimizedRouteResponse>> futures = new ArrayList<>();
+        for (int d = 0; d < depots.size(); d++) {
+            if (parts.get(d).isEmpty()) {
+                continue;
             }
-
-            // --- CORRECTIONS ICI ---
-            currentDistance += minDistance;
-            // 4. Ajouter la valeur double du BigDecimal
-            currentLoad += nearest.getPoidsDemande() != null ? nearest.getPoidsDemande().doubleValue() : 0.0;
-            // --- FIN CORRECTIONS ---
-
-            currentLocation = nearest;
-            route.getStopOrder().add(nearest.getId());
-            unvisited.remove(nearest);
+            RouteRequest part = new RouteRequest(depots.get(d).getDepot(), parts.get(d), depots.get(d).getLivreurs());
+            SearchBudget budget = SearchBudget.ofMillis(maxMillis);
+            futures.add(CompletableFuture.supplyAsync(() -> runOptimization(part, algorithm, budget)));
         }
 
-        // Retour au dépôt
-        currentDistance += Haversine.distance(currentLocation.getLatitude(), currentLocation.getLongitude(), request.getDepot().getLatitude(), request.getDepot().getLongitude());
-
-        route.setRouteDistanceKm(currentDistance);
-        route.setRouteEstimatedTimeHours(currentDistance / VITESSE_MOYENNE_KMH);
-        route.setRouteLoad(currentLoad);
-        routes.add(route);
+        routingMetrics.unassigned(DepotAssignment.class.getSimpleName(), unassignedStops.size());
+        List<OptimizedRouteResponse> responses = new ArrayList<>(futures.size());
+        try {
+            futures.forEach(future -> responses.add(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return merge(spec, responses, unassignedStops);
+    }
 
+    // --- Fusion des réponses par dépôt (réponses du cache lues, jamais modifiées) ---
+    private static OptimizedRouteResponse merge(AlgorithmSpec spec, List<OptimizedRouteResponse> responses, List<String> unassignedStops) {
+        List<OptimizedRouteResponse.RouteDetails> tournees = new ArrayList<>();
+        List<String> lateStops = new ArrayList<>();
+        Set<String> algorithms = new LinkedHashSet<>();
+        double totalDistance = 0;
+        double totalTime = 0;
+        double totalCost = 0;
+        boolean converged = true;
+        long iterations = 0;
+        for (OptimizedRouteResponse response : responses) {
+            tournees.addAll(response.getTournees());
+            unassignedStops.addAll(response.getUnassignedStops());
+            if (response.getLateStops() != null) { // Réponses mises en cache avant l'ajout du champ
+                lateStops.addAll(response.getLateStops());
+            }
+            algorithms.add(response.getAlgorithm());
+            totalDistance += response.getTotalDistanceKm();
+            totalTime += response.getTotalEstimatedTimeHours();
+            totalCost += response.getTotalCost();
+            converged &= response.isConverged();
+            iterations += response.getImprovementIterations();
+        }
         return OptimizedRouteResponse.builder()
-                .algorithm("NearestNeighbor")
-                .totalDistanceKm(currentDistance)
-                .totalEstimatedTimeHours(currentDistance / VITESSE_MOYENNE_KMH)
-                .tournees(routes) // Nom du champ corrigé
+                // Auto peut choisir un algorithme différent par dépôt
+                .algorithm(algorithms.size() == 1 ? algorithms.iterator().next() : spec.name())
+                .totalDistanceKm(totalDistance)
+                .totalEstimatedTimeHours(totalTime)
+                .totalCost(totalCost)
+                .tournees(tournees)
+                .unassignedStops(unassignedStops)
+                .lateStops(lateStops)
+                .converged(converged)
+                .improvementIterations(iterations)
                 .build();
     }
 
+    /**
+     * Insère des arrêts dans une tournée existante sans la re-résoudre ({@link CheapestInsertion}).
+     * <p>
+     * {@code request.locations} contient d'abord les arrêts de la tournée dans leur ordre de passage,
+     * puis les {@code newCount} arrêts à insérer ; la tournée est celle du premier livreur. L'ordre
+     * relatif des arrêts existants est conservé. La matrice des distances passe par le cache ; les
+     * réponses, elles, ne sont pas mises en cache (elles dépendent de l'ordre existant).
+     *
+     * @return une seule tournée ; les arrêts sans position réalisable sont dans {@code unassignedStops}
+     * @throws IllegalArgumentException si {@code newCount} est hors bornes ou si la requête contient des collectes
+     */
+    public OptimizedRouteResponse insertStops(RouteRequest request, int newCount) {
+        int size = request.getLocations() == null ? 0 : request.getLocations().size();
+        if (newCount < 0 || newCount > size) {
+            throw new IllegalArgumentException("Nombre d'arrêts à insérer invalide: " + newCount);
+        }
+        restrictedAreas.mark(request);
+        RoutingProblem problem = RoutingProblem.of(request, buildDistanceMatrix(request));
+        int vehicle = problem.vehicleCount() == 0 ? -1 : 0;
+
+        int existingCount = size - newCount;
+        int[] route = new int[existingCount];
+        for (int k = 0; k < existingCount; k++) {
+            route[k] = k + 1;
+        }
+        int[] newStops = new int[newCount];
+        for (int k = 0; k < newCount; k++) {
+            newStops[k] = existingCount + k + 1;
+        }
 
-    // --- Algorithme 2: Clarke-Wright Savings (Économies) ---
-    private OptimizedRouteResponse solveClarkeWright(RouteRequest request) {
-
-        LocationDTO depot = request.getDepot();
-        List<LocationDTO> locations = request.getLocations();
-        int n = locations.size();
+        String algorithm = CheapestInsertion.class.getSimpleName();
+        OptimizedRouteResponse response = routingMetrics.record(algorithm, newCount,
+                () -> toResponse(algorithm, problem, List.of(CheapestInsertion.insert(problem, vehicle, route, newStops))));
+        response.setConverged(true);
+        return response;
+    }
 
-        // 1. Calculer les "Savings" (Économies)
-        List<Saving> savings = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            for (int j = i + 1; j < n; j++) {
-                LocationDTO locI = locations.get(i);
-                LocationDTO locJ = locations.get(j);
+    /**
+     * Re-planifie la fin d'une tournée déjà commencée : les {@code completedCount} premiers arrêts de
+     * {@code request.locations} (servis, dans l'ordre) sont figés, les suivants (ordre prévu) sont
+     * ré-ordonnés par 2-opt et Or-opt sur le chemin {@code position} -> arrêts restants -> dépôt.
+     * <p>
+     * La matrice est celle de toute la tournée, indexée par ID de colis : elle reste identique d'une
+     * re-planification à l'autre et vient du cache ({@link RouteCache}) ; seule la ligne de la
+     * position du livreur est calculée. Sans horaires, l'optimisation porte sur la distance ; avec des
+     * fenêtres ou des colis prioritaires, elle suit l'objectif de {@link TimeWindowSolver} à partir de
+     * {@code elapsedHours} et ne dépasse jamais une fenêtre stricte que l'ordre prévu respectait. Les
+     * ETA (attente d'ouverture comprise) et les retards sur fenêtre sont recalculés pour le nouvel ordre.
+     *
+     * @return une seule tournée : {@code stopOrder} = arrêts restants ; distance, durée et coût
+     * comptent la partie déjà parcourue (dépôt -> arrêts servis -> position)
+     * @throws IllegalArgumentException si {@code completedCount} est hors bornes
+     */
+    public OptimizedRouteResponse replanRemaining(RouteRequest request, int completedCount, LocationDTO position,
+                                                  double elapsedHours, Long maxMillis) {
+        List<LocationDTO> locations = request.getLocations() == null ? List.of() : request.getLocations();
+        if (completedCount < 0 || completedCount > locations.size()) {
+            throw new IllegalArgumentException("Nombre d'arrêts servis invalide: " + completedCount);
+        }
+        return routingMetrics.record(REPLAN, locations.size() - completedCount,
+                () -> replan(request, locations, completedCount, position, elapsedHours, SearchBudget.ofMillis(maxMillis)));
+    }
 
-                double distDepotI = Haversine.distance(depot.getLatitude(), depot.getLongitude(), locI.getLatitude(), locI.getLongitude());
-                double distDepotJ = Haversine.distance(depot.getLatitude(), depot.getLongitude(), locJ.getLatitude(), locJ.getLongitude());
-                double distIJ = Haversine.distance(locI.getLatitude(), locI.getLongitude(), locJ.getLatitude(), locJ.getLongitude());
+    private OptimizedRouteResponse replan(RouteRequest request, List<LocationDTO> locations, int completedCount,
+                                          LocationDTO position, double elapsedHours, SearchBudget budget) {
+        // Ordre stable (par ID) : même clé de matrice tant que la tournée garde les mêmes colis
+        List<LocationDTO> stable = new ArrayList<>(locations);
+        stable.sort(Comparator.comparing(LocationDTO::getId));
+        RouteRequest stableRequest = new RouteRequest(request.getDepot(), stable, request.getLivreurs());
+        // Même fournisseur pour la matrice et la ligne de la position, même si le réseau routier finit de charger entre-temps
+        DistanceProvider distances = distanceMatrixBuilder.current();
+        RoutingProblem problem = RoutingProblem.of(stableRequest, buildDistanceMatrix(stableRequest, distances));
+        List<LocationDTO> points = new ArrayList<>(stable.size() + 1);
+        points.add(request.getDepot());
+        points.addAll(stable);
+        DistanceMatrix matrix = distances.extend(problem.getMatrix(), points, position);
+        int start = problem.size();
+
+        Map<String, Integer> indexOf = new HashMap<>();
+        for (int k = 0; k < stable.size(); k++) {
+            indexOf.put(stable.get(k).getId(), k + 1);
+        }
+        double doneDistance = 0.0;
+        int previous = 0;
+        for (int k = 0; k < completedCount; k++) {
+            int stop = indexOf.get(locations.get(k).getId());
+            doneDistance += matrix.get(previous, stop);
+            previous = stop;
+        }
+        doneDistance += matrix.get(previous, start);
+        int[] remaining = new int[locations.size() - completedCount];
+        for (int k = 0; k < remaining.length; k++) {
+            remaining[k] = indexOf.get(locations.get(completedCount + k).getId());
+        }
 
-                double saving = distDepotI + distDepotJ - distIJ;
-                savings.add(new Saving(locI, locJ, saving));
+        int vehicle = problem.vehicleCount() == 0 ? -1 : 0;
+        // 2-opt et Or-opt ignorent les horaires : ils pourraient faire passer un colis HAUTE en dernier
+        int[] stops = problem.hasTimeConstraints()
+                ? TimeWindowSolver.improveFrom(problem, matrix, vehicle, start, elapsedHours, remaining, budget)
+                : LocalSearch.improveFrom(matrix, start, remaining, List.of(new TwoOptImprover(), new OrOptImprover()), budget);
+
+        List<String> stopOrder = new ArrayList<>(stops.length);
+        List<Double> stopEta = new ArrayList<>(stops.length);
+        List<String> lateStops = new ArrayList<>();
+        double time = elapsedHours;
+        double distance = 0.0;
+        double load = 0.0;
+        previous = start;
+        for (int stop : stops) {
+            distance += matrix.get(previous, stop);
+            time = Math.max(time + matrix.get(previous, stop) / problem.speedKmh(vehicle), problem.earliest(stop));
+            stopOrder.add(problem.location(stop).getId());
+            stopEta.add(time);
+            if (time > problem.latest(stop) + 1e-9) {
+                lateStops.add(problem.location(stop).getId());
             }
+            load += problem.demand(stop);
+            previous = stop;
         }
+        distance += matrix.get(previous, 0);
+        budget.reportDistance(distance);
+
+        double routeDistance = doneDistance + distance;
+        // Jusqu'au retour au dépôt, attente d'ouverture de fenêtre comprise
+        double routeTime = time + matrix.get(previous, 0) / problem.speedKmh(vehicle);
+        double routeCost = problem.fixedCost(vehicle) + problem.costPerKm(vehicle) * routeDistance;
+        routingMetrics.capacityViolations(REPLAN, load > problem.capacity(vehicle) + 1e-9 ? 1 : 0);
+        return OptimizedRouteResponse.builder()
+                .algorithm(REPLAN)
+                .totalDistanceKm(routeDistance)
+                .totalEstimatedTimeHours(routeTime)
+                .totalCost(routeCost)
+                .tournees(List.of(OptimizedRouteResponse.RouteDetails.builder()
+                        .livreurId(problem.livreurId(vehicle))
+                        .depotId(request.getDepot().getId())
+                        .stopOrder(stopOrder)
+                        .stopEtaHours(stopEta)
+                        .routeDistanceKm(routeDistance)
+                        .routeEstimatedTimeHours(routeTime)
+                        .routeCost(routeCost)
+                        .routeLoad(load)
+                        .build()))
+                .unassignedStops(new ArrayList<>())
+                .lateStops(lateStops)
+                .converged(budget.converged())
+                .improvementIterations(budget.iterations())
+                .build();
+    }
 
-        // 2. Trier les économies par ordre décroissant
-// Dans la méthode solveClarkeWright:
-        savings.sort(Comparator.comparingDouble((Saving saving) -> saving.getAmount()).reversed());        // 3. Initialiser les tournées
-        Map<LocationDTO, List<LocationDTO>> routesMap = new HashMap<>();
-        for (LocationDTO loc : locations) {
-            routesMap.put(loc, new ArrayList<>(List.of(loc)));
+    // --- Résolution sur un problème déjà construit (matrice comprise) ---
+    private OptimizedRouteResponse solve(AlgorithmSpec spec, RoutingProblem problem, SearchBudget budget) {
+        // Collectes en route : seule la construction collecte-livraison respecte précédence et charge à bord
+        if (problem.hasPickups() && spec.construction() != AlgorithmSpec.Construction.PICKUP_DELIVERY) {
+            if (spec.construction() == AlgorithmSpec.Construction.AUTO) {
+                return solve(new AlgorithmSpec(AlgorithmSpec.Construction.PICKUP_DELIVERY, List.of()), problem, budget);
+            }
+            throw new IllegalArgumentException("L'algorithme " + spec.name() + " ne gère pas les collectes: utiliser "
+                    + AlgorithmSpec.Construction.PICKUP_DELIVERY.label() + " ou " + AlgorithmSpec.Construction.AUTO.label());
+        }
+        if (problem.hasPickups() && problem.hasTimeConstraints()) {
+            throw new IllegalArgumentException("Les fenêtres horaires et les priorités ne sont pas gérées avec des collectes");
+        }
+        // Horaires : priorités et fenêtres souples sont des préférences, les fenêtres strictes des contraintes
+        if (problem.hasTimeConstraints()
+                && spec.construction() != AlgorithmSpec.Construction.TIME_WINDOWS) {
+            if (spec.construction() == AlgorithmSpec.Construction.AUTO) {
+                return solve(new AlgorithmSpec(AlgorithmSpec.Construction.TIME_WINDOWS, List.of()), problem, budget);
+            }
+            if (problem.hasHardWindows()) {
+                throw new IllegalArgumentException("L'algorithme " + spec.name() + " ne respecte pas les fenêtres horaires strictes: utiliser "
+                        + AlgorithmSpec.Construction.TIME_WINDOWS.label() + " ou " + AlgorithmSpec.Construction.AUTO.label());
+            }
+        }
+        boolean exact = switch (spec.construction()) {
+            case EXACT -> exactSolver.supports(problem);
+            case AUTO -> exactSolver.preferredFor(problem);
+            default -> false;
+        };
+        if (exact) {
+            List<PlannedRoute> routes = exactSolver.solve(problem, budget);
+            if (routes != null) {
+                OptimizedRouteResponse response = toResponse(AlgorithmSpec.Construction.EXACT.label(), problem, routes);
+                budget.reportDistance(response.getTotalDistanceKm());
+                response.setConverged(true); // Optimum prouvé
+                return response;
+            }
+        }
+        if (spec.construction() == AlgorithmSpec.Construction.EXACT || spec.construction() == AlgorithmSpec.Construction.AUTO) {
+            // Garde mémoire, capacité d'un seul véhicule ou échéance : heuristique de repli
+            return solve(spec.heuristicFallback(), problem, budget);
         }
 
-        // 4. Fusionner les tournées (Simplifié)
-        for (Saving s : savings) {
-            LocationDTO i = s.getLocI();
-            LocationDTO j = s.getLocJ();
-
-            List<LocationDTO> routeI = routesMap.get(i);
-            List<LocationDTO> routeJ = routesMap.get(j);
+        List<PlannedRoute> routes = switch (spec.construction()) {
+            // Plusieurs livreurs : un cluster par livreur (balayage + k-means capacitaire), résolus en parallèle
+            case NEAREST_NEIGHBOR -> problem.vehicleCount() > 1
+                    ? clusterSolver.solve(problem, spec.improvers(), budget)
+                    : LocalSearch.improve(problem, solveNearestNeighbor(problem), spec.improvers(), budget);
+            case CLARKE_WRIGHT -> LocalSearch.improve(problem, solveClarkeWright(problem), spec.improvers(), budget);
+            // La recherche locale est appliquée à chaque départ, avant la sélection du meilleur
+            case MULTI_START -> multiStartSolver.solve(problem, spec.improvers(), budget);
+            // Destruction / réparation sur l'affectation des arrêts, dans la limite du budget
+            case ALNS -> alnsSolver.solve(problem, spec.improvers(), budget);
+            // Paires collecte -> livraison insérées ensemble, puis déplacées tant que le coût baisse
+            case PICKUP_DELIVERY -> PickupDeliverySolver.solve(problem, budget);
+            // Insertion sous fenêtres horaires (marges en O(1)) puis déplacements d'arrêts
+            case TIME_WINDOWS -> TimeWindowSolver.solve(problem, budget);
+            case EXACT, AUTO -> throw new IllegalStateException("Algorithme exact non résolu: " + spec.name());
+        };
+
+        OptimizedRouteResponse response = toResponse(spec.name(), problem, routes);
+        response.setConverged(budget.converged());
+        response.setImprovementIterations(budget.iterations());
+        return response;
+    }
 
-            if (routeI != routeJ) {
-                // TODO: Ajouter la vérification de capacité en utilisant .doubleValue()
-                routeI.addAll(routeJ);
-                for (LocationDTO locInJ : routeJ) {
-                    routesMap.put(locInJ, routeI);
-                }
-            }
+    // --- Mesure d'un solveur : temps écoulé et allocations du thread courant ---
+    // Les allocations des threads du pool multi-départ ne sont pas comptées
+    private OptimizedRouteResponse measure(AlgorithmSpec spec, RoutingProblem problem, SearchBudget budget) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        OptimizedRouteResponse response = routingMetrics.record(spec.name(), problem.stopCount(),
+                () -> solve(spec, problem, budget));
+        response.setComputeTimeMs((System.nanoTime() - start) / 1_000_000.0);
+        long allocatedAfter = allocatedBytes();
+        if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+            response.setAllocatedBytes(allocatedAfter - allocatedBefore);
         }
+        return response;
+    }
 
-        // 5. Formater la sortie
-        Set<List<LocationDTO>> uniqueRoutes = new HashSet<>(routesMap.values());
-        List<OptimizedRouteResponse.RouteDetails> finalRoutes = new ArrayList<>();
+    // -1 si la JVM ne mesure pas les allocations par thread
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean allocations
+                && allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+            return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
 
-        List<RouteRequest.LivreurData> livreurs = request.getLivreurs();
-        int livreurIndex = 0;
-        double totalDistance = 0;
+    // --- Matrice des Distances (indice 0 = dépôt, indice k = locations[k - 1]) ---
+    // Stock persistant de la zone si tous les points ont un identifiant stable, cache en mémoire sinon
+    private DistanceMatrix buildDistanceMatrix(RouteRequest request) {
+        return buildDistanceMatrix(request, distanceMatrixBuilder.current());
+    }
 
-        for (List<LocationDTO> routeStops : uniqueRoutes) {
-            if (livreurIndex >= livreurs.size()) break;
+    private DistanceMatrix buildDistanceMatrix(RouteRequest request, DistanceProvider distances) {
+        DistanceMatrix stored = zoneDistanceStore.matrix(request.getDepot(), request.getLocations(), distances);
+        if (stored != null) {
+            return stored;
+        }
+        List<LocationDTO> points = new ArrayList<>(request.getLocations().size() + 1);
+        points.add(request.getDepot());
+        points.addAll(request.getLocations());
+        return routeCache.matrix(request.getDepot(), request.getLocations(), distances.name(), () -> distances.matrix(points));
+    }
 
-            String livreurId = livreurs.get(livreurIndex++).getLivreurId();
-            double routeDist = 0;
-            double routeLoad = 0.0; // --- CORRECTION (Initialiser) ---
+    // --- Algorithme 1: Nearest Neighbor (Plus Proche Voisin), un seul livreur ---
+    private List<PlannedRoute> solveNearestNeighbor(RoutingProblem problem) {
+        int vehicle = problem.vehicleCount() == 0 ? -1 : 0;
 
-            LocationDTO lastStop = depot;
-            List<String> stopOrder = new ArrayList<>();
+        // Balayage complet pour les petites instances, index spatial (k-d tree) au-delà
+        int[] order = NearestNeighborConstruction.forVehicle(problem, vehicle);
+        return List.of(new PlannedRoute(vehicle, order));
+    }
 
-            for (LocationDTO stop : routeStops) {
-                routeDist += Haversine.distance(lastStop.getLatitude(), lastStop.getLongitude(), stop.getLatitude(), stop.getLongitude());
 
-                // --- CORRECTION ICI ---
-                // 1. Convertir le poidsDemande (BigDecimal) en double
-                routeLoad += stop.getPoidsDemande() != null ? stop.getPoidsDemande().doubleValue() : 0.0;
-                // --- FIN CORRECTION ---
+    // --- Algorithme 2: Clarke-Wright Savings (Économies) ---
+    // Fusions par les extrémités, sous contrainte de capacité, économies en tas primitif
+    private List<PlannedRoute> solveClarkeWright(RoutingProblem problem) {
+        return ClarkeWrightSolver.solve(problem);
+    }
 
-                stopOrder.add(stop.getId());
-                lastStop = stop;
+    // --- Formatage de la réponse (distances et charges recalculées sur la matrice) ---
+    private OptimizedRouteResponse toResponse(String algorithm, RoutingProblem problem, List<PlannedRoute> routes) {
+        List<OptimizedRouteResponse.RouteDetails> tournees = new ArrayList<>();
+        boolean[] assigned = new boolean[problem.size()];
+        double totalDistance = 0;
+        double totalTime = 0;
+        double totalCost = 0;
+        int capacityViolations = 0;
+        List<String> lateStops = new ArrayList<>();
+
+        for (PlannedRoute route : routes) {
+            List<String> stopOrder = new ArrayList<>(route.stops().length);
+            // Heure d'arrivée estimée à chaque arrêt, attente d'ouverture de fenêtre comprise
+            double[] arrivals = problem.arrivalTimes(route.vehicle(), route.stops());
+            List<Double> stopEta = new ArrayList<>(arrivals.length);
+            for (int k = 0; k < route.stops().length; k++) {
+                int stop = route.stops()[k];
+                stopOrder.add(problem.location(stop).getId());
+                stopEta.add(arrivals[k]);
+                if (arrivals[k] > problem.latest(stop) + 1e-9) {
+                    lateStops.add(problem.location(stop).getId());
+                }
+                assigned[stop] = true;
+            }
+            // Distance dépôt -> arrêts -> retour au dépôt
+            double routeDist = problem.routeDistance(route.stops());
+            // Durée et coût au profil du véhicule affecté
+            double routeTime = problem.routeTimeHours(route.vehicle(), route.stops());
+            double routeCost = problem.routeCost(route.vehicle(), route.stops());
+            double routeLoad = problem.routeLoad(route.stops());
+            if (routeLoad > problem.capacity(route.vehicle()) + 1e-9) {
+                capacityViolations++;
             }
-            // Retour au dépôt
-            routeDist += Haversine.distance(lastStop.getLatitude(), lastStop.getLongitude(), depot.getLatitude(), depot.getLongitude());
             totalDistance += routeDist;
+            totalTime += routeTime;
+            totalCost += routeCost;
 
-            finalRoutes.add(OptimizedRouteResponse.RouteDetails.builder()
-                    .livreurId(livreurId)
+            tournees.add(OptimizedRouteResponse.RouteDetails.builder()
+                    .livreurId(problem.livreurId(route.vehicle()))
+                    .depotId(problem.getRequest().getDepot().getId())
                     .stopOrder(stopOrder)
+                    .stopEtaHours(stopEta)
                     .routeDistanceKm(routeDist)
-                    .routeEstimatedTimeHours(routeDist / VITESSE_MOYENNE_KMH)
+                    .routeEstimatedTimeHours(routeTime)
+                    .routeCost(routeCost)
                     .routeLoad(routeLoad)
                     .build());
         }
+        routingMetrics.capacityViolations(algorithm, capacityViolations);
+
+        // Arrêts qu'aucune tournée n'a pu prendre (capacité ou nombre de livreurs insuffisants)
+        List<String> unassignedStops = new ArrayList<>();
+        for (int stop = 1; stop < problem.size(); stop++) {
+            if (!assigned[stop]) {
+                unassignedStops.add(problem.location(stop).getId());
+            }
+        }
 
         return OptimizedRouteResponse.builder()
-                .algorithm("ClarkeWright")
+                .algorithm(algorithm)
                 .totalDistanceKm(totalDistance)
-                .totalEstimatedTimeHours(totalDistance / VITESSE_MOYENNE_KMH)
-                .tournees(finalRoutes) // Nom du champ corrigé
+                .totalEstimatedTimeHours(totalTime)
+                .totalCost(totalCost)
+                .tournees(tournees) // Nom du champ corrigé
+                .unassignedStops(unassignedStops)
+                .lateStops(lateStops)
                 .build();
     }
-
-    // Classe interne pour l'algorithme Clarke-Wright
-    @Getter
-    @AllArgsConstructor
-    private static class Saving {
-        private LocationDTO locI;
-        private LocationDTO locJ;
-        private double amount;
-    }
-}
\ No newline at end of file
+}
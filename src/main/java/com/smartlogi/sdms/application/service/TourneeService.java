@@ -1,8 +1,13 @@
 package com.smartlogi.sdms.application.service;
 
 import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.MultiDepotRouteRequest;
 import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
 import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.application.dto.tournee.PlanificationZoneDTO;
+import com.smartlogi.sdms.application.dto.tournee.TourneeMultiZoneRequestDTO;
+import com.smartlogi.sdms.application.dto.tournee.TourneeMultiZoneResponseDTO;
+import com.smartlogi.sdms.application.dto.tournee.TourneeReplanificationRequestDTO;
 import com.smartlogi.sdms.application.dto.tournee.TourneeRequestDTO;
 import com.smartlogi.sdms.application.dto.tournee.TourneeResponseDTO;
 import com.smartlogi.sdms.application.mapper.TourneeMapper;
@@ -11,6 +16,9 @@ import com.smartlogi.sdms.domain.model.entity.Colis;
 import com.smartlogi.sdms.domain.model.entity.Tournee;
 import com.smartlogi.sdms.domain.model.entity.Zone;
 import com.smartlogi.sdms.domain.model.entity.users.Livreur;
+import com.smartlogi.sdms.domain.model.enums.StatusColis;
+import com.smartlogi.sdms.domain.model.enums.StatusLivreur;
+import com.smartlogi.sdms.domain.model.enums.StatutPlanification;
 import com.smartlogi.sdms.domain.model.enums.StatutTournee;
 import com.smartlogi.sdms.domain.model.vo.Adresse;
 import com.smartlogi.sdms.domain.repository.ColisRepository;
@@ -26,8 +34,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -65,17 +80,11 @@ public class TourneeService {
         // 2. Appeler le service d'optimisation
         OptimizedRouteResponse optimizationResponse = routeOptimizationService.optimizeRoutes(
                 routeRequest,
-                request.getAlgorithme()
+                request.getAlgorithme(),
+                request.getMaxMillis()
         );
 
-        // 3. Créer et sauvegarder l'entité Tournee
-        Tournee tournee = new Tournee();
-        tournee.setLivreur(livreur);
-        tournee.setZone(zone);
-        tournee.setDateTournee(request.getDateTournee());
-        tournee.setStatut(StatutTournee.PLANIFIEE);
-
-        // 4. Traiter la réponse d'optimisation
+        // 3. Traiter la réponse d'optimisation
         // CORRECTION : Utilisation de .getTournees() (votre 1ère demande)
         if (optimizationResponse.getTournees() == null || optimizationResponse.getTournees().isEmpty()) {
             throw new IllegalStateException("L'optimisation n'a retourné aucune tournée.");
@@ -83,32 +92,361 @@ public class TourneeService {
 
         OptimizedRouteResponse.RouteDetails routeDetails = optimizationResponse.getTournees().get(0);
 
-        tournee.setDistanceTotaleKm(routeDetails.getRouteDistanceKm());
-        tournee.setDureeEstimeeHeures(routeDetails.getRouteEstimatedTimeHours());
+        // 4. Sauvegarder la Tournee puis y rattacher les colis dans l'ordre optimisé
+        Tournee savedTournee = saveTournee(livreur, zone, request.getDateTournee(), routeDetails, colisALivrer);
 
-        Tournee savedTournee = tourneeRepository.save(tournee);
+        // Rafraîchir l'entité tournée pour inclure la liste des colis mis à jour
+        // Note : L'ID de Tournee est un Long (auto-généré), pas un String
+        Tournee finalTournee = tourneeRepository.findById(savedTournee.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Erreur lors de la récupération de la tournée sauvegardée."));
 
-        // 5. Mettre à jour les colis avec l'ordre et l'ID de la tournée
+        return tourneeMapper.toResponseDTO(finalTournee);
+    }
+
+    /**
+     * Crée la tournée planifiée d'un livreur et y rattache les colis dans l'ordre de {@code routeDetails}.
+     */
+    private Tournee saveTournee(Livreur livreur, Zone zone, LocalDate dateTournee,
+                                OptimizedRouteResponse.RouteDetails routeDetails, List<Colis> colisALivrer) {
+        Tournee savedTournee = tourneeRepository.save(newTournee(livreur, zone, dateTournee, routeDetails));
+
+        // Mettre à jour les colis avec l'ordre et l'ID de la tournée
         Map<String, Colis> colisMap = colisALivrer.stream()
                 .collect(Collectors.toMap(Colis::getId, Function.identity()));
+        rattacherColis(savedTournee, routeDetails, colisMap).forEach(colisRepository::save);
+        return savedTournee;
+    }
 
+    private Tournee newTournee(Livreur livreur, Zone zone, LocalDate dateTournee, OptimizedRouteResponse.RouteDetails routeDetails) {
+        Tournee tournee = new Tournee();
+        tournee.setLivreur(livreur);
+        tournee.setZone(zone);
+        tournee.setDateTournee(dateTournee);
+        tournee.setStatut(StatutTournee.PLANIFIEE);
+        tournee.setDistanceTotaleKm(routeDetails.getRouteDistanceKm());
+        tournee.setDureeEstimeeHeures(routeDetails.getRouteEstimatedTimeHours());
+        return tournee;
+    }
+
+    /**
+     * Rattache à la tournée les colis de {@code routeDetails}, dans l'ordre de passage, avec leur ETA.
+     * Les deux côtés de la relation sont renseignés : la réponse (livraisons, étapes) est construite
+     * depuis {@code tournee.getLivraisons()}.
+     *
+     * @return les colis modifiés (à sauvegarder par l'appelant)
+     */
+    private List<Colis> rattacherColis(Tournee tournee, OptimizedRouteResponse.RouteDetails routeDetails, Map<String, Colis> colisMap) {
+        if (tournee.getLivraisons() == null) {
+            tournee.setLivraisons(new ArrayList<>());
+        }
+        List<Colis> modifies = new ArrayList<>();
         List<String> stopOrderIds = routeDetails.getStopOrder();
+        List<Double> etas = routeDetails.getStopEtaHours();
         for (int i = 0; i < stopOrderIds.size(); i++) {
             String colisId = stopOrderIds.get(i);
             Colis colis = colisMap.get(colisId);
             if (colis != null) {
-                colis.setTournee(savedTournee);
+                colis.setTournee(tournee);
                 colis.setOrdreLivraison(i + 1); // Ordre commençant à 1
-                colisRepository.save(colis);
+                colis.setEtaHeures(etas != null && i < etas.size() ? etas.get(i) : null);
+                tournee.getLivraisons().add(colis);
+                modifies.add(colis);
             }
         }
+        return modifies;
+    }
 
-        // Rafraîchir l'entité tournée pour inclure la liste des colis mis à jour
-        // Note : L'ID de Tournee est un Long (auto-généré), pas un String
-        Tournee finalTournee = tourneeRepository.findById(savedTournee.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Erreur lors de la récupération de la tournée sauvegardée."));
+    /**
+     * Planifie ensemble plusieurs zones voisines : les colis sont répartis entre les dépôts selon le
+     * coût (et non selon la zone de l'appelant), puis une tournée est créée par livreur utilisé.
+     * <p>
+     * Seuls les livreurs {@code DISPONIBLE} avec un véhicule sont planifiés ; une zone qui n'en a
+     * aucun ne reçoit pas de colis.
+     *
+     * @return les tournées créées, toutes zones confondues, et les colis qu'aucune n'a pu prendre
+     */
+    @Transactional
+    public TourneeMultiZoneResponseDTO planifierMultiZones(TourneeMultiZoneRequestDTO request) {
 
-        return tourneeMapper.toResponseDTO(finalTournee);
+        List<Zone> zones = zoneRepository.findAllById(request.getZoneIds());
+        if (zones.size() != new HashSet<>(request.getZoneIds()).size()) {
+            throw new ResourceNotFoundException("Certaines zones n'ont pas été trouvées.");
+        }
+
+        List<Colis> colisALivrer = colisRepository.findAllById(request.getColisIds());
+        if (colisALivrer.size() != request.getColisIds().size()) {
+            throw new ResourceNotFoundException("Certains colis n'ont pas été trouvés.");
+        }
+
+        // 1. Un dépôt par zone, avec ses livreurs disponibles
+        Map<String, Zone> zonesByDepot = new HashMap<>();
+        Map<String, Livreur> livreursById = new HashMap<>();
+        List<MultiDepotRouteRequest.DepotData> depots = new ArrayList<>();
+        for (Zone zone : zones) {
+            List<RouteRequest.LivreurData> livreurs = new ArrayList<>();
+            for (Livreur livreur : livreurRepository.findAllByZoneAssigneeIdAndStatusLivreur(zone.getId(), StatusLivreur.DISPONIBLE)) {
+                if (livreur.getVehicule() != null) {
+                    livreurs.add(toLivreurData(livreur));
+                    livreursById.put(livreur.getId(), livreur);
+                }
+            }
+            if (livreurs.isEmpty()) {
+                continue;
+            }
+            LocationDTO depot = toDepot(zone);
+            zonesByDepot.put(depot.getId(), zone);
+            depots.add(new MultiDepotRouteRequest.DepotData(depot, livreurs));
+        }
+        if (depots.isEmpty()) {
+            throw new IllegalStateException("Aucun livreur disponible avec véhicule dans les zones " + request.getZoneIds());
+        }
+
+        // 2. Répartition et optimisation de toutes les zones en un seul plan
+        List<LocationDTO> locations = colisALivrer.stream().map(this::toLocation).collect(Collectors.toList());
+        OptimizedRouteResponse optimizationResponse = routeOptimizationService.optimizeMultiDepot(
+                new MultiDepotRouteRequest(depots, locations),
+                request.getAlgorithme(),
+                request.getMaxMillis()
+        );
+
+        // 3. Une Tournee par livreur utilisé, rattachée à la zone de son dépôt
+        List<TourneeResponseDTO> tournees = new ArrayList<>();
+        for (OptimizedRouteResponse.RouteDetails routeDetails : optimizationResponse.getTournees()) {
+            if (routeDetails.getStopOrder() == null || routeDetails.getStopOrder().isEmpty()) {
+                continue;
+            }
+            Tournee savedTournee = saveTournee(livreursById.get(routeDetails.getLivreurId()),
+                    zonesByDepot.get(routeDetails.getDepotId()), request.getDateTournee(), routeDetails, colisALivrer);
+            tournees.add(tourneeMapper.toResponseDTO(savedTournee));
+        }
+        if (tournees.isEmpty()) {
+            throw new IllegalStateException("L'optimisation n'a retourné aucune tournée.");
+        }
+        List<String> nonAffectes = optimizationResponse.getUnassignedStops();
+        return TourneeMultiZoneResponseDTO.builder()
+                .tournees(tournees)
+                .colisNonAffectes(nonAffectes == null ? List.of() : nonAffectes)
+                .build();
+    }
+
+    /**
+     * Planifie une zone pour la journée (planification journalière) : les colis {@code EN_STOCK} de la
+     * zone qui n'ont pas encore de tournée sont répartis entre ses livreurs {@code DISPONIBLE} avec un
+     * véhicule et sans tournée ce jour-là.
+     * <p>
+     * Les tournées puis les colis sont écrits par {@code saveAll}, en lots JDBC. Les colis déjà
+     * rattachés ne sont plus candidats : relancer la zone après un échec ne crée pas de doublon.
+     *
+     * @return le résultat de la zone ({@code IGNOREE} s'il n'y a rien à planifier ou personne pour livrer)
+     */
+    @Transactional
+    public PlanificationZoneDTO planifierZone(Zone zone, LocalDate dateTournee, String algorithme, Long maxMillis) {
+        List<Colis> colisALivrer = colisRepository.findAllByZoneDestinationIdAndStatutAndTourneeIsNull(zone.getId(), StatusColis.EN_STOCK);
+        PlanificationZoneDTO.PlanificationZoneDTOBuilder resultat = PlanificationZoneDTO.builder()
+                .zoneId(zone.getId())
+                .nbTournees(0)
+                .nbColis(colisALivrer.size())
+                .nbColisNonAffectes(colisALivrer.size())
+                .distanceTotaleKm(0.0);
+        if (colisALivrer.isEmpty()) {
+            return resultat.statut(StatutPlanification.IGNOREE).message("Aucun colis en stock à planifier.").build();
+        }
+
+        // Un livreur déjà planifié ce jour-là (tournée manuelle ou exécution précédente) n'est pas réutilisé
+        Set<String> dejaPlanifies = new HashSet<>(tourneeRepository.findLivreurIdsByZoneIdAndDateTournee(zone.getId(), dateTournee));
+        Map<String, Livreur> livreursById = new HashMap<>();
+        List<RouteRequest.LivreurData> livreurs = new ArrayList<>();
+        for (Livreur livreur : livreurRepository.findAllByZoneAssigneeIdAndStatusLivreur(zone.getId(), StatusLivreur.DISPONIBLE)) {
+            if (livreur.getVehicule() != null && !dejaPlanifies.contains(livreur.getId())) {
+                livreurs.add(toLivreurData(livreur));
+                livreursById.put(livreur.getId(), livreur);
+            }
+        }
+        if (livreurs.isEmpty()) {
+            return resultat.statut(StatutPlanification.IGNOREE).message("Aucun livreur disponible avec véhicule.").build();
+        }
+
+        List<LocationDTO> locations = colisALivrer.stream().map(this::toLocation).collect(Collectors.toList());
+        OptimizedRouteResponse optimizationResponse = routeOptimizationService.optimizeRoutes(
+                new RouteRequest(toDepot(zone), locations, livreurs), algorithme, maxMillis);
+
+        // Une Tournee par livreur utilisé : toutes les tournées, puis tous les colis, en lots
+        Map<String, Colis> colisMap = colisALivrer.stream()
+                .collect(Collectors.toMap(Colis::getId, Function.identity()));
+        List<Tournee> tournees = new ArrayList<>();
+        List<OptimizedRouteResponse.RouteDetails> routes = new ArrayList<>();
+        for (OptimizedRouteResponse.RouteDetails routeDetails : optimizationResponse.getTournees()) {
+            Livreur livreur = livreursById.get(routeDetails.getLivreurId());
+            if (livreur == null || routeDetails.getStopOrder() == null || routeDetails.getStopOrder().isEmpty()) {
+                continue;
+            }
+            tournees.add(newTournee(livreur, zone, dateTournee, routeDetails));
+            routes.add(routeDetails);
+        }
+        List<Tournee> savedTournees = tourneeRepository.saveAll(tournees);
+
+        List<Colis> affectes = new ArrayList<>();
+        double distanceTotale = 0.0;
+        for (int k = 0; k < savedTournees.size(); k++) {
+            affectes.addAll(rattacherColis(savedTournees.get(k), routes.get(k), colisMap));
+            distanceTotale += routes.get(k).getRouteDistanceKm();
+        }
+        colisRepository.saveAll(affectes);
+
+        return resultat.statut(StatutPlanification.TERMINEE)
+                .nbTournees(savedTournees.size())
+                .nbColisNonAffectes(colisALivrer.size() - affectes.size())
+                .distanceTotaleKm(distanceTotale)
+                .build();
+    }
+
+    /**
+     * Ajoute des colis arrivés tard à une tournée planifiée, chacun à sa position réalisable la moins
+     * chère, sans re-résoudre la tournée : l'ordre relatif des colis déjà planifiés est conservé.
+     * <p>
+     * Seuls les colis ajoutés et ceux dont le rang ou l'heure d'arrivée estimée change sont écrits,
+     * en un seul lot JDBC ({@code hibernate.jdbc.batch_size}), avec les totaux de la tournée.
+     *
+     * @throws IllegalArgumentException si un colis n'est pas destiné à la zone de la tournée
+     * @throws IllegalStateException    si la tournée n'est plus planifiée, si un colis n'est pas en stock
+     *                                  ou appartient déjà à une tournée, ou si un colis ne peut être
+     *                                  inséré (tout ou rien)
+     */
+    @Transactional
+    public TourneeResponseDTO ajouterColis(Long tourneeId, List<String> colisIds) {
+        if (colisIds == null || colisIds.isEmpty()) {
+            throw new IllegalArgumentException("Au moins un colis à ajouter est requis.");
+        }
+        Tournee tournee = tourneeRepository.findByIdWithAssociations(tourneeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tournée non trouvée avec l'ID: " + tourneeId));
+        if (tournee.getStatut() != StatutTournee.PLANIFIEE) {
+            throw new IllegalStateException("Seule une tournée planifiée peut recevoir des colis (statut: " + tournee.getStatut() + ").");
+        }
+
+        List<Colis> nouveaux = colisRepository.findAllById(colisIds);
+        if (nouveaux.size() != new HashSet<>(colisIds).size()) {
+            throw new ResourceNotFoundException("Certains colis n'ont pas été trouvés.");
+        }
+        for (Colis colis : nouveaux) {
+            if (colis.getTournee() != null) {
+                throw new IllegalStateException("Le colis " + colis.getId() + " appartient déjà à la tournée " + colis.getTournee().getId() + ".");
+            }
+            if (colis.getStatut() != StatusColis.EN_STOCK) {
+                throw new IllegalStateException("Le colis " + colis.getId() + " n'est pas en stock (statut: " + colis.getStatut() + ").");
+            }
+            if (colis.getZoneDestination() == null || !colis.getZoneDestination().getId().equals(tournee.getZone().getId())) {
+                throw new IllegalArgumentException("Le colis " + colis.getId() + " n'est pas destiné à la zone " + tournee.getZone().getId() + ".");
+            }
+        }
+
+        // 1. Colis existants dans l'ordre de passage, suivis des colis à insérer
+        if (tournee.getLivraisons() == null) {
+            tournee.setLivraisons(new ArrayList<>());
+        }
+        List<Colis> existants = new ArrayList<>(tournee.getLivraisons());
+        existants.sort(Comparator.comparing(Colis::getOrdreLivraison, Comparator.nullsLast(Comparator.naturalOrder())));
+        List<Colis> colisTournee = new ArrayList<>(existants);
+        colisTournee.addAll(nouveaux);
+        RouteRequest routeRequest = buildRouteRequest(tournee.getLivreur(), tournee.getZone(), colisTournee);
+
+        // 2. Insertion la moins chère, sans toucher à l'ordre existant
+        OptimizedRouteResponse insertion = routeOptimizationService.insertStops(routeRequest, nouveaux.size());
+        if (!insertion.getUnassignedStops().isEmpty()) {
+            throw new IllegalStateException("Aucune position réalisable pour les colis " + insertion.getUnassignedStops()
+                    + " (capacité, accès ou fenêtre horaire).");
+        }
+        OptimizedRouteResponse.RouteDetails routeDetails = insertion.getTournees().get(0);
+
+        // 3. Seuls les colis dont le rang ou l'ETA change sont réécrits
+        Map<String, Colis> colisMap = colisTournee.stream()
+                .collect(Collectors.toMap(Colis::getId, Function.identity()));
+        List<String> stopOrderIds = routeDetails.getStopOrder();
+        List<Double> etas = routeDetails.getStopEtaHours();
+        List<Colis> modifies = new ArrayList<>();
+        for (int i = 0; i < stopOrderIds.size(); i++) {
+            Colis colis = colisMap.get(stopOrderIds.get(i));
+            Double eta = etas != null && i < etas.size() ? etas.get(i) : null;
+            if (colis.getTournee() == null) {
+                colis.setTournee(tournee);
+                tournee.getLivraisons().add(colis);
+            } else if (Objects.equals(colis.getOrdreLivraison(), i + 1) && Objects.equals(colis.getEtaHeures(), eta)) {
+                continue;
+            }
+            colis.setOrdreLivraison(i + 1);
+            colis.setEtaHeures(eta);
+            modifies.add(colis);
+        }
+        colisRepository.saveAll(modifies);
+
+        tournee.setDistanceTotaleKm(routeDetails.getRouteDistanceKm());
+        tournee.setDureeEstimeeHeures(routeDetails.getRouteEstimatedTimeHours());
+        return tourneeMapper.toResponseDTO(tourneeRepository.save(tournee));
+    }
+
+    /**
+     * Re-planifie une tournée en cours : les colis déjà livrés ({@code LIVRE}) forment le début figé
+     * de la tournée, les autres (y compris ceux dont une première tentative a échoué) sont
+     * ré-ordonnés à partir de la position actuelle du livreur.
+     * <p>
+     * Comme pour {@link #ajouterColis}, seuls les colis dont le rang ou l'ETA change sont réécrits.
+     *
+     * @throws IllegalStateException si la tournée n'est pas en cours
+     */
+    @Transactional
+    public TourneeResponseDTO replanifier(Long tourneeId, TourneeReplanificationRequestDTO request) {
+        Tournee tournee = tourneeRepository.findByIdWithAssociations(tourneeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tournée non trouvée avec l'ID: " + tourneeId));
+        if (tournee.getStatut() != StatutTournee.EN_COURS) {
+            throw new IllegalStateException("Seule une tournée en cours peut être re-planifiée (statut: " + tournee.getStatut() + ").");
+        }
+
+        // 1. Colis livrés dans l'ordre de passage, puis colis restants dans l'ordre prévu
+        List<Colis> colisTournee = tournee.getLivraisons() == null ? new ArrayList<>() : new ArrayList<>(tournee.getLivraisons());
+        colisTournee.sort(Comparator.comparing(Colis::getOrdreLivraison, Comparator.nullsLast(Comparator.naturalOrder())));
+        List<Colis> livres = colisTournee.stream().filter(colis -> colis.getStatut() == StatusColis.LIVRE).collect(Collectors.toList());
+        List<Colis> ordonnes = new ArrayList<>(livres);
+        colisTournee.stream().filter(colis -> colis.getStatut() != StatusColis.LIVRE).forEach(ordonnes::add);
+
+        double heuresEcoulees = request.getHeuresEcoulees() != null ? request.getHeuresEcoulees()
+                : livres.isEmpty() || livres.get(livres.size() - 1).getEtaHeures() == null ? 0.0
+                : livres.get(livres.size() - 1).getEtaHeures();
+        LocationDTO position = new LocationDTO("POSITION_" + tournee.getLivreur().getId(),
+                request.getLatitude(), request.getLongitude(), BigDecimal.ZERO);
+
+        // 2. Ré-ordonnancement de la seule partie restante
+        OptimizedRouteResponse replan = routeOptimizationService.replanRemaining(
+                buildRouteRequest(tournee.getLivreur(), tournee.getZone(), ordonnes),
+                livres.size(), position, heuresEcoulees, request.getMaxMillis());
+        OptimizedRouteResponse.RouteDetails routeDetails = replan.getTournees().get(0);
+
+        // 3. Rangs : livrés 1..n dans leur ordre, puis l'ordre re-planifié
+        Map<String, Colis> colisMap = ordonnes.stream()
+                .collect(Collectors.toMap(Colis::getId, Function.identity()));
+        List<Colis> modifies = new ArrayList<>();
+        for (int i = 0; i < livres.size(); i++) {
+            Colis colis = livres.get(i);
+            if (!Objects.equals(colis.getOrdreLivraison(), i + 1)) {
+                colis.setOrdreLivraison(i + 1);
+                modifies.add(colis);
+            }
+        }
+        List<String> stopOrderIds = routeDetails.getStopOrder();
+        List<Double> etas = routeDetails.getStopEtaHours();
+        for (int i = 0; i < stopOrderIds.size(); i++) {
+            Colis colis = colisMap.get(stopOrderIds.get(i));
+            int ordre = livres.size() + i + 1;
+            Double eta = etas != null && i < etas.size() ? etas.get(i) : null;
+            if (!Objects.equals(colis.getOrdreLivraison(), ordre) || !Objects.equals(colis.getEtaHeures(), eta)) {
+                colis.setOrdreLivraison(ordre);
+                colis.setEtaHeures(eta);
+                modifies.add(colis);
+            }
+        }
+        colisRepository.saveAll(modifies);
+
+        tournee.setDistanceTotaleKm(routeDetails.getRouteDistanceKm());
+        tournee.setDureeEstimeeHeures(routeDetails.getRouteEstimatedTimeHours());
+        return tourneeMapper.toResponseDTO(tourneeRepository.save(tournee));
     }
 
     /**
@@ -127,6 +465,23 @@ public class TourneeService {
     private RouteRequest buildRouteRequest(Livreur livreur, Zone zone, List<Colis> colisList) {
 
         // 1. Vérification et définition du dépôt (Point de départ)
+        LocationDTO depot = toDepot(zone);
+
+        // 2. Vérification et définition des points de livraison (Colis)
+        List<LocationDTO> locations = colisList.stream()
+                .map(this::toLocation)
+                .collect(Collectors.toList());
+
+        // 3. Définir les données du livreur
+        if (livreur.getVehicule() == null) {
+            throw new IllegalStateException("Le livreur " + livreur.getId() + " n'a pas de véhicule assigné.");
+        }
+
+        return new RouteRequest(depot, locations, List.of(toLivreurData(livreur)));
+
+    }
+
+    private LocationDTO toDepot(Zone zone) {
         if (zone.getAdresseDepot() == null || zone.getAdresseDepot().latitude() == null || zone.getAdresseDepot().longitude() == null) {
             throw new IllegalStateException("La zone " + zone.getNom() + " (ID: " + zone.getId() + ") n'a pas de coordonnées de dépôt configurées.");
         }
@@ -137,47 +492,47 @@ public class TourneeService {
                 zone.getAdresseDepot().longitude(), // (Ceci est sûr grâce à la vérification ci-dessus)
                 BigDecimal.ZERO
         );
+        // Dépôt et adresses des destinataires : distances réutilisées d'un jour à l'autre (stock de la zone)
+        depot.setPointId(depot.getId());
+        return depot;
+    }
 
-        // 2. Vérification et définition des points de livraison (Colis)
-        List<LocationDTO> locations = colisList.stream()
-                .map(colis -> {
-                    // Vérifications de base
-                    if (colis.getDestinataire() == null || colis.getDestinataire().getAdresse() == null) {
-                        throw new IllegalStateException("Le colis " + colis.getId() + " n'a pas de destinataire ou d'adresse valide.");
-                    }
-                    if (colis.getPoids() == null) {
-                        throw new IllegalStateException("Le colis " + colis.getId() + " n'a pas de poids défini.");
-                    }
-
-                    // ⬇️ --- CORRECTION IMPORTANTE --- ⬇️
-                    // Vérification que les coordonnées de l'adresse du colis existent
-                    Adresse adresseColis = colis.getDestinataire().getAdresse();
-                    if (adresseColis.latitude() == null || adresseColis.longitude() == null) {
-                        throw new IllegalStateException("Le colis " + colis.getId() + " (Destinataire: " + colis.getDestinataire().getFirstName() + colis.getDestinataire().getFirstName() + ") n'a pas de coordonnées GPS (latitude/longitude) valides.");
-                    }
-                    // ⬆️ --- FIN DE LA CORRECTION --- ⬆️
-
-                    return new LocationDTO(
-                            colis.getId(),
-                            adresseColis.latitude(),  // (Ceci est maintenant sûr)
-                            adresseColis.longitude(), // (Ceci est maintenant sûr)
-                            colis.getPoids().valeur()
-                    );
-                })
-                .collect(Collectors.toList());
+    private LocationDTO toLocation(Colis colis) {
+        // Vérifications de base
+        if (colis.getDestinataire() == null || colis.getDestinataire().getAdresse() == null) {
+            throw new IllegalStateException("Le colis " + colis.getId() + " n'a pas de destinataire ou d'adresse valide.");
+        }
+        if (colis.getPoids() == null) {
+            throw new IllegalStateException("Le colis " + colis.getId() + " n'a pas de poids défini.");
+        }
 
-        // 3. Définir les données du livreur
-        if (livreur.getVehicule() == null) {
-            throw new IllegalStateException("Le livreur " + livreur.getId() + " n'a pas de véhicule assigné.");
+        // ⬇️ --- CORRECTION IMPORTANTE --- ⬇️
+        // Vérification que les coordonnées de l'adresse du colis existent
+        Adresse adresseColis = colis.getDestinataire().getAdresse();
+        if (adresseColis.latitude() == null || adresseColis.longitude() == null) {
+            throw new IllegalStateException("Le colis " + colis.getId() + " (Destinataire: " + colis.getDestinataire().getFirstName() + colis.getDestinataire().getFirstName() + ") n'a pas de coordonnées GPS (latitude/longitude) valides.");
         }
+        // ⬆️ --- FIN DE LA CORRECTION --- ⬆️
 
-        RouteRequest.LivreurData livreurData = new RouteRequest.LivreurData(
-                livreur.getId(),
-                livreur.getVehicule().capaciteMaximale()
+        LocationDTO location = new LocationDTO(
+                colis.getId(),
+                adresseColis.latitude(),  // (Ceci est maintenant sûr)
+                adresseColis.longitude(), // (Ceci est maintenant sûr)
+                colis.getPoids().enKilogrammes() // Capacités des véhicules en kg
         );
+        // Les colis HAUTE sont servis en début de tournée (algorithme Auto)
+        location.setPriorite(colis.getPriorite());
+        location.setPointId("DEST_" + colis.getDestinataire().getId());
+        return location;
+    }
 
-        return new RouteRequest(depot, locations, List.of(livreurData));
-
+    // Le type de véhicule fixe vitesse, coûts et accès aux médinas pour l'optimisation
+    private RouteRequest.LivreurData toLivreurData(Livreur livreur) {
+        return new RouteRequest.LivreurData(
+                livreur.getId(),
+                livreur.getVehicule().capaciteMaximale(),
+                livreur.getVehicule().type()
+        );
     }
     // --- Autres méthodes CRUD (l'ID de Tournee est un Long) ---
 
@@ -218,6 +573,7 @@ public class TourneeService {
         tournee.getLivraisons().forEach(colis -> {
             colis.setTournee(null);
             colis.setOrdreLivraison(null);
+            colis.setEtaHeures(null);
             colisRepository.save(colis);
         });
 
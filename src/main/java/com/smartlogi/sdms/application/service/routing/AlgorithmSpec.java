@@ -0,0 +1,115 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Paramètre {@code algorithm} décodé : une heuristique de construction suivie
+ * d'étapes d'amélioration séparées par {@code +} (ex : {@code ClarkeWright+2opt+oropt}).
+ * {@code MultiStart} et {@code Alns} sans étape explicite utilisent {@code 2opt+oropt}. Pour {@code Exact} et
+ * {@code Auto}, les étapes ne s'appliquent qu'à l'heuristique de repli. Un espace est accepté
+ * à la place de {@code +}, qu'une URL non encodée transforme en espace. {@code PickupDelivery}
+ * (collectes et livraisons appariées) et {@code TimeWindows} (fenêtres horaires, priorités) ont
+ * leur propre recherche locale et refusent les étapes.
+ */
+public record AlgorithmSpec(Construction construction, List<RouteImprover> improvers) {
+
+    public enum Construction {
+        NEAREST_NEIGHBOR("NearestNeighbor"),
+        CLARKE_WRIGHT("ClarkeWright"),
+        MULTI_START("MultiStart"),
+        // Recherche adaptative à grand voisinage (grosses journées multi-livreurs)
+        ALNS("Alns"),
+        // Held-Karp si l'instance le permet, sinon heuristique de repli
+        EXACT("Exact"),
+        // Collectes et livraisons appariées (précédence et charge à bord)
+        PICKUP_DELIVERY("PickupDelivery"),
+        // Fenêtres horaires strictes / souples et colis prioritaires
+        TIME_WINDOWS("TimeWindows"),
+        // Exact sous le seuil auto-max-stops, heuristique de repli au-delà
+        AUTO("Auto");
+
+        private final String label;
+
+        Construction(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si la construction ou une étape est inconnue
+     */
+    public static AlgorithmSpec parse(String algorithm) {
+        if (algorithm == null || algorithm.isBlank()) {
+            throw new IllegalArgumentException("Algorithme non supporté: " + algorithm);
+        }
+        String[] parts = algorithm.trim().split("\\s*\\+\\s*|\\s+");
+        Construction construction = null;
+        for (Construction candidate : Construction.values()) {
+            if (candidate.label.equalsIgnoreCase(parts[0].trim())) {
+                construction = candidate;
+            }
+        }
+        if (construction == null) {
+            throw new IllegalArgumentException("Algorithme non supporté: " + algorithm);
+        }
+        List<RouteImprover> improvers = new ArrayList<>();
+        for (int k = 1; k < parts.length; k++) {
+            improvers.add(improver(parts[k].trim(), algorithm));
+        }
+        // 2opt / oropt inverseraient ou déplaceraient des arrêts sans respecter collecte -> livraison
+        if (construction == Construction.PICKUP_DELIVERY && !improvers.isEmpty()) {
+            throw new IllegalArgumentException("PickupDelivery n'accepte pas d'étape d'amélioration: " + algorithm);
+        }
+        // Même chose pour les horaires : un 2opt inverserait l'ordre de passage sans regarder les fenêtres
+        if (construction == Construction.TIME_WINDOWS && !improvers.isEmpty()) {
+            throw new IllegalArgumentException("TimeWindows n'accepte pas d'étape d'amélioration: " + algorithm);
+        }
+        // Le multi-départ et l'ALNS n'ont de sens qu'avec une recherche locale : 2opt+oropt par défaut
+        if ((construction == Construction.MULTI_START || construction == Construction.ALNS) && improvers.isEmpty()) {
+            improvers.add(new TwoOptImprover());
+            improvers.add(new OrOptImprover());
+        }
+        return new AlgorithmSpec(construction, List.copyOf(improvers));
+    }
+
+    /**
+     * Heuristique utilisée quand l'exact n'est pas applicable : Clarke-Wright suivi des étapes
+     * demandées, ou de {@code 2opt+oropt} à défaut.
+     */
+    public AlgorithmSpec heuristicFallback() {
+        List<RouteImprover> fallbackImprovers = improvers.isEmpty()
+                ? List.of(new TwoOptImprover(), new OrOptImprover())
+                : improvers;
+        return new AlgorithmSpec(Construction.CLARKE_WRIGHT, fallbackImprovers);
+    }
+
+    /**
+     * Nom canonique, renvoyé dans {@code OptimizedRouteResponse.algorithm}.
+     */
+    public String name() {
+        StringBuilder name = new StringBuilder(construction.label());
+        for (RouteImprover improver : improvers) {
+            name.append('+').append(improver.name());
+        }
+        return name.toString();
+    }
+
+    private static RouteImprover improver(String name, String algorithm) {
+        Supplier<RouteImprover> factory = switch (name.toLowerCase(Locale.ROOT)) {
+            case TwoOptImprover.NAME, "2-opt" -> TwoOptImprover::new;
+            case OrOptImprover.NAME, "or-opt" -> OrOptImprover::new;
+            default -> null;
+        };
+        if (factory == null) {
+            throw new IllegalArgumentException("Étape d'amélioration non supportée: " + name + " (algorithme: " + algorithm + ")");
+        }
+        return factory.get();
+    }
+}
@@ -0,0 +1,356 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Une île de l'ALNS (Ropke &amp; Pisinger) : à chaque itération, un opérateur de destruction
+ * retire q arrêts de la solution courante, un opérateur de réparation les réinsère, et le
+ * candidat est accepté selon un recuit simulé. Les opérateurs sont tirés à la roulette avec
+ * des poids ajustés par segment de {@link #SEGMENT} itérations selon leurs succès.
+ * <p>
+ * Objectif : distance + pénalité par arrêt non affecté, la pénalité dépassant le coût de toute
+ * insertion (servir un arrêt de plus est toujours préférable).
+ */
+final class AlnsSearch {
+
+    enum Destroy { RANDOM, WORST, RELATED }
+
+    enum Repair { GREEDY, REGRET }
+
+    static final int SEGMENT = 100;
+    private static final double SCORE_MEILLEURE = 33;
+    private static final double SCORE_AMELIOREE = 9;
+    private static final double SCORE_ACCEPTEE = 13;
+    private static final double REACTION = 0.1;
+    // Température initiale : une dégradation égale à la part du coût touchée par une destruction
+    // (q arrêts sur n) est acceptée une fois sur deux. Rapportée à la solution entière, elle
+    // ferait diverger les grosses instances ; nettement plus froide, la recherche stagne.
+    private static final double DEGRADATION_INITIALE = 1.0;
+    private static final double TEMPERATURE_FINALE = 0.002;
+    // Biais de la destruction « pire coût » vers les arrêts les plus coûteux
+    private static final double BIAIS_PIRE = 3.0;
+
+    private final AlnsSolution current;
+    private final AlnsSolution candidate;
+    private final AlnsSolution best;
+    private final int[] related;
+    private final int relatedCount;
+    private final SplittableRandom random;
+    private final double penalty;
+    private final int minRemoved;
+    private final int maxRemoved;
+    private final double cooling;
+    private double temperature;
+
+    private final double[] destroyWeights = filled(Destroy.values().length);
+    private final double[] repairWeights = filled(Repair.values().length);
+    private final double[] destroyScores = new double[Destroy.values().length];
+    private final double[] repairScores = new double[Repair.values().length];
+    private final int[] destroyUses = new int[Destroy.values().length];
+    private final int[] repairUses = new int[Repair.values().length];
+    private int iteration;
+
+    // Tampons réutilisés d'une itération à l'autre
+    private long[] sortKeys = new long[0];
+    private final RegretInsertion insertion = new RegretInsertion(this::insertionCost, this::insert);
+    // Meilleure position d'insertion par couple (arrêt, tournée)
+    private int[] insertionPositions = new int[0];
+    private int[] pending = new int[0];
+    private boolean[] visited = new boolean[0];
+
+    AlnsSearch(AlnsSolution initial, int[] related, int relatedCount, SplittableRandom random,
+               int minRemoved, int maxRemoved, int plannedIterations) {
+        this.current = initial.copy();
+        this.candidate = initial.copy();
+        this.best = initial.copy();
+        this.related = related;
+        this.relatedCount = relatedCount;
+        this.random = random;
+        this.minRemoved = minRemoved;
+        this.maxRemoved = maxRemoved;
+        this.penalty = penalty(initial.problem());
+        double share = objective(initial) * maxRemoved / Math.max(1, initial.problem().stopCount());
+        this.temperature = DEGRADATION_INITIALE * Math.max(share, 1e-6) / Math.log(2);
+        this.cooling = Math.pow(TEMPERATURE_FINALE, 1.0 / Math.max(1, plannedIterations));
+    }
+
+    AlnsSolution best() {
+        return best;
+    }
+
+    double objective(AlnsSolution solution) {
+        return solution.cost() + penalty * solution.unassignedCount();
+    }
+
+    /**
+     * Reprend la recherche depuis la meilleure solution de l'archipel (migration).
+     */
+    void migrate(AlnsSolution solution) {
+        current.copyFrom(solution);
+        if (objective(solution) < objective(best)) {
+            best.copyFrom(solution);
+        }
+    }
+
+    /**
+     * Exécute au plus {@code iterations} itérations, moins si le budget expire.
+     */
+    void run(int iterations, SearchBudget budget) {
+        for (int k = 0; k < iterations && !budget.expired(); k++) {
+            iterate(budget);
+        }
+    }
+
+    private void iterate(SearchBudget budget) {
+        int destroy = select(destroyWeights);
+        int repair = select(repairWeights);
+        candidate.copyFrom(current);
+
+        int assigned = candidate.problem().stopCount() - candidate.unassignedCount();
+        int upper = Math.min(maxRemoved, assigned);
+        if (upper > 0) {
+            int lower = Math.min(minRemoved, upper);
+            int q = lower + random.nextInt(upper - lower + 1);
+            switch (Destroy.values()[destroy]) {
+                case RANDOM -> randomRemoval(q);
+                case WORST -> worstRemoval(q);
+                case RELATED -> relatedRemoval(q);
+            }
+        }
+        insertAll(Repair.values()[repair] == Repair.REGRET);
+
+        double candidateObjective = objective(candidate);
+        double currentObjective = objective(current);
+        double score = 0;
+        if (candidateObjective < objective(best) - TourState.EPSILON) {
+            best.copyFrom(candidate);
+            current.copyFrom(candidate);
+            score = SCORE_MEILLEURE;
+            budget.recordMoves(1);
+            if (best.unassignedCount() == 0) {
+                budget.reportDistance(best.distance());
+            }
+        } else if (candidateObjective < currentObjective - TourState.EPSILON) {
+            current.copyFrom(candidate);
+            score = SCORE_AMELIOREE;
+            budget.recordMoves(1);
+        } else if (random.nextDouble() < Math.exp((currentObjective - candidateObjective) / temperature)) {
+            current.copyFrom(candidate);
+            score = SCORE_ACCEPTEE;
+        }
+        destroyScores[destroy] += score;
+        repairScores[repair] += score;
+        destroyUses[destroy]++;
+        repairUses[repair]++;
+        temperature *= cooling;
+
+        if (++iteration % SEGMENT == 0) {
+            adapt(destroyWeights, destroyScores, destroyUses);
+            adapt(repairWeights, repairScores, repairUses);
+        }
+    }
+
+    // --- Destruction ---
+
+    private void randomRemoval(int q) {
+        int n = candidate.problem().stopCount();
+        int removed = 0;
+        for (int attempt = 0; removed < q && attempt < 4 * n; attempt++) {
+            int stop = 1 + random.nextInt(n);
+            if (candidate.routeOf(stop) >= 0) {
+                candidate.remove(stop);
+                removed++;
+            }
+        }
+    }
+
+    /**
+     * Retire en priorité les arrêts dont le détour est le plus coûteux ; gains triés une fois,
+     * clé primitive (gain en float, ordre préservé pour les positifs | indice de l'arrêt).
+     */
+    private void worstRemoval(int q) {
+        int n = candidate.problem().stopCount();
+        if (sortKeys.length < n) {
+            sortKeys = new long[n];
+        }
+        int count = 0;
+        for (int stop = 1; stop <= n; stop++) {
+            if (candidate.routeOf(stop) >= 0) {
+                float gain = (float) Math.max(0.0, candidate.removalGain(stop));
+                sortKeys[count++] = ((long) Float.floatToIntBits(gain) << 32) | stop;
+            }
+        }
+        Arrays.sort(sortKeys, 0, count);
+        // Tirage biaisé vers la fin du tableau (gains les plus élevés), sans remise
+        for (int removed = 0; removed < q && count > 0; removed++) {
+            int rank = (int) (Math.pow(random.nextDouble(), BIAIS_PIRE) * count);
+            int index = count - 1 - rank;
+            candidate.remove((int) sortKeys[index]);
+            System.arraycopy(sortKeys, index + 1, sortKeys, index, count - index - 1);
+            count--;
+        }
+    }
+
+    /**
+     * Retire un arrêt tiré au hasard puis, de proche en proche, ses plus proches voisins
+     * (zone géographique libérée d'un bloc, qui peut être réaffectée à d'autres livreurs).
+     */
+    private void relatedRemoval(int q) {
+        int n = candidate.problem().stopCount();
+        if (visited.length < n + 1) {
+            visited = new boolean[n + 1];
+            pending = new int[n + 1];
+        } else {
+            Arrays.fill(visited, false);
+        }
+        int removed = 0;
+        while (removed < q) {
+            int seed = 1 + random.nextInt(n);
+            if (visited[seed] || candidate.routeOf(seed) < 0) {
+                if (candidate.unassignedCount() >= n) {
+                    return;
+                }
+                continue;
+            }
+            // Parcours en largeur sur les listes de voisins
+            int head = 0;
+            int tail = 0;
+            pending[tail++] = seed;
+            visited[seed] = true;
+            while (head < tail && removed < q) {
+                int stop = pending[head++];
+                candidate.remove(stop);
+                removed++;
+                int base = (stop - 1) * relatedCount;
+                for (int r = 0; r < relatedCount && tail < pending.length; r++) {
+                    int neighbor = related[base + r];
+                    if (!visited[neighbor] && candidate.routeOf(neighbor) >= 0) {
+                        visited[neighbor] = true;
+                        pending[tail++] = neighbor;
+                    }
+                }
+            }
+        }
+    }
+
+    // --- Réparation ---
+
+    /**
+     * Réinsère les arrêts non affectés : au meilleur coût (glouton) ou par regret-2, voir {@link RegretInsertion}.
+     */
+    private void insertAll(boolean regret) {
+        int routes = candidate.routeCount();
+        int count = candidate.unassignedCount();
+        if (count == 0) {
+            return;
+        }
+        int size = candidate.problem().size();
+        if (pending.length < count) {
+            pending = new int[Math.max(count, size)];
+        }
+        if (insertionPositions.length < size * routes) {
+            insertionPositions = new int[size * routes];
+        }
+        for (int i = 0; i < count; i++) {
+            pending[i] = candidate.unassigned(i);
+        }
+        // Ordre aléatoire : départage les égalités sans biais
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = pending[i];
+            pending[i] = pending[j];
+            pending[j] = tmp;
+        }
+        insertion.insertAll(pending, count, routes, regret);
+    }
+
+    /**
+     * Insertion granulaire : seules les positions adjacentes au dépôt et aux plus proches voisins
+     * de l'arrêt sont évaluées (O(k) au lieu de O(longueur de la tournée)). La meilleure position
+     * est mémorisée par couple (arrêt, tournée).
+     */
+    private double insertionCost(int stop, int route) {
+        if (!candidate.fits(stop, route)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int slot = stop * candidate.routeCount() + route;
+        int length = candidate.length(route);
+        double best = consider(Double.POSITIVE_INFINITY, slot, stop, route, 0);
+        best = consider(best, slot, stop, route, length);
+        int base = (stop - 1) * relatedCount;
+        for (int r = 0; r < relatedCount; r++) {
+            int neighbor = related[base + r];
+            if (candidate.routeOf(neighbor) == route) {
+                int position = candidate.position(neighbor);
+                best = consider(best, slot, stop, route, position);
+                best = consider(best, slot, stop, route, position + 1);
+            }
+        }
+        return best;
+    }
+
+    private double consider(double best, int slot, int stop, int route, int position) {
+        double cost = candidate.insertionDelta(stop, route, position);
+        if (cost < best) {
+            insertionPositions[slot] = position;
+            return cost;
+        }
+        return best;
+    }
+
+    private void insert(int stop, int route) {
+        candidate.insert(stop, route, insertionPositions[stop * candidate.routeCount() + route]);
+    }
+
+    // --- Poids adaptatifs ---
+
+    private int select(double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double draw = random.nextDouble() * total;
+        for (int k = 0; k < weights.length - 1; k++) {
+            draw -= weights[k];
+            if (draw < 0) {
+                return k;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static void adapt(double[] weights, double[] scores, int[] uses) {
+        for (int k = 0; k < weights.length; k++) {
+            if (uses[k] > 0) {
+                weights[k] = (1 - REACTION) * weights[k] + REACTION * scores[k] / uses[k];
+            }
+            // Plancher : un opérateur n'est jamais définitivement écarté
+            weights[k] = Math.max(weights[k], 0.1);
+            scores[k] = 0;
+            uses[k] = 0;
+        }
+    }
+
+    private static double[] filled(int length) {
+        double[] weights = new double[length];
+        Arrays.fill(weights, 1.0);
+        return weights;
+    }
+
+    // Majorant du coût d'insertion d'un arrêt : d(a, s) + d(s, b) <= 4·max d(0, ·) par l'inégalité
+    // triangulaire, au coût kilométrique le plus élevé, plus le coût fixe d'un véhicule à faire sortir
+    private static double penalty(RoutingProblem problem) {
+        double farthest = 0;
+        for (int stop = 1; stop < problem.size(); stop++) {
+            farthest = Math.max(farthest, problem.distance(0, stop));
+        }
+        double perKm = problem.costPerKm(-1);
+        double fixed = 0;
+        for (int v = 0; v < problem.vehicleCount(); v++) {
+            perKm = v == 0 ? problem.costPerKm(v) : Math.max(perKm, problem.costPerKm(v));
+            fixed = Math.max(fixed, problem.fixedCost(v));
+        }
+        return 4 * farthest * perKm + fixed + 1;
+    }
+}
@@ -0,0 +1,257 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solution mutable de l'ALNS : une tournée par livreur (éventuellement vide) et un réservoir
+ * d'arrêts non affectés.
+ * <p>
+ * Distance totale, coût total et charge de chaque tournée sont des caches mis à jour par
+ * différence à chaque retrait ou insertion (O(1) pour le coût, O(longueur) pour le décalage du
+ * tableau) : aucune tournée n'est recalculée en entier pendant la recherche. Le coût d'une
+ * tournée est celui de son véhicule ({@link RoutingProblem#routeCost}) : coût kilométrique, plus
+ * le coût fixe dès qu'elle n'est plus vide.
+ */
+final class AlnsSolution {
+
+    private final RoutingProblem problem;
+    private final int[] vehicles;
+    private final double[] capacities;
+    private final double[] fixedCosts;
+    private final double[] costsPerKm;
+    private final boolean[] restrictedAccess;
+    private final int[][] routes;
+    private final int[] lengths;
+    private final double[] loads;
+    // Tournée de chaque arrêt (-1 = non affecté) et position dans cette tournée
+    private final int[] routeOf;
+    private final int[] positions;
+    private final int[] unassigned;
+    private int unassignedCount;
+    private double distance;
+    private double cost;
+
+    private AlnsSolution(RoutingProblem problem, int[] vehicles) {
+        this.problem = problem;
+        this.vehicles = vehicles;
+        int routeCount = vehicles.length;
+        this.capacities = new double[routeCount];
+        this.fixedCosts = new double[routeCount];
+        this.costsPerKm = new double[routeCount];
+        this.restrictedAccess = new boolean[routeCount];
+        this.routes = new int[routeCount][];
+        this.lengths = new int[routeCount];
+        this.loads = new double[routeCount];
+        for (int r = 0; r < routeCount; r++) {
+            capacities[r] = problem.capacity(vehicles[r]);
+            fixedCosts[r] = problem.fixedCost(vehicles[r]);
+            costsPerKm[r] = problem.costPerKm(vehicles[r]);
+            restrictedAccess[r] = problem.canServeRestricted(vehicles[r]);
+            routes[r] = new int[8];
+        }
+        this.routeOf = new int[problem.size()];
+        this.positions = new int[problem.size()];
+        this.unassigned = new int[problem.size()];
+    }
+
+    /**
+     * Solution initiale à partir d'une construction : une tournée par livreur, les arrêts absents sont non affectés.
+     */
+    static AlnsSolution of(RoutingProblem problem, List<PlannedRoute> initial) {
+        int[] vehicles;
+        if (problem.vehicleCount() == 0) {
+            vehicles = new int[]{-1};
+        } else {
+            vehicles = new int[problem.vehicleCount()];
+            for (int v = 0; v < vehicles.length; v++) {
+                vehicles[v] = v;
+            }
+        }
+        AlnsSolution solution = new AlnsSolution(problem, vehicles);
+        Arrays.fill(solution.routeOf, -1);
+        for (PlannedRoute route : initial) {
+            int r = problem.vehicleCount() == 0 ? 0 : route.vehicle();
+            for (int stop : route.stops()) {
+                solution.insert(stop, r, solution.lengths[r]);
+            }
+        }
+        for (int stop = 1; stop < problem.size(); stop++) {
+            if (solution.routeOf[stop] < 0) {
+                solution.unassigned[solution.unassignedCount++] = stop;
+            }
+        }
+        return solution;
+    }
+
+    AlnsSolution copy() {
+        AlnsSolution copy = new AlnsSolution(problem, vehicles);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    void copyFrom(AlnsSolution other) {
+        for (int r = 0; r < routes.length; r++) {
+            if (routes[r].length < other.lengths[r]) {
+                routes[r] = new int[other.routes[r].length];
+            }
+            System.arraycopy(other.routes[r], 0, routes[r], 0, other.lengths[r]);
+        }
+        System.arraycopy(other.lengths, 0, lengths, 0, lengths.length);
+        System.arraycopy(other.loads, 0, loads, 0, loads.length);
+        System.arraycopy(other.routeOf, 0, routeOf, 0, routeOf.length);
+        System.arraycopy(other.positions, 0, positions, 0, positions.length);
+        System.arraycopy(other.unassigned, 0, unassigned, 0, other.unassignedCount);
+        unassignedCount = other.unassignedCount;
+        distance = other.distance;
+        cost = other.cost;
+    }
+
+    RoutingProblem problem() {
+        return problem;
+    }
+
+    int routeCount() {
+        return routes.length;
+    }
+
+    int length(int route) {
+        return lengths[route];
+    }
+
+    int stopAt(int route, int position) {
+        return routes[route][position];
+    }
+
+    int routeOf(int stop) {
+        return routeOf[stop];
+    }
+
+    int position(int stop) {
+        return positions[stop];
+    }
+
+    double distance() {
+        return distance;
+    }
+
+    /**
+     * Coût total des tournées (objectif de la recherche, hors pénalité des non affectés).
+     */
+    double cost() {
+        return cost;
+    }
+
+    int unassignedCount() {
+        return unassignedCount;
+    }
+
+    int unassigned(int index) {
+        return unassigned[index];
+    }
+
+    /**
+     * Voisin précédent (position - 1) ou suivant (position + 1) dans la tournée, dépôt aux extrémités.
+     */
+    int pointAt(int route, int position) {
+        return position < 0 || position >= lengths[route] ? 0 : routes[route][position];
+    }
+
+    boolean fits(int stop, int route) {
+        return loads[route] + problem.demand(stop) <= capacities[route]
+                && (restrictedAccess[route] || !problem.restricted(stop));
+    }
+
+    /**
+     * Gain de coût obtenu en retirant l'arrêt (positif), coût fixe compris s'il était seul dans sa tournée.
+     */
+    double removalGain(int stop) {
+        int r = routeOf[stop];
+        double gain = costsPerKm[r] * removedDistance(stop);
+        return lengths[r] == 1 ? gain + fixedCosts[r] : gain;
+    }
+
+    private double removedDistance(int stop) {
+        int r = routeOf[stop];
+        int p = positions[stop];
+        int prev = pointAt(r, p - 1);
+        int next = pointAt(r, p + 1);
+        return problem.distance(prev, stop) + problem.distance(stop, next) - problem.distance(prev, next);
+    }
+
+    /**
+     * Retire un arrêt de sa tournée et le place dans le réservoir des non affectés.
+     */
+    void remove(int stop) {
+        int r = routeOf[stop];
+        double gain = removalGain(stop);
+        double removed = removedDistance(stop);
+        int p = positions[stop];
+        System.arraycopy(routes[r], p + 1, routes[r], p, lengths[r] - p - 1);
+        lengths[r]--;
+        for (int k = p; k < lengths[r]; k++) {
+            positions[routes[r][k]] = k;
+        }
+        loads[r] -= problem.demand(stop);
+        distance -= removed;
+        cost -= gain;
+        routeOf[stop] = -1;
+        unassigned[unassignedCount++] = stop;
+    }
+
+    /**
+     * Coût d'insertion de l'arrêt avant la position {@code position} (0..length), coût fixe
+     * compris si la tournée était vide.
+     */
+    double insertionDelta(int stop, int route, int position) {
+        double delta = costsPerKm[route] * insertedDistance(stop, route, position);
+        return lengths[route] == 0 ? delta + fixedCosts[route] : delta;
+    }
+
+    private double insertedDistance(int stop, int route, int position) {
+        int prev = pointAt(route, position - 1);
+        int next = pointAt(route, position);
+        return problem.distance(prev, stop) + problem.distance(stop, next) - problem.distance(prev, next);
+    }
+
+    /**
+     * Insère un arrêt (retiré du réservoir s'il y était) avant la position {@code position}.
+     */
+    void insert(int stop, int route, int position) {
+        double delta = insertionDelta(stop, route, position);
+        double inserted = insertedDistance(stop, route, position);
+        if (lengths[route] == routes[route].length) {
+            routes[route] = Arrays.copyOf(routes[route], routes[route].length * 2);
+        }
+        System.arraycopy(routes[route], position, routes[route], position + 1, lengths[route] - position);
+        routes[route][position] = stop;
+        lengths[route]++;
+        for (int k = position; k < lengths[route]; k++) {
+            positions[routes[route][k]] = k;
+        }
+        loads[route] += problem.demand(stop);
+        distance += inserted;
+        cost += delta;
+        routeOf[stop] = route;
+        for (int k = 0; k < unassignedCount; k++) {
+            if (unassigned[k] == stop) {
+                unassigned[k] = unassigned[--unassignedCount];
+                break;
+            }
+        }
+    }
+
+    /**
+     * Tournées non vides, dans l'ordre des livreurs.
+     */
+    List<PlannedRoute> toRoutes() {
+        List<PlannedRoute> planned = new ArrayList<>();
+        for (int r = 0; r < routes.length; r++) {
+            if (lengths[r] > 0) {
+                planned.add(new PlannedRoute(vehicles[r], Arrays.copyOf(routes[r], lengths[r])));
+            }
+        }
+        return planned;
+    }
+}
@@ -0,0 +1,154 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Recherche adaptative à grand voisinage (ALNS) pour les grosses journées multi-livreurs.
+ * <p>
+ * Part de Clarke-Wright + recherche locale, puis alterne destruction (aléatoire, pire coût,
+ * zone géographique) et réparation (glouton, regret-2) sur l'affectation des arrêts aux
+ * livreurs ({@link AlnsSearch}). La meilleure solution est enfin repassée dans les étapes
+ * d'amélioration demandées (2opt, oropt).
+ * <p>
+ * Avec {@code islands} &gt; 1, plusieurs îles indépendantes tournent en parallèle sur un pool
+ * dédié et repartent toutes de la meilleure solution commune toutes les
+ * {@code migration-interval} itérations. Les îles sont synchronisées à chaque migration et
+ * départagées par leur numéro : le résultat ne dépend que de la graine. Le
+ * {@link SearchBudget} arrête la recherche à l'échéance avec la meilleure solution trouvée.
+ */
+@Component
+public class AlnsSolver {
+
+    static final int MIN_RETIRES = 4;
+    static final int MAX_RETIRES = 60;
+    static final double FRACTION_RETIREE = 0.15;
+    static final int VOISINS_RELIES = 20;
+
+    @Value("${application.routing.alns.iterations:5000}")
+    private int iterations = 5000;
+
+    @Value("${application.routing.alns.islands:1}")
+    private int islands = 1;
+
+    @Value("${application.routing.alns.migration-interval:250}")
+    private int migrationInterval = 250;
+
+    // 0 = nombre de cœurs disponibles
+    @Value("${application.routing.alns.parallelism:0}")
+    private int parallelism;
+
+    @Value("${application.routing.alns.seed:42}")
+    private long seed = 42L;
+
+    private ForkJoinPool pool;
+
+    public List<PlannedRoute> solve(RoutingProblem problem, List<RouteImprover> improvers) {
+        return solve(problem, improvers, SearchBudget.unlimited());
+    }
+
+    public List<PlannedRoute> solve(RoutingProblem problem, List<RouteImprover> improvers, SearchBudget budget) {
+        List<PlannedRoute> initial = LocalSearch.improve(problem, ClarkeWrightSolver.solve(problem), improvers, budget);
+        int n = problem.stopCount();
+        if (n < 2 || iterations <= 0 || budget.expired()) {
+            return initial;
+        }
+
+        AlnsSolution start = AlnsSolution.of(problem, initial);
+        int[] stops = new int[n];
+        for (int k = 0; k < n; k++) {
+            stops[k] = k + 1;
+        }
+        // Voisinages de la destruction par zone, calculés une fois et partagés (lecture seule) entre îles
+        int relatedCount = Math.min(VOISINS_RELIES, n - 1);
+        int[] related = NeighborLists.nearest(problem.getMatrix(), stops, relatedCount);
+        int maxRemoved = Math.max(MIN_RETIRES, Math.min(MAX_RETIRES, (int) (n * FRACTION_RETIREE)));
+
+        SplittableRandom master = new SplittableRandom(seed);
+        List<AlnsSearch> archipelago = new ArrayList<>();
+        for (int island = 0; island < Math.max(1, islands); island++) {
+            archipelago.add(new AlnsSearch(start, related, relatedCount, master.split(),
+                    MIN_RETIRES, maxRemoved, iterations));
+        }
+
+        AlnsSolution best;
+        if (archipelago.size() == 1) {
+            archipelago.get(0).run(iterations, budget);
+            best = archipelago.get(0).best();
+        } else {
+            best = runIslands(archipelago, budget);
+        }
+        return LocalSearch.improve(problem, best.toRoutes(), improvers, budget);
+    }
+
+    private AlnsSolution runIslands(List<AlnsSearch> archipelago, SearchBudget budget) {
+        AlnsSolution best = archipelago.get(0).best();
+        int interval = migrationInterval > 0 ? migrationInterval : iterations;
+        for (int done = 0; done < iterations && !budget.expired(); done += interval) {
+            int epoch = Math.min(interval, iterations - done);
+            List<Callable<Void>> tasks = new ArrayList<>(archipelago.size());
+            for (AlnsSearch island : archipelago) {
+                tasks.add(() -> {
+                    island.run(epoch, budget);
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> future : pool().invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Optimisation ALNS interrompue", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Échec d'une île de l'optimisation ALNS", e.getCause());
+            }
+
+            // Migration : meilleure île (égalités départagées par le numéro), copiée pour ne pas être modifiée
+            AlnsSearch leader = archipelago.get(0);
+            for (AlnsSearch island : archipelago) {
+                if (island.objective(island.best()) < leader.objective(leader.best())) {
+                    leader = island;
+                }
+            }
+            best = leader.best().copy();
+            for (AlnsSearch island : archipelago) {
+                island.migrate(best);
+            }
+        }
+        return best;
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    void configure(int iterations, int islands, int migrationInterval, int parallelism, long seed) {
+        this.iterations = iterations;
+        this.islands = islands;
+        this.migrationInterval = migrationInterval;
+        this.parallelism = parallelism;
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,57 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Ajout d'arrêts à une tournée déjà planifiée, sans la re-résoudre.
+ * <p>
+ * L'ordre des arrêts existants est conservé ; à chaque pas, le nouvel arrêt dont l'insertion
+ * réalisable la moins chère est la plus basse est placé à cette position (insertion la moins
+ * chère). Le coût et la faisabilité d'une position (capacité, accès aux zones restreintes,
+ * fenêtres strictes, pénalités de priorité et de retard) sont évalués en O(1) par
+ * {@link RouteSchedule} : k nouveaux arrêts sur une tournée de n arrêts coûtent O(k² · n).
+ */
+public final class CheapestInsertion {
+
+    private CheapestInsertion() {
+    }
+
+    /**
+     * @param route    arrêts de la tournée existante, dans l'ordre de passage
+     * @param newStops arrêts à insérer
+     * @return la tournée complétée ; les arrêts qui n'ont trouvé aucune position réalisable en sont absents
+     * @throws IllegalArgumentException si le problème contient des collectes (précédence non gérée ici)
+     */
+    public static PlannedRoute insert(RoutingProblem problem, int vehicle, int[] route, int[] newStops) {
+        if (problem.hasPickups()) {
+            throw new IllegalArgumentException("L'insertion dans une tournée existante ne gère pas les collectes.");
+        }
+        RouteSchedule schedule = RouteSchedule.of(problem, vehicle, route);
+        boolean[] placed = new boolean[newStops.length];
+        for (int step = 0; step < newStops.length; step++) {
+            int bestStop = -1;
+            int bestPosition = -1;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int s = 0; s < newStops.length; s++) {
+                int stop = newStops[s];
+                if (placed[s] || !schedule.accepts(stop)) {
+                    continue;
+                }
+                for (int position = 0; position <= schedule.size; position++) {
+                    double cost = schedule.insertionCost(position, stop);
+                    if (cost < bestCost - RouteSchedule.EPSILON) {
+                        bestStop = s;
+                        bestPosition = position;
+                        bestCost = cost;
+                    }
+                }
+            }
+            if (bestStop < 0) {
+                break; // Plus aucune insertion réalisable pour les arrêts restants
+            }
+            schedule.insert(bestPosition, newStops[bestStop]);
+            placed[bestStop] = true;
+        }
+        return new PlannedRoute(vehicle, Arrays.copyOf(schedule.stops, schedule.size));
+    }
+}
@@ -0,0 +1,329 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Heuristique des économies de Clarke-Wright, version parallèle (toutes les fusions
+ * candidates sont examinées dans l'ordre décroissant des économies).
+ * <ul>
+ *     <li>Les économies s(i, j) = d(0, i) + d(0, j) - d(i, j) sont stockées dans des tableaux
+ *     primitifs organisés en tas binaire : aucune allocation par paire, et on n'extrait que
+ *     les paires effectivement examinées.</li>
+ *     <li>Au-delà de {@link #SEUIL_GRANULAIRE} arrêts, seules les paires (i, j) où j est
+ *     l'un des {@link #VOISINS_GRANULAIRES} plus proches voisins de i sont candidates :
+ *     mémoire O(n·k) au lieu de O(n²).</li>
+ *     <li>Deux tournées ne sont fusionnées que par leurs extrémités et seulement si la
+ *     charge cumulée tient dans le plus grand véhicule capable de les desservir (une tournée
+ *     qui passe par une zone restreinte est limitée aux véhicules qui y ont accès).</li>
+ * </ul>
+ * Les tournées obtenues sont ensuite affectées aux livreurs : à chacune le véhicule libre
+ * compatible le moins coûteux pour elle, puis le plus petit ; celles qu'aucun livreur ne peut
+ * prendre sont laissées de côté.
+ */
+public final class ClarkeWrightSolver {
+
+    static final int SEUIL_GRANULAIRE = 500;
+    static final int VOISINS_GRANULAIRES = 40;
+    static final double BRUIT_ALEATOIRE = 0.1;
+
+    private ClarkeWrightSolver() {
+    }
+
+    public static List<PlannedRoute> solve(RoutingProblem problem) {
+        return solve(problem, 1.0, null);
+    }
+
+    /**
+     * Variante paramétrée : s(i, j) = d(0, i) + d(0, j) - shape·d(i, j), multipliée par un bruit
+     * de ±{@link #BRUIT_ALEATOIRE} si {@code random} est fourni (constructions multi-départ).
+     */
+    public static List<PlannedRoute> solve(RoutingProblem problem, double shape, SplittableRandom random) {
+        int n = problem.stopCount();
+        if (n == 0) {
+            return List.of();
+        }
+        double maxCapacity = maxCapacity(problem, false);
+        double maxRestrictedCapacity = problem.hasRestrictedStops() ? maxCapacity(problem, true) : maxCapacity;
+        SavingsHeap savings = candidateSavings(problem, shape, random);
+
+        // Une tournée par arrêt ; union-find pour retrouver la tournée d'un arrêt
+        int[] parent = new int[n + 1];
+        int[] endA = new int[n + 1];
+        int[] endB = new int[n + 1];
+        double[] load = new double[n + 1];
+        boolean[] restricted = new boolean[n + 1];
+        // Voisins de chaque arrêt dans sa tournée (0 = dépôt)
+        int[] linkA = new int[n + 1];
+        int[] linkB = new int[n + 1];
+        for (int k = 1; k <= n; k++) {
+            parent[k] = k;
+            endA[k] = k;
+            endB[k] = k;
+            load[k] = problem.demand(k);
+            restricted[k] = problem.restricted(k);
+        }
+
+        while (!savings.isEmpty()) {
+            int i = savings.peekI();
+            int j = savings.peekJ();
+            savings.pop();
+
+            int routeI = find(parent, i);
+            int routeJ = find(parent, j);
+            if (routeI == routeJ || !isEndpoint(endA, endB, routeI, i) || !isEndpoint(endA, endB, routeJ, j)) {
+                continue;
+            }
+            boolean mergedRestricted = restricted[routeI] || restricted[routeJ];
+            if (load[routeI] + load[routeJ] > (mergedRestricted ? maxRestrictedCapacity : maxCapacity)) {
+                continue;
+            }
+
+            // Relier i et j : les nouvelles extrémités sont les autres bouts des deux tournées
+            int otherEndI = endA[routeI] == i ? endB[routeI] : endA[routeI];
+            int otherEndJ = endA[routeJ] == j ? endB[routeJ] : endA[routeJ];
+            link(linkA, linkB, i, j);
+            link(linkA, linkB, j, i);
+            parent[routeJ] = routeI;
+            endA[routeI] = otherEndI;
+            endB[routeI] = otherEndJ;
+            load[routeI] += load[routeJ];
+            restricted[routeI] = mergedRestricted;
+        }
+
+        List<int[]> routes = new ArrayList<>();
+        for (int k = 1; k <= n; k++) {
+            if (find(parent, k) == k) {
+                routes.add(walk(linkA, linkB, endA[k], n));
+            }
+        }
+        return assignVehicles(problem, routes, load, restricted, parent);
+    }
+
+    private static SavingsHeap candidateSavings(RoutingProblem problem, double shape, SplittableRandom random) {
+        int n = problem.stopCount();
+        if (n <= SEUIL_GRANULAIRE) {
+            SavingsHeap heap = new SavingsHeap(n * (n - 1) / 2);
+            for (int i = 1; i <= n; i++) {
+                for (int j = i + 1; j <= n; j++) {
+                    heap.add(i, j, saving(problem, i, j, shape, random));
+                }
+            }
+            heap.heapify();
+            return heap;
+        }
+
+        int[] stops = new int[n];
+        for (int k = 0; k < n; k++) {
+            stops[k] = k + 1;
+        }
+        int k = Math.min(VOISINS_GRANULAIRES, n - 1);
+        int[] neighbors = NeighborLists.nearest(problem.getMatrix(), stops, k);
+        SavingsHeap heap = new SavingsHeap(n * k);
+        for (int row = 0; row < n; row++) {
+            int i = stops[row];
+            for (int r = 0; r < k; r++) {
+                int j = neighbors[row * k + r];
+                // Paire symétrique : ne la garder qu'une fois si chacun est voisin de l'autre
+                if (i < j || !isNeighbor(neighbors, j - 1, k, i)) {
+                    heap.add(i, j, saving(problem, i, j, shape, random));
+                }
+            }
+        }
+        heap.heapify();
+        return heap;
+    }
+
+    private static double saving(RoutingProblem problem, int i, int j, double shape, SplittableRandom random) {
+        double saving = problem.distance(0, i) + problem.distance(0, j) - shape * problem.distance(i, j);
+        if (random != null) {
+            saving *= 1.0 + BRUIT_ALEATOIRE * (2.0 * random.nextDouble() - 1.0);
+        }
+        return saving;
+    }
+
+    /**
+     * Tournées en zone restreinte d'abord (moins de véhicules possibles), puis les plus chargées ;
+     * chacune au véhicule libre compatible de moindre coût, à coût égal au plus petit qui la contient.
+     */
+    private static List<PlannedRoute> assignVehicles(RoutingProblem problem, List<int[]> routes, double[] load,
+                                                     boolean[] restricted, int[] parent) {
+        routes.sort((a, b) -> {
+            int ra = find(parent, a[0]);
+            int rb = find(parent, b[0]);
+            if (restricted[ra] != restricted[rb]) {
+                return restricted[ra] ? -1 : 1;
+            }
+            return Double.compare(load[rb], load[ra]);
+        });
+        List<PlannedRoute> planned = new ArrayList<>();
+        if (problem.vehicleCount() == 0) {
+            for (int[] route : routes) {
+                planned.add(new PlannedRoute(-1, route));
+            }
+            return planned;
+        }
+        boolean[] used = new boolean[problem.vehicleCount()];
+        for (int[] route : routes) {
+            int root = find(parent, route[0]);
+            double routeLoad = load[root];
+            double distance = problem.routeDistance(route);
+            int bestVehicle = -1;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int v = 0; v < used.length; v++) {
+                if (used[v] || problem.capacity(v) < routeLoad || (restricted[root] && !problem.canServeRestricted(v))) {
+                    continue;
+                }
+                double cost = problem.fixedCost(v) + problem.costPerKm(v) * distance;
+                if (bestVehicle == -1 || cost < bestCost
+                        || (cost == bestCost && problem.capacity(v) < problem.capacity(bestVehicle))) {
+                    bestVehicle = v;
+                    bestCost = cost;
+                }
+            }
+            if (bestVehicle != -1) {
+                used[bestVehicle] = true;
+                planned.add(new PlannedRoute(bestVehicle, route));
+            }
+        }
+        return planned;
+    }
+
+    /**
+     * Plus grande capacité disponible, limitée aux véhicules ayant accès aux zones restreintes si demandé.
+     */
+    private static double maxCapacity(RoutingProblem problem, boolean restrictedOnly) {
+        if (problem.vehicleCount() == 0) {
+            return Double.MAX_VALUE;
+        }
+        double max = 0.0;
+        for (int v = 0; v < problem.vehicleCount(); v++) {
+            if (!restrictedOnly || problem.canServeRestricted(v)) {
+                max = Math.max(max, problem.capacity(v));
+            }
+        }
+        return max;
+    }
+
+    private static boolean isNeighbor(int[] neighbors, int row, int k, int point) {
+        for (int r = 0; r < k; r++) {
+            if (neighbors[row * k + r] == point) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEndpoint(int[] endA, int[] endB, int route, int point) {
+        return endA[route] == point || endB[route] == point;
+    }
+
+    private static void link(int[] linkA, int[] linkB, int from, int to) {
+        if (linkA[from] == 0) {
+            linkA[from] = to;
+        } else {
+            linkB[from] = to;
+        }
+    }
+
+    private static int[] walk(int[] linkA, int[] linkB, int start, int n) {
+        int[] route = new int[n];
+        int length = 0;
+        int previous = 0;
+        int current = start;
+        while (current != 0) {
+            route[length++] = current;
+            int next = linkA[current] != previous ? linkA[current] : linkB[current];
+            previous = current;
+            current = next;
+        }
+        return Arrays.copyOf(route, length);
+    }
+
+    private static int find(int[] parent, int point) {
+        while (parent[point] != point) {
+            parent[point] = parent[parent[point]];
+            point = parent[point];
+        }
+        return point;
+    }
+
+    /**
+     * Tas binaire max sur des tableaux parallèles (économie, i, j).
+     */
+    private static final class SavingsHeap {
+
+        private final double[] amounts;
+        private final int[] first;
+        private final int[] second;
+        private int size;
+
+        SavingsHeap(int capacity) {
+            this.amounts = new double[capacity];
+            this.first = new int[capacity];
+            this.second = new int[capacity];
+        }
+
+        void add(int i, int j, double amount) {
+            amounts[size] = amount;
+            first[size] = i;
+            second[size] = j;
+            size++;
+        }
+
+        void heapify() {
+            for (int k = size / 2 - 1; k >= 0; k--) {
+                siftDown(k);
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int peekI() {
+            return first[0];
+        }
+
+        int peekJ() {
+            return second[0];
+        }
+
+        void pop() {
+            size--;
+            if (size > 0) {
+                move(size, 0);
+                siftDown(0);
+            }
+        }
+
+        private void siftDown(int k) {
+            double amount = amounts[k];
+            int i = first[k];
+            int j = second[k];
+            int half = size >>> 1;
+            while (k < half) {
+                int child = 2 * k + 1;
+                if (child + 1 < size && amounts[child + 1] > amounts[child]) {
+                    child++;
+                }
+                if (amounts[child] <= amount) {
+                    break;
+                }
+                move(child, k);
+                k = child;
+            }
+            amounts[k] = amount;
+            first[k] = i;
+            second[k] = j;
+        }
+
+        private void move(int from, int to) {
+            amounts[to] = amounts[from];
+            first[to] = first[from];
+            second[to] = second[from];
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * « Cluster d'abord, tournée ensuite » : les arrêts sont répartis en un cluster par livreur,
+ * chacun compatible avec la capacité de son véhicule, puis chaque cluster est ordonné
+ * (plus proche voisin + étapes d'amélioration) en parallèle sur un pool dédié.
+ * <p>
+ * Partition en deux temps, sur une projection plane locale autour du dépôt :
+ * <ol>
+ *     <li>balayage polaire : arrêts triés par angle, en partant du plus grand secteur vide,
+ *     et remplis livreur par livreur jusqu'à sa part de la demande totale (proportionnelle
+ *     à sa capacité) ;</li>
+ *     <li>k-means capacitaire : réaffectation au centroïde le plus proche encore capable de
+ *     prendre l'arrêt, les arrêts au plus fort regret d'abord, jusqu'à stabilité ; une
+ *     itération qui laisserait plus d'arrêts non affectés est rejetée.</li>
+ * </ol>
+ * Un arrêt en zone restreinte n'entre que dans le cluster d'un véhicule qui y a accès.
+ * Seuls les arrêts qu'aucun véhicule ne peut plus prendre restent non affectés.
+ */
+@Component
+public class ClusterSolver {
+
+    static final int ITERATIONS_KMEANS = 10;
+    // En deçà, le coût de la répartition sur le pool dépasse le gain
+    static final int SEUIL_PARALLELE = 200;
+
+    // 0 = nombre de cœurs disponibles
+    @Value("${application.routing.cluster.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    public List<PlannedRoute> solve(RoutingProblem problem, List<RouteImprover> improvers, SearchBudget budget) {
+        int[][] clusters = partition(problem);
+        List<PlannedRoute> routes = new ArrayList<>(clusters.length);
+        List<Callable<PlannedRoute>> tasks = new ArrayList<>(clusters.length);
+        for (int c = 0; c < clusters.length; c++) {
+            if (clusters[c].length == 0) {
+                continue;
+            }
+            int vehicle = problem.vehicleCount() == 0 ? -1 : c;
+            int[] cluster = clusters[c];
+            tasks.add(() -> route(problem, vehicle, cluster, improvers, budget));
+        }
+
+        if (tasks.size() > 1 && problem.stopCount() >= SEUIL_PARALLELE) {
+            try {
+                for (Future<PlannedRoute> future : pool().invokeAll(tasks)) {
+                    routes.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Optimisation par clusters interrompue", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Échec de l'optimisation d'un cluster", e.getCause());
+            }
+        } else {
+            for (int c = 0; c < clusters.length; c++) {
+                if (clusters[c].length > 0) {
+                    routes.add(route(problem, problem.vehicleCount() == 0 ? -1 : c, clusters[c], improvers, budget));
+                }
+            }
+        }
+
+        double total = 0.0;
+        for (PlannedRoute route : routes) {
+            total += problem.routeDistance(route.stops());
+        }
+        budget.reportDistance(total);
+        return routes;
+    }
+
+    private static PlannedRoute route(RoutingProblem problem, int vehicle, int[] cluster,
+                                      List<RouteImprover> improvers, SearchBudget budget) {
+        int[] order = NearestNeighborConstruction.scan(problem, cluster);
+        return new PlannedRoute(vehicle, LocalSearch.improve(problem, order, improvers, budget));
+    }
+
+    /**
+     * Un cluster par livreur (un seul, de capacité illimitée, si la requête n'en fournit aucun).
+     */
+    static int[][] partition(RoutingProblem problem) {
+        int n = problem.stopCount();
+        int vehicles = Math.max(1, problem.vehicleCount());
+        int[] assignment = sweep(problem, vehicles);
+        // Un seul véhicule : tout ce qui tient, dans l'ordre du balayage
+        if (vehicles > 1) {
+            refine(problem, assignment, vehicles);
+        }
+
+        int[] sizes = new int[vehicles];
+        for (int stop = 1; stop <= n; stop++) {
+            if (assignment[stop] >= 0) {
+                sizes[assignment[stop]]++;
+            }
+        }
+        int[][] clusters = new int[vehicles][];
+        for (int v = 0; v < vehicles; v++) {
+            clusters[v] = new int[sizes[v]];
+            sizes[v] = 0;
+        }
+        for (int stop = 1; stop <= n; stop++) {
+            int v = assignment[stop];
+            if (v >= 0) {
+                clusters[v][sizes[v]++] = stop;
+            }
+        }
+        return clusters;
+    }
+
+    // --- Balayage polaire ---
+
+    private static int[] sweep(RoutingProblem problem, int vehicles) {
+        int n = problem.stopCount();
+        int[] assignment = new int[n + 1];
+        Arrays.fill(assignment, -1);
+        if (n == 0) {
+            return assignment;
+        }
+        double[] x = new double[n + 1];
+        double[] y = new double[n + 1];
+        project(problem, x, y);
+
+        // Tri par angle autour du dépôt (clé primitive : angle | indice)
+        long[] keys = new long[n];
+        double[] angles = new double[n + 1];
+        for (int stop = 1; stop <= n; stop++) {
+            angles[stop] = Math.atan2(y[stop], x[stop]);
+            keys[stop - 1] = sortable(angles[stop]) << 20 | stop;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[n];
+        for (int k = 0; k < n; k++) {
+            order[k] = (int) (keys[k] & 0xFFFFF);
+        }
+        // Départ juste après le plus grand secteur vide : un groupe dense n'est pas coupé en deux
+        int start = 0;
+        double largestGap = -1;
+        for (int k = 0; k < n; k++) {
+            double next = k + 1 < n ? angles[order[k + 1]] : angles[order[0]] + 2 * Math.PI;
+            double gap = next - angles[order[k]];
+            if (gap > largestGap) {
+                largestGap = gap;
+                start = (k + 1) % n;
+            }
+        }
+
+        double[] capacities = capacities(problem, vehicles);
+        double totalDemand = 0;
+        double totalCapacity = 0;
+        for (int stop = 1; stop <= n; stop++) {
+            totalDemand += problem.demand(stop);
+        }
+        for (double capacity : capacities) {
+            totalCapacity += capacity;
+        }
+        double share = totalCapacity > 0 && totalCapacity != Double.POSITIVE_INFINITY
+                ? Math.min(1.0, totalDemand / totalCapacity) : 1.0;
+
+        double[] loads = new double[vehicles];
+        int vehicle = 0;
+        List<Integer> overflow = new ArrayList<>();
+        for (int k = 0; k < n; k++) {
+            int stop = order[(start + k) % n];
+            double demand = problem.demand(stop);
+            // Part atteinte : on passe au livreur suivant (le dernier prend le reste)
+            if (vehicle < vehicles - 1 && loads[vehicle] > 0 && loads[vehicle] + demand > capacities[vehicle] * share) {
+                vehicle++;
+            }
+            if (loads[vehicle] + demand <= capacities[vehicle] && canServe(problem, vehicle, stop)) {
+                assignment[stop] = vehicle;
+                loads[vehicle] += demand;
+            } else {
+                overflow.add(stop);
+            }
+        }
+        // Arrêts qui ne tenaient pas dans leur secteur : véhicule le moins chargé capable de les prendre
+        for (int stop : overflow) {
+            int bestVehicle = -1;
+            for (int v = 0; v < vehicles; v++) {
+                if (loads[v] + problem.demand(stop) <= capacities[v] && canServe(problem, v, stop)
+                        && (bestVehicle < 0 || capacities[v] - loads[v] > capacities[bestVehicle] - loads[bestVehicle])) {
+                    bestVehicle = v;
+                }
+            }
+            if (bestVehicle >= 0) {
+                assignment[stop] = bestVehicle;
+                loads[bestVehicle] += problem.demand(stop);
+            }
+        }
+        return assignment;
+    }
+
+    // --- k-means capacitaire ---
+
+    private static void refine(RoutingProblem problem, int[] assignment, int vehicles) {
+        int n = problem.stopCount();
+        double[] x = new double[n + 1];
+        double[] y = new double[n + 1];
+        project(problem, x, y);
+        double[] capacities = capacities(problem, vehicles);
+        double[] centroidX = new double[vehicles];
+        double[] centroidY = new double[vehicles];
+        boolean[] active = new boolean[vehicles];
+        int[] candidate = new int[n + 1];
+        long[] keys = new long[n];
+        double[] loads = new double[vehicles];
+
+        for (int iteration = 0; iteration < ITERATIONS_KMEANS; iteration++) {
+            centroids(assignment, x, y, centroidX, centroidY, active);
+
+            // Ordre de réaffectation : regret décroissant (écart entre les deux centroïdes les plus proches)
+            for (int stop = 1; stop <= n; stop++) {
+                double first = Double.POSITIVE_INFINITY;
+                double second = Double.POSITIVE_INFINITY;
+                for (int v = 0; v < vehicles; v++) {
+                    if (!active[v]) {
+                        continue;
+                    }
+                    double d = squaredDistance(x[stop], y[stop], centroidX[v], centroidY[v]);
+                    if (d < first) {
+                        second = first;
+                        first = d;
+                    } else if (d < second) {
+                        second = d;
+                    }
+                }
+                double regret = second == Double.POSITIVE_INFINITY ? Float.MAX_VALUE : Math.sqrt(second) - Math.sqrt(first);
+                keys[stop - 1] = sortable(-regret) << 20 | stop;
+            }
+            Arrays.sort(keys);
+
+            Arrays.fill(loads, 0.0);
+            Arrays.fill(candidate, -1);
+            int served = 0;
+            for (long key : keys) {
+                int stop = (int) (key & 0xFFFFF);
+                int bestVehicle = -1;
+                double bestDistance = Double.POSITIVE_INFINITY;
+                for (int v = 0; v < vehicles; v++) {
+                    if (!active[v] || loads[v] + problem.demand(stop) > capacities[v] || !canServe(problem, v, stop)) {
+                        continue;
+                    }
+                    double d = squaredDistance(x[stop], y[stop], centroidX[v], centroidY[v]);
+                    if (d < bestDistance) {
+                        bestDistance = d;
+                        bestVehicle = v;
+                    }
+                }
+                if (bestVehicle >= 0) {
+                    candidate[stop] = bestVehicle;
+                    loads[bestVehicle] += problem.demand(stop);
+                    served++;
+                }
+            }
+
+            int previouslyServed = 0;
+            boolean changed = false;
+            for (int stop = 1; stop <= n; stop++) {
+                if (assignment[stop] >= 0) {
+                    previouslyServed++;
+                }
+                changed |= assignment[stop] != candidate[stop];
+            }
+            if (!changed || served < previouslyServed) {
+                return;
+            }
+            System.arraycopy(candidate, 0, assignment, 0, assignment.length);
+        }
+    }
+
+    private static void centroids(int[] assignment, double[] x, double[] y,
+                                  double[] centroidX, double[] centroidY, boolean[] active) {
+        int[] counts = new int[active.length];
+        Arrays.fill(centroidX, 0.0);
+        Arrays.fill(centroidY, 0.0);
+        for (int stop = 1; stop < assignment.length; stop++) {
+            int v = assignment[stop];
+            if (v >= 0) {
+                centroidX[v] += x[stop];
+                centroidY[v] += y[stop];
+                counts[v]++;
+            }
+        }
+        for (int v = 0; v < active.length; v++) {
+            // Un livreur sans arrêt après le balayage n'a pas de centroïde (il n'était pas nécessaire)
+            active[v] = counts[v] > 0;
+            if (active[v]) {
+                centroidX[v] /= counts[v];
+                centroidY[v] /= counts[v];
+            }
+        }
+    }
+
+    // Projection équirectangulaire centrée sur le dépôt (km)
+    private static void project(RoutingProblem problem, double[] x, double[] y) {
+        double cosLat = Math.cos(Math.toRadians(problem.latitude(0)));
+        for (int point = 1; point < problem.size(); point++) {
+            x[point] = Math.toRadians(problem.longitude(point) - problem.longitude(0)) * cosLat * 6371.0;
+            y[point] = Math.toRadians(problem.latitude(point) - problem.latitude(0)) * 6371.0;
+        }
+    }
+
+    private static double[] capacities(RoutingProblem problem, int vehicles) {
+        double[] capacities = new double[vehicles];
+        for (int v = 0; v < vehicles; v++) {
+            capacities[v] = problem.capacity(problem.vehicleCount() == 0 ? -1 : v);
+        }
+        return capacities;
+    }
+
+    private static boolean canServe(RoutingProblem problem, int vehicle, int stop) {
+        return problem.canServe(problem.vehicleCount() == 0 ? -1 : vehicle, stop);
+    }
+
+    private static double squaredDistance(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return dx * dx + dy * dy;
+    }
+
+    // Clé triable sur 32 bits (float réordonné en non signé), décalée de 20 bits pour l'indice de l'arrêt
+    private static long sortable(double value) {
+        int bits = Float.floatToIntBits((float) value);
+        int ordered = bits >= 0 ? bits ^ Integer.MIN_VALUE : ~bits;
+        return Integer.toUnsignedLong(ordered);
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    void configure(int parallelism) {
+        this.parallelism = parallelism;
+    }
+}
@@ -0,0 +1,246 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Construction d'une hiérarchie de contraction sur un graphe routier non orienté.
+ * <p>
+ * Les nœuds sont contractés un à un, du moins important au plus important (différence d'arêtes,
+ * voisins déjà contractés et profondeur, mise à jour paresseuse) : quand un nœud v disparaît, un
+ * raccourci u–w de longueur d(u,v) + d(v,w) est ajouté sauf si une recherche témoin (Dijkstra
+ * bornée, sans v) trouve un chemin aussi court. Une recherche témoin écourtée ajoute au pire un raccourci inutile,
+ * jamais une distance fausse.
+ * <p>
+ * Un nœud contracté disparaît des listes de ses voisins : les recherches ne parcourent que le graphe
+ * restant. Le résultat est renuméroté par rang : chaque arête n'est gardée que dans le sens montant
+ * (vers le nœud de rang supérieur), ce qui suffit aux requêtes d'un graphe non orienté.
+ */
+final class ContractionHierarchy {
+
+    private static final int WITNESS_MAX_SETTLED = 150;
+    // Estimation de priorité : recherche plus courte, quelques raccourcis surestimés
+    private static final int SIMULATION_MAX_SETTLED = 30;
+    private static final double EPSILON = 1e-12;
+
+    private final int n;
+    private final int[][] neighbors;
+    private final double[][] weights;
+    private final int[] degree;
+    private final int[] deletedNeighbors;
+    // Profondeur dans la hiérarchie : 1 + profondeur du voisin contracté le plus profond
+    private final int[] level;
+
+    // Recherche témoin
+    private final double[] dist;
+    private final int[] touched;
+    private int touchedCount;
+    private final NodeHeap heap;
+    private final int[] targetStamp;
+    private int stamp;
+
+    private ContractionHierarchy(OsmRoadReader.RoadGraph graph) {
+        this.n = graph.nodeCount();
+        this.neighbors = new int[n][];
+        this.weights = new double[n][];
+        this.degree = new int[n];
+        this.deletedNeighbors = new int[n];
+        this.level = new int[n];
+        this.dist = new double[n];
+        this.touched = new int[n];
+        this.heap = new NodeHeap(n);
+        this.targetStamp = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        for (int v = 0; v < n; v++) {
+            neighbors[v] = new int[4];
+            weights[v] = new double[4];
+        }
+        for (int k = 0; k < graph.edgeCount(); k++) {
+            addEdge(graph.from()[k], graph.to()[k], graph.lengths()[k]);
+        }
+    }
+
+    static RoadNetwork build(OsmRoadReader.RoadGraph graph) {
+        ContractionHierarchy hierarchy = new ContractionHierarchy(graph);
+        int[] rank = hierarchy.contractAll();
+        return hierarchy.toNetwork(graph, rank);
+    }
+
+    private int[] contractAll() {
+        NodeHeap queue = new NodeHeap(n);
+        for (int v = 0; v < n; v++) {
+            queue.push(v, priority(v));
+        }
+        int[] rank = new int[n];
+        int next = 0;
+        while (!queue.isEmpty()) {
+            int v = queue.pop();
+            // Priorité paresseuse : recalculée au moment de contracter, remise en file si elle a trop monté
+            double priority = priority(v);
+            if (!queue.isEmpty() && priority > queue.peekKey()) {
+                queue.push(v, priority);
+                continue;
+            }
+            contract(v, true);
+            rank[v] = next++;
+            // v ne garde que ses arêtes montantes ; ses voisins l'oublient
+            for (int i = 0; i < degree[v]; i++) {
+                unlink(neighbors[v][i], v);
+            }
+            for (int i = 0; i < degree[v]; i++) {
+                int u = neighbors[v][i];
+                deletedNeighbors[u]++;
+                level[u] = Math.max(level[u], level[v] + 1);
+                queue.push(u, priority(u));
+            }
+        }
+        return rank;
+    }
+
+    // Différence d'arêtes, voisins déjà contractés et profondeur : contraction uniforme sur le graphe
+    private double priority(int v) {
+        return 2.0 * (contract(v, false) - degree[v]) + deletedNeighbors[v] + level[v];
+    }
+
+    /**
+     * Raccourcis nécessaires pour retirer v (ajoutés si {@code apply}).
+     *
+     * @return leur nombre
+     */
+    private int contract(int v, boolean apply) {
+        // Les raccourcis relient des voisins de v : sa propre liste ne change pas pendant la boucle
+        int count = degree[v];
+        int[] active = neighbors[v];
+        double[] activeWeights = weights[v];
+        int shortcuts = 0;
+        for (int a = 0; a < count - 1; a++) {
+            // Cibles de la recherche : les voisins suivants ; elle s'arrête quand tous sont fixés
+            double maxWeight = 0.0;
+            stamp++;
+            for (int b = a + 1; b < count; b++) {
+                maxWeight = Math.max(maxWeight, activeWeights[b]);
+                targetStamp[active[b]] = stamp;
+            }
+            witnessSearch(active[a], v, activeWeights[a] + maxWeight, count - a - 1,
+                    apply ? WITNESS_MAX_SETTLED : SIMULATION_MAX_SETTLED);
+            for (int b = a + 1; b < count; b++) {
+                double via = activeWeights[a] + activeWeights[b];
+                if (dist[active[b]] > via + EPSILON) {
+                    shortcuts++;
+                    if (apply) {
+                        addEdge(active[a], active[b], via);
+                    }
+                }
+            }
+            resetSearch();
+        }
+        return shortcuts;
+    }
+
+    private void witnessSearch(int source, int excluded, double limit, int targets, int maxSettled) {
+        dist[source] = 0.0;
+        touched[touchedCount++] = source;
+        heap.push(source, 0.0);
+        int settled = 0;
+        while (!heap.isEmpty() && settled < maxSettled) {
+            int x = heap.pop();
+            double d = dist[x];
+            if (d > limit) {
+                break;
+            }
+            settled++;
+            if (targetStamp[x] == stamp && --targets == 0) {
+                break;
+            }
+            for (int i = 0; i < degree[x]; i++) {
+                int y = neighbors[x][i];
+                if (y == excluded) {
+                    continue;
+                }
+                double candidate = d + weights[x][i];
+                if (candidate < dist[y]) {
+                    if (dist[y] == Double.POSITIVE_INFINITY) {
+                        touched[touchedCount++] = y;
+                    }
+                    dist[y] = candidate;
+                    heap.push(y, candidate);
+                }
+            }
+        }
+    }
+
+    private void resetSearch() {
+        heap.clear();
+        for (int i = 0; i < touchedCount; i++) {
+            dist[touched[i]] = Double.POSITIVE_INFINITY;
+        }
+        touchedCount = 0;
+    }
+
+    private void addEdge(int a, int b, double weight) {
+        link(a, b, weight);
+        link(b, a, weight);
+    }
+
+    // Une seule arête par paire : la plus courte
+    private void link(int a, int b, double weight) {
+        for (int i = 0; i < degree[a]; i++) {
+            if (neighbors[a][i] == b) {
+                weights[a][i] = Math.min(weights[a][i], weight);
+                return;
+            }
+        }
+        if (degree[a] == neighbors[a].length) {
+            neighbors[a] = Arrays.copyOf(neighbors[a], degree[a] * 2);
+            weights[a] = Arrays.copyOf(weights[a], degree[a] * 2);
+        }
+        neighbors[a][degree[a]] = b;
+        weights[a][degree[a]] = weight;
+        degree[a]++;
+    }
+
+    private void unlink(int a, int b) {
+        for (int i = 0; i < degree[a]; i++) {
+            if (neighbors[a][i] == b) {
+                degree[a]--;
+                neighbors[a][i] = neighbors[a][degree[a]];
+                weights[a][i] = weights[a][degree[a]];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Graphe montant en CSR, nœuds renumérotés par rang.
+     */
+    private RoadNetwork toNetwork(OsmRoadReader.RoadGraph graph, int[] rank) {
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        int[] upFirst = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            latitudes[rank[v]] = graph.latitudes()[v];
+            longitudes[rank[v]] = graph.longitudes()[v];
+            for (int i = 0; i < degree[v]; i++) {
+                if (rank[neighbors[v][i]] > rank[v]) {
+                    upFirst[rank[v] + 1]++;
+                }
+            }
+        }
+        for (int r = 0; r < n; r++) {
+            upFirst[r + 1] += upFirst[r];
+        }
+        int[] upTarget = new int[upFirst[n]];
+        double[] upWeight = new double[upFirst[n]];
+        int[] fill = Arrays.copyOf(upFirst, n);
+        for (int v = 0; v < n; v++) {
+            for (int i = 0; i < degree[v]; i++) {
+                int u = neighbors[v][i];
+                if (rank[u] > rank[v]) {
+                    int slot = fill[rank[v]]++;
+                    upTarget[slot] = rank[u];
+                    upWeight[slot] = weights[v][i];
+                }
+            }
+        }
+        return new RoadNetwork(latitudes, longitudes, upFirst, upTarget, upWeight);
+    }
+}
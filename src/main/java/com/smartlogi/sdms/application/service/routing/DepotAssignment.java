@@ -0,0 +1,143 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.MultiDepotRouteRequest;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.domain.model.enums.MissionType;
+import com.smartlogi.sdms.infrastructure.utils.Haversine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rattachement des arrêts aux dépôts avant l'optimisation multi-dépôts.
+ * <p>
+ * Le coût d'un arrêt pour un dépôt est l'aller-retour à vol d'oiseau au coût kilométrique du
+ * véhicule le moins cher du dépôt capable de le servir (capacité, accès aux zones restreintes).
+ * Les arrêts sont placés par regret décroissant (écart entre le meilleur et le deuxième dépôt) :
+ * ceux des zones frontières, dont le choix importe peu, passent après ceux qu'un seul dépôt sert
+ * bien. La capacité totale des livreurs d'un dépôt borne ce qui lui est rattaché.
+ * <p>
+ * Une collecte et la livraison qui la référence forment une seule unité, rattachée au même dépôt.
+ */
+public final class DepotAssignment {
+
+    private DepotAssignment() {
+    }
+
+    /**
+     * @return pour chaque arrêt, l'indice de son dépôt dans {@code depots}, ou -1 si aucun ne peut le servir
+     */
+    public static int[] assign(List<MultiDepotRouteRequest.DepotData> depots, List<LocationDTO> locations) {
+        int[] depotOf = new int[locations.size()];
+        Arrays.fill(depotOf, -1);
+        List<int[]> units = units(locations);
+        int depotCount = depots.size();
+
+        double[] remaining = new double[depotCount];
+        for (int d = 0; d < depotCount; d++) {
+            List<RouteRequest.LivreurData> livreurs = livreurs(depots.get(d));
+            remaining[d] = livreurs.isEmpty() ? Double.MAX_VALUE
+                    : livreurs.stream().mapToDouble(RouteRequest.LivreurData::getCapaciteVehicule).sum();
+        }
+
+        // costs[u][d] = +inf si aucun véhicule du dépôt ne peut prendre l'unité
+        double[] demands = new double[units.size()];
+        double[][] costs = new double[units.size()][depotCount];
+        Integer[] order = new Integer[units.size()];
+        double[] regrets = new double[units.size()];
+        for (int u = 0; u < units.size(); u++) {
+            int[] unit = units.get(u);
+            LocationDTO first = locations.get(unit[0]);
+            LocationDTO last = locations.get(unit[unit.length - 1]);
+            demands[u] = RoutingProblem.demandKg(first);
+            boolean restricted = first.isAccesRestreint() || last.isAccesRestreint();
+            double best = Double.POSITIVE_INFINITY;
+            double second = Double.POSITIVE_INFINITY;
+            for (int d = 0; d < depotCount; d++) {
+                LocationDTO depot = depots.get(d).getDepot();
+                double perKm = cheapestCostPerKm(livreurs(depots.get(d)), demands[u], restricted);
+                double roundTrip = Haversine.distance(depot.getLatitude(), depot.getLongitude(), first.getLatitude(), first.getLongitude())
+                        + Haversine.distance(last.getLatitude(), last.getLongitude(), depot.getLatitude(), depot.getLongitude());
+                costs[u][d] = perKm == Double.POSITIVE_INFINITY ? perKm : perKm * roundTrip;
+                if (costs[u][d] < best) {
+                    second = best;
+                    best = costs[u][d];
+                } else if (costs[u][d] < second) {
+                    second = costs[u][d];
+                }
+            }
+            // Un seul dépôt possible : regret maximal, l'unité passe en premier
+            regrets[u] = second == Double.POSITIVE_INFINITY ? Double.MAX_VALUE : second - best;
+            order[u] = u;
+        }
+        // Regret décroissant, indice croissant à égalité : résultat déterministe
+        Arrays.sort(order, (a, b) -> regrets[a] != regrets[b] ? Double.compare(regrets[b], regrets[a]) : Integer.compare(a, b));
+
+        for (int u : order) {
+            int chosen = -1;
+            for (int d = 0; d < depotCount; d++) {
+                if (costs[u][d] != Double.POSITIVE_INFINITY && remaining[d] >= demands[u]
+                        && (chosen < 0 || costs[u][d] < costs[u][chosen])) {
+                    chosen = d;
+                }
+            }
+            if (chosen < 0) {
+                continue;
+            }
+            remaining[chosen] -= demands[u];
+            for (int stop : units.get(u)) {
+                depotOf[stop] = chosen;
+            }
+        }
+        return depotOf;
+    }
+
+    // Unités de rattachement : arrêt seul, ou [collecte, livraison] pour une paire
+    private static List<int[]> units(List<LocationDTO> locations) {
+        Map<String, Integer> pickups = new HashMap<>();
+        for (int k = 0; k < locations.size(); k++) {
+            if (locations.get(k).getTypeMission() == MissionType.COLLECTE) {
+                pickups.put(locations.get(k).getId(), k);
+            }
+        }
+        int[] deliveryOf = new int[locations.size()];
+        Arrays.fill(deliveryOf, -1);
+        boolean[] paired = new boolean[locations.size()];
+        for (int k = 0; k < locations.size(); k++) {
+            Integer pickup = locations.get(k).getCollecteId() == null ? null : pickups.get(locations.get(k).getCollecteId());
+            // Référence invalide : laissée seule, RoutingProblem la rejettera avec un message précis
+            if (pickup != null && deliveryOf[pickup] < 0 && pickup != k) {
+                deliveryOf[pickup] = k;
+                paired[k] = true;
+            }
+        }
+        List<int[]> units = new ArrayList<>(locations.size());
+        for (int k = 0; k < locations.size(); k++) {
+            if (!paired[k]) {
+                units.add(deliveryOf[k] >= 0 ? new int[]{k, deliveryOf[k]} : new int[]{k});
+            }
+        }
+        return units;
+    }
+
+    private static double cheapestCostPerKm(List<RouteRequest.LivreurData> livreurs, double demand, boolean restricted) {
+        if (livreurs.isEmpty()) {
+            return 1.0; // Aucun livreur : véhicule par défaut, capacité illimitée
+        }
+        double cheapest = Double.POSITIVE_INFINITY;
+        for (RouteRequest.LivreurData livreur : livreurs) {
+            if (livreur.getCapaciteVehicule() >= demand && (!restricted || RoutingProblem.canServeRestricted(livreur))) {
+                cheapest = Math.min(cheapest, RoutingProblem.costPerKm(livreur));
+            }
+        }
+        return cheapest;
+    }
+
+    private static List<RouteRequest.LivreurData> livreurs(MultiDepotRouteRequest.DepotData depot) {
+        return depot.getLivreurs() == null ? List.of() : depot.getLivreurs();
+    }
+}
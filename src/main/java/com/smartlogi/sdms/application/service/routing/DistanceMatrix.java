@@ -0,0 +1,29 @@
+package com.smartlogi.sdms.application.service.routing;
+
+/**
+ * Matrice de distances symétrique (en km) entre les points d'un problème de tournée.
+ * <p>
+ * Convention d'indexation partagée par tous les solveurs : l'indice 0 est le dépôt,
+ * l'indice k (k >= 1) correspond à {@code request.getLocations().get(k - 1)}.
+ */
+public interface DistanceMatrix {
+
+    /**
+     * Nombre de points (dépôt inclus).
+     */
+    int size();
+
+    /**
+     * Distance en km entre les points i et j. {@code get(i, i) == 0} et {@code get(i, j) == get(j, i)}.
+     */
+    double get(int i, int j);
+
+    /**
+     * Vrai si les distances sont celles à vol d'oiseau entre les coordonnées des points (Haversine) :
+     * une recherche géométrique ({@link SpatialIndex}) trouve alors le même plus proche voisin que
+     * la matrice. Faux par défaut (distances routières, matrices construites à la main).
+     */
+    default boolean geometric() {
+        return false;
+    }
+}
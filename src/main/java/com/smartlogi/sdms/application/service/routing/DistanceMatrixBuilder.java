@@ -0,0 +1,333 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.infrastructure.utils.Haversine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Construit la {@link DistanceMatrix} d'un problème de tournée : fournisseur de distances par défaut
+ * (Haversine), ou réseau routier hors ligne si {@code application.routing.distance.provider=road}
+ * ({@link RoadNetworkDistanceProvider}).
+ * <p>
+ * Le réseau routier se charge en arrière-plan dès le démarrage de l'application (lecture de l'extrait
+ * et contraction : plusieurs minutes sur une grande ville sans cache {@code .ch}). Jusque-là, les
+ * requêtes sont servies en Haversine sans attendre ; {@link #current()} fige le fournisseur d'une
+ * requête pour que sa matrice et son extension ne mélangent pas les deux. Les clés de cache (matrices
+ * et réponses) portent le nom du fournisseur : une réponse calculée en Haversine n'est pas resservie
+ * une fois le réseau chargé. Si le chargement échoue, l'erreur est journalisée une fois et les
+ * requêtes restent servies en Haversine.
+ * <p>
+ * Chaque paire (i, j) n'est calculée qu'une seule fois, ligne par ligne avec le noyau
+ * par lots de {@link Haversine} (trigonométrie précalculée par point). Au-delà de
+ * {@link #SEUIL_PARALLELE} points, les lignes sont remplies en parallèle sur le pool
+ * fork-join commun.
+ * <p>
+ * Mode équirectangulaire optionnel pour les tournées urbaines : appliqué seulement si
+ * toute l'instance tient dans {@link #ETENDUE_MAX_APPROX_KM} km et sous
+ * {@link #LATITUDE_MAX_APPROX}° de latitude (erreur relative &lt; 4e-5), sinon Haversine.
+ */
+@Slf4j
+@Component
+public class DistanceMatrixBuilder implements DistanceProvider {
+
+    static final int SEUIL_PARALLELE = 128;
+    private static final int LIGNES_PAR_TACHE = 16;
+    static final double ETENDUE_MAX_APPROX_KM = 100.0;
+    static final double LATITUDE_MAX_APPROX = 60.0;
+
+    @Value("${application.routing.matrix.float-storage:false}")
+    private boolean floatStorage;
+
+    @Value("${application.routing.matrix.equirectangular:false}")
+    private boolean equirectangular;
+
+    // haversine (défaut) ou road
+    @Value("${application.routing.distance.provider:haversine}")
+    private String provider = "haversine";
+
+    // Extrait OpenStreetMap (.osm ou .osm.gz) ; hiérarchie de contraction en cache à côté (.ch)
+    @Value("${application.routing.distance.osm-file:}")
+    private String osmFile = "";
+
+    private final DistanceProvider haversine = new HaversineProvider();
+    // Chargement du réseau routier, null tant qu'il n'a pas démarré
+    private volatile CompletableFuture<DistanceProvider> roadLoading;
+
+    /**
+     * Matrice pour le dépôt (indice 0) suivi des locations (indices 1..n).
+     */
+    public DistanceMatrix build(LocationDTO depot, List<LocationDTO> locations) {
+        List<LocationDTO> points = new ArrayList<>(locations.size() + 1);
+        points.add(depot);
+        points.addAll(locations);
+        return build(points);
+    }
+
+    public DistanceMatrix build(List<LocationDTO> points) {
+        return current().matrix(points);
+    }
+
+    @Override
+    public DistanceMatrix matrix(List<LocationDTO> points) {
+        return build(points);
+    }
+
+    @Override
+    public double[][] distances(List<LocationDTO> sources, List<LocationDTO> targets) {
+        return current().distances(sources, targets);
+    }
+
+    @Override
+    public String name() {
+        return variant();
+    }
+
+    @Override
+    public boolean geometric() {
+        return current().geometric();
+    }
+
+    /**
+     * Identifie le mode de calcul (fournisseur, stockage, approximation) : deux modes différents ne partagent pas de matrice en cache.
+     */
+    public String variant() {
+        return current().name();
+    }
+
+    /**
+     * Fournisseur d'une requête, à utiliser pour tous ses calculs : Haversine, ou réseau routier une
+     * fois chargé (Haversine en attendant, le chargement démarrant au besoin, et si ce chargement a échoué).
+     *
+     * @throws IllegalStateException si le fournisseur est inconnu ou si l'extrait OSM n'est pas configuré
+     */
+    public DistanceProvider current() {
+        if (!road()) {
+            return haversine;
+        }
+        CompletableFuture<DistanceProvider> loading = roadLoading;
+        if (loading == null) {
+            loading = startLoading();
+        }
+        // Échec déjà journalisé à la fin du chargement : Haversine plutôt qu'une erreur à chaque requête
+        if (!loading.isDone() || loading.isCompletedExceptionally()) {
+            return haversine;
+        }
+        return loading.join();
+    }
+
+    /**
+     * Avec le fournisseur road, lance le chargement du réseau dès le démarrage plutôt qu'à la première requête.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadRoadNetwork() {
+        if (road()) {
+            startLoading();
+        }
+    }
+
+    /**
+     * Démarre le chargement du réseau routier sur un thread dédié, s'il n'a pas déjà commencé.
+     *
+     * @throws IllegalStateException si l'extrait OSM est absent
+     */
+    synchronized CompletableFuture<DistanceProvider> startLoading() {
+        if (roadLoading == null) {
+            if (osmFile == null || osmFile.isBlank()) {
+                throw new IllegalStateException("application.routing.distance.osm-file est requis avec le fournisseur road");
+            }
+            Path file = Path.of(osmFile);
+            boolean asFloat = floatStorage;
+            roadLoading = CompletableFuture.<DistanceProvider>supplyAsync(
+                            () -> new RoadNetworkDistanceProvider(RoadNetwork.load(file), asFloat),
+                            runnable -> {
+                                Thread thread = new Thread(runnable, "road-network-loader");
+                                thread.setDaemon(true);
+                                thread.start();
+                            })
+                    .whenComplete((loaded, error) -> {
+                        if (error != null) {
+                            log.error("Chargement du réseau routier {} impossible, distances Haversine", file, error);
+                        }
+                    });
+        }
+        return roadLoading;
+    }
+
+    // Vrai pour le fournisseur road, faux pour Haversine
+    private boolean road() {
+        if (provider == null || provider.isBlank() || "haversine".equalsIgnoreCase(provider)) {
+            return false;
+        }
+        if (!"road".equalsIgnoreCase(provider)) {
+            throw new IllegalStateException("Fournisseur de distances inconnu: " + provider + " (haversine ou road)");
+        }
+        return true;
+    }
+
+    private DistanceMatrix haversineMatrix(List<LocationDTO> points) {
+        int size = points.size();
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = points.get(i).getLatitude();
+            longitudes[i] = points.get(i).getLongitude();
+        }
+
+        TriangularDistanceMatrix matrix = new TriangularDistanceMatrix(size, floatStorage, true);
+        boolean approximate = equirectangular && fitsApproximation(latitudes, longitudes);
+        RowFillTask task = new RowFillTask(matrix, Haversine.prepare(latitudes, longitudes), approximate, 0, size);
+        if (size < SEUIL_PARALLELE) {
+            task.compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+        return matrix;
+    }
+
+    private double[][] haversineDistances(List<LocationDTO> sources, List<LocationDTO> targets) {
+        // Cibles d'abord, puis sources : une seule préparation trigonométrique
+        int count = targets.size();
+        double[] latitudes = new double[count + sources.size()];
+        double[] longitudes = new double[count + sources.size()];
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = targets.get(i).getLatitude();
+            longitudes[i] = targets.get(i).getLongitude();
+        }
+        for (int s = 0; s < sources.size(); s++) {
+            latitudes[count + s] = sources.get(s).getLatitude();
+            longitudes[count + s] = sources.get(s).getLongitude();
+        }
+        Haversine.Points prepared = Haversine.prepare(latitudes, longitudes);
+        boolean approximate = equirectangular && fitsApproximation(latitudes, longitudes);
+        double[][] rows = new double[sources.size()][count];
+        IntStream indices = IntStream.range(0, sources.size());
+        if ((long) sources.size() * count >= (long) SEUIL_PARALLELE * SEUIL_PARALLELE) {
+            indices = indices.parallel();
+        }
+        indices.forEach(s -> {
+            if (approximate) {
+                Haversine.approximateDistancesFrom(prepared, count + s, 0, count, rows[s], 0);
+            } else {
+                Haversine.distancesFrom(prepared, count + s, 0, count, rows[s], 0);
+            }
+        });
+        return rows;
+    }
+
+    synchronized void setFloatStorage(boolean floatStorage) {
+        this.floatStorage = floatStorage;
+        this.roadLoading = null;
+    }
+
+    void setEquirectangular(boolean equirectangular) {
+        this.equirectangular = equirectangular;
+    }
+
+    synchronized void setProvider(String provider, String osmFile) {
+        this.provider = provider;
+        this.osmFile = osmFile;
+        this.roadLoading = null;
+    }
+
+    /**
+     * Vrai si la boîte englobante reste dans le domaine de validité de l'approximation.
+     */
+    static boolean fitsApproximation(double[] latitudes, double[] longitudes) {
+        if (latitudes.length == 0) {
+            return true;
+        }
+        double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY, maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < latitudes.length; i++) {
+            minLat = Math.min(minLat, latitudes[i]);
+            maxLat = Math.max(maxLat, latitudes[i]);
+            minLon = Math.min(minLon, longitudes[i]);
+            maxLon = Math.max(maxLon, longitudes[i]);
+        }
+        if (Math.max(Math.abs(minLat), Math.abs(maxLat)) > LATITUDE_MAX_APPROX) {
+            return false;
+        }
+        // Diagonale mesurée à la latitude la plus proche de l'équateur (la plus longue)
+        double lat = Math.abs(minLat) < Math.abs(maxLat) ? minLat : maxLat;
+        return Haversine.distance(minLat, minLon, maxLat, maxLon) <= ETENDUE_MAX_APPROX_KM
+                && Haversine.distance(lat, minLon, lat, maxLon) <= ETENDUE_MAX_APPROX_KM;
+    }
+
+    /**
+     * Vol d'oiseau (Haversine, ou équirectangulaire si configuré), nommé d'après le stockage et l'approximation.
+     */
+    private final class HaversineProvider implements DistanceProvider {
+
+        @Override
+        public String name() {
+            return (floatStorage ? "float" : "double") + (equirectangular ? "/equirectangular" : "/haversine");
+        }
+
+        @Override
+        public DistanceMatrix matrix(List<LocationDTO> points) {
+            return haversineMatrix(points);
+        }
+
+        @Override
+        public double[][] distances(List<LocationDTO> sources, List<LocationDTO> targets) {
+            return haversineDistances(sources, targets);
+        }
+
+        @Override
+        public boolean geometric() {
+            return true;
+        }
+    }
+
+    /**
+     * Remplit les lignes [from, to) du triangle supérieur, en découpant récursivement la plage.
+     */
+    private static final class RowFillTask extends RecursiveAction {
+
+        private final TriangularDistanceMatrix matrix;
+        private final Haversine.Points points;
+        private final boolean approximate;
+        private final int from;
+        private final int to;
+
+        RowFillTask(TriangularDistanceMatrix matrix, Haversine.Points points, boolean approximate, int from, int to) {
+            this.matrix = matrix;
+            this.points = points;
+            this.approximate = approximate;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LIGNES_PAR_TACHE || matrix.size() < SEUIL_PARALLELE) {
+                int size = matrix.size();
+                double[] row = new double[Math.max(0, size - from - 1)];
+                for (int i = from; i < to; i++) {
+                    if (approximate) {
+                        Haversine.approximateDistancesFrom(points, i, i + 1, size, row, 0);
+                    } else {
+                        Haversine.distancesFrom(points, i, i + 1, size, row, 0);
+                    }
+                    matrix.setRow(i, row);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RowFillTask(matrix, points, approximate, from, middle),
+                    new RowFillTask(matrix, points, approximate, middle, to));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+
+import java.util.List;
+
+/**
+ * Source des distances (en km) entre points GPS : Haversine par défaut ({@link DistanceMatrixBuilder}),
+ * réseau routier hors ligne ({@link RoadNetworkDistanceProvider}) sur configuration.
+ * <p>
+ * Les distances doivent être symétriques, comme celles de {@link DistanceMatrix}.
+ */
+public interface DistanceProvider {
+
+    /**
+     * Identifie le mode de calcul : deux fournisseurs (ou deux réglages) différents ne partagent ni
+     * matrice en cache ni stock de distances.
+     */
+    String name();
+
+    /**
+     * Matrice entre {@code points}, dans leur ordre.
+     */
+    DistanceMatrix matrix(List<LocationDTO> points);
+
+    /**
+     * Distances de chaque source vers chaque cible : {@code result[s][t]}.
+     */
+    double[][] distances(List<LocationDTO> sources, List<LocationDTO> targets);
+
+    /**
+     * Ajoute {@code point} à une matrice déjà construite pour {@code points} (dépôt compris, dans
+     * l'ordre de la matrice) : seule sa ligne est calculée, en O(n), avec le même mode de calcul.
+     *
+     * @return une matrice de taille {@code base.size() + 1}, le nouveau point au dernier indice
+     */
+    default DistanceMatrix extend(DistanceMatrix base, List<LocationDTO> points, LocationDTO point) {
+        return new ExtendedDistanceMatrix(base, distances(List.of(point), points)[0]);
+    }
+
+    /**
+     * Vrai si les distances sont à vol d'oiseau ({@link DistanceMatrix#geometric()}).
+     */
+    default boolean geometric() {
+        return false;
+    }
+}
@@ -0,0 +1,164 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solveur exact (Held-Karp) pour les petites tournées d'un seul livreur : programmation
+ * dynamique sur les sous-ensembles d'arrêts, O(2^n·n²) en temps et O(2^n·n) en mémoire.
+ * <p>
+ * Garde mémoire stricte : la taille des tables est calculée avant toute allocation et
+ * comparée à {@code max-memory-mb} (et à {@link #MAX_ARRETS}) ; au-delà, ou si les arrêts
+ * ne tiennent pas dans un seul véhicule, {@link #solve} renvoie {@code null} et l'appelant
+ * se rabat sur les heuristiques. En mode {@code Auto}, l'exact n'est tenté que jusqu'à
+ * {@code auto-max-stops} arrêts.
+ */
+@Component
+public class ExactSolver {
+
+    // Plafond absolu, indépendant de la configuration (masques sur int, temps en 2^n·n²)
+    static final int MAX_ARRETS = 24;
+    private static final long OCTETS_PAR_ETAT = Double.BYTES + Byte.BYTES;
+    private static final int NON_APPLICABLE = -2;
+
+    @Value("${application.routing.exact.auto-max-stops:14}")
+    private int autoMaxStops = 14;
+
+    @Value("${application.routing.exact.max-memory-mb:64}")
+    private long maxMemoryMb = 64;
+
+    /**
+     * Vrai si le mode {@code Auto} doit choisir l'exact pour ce problème : un seul livreur (au plus),
+     * sous le seuil d'arrêts. Avec plusieurs livreurs, répartir les arrêts vaut mieux qu'une tournée
+     * unique optimale.
+     */
+    public boolean preferredFor(RoutingProblem problem) {
+        return problem.vehicleCount() <= 1 && problem.stopCount() <= autoMaxStops && supports(problem);
+    }
+
+    /**
+     * Vrai si l'instance tient dans la garde mémoire et dans un seul véhicule, sans collecte.
+     * Demandé explicitement avec plusieurs livreurs, l'exact confie tout au moins coûteux qui peut tout prendre.
+     */
+    public boolean supports(RoutingProblem problem) {
+        int n = problem.stopCount();
+        return !problem.hasPickups() && n <= MAX_ARRETS && requiredBytes(n) <= maxMemoryMb * 1024 * 1024 && vehicleFor(problem) != NON_APPLICABLE;
+    }
+
+    /**
+     * Tournée optimale dépôt -> arrêts -> dépôt, ou {@code null} si l'instance n'est pas supportée
+     * ou si l'échéance du budget tombe pendant le calcul.
+     */
+    public List<PlannedRoute> solve(RoutingProblem problem, SearchBudget budget) {
+        if (!supports(problem)) {
+            return null;
+        }
+        int vehicle = vehicleFor(problem);
+        int n = problem.stopCount();
+        if (n == 0) {
+            return List.of(new PlannedRoute(vehicle, new int[0]));
+        }
+
+        // Matrice primitive locale (n+1)², lue à chaque relaxation
+        int size = n + 1;
+        double[] dist = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                dist[i * size + j] = problem.distance(i, j);
+            }
+        }
+
+        // cost[mask·n + j] : plus court chemin depuis le dépôt couvrant mask et finissant en j (bit j de mask)
+        int full = (1 << n) - 1;
+        double[] cost = new double[(full + 1) * n];
+        byte[] parent = new byte[(full + 1) * n];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        for (int j = 0; j < n; j++) {
+            cost[(1 << j) * n + j] = dist[j + 1];
+            parent[(1 << j) * n + j] = -1;
+        }
+
+        for (int mask = 1; mask <= full; mask++) {
+            // Contrôle de l'échéance toutes les 4096 combinaisons
+            if ((mask & 0xFFF) == 0 && budget.expired()) {
+                return null;
+            }
+            int base = mask * n;
+            for (int j = 0; j < n; j++) {
+                double current = cost[base + j];
+                if (current == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                int row = (j + 1) * size + 1;
+                for (int k = 0; k < n; k++) {
+                    if ((mask & (1 << k)) != 0) {
+                        continue;
+                    }
+                    int next = ((mask | (1 << k)) * n) + k;
+                    double candidate = current + dist[row + k];
+                    if (candidate < cost[next]) {
+                        cost[next] = candidate;
+                        parent[next] = (byte) j;
+                    }
+                }
+            }
+        }
+
+        // Retour au dépôt, puis reconstruction de l'ordre à rebours
+        int last = 0;
+        double best = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < n; j++) {
+            double total = cost[full * n + j] + dist[(j + 1) * size];
+            if (total < best) {
+                best = total;
+                last = j;
+            }
+        }
+        int[] stops = new int[n];
+        int mask = full;
+        for (int position = n - 1; position >= 0; position--) {
+            stops[position] = last + 1;
+            int previous = parent[mask * n + last];
+            mask &= ~(1 << last);
+            last = previous;
+        }
+        return List.of(new PlannedRoute(vehicle, stops));
+    }
+
+    void configure(int autoMaxStops, long maxMemoryMb) {
+        this.autoMaxStops = autoMaxStops;
+        this.maxMemoryMb = maxMemoryMb;
+    }
+
+    static long requiredBytes(int stops) {
+        return (1L << stops) * stops * OCTETS_PAR_ETAT;
+    }
+
+    // Livreur capable de tout prendre (capacité, accès aux zones restreintes) au coût kilométrique le plus bas,
+    // puis au coût fixe le plus bas ; -1 si la requête n'en fournit aucun (capacité illimitée)
+    private static int vehicleFor(RoutingProblem problem) {
+        if (problem.vehicleCount() == 0) {
+            return -1;
+        }
+        double demand = 0.0;
+        boolean restricted = false;
+        for (int stop = 1; stop < problem.size(); stop++) {
+            demand += problem.demand(stop);
+            restricted |= problem.restricted(stop);
+        }
+        int best = NON_APPLICABLE;
+        for (int vehicle = 0; vehicle < problem.vehicleCount(); vehicle++) {
+            if (demand > problem.capacity(vehicle) || (restricted && !problem.canServeRestricted(vehicle))) {
+                continue;
+            }
+            if (best == NON_APPLICABLE || problem.costPerKm(vehicle) < problem.costPerKm(best)
+                    || (problem.costPerKm(vehicle) == problem.costPerKm(best) && problem.fixedCost(vehicle) < problem.fixedCost(best))) {
+                best = vehicle;
+            }
+        }
+        return best;
+    }
+}
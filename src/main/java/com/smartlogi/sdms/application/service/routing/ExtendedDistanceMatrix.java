@@ -0,0 +1,40 @@
+package com.smartlogi.sdms.application.service.routing;
+
+/**
+ * Matrice existante augmentée d'un point (position courante d'un livreur), d'indice
+ * {@code base.size()} : les distances de la matrice de base, éventuellement en cache, sont
+ * réutilisées telles quelles, seule la ligne du nouveau point est stockée.
+ */
+final class ExtendedDistanceMatrix implements DistanceMatrix {
+
+    private final DistanceMatrix base;
+    private final double[] row;
+
+    ExtendedDistanceMatrix(DistanceMatrix base, double[] row) {
+        if (row.length != base.size()) {
+            throw new IllegalArgumentException("Ligne de " + row.length + " distances pour une matrice de taille " + base.size());
+        }
+        this.base = base;
+        this.row = row;
+    }
+
+    @Override
+    public int size() {
+        return base.size() + 1;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        int added = base.size();
+        if (i == added) {
+            return j == added ? 0.0 : row[j];
+        }
+        return j == added ? row[i] : base.get(i, j);
+    }
+
+    // La ligne ajoutée vient du même fournisseur que la base
+    @Override
+    public boolean geometric() {
+        return base.geometric();
+    }
+}
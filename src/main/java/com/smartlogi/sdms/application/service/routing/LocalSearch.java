@@ -0,0 +1,75 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enchaîne les {@link RouteImprover} sur chaque tournée (descente à voisinages variables) :
+ * on repasse sur toute la liste tant qu'une étape trouve encore un mouvement améliorant
+ * et que le {@link SearchBudget} n'est pas épuisé.
+ */
+public final class LocalSearch {
+
+    private LocalSearch() {
+    }
+
+    public static List<PlannedRoute> improve(RoutingProblem problem, List<PlannedRoute> routes, List<RouteImprover> improvers) {
+        return improve(problem, routes, improvers, SearchBudget.unlimited());
+    }
+
+    public static List<PlannedRoute> improve(RoutingProblem problem, List<PlannedRoute> routes,
+                                             List<RouteImprover> improvers, SearchBudget budget) {
+        double total = 0.0;
+        for (PlannedRoute route : routes) {
+            total += problem.routeDistance(route.stops());
+        }
+        budget.reportDistance(total);
+        if (improvers.isEmpty()) {
+            return routes;
+        }
+        List<PlannedRoute> improved = new ArrayList<>(routes.size());
+        for (PlannedRoute route : routes) {
+            int[] stops = improve(problem, route.stops(), improvers, budget);
+            if (stops != route.stops()) {
+                // Solution complète après chaque tournée : progression visible pendant la recherche
+                total += problem.routeDistance(stops) - problem.routeDistance(route.stops());
+                budget.reportDistance(total);
+            }
+            improved.add(route.withStops(stops));
+        }
+        return improved;
+    }
+
+    public static int[] improve(RoutingProblem problem, int[] stops, List<RouteImprover> improvers) {
+        return improve(problem, stops, improvers, SearchBudget.unlimited());
+    }
+
+    public static int[] improve(RoutingProblem problem, int[] stops, List<RouteImprover> improvers, SearchBudget budget) {
+        // Avec 2 arrêts ou moins, les deux sens de parcours ont le même coût
+        if (stops.length < 3) {
+            return stops;
+        }
+        return improveFrom(problem.getMatrix(), 0, stops, improvers, budget);
+    }
+
+    /**
+     * Chemin ouvert {@code start} -> arrêts -> dépôt (tournée déjà commencée) : seuls les arrêts
+     * bougent, départ et retour restent fixes.
+     */
+    public static int[] improveFrom(DistanceMatrix matrix, int start, int[] stops, List<RouteImprover> improvers,
+                                    SearchBudget budget) {
+        if (stops.length < 2 || improvers.isEmpty() || budget.expired()) {
+            return stops;
+        }
+        TourState tour = new TourState(matrix, start, stops);
+        int moves;
+        do {
+            moves = 0;
+            for (RouteImprover improver : improvers) {
+                moves += improver.improve(tour, budget);
+            }
+            budget.recordMoves(moves);
+        } while (moves > 0 && improvers.size() > 1 && !budget.expired());
+        return tour.stops();
+    }
+}
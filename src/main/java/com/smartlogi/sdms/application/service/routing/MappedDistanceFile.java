@@ -0,0 +1,277 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distances persistantes d'une zone, dans deux fichiers :
+ * <ul>
+ *     <li>{@code <nom>.idx} : un point par ligne ({@code latitude;longitude;identifiant}), la ligne k
+ *     décrit l'emplacement k ;</li>
+ *     <li>{@code <nom>.dist} : le triangle inférieur strict en {@code double}, ligne après ligne
+ *     (emplacement s : distances vers 0..s-1, à partir de la cellule s(s-1)/2).</li>
+ * </ul>
+ * Un nouveau point n'ajoute que sa ligne en fin de fichier : la matrice grandit sans jamais être recalculée.
+ * Les lignes sont calculées par le {@link DistanceProvider} du stock, par blocs de {@link #LIGNES_PAR_BLOC}.
+ * Les données sont projetées en mémoire par segments de {@link #SEGMENT_CELLS} cellules ; les lectures se
+ * font directement dans la projection (ni copie ni tas Java).
+ * <p>
+ * Ordre d'écriture : lignes de distances forcées sur disque, puis lignes d'index. Après un arrêt brutal,
+ * une ligne d'index incomplète est ignorée et son emplacement recalculé.
+ */
+final class MappedDistanceFile implements Closeable {
+
+    static final int SEGMENT_SHIFT = 23;
+    static final int SEGMENT_CELLS = 1 << SEGMENT_SHIFT; // 64 Mo par segment
+    private static final long SEGMENT_MASK = SEGMENT_CELLS - 1;
+    private static final long SEGMENT_BYTES = (long) SEGMENT_CELLS * Double.BYTES;
+    // Nouveaux emplacements par requête au fournisseur de distances
+    static final int LIGNES_PAR_BLOC = 256;
+    private static final double PRECISION_COORDONNEES = 1e7;
+
+    private final Path indexPath;
+    private final FileChannel data;
+    private final Map<String, Integer> slotsById = new HashMap<>();
+    private double[] latitudes = new double[64];
+    private double[] longitudes = new double[64];
+    private int count;
+    private MappedByteBuffer[] mapped = new MappedByteBuffer[0];
+    // Vues publiées après chaque agrandissement ; les emplacements < count déjà rendus ne bougent plus
+    private volatile DoubleBuffer[] segments = new DoubleBuffer[0];
+
+    private MappedDistanceFile(Path indexPath, FileChannel data) {
+        this.indexPath = indexPath;
+        this.data = data;
+    }
+
+    static MappedDistanceFile open(Path directory, String name) {
+        try {
+            Files.createDirectories(directory);
+            Path indexPath = directory.resolve(name + ".idx");
+            FileChannel data = FileChannel.open(directory.resolve(name + ".dist"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedDistanceFile file = new MappedDistanceFile(indexPath, data);
+            file.loadIndex();
+            file.ensureCapacity(cellOffset(file.count));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Stock de distances illisible: " + directory.resolve(name), e);
+        }
+    }
+
+    /**
+     * Emplacement de chaque point, dans l'ordre de {@code points} ; les points inconnus (ou dont les
+     * coordonnées ont changé) reçoivent un nouvel emplacement, avec sa ligne de distances.
+     *
+     * @return null si le stock dépasserait {@code maxPoints} emplacements
+     */
+    synchronized int[] slots(List<LocationDTO> points, int maxPoints, DistanceProvider provider) {
+        int[] slots = new int[points.size()];
+        Map<String, Integer> nouveaux = new HashMap<>();
+        int first = count;
+        for (int k = 0; k < points.size(); k++) {
+            LocationDTO point = points.get(k);
+            Integer slot = nouveaux.get(point.getPointId());
+            if (slot == null) {
+                slot = slotsById.get(point.getPointId());
+                if (slot == null || !sameCoordinates(slot, point)) {
+                    if (count >= maxPoints) {
+                        rollback(first);
+                        return null;
+                    }
+                    slot = append(point);
+                    nouveaux.put(point.getPointId(), slot);
+                }
+            }
+            slots[k] = slot;
+        }
+        if (count > first) {
+            persist(first, points, slots, provider);
+        }
+        return slots;
+    }
+
+    int pointCount() {
+        return count;
+    }
+
+    /**
+     * Distance en km entre deux emplacements, lue dans la projection.
+     */
+    double distance(int a, int b) {
+        if (a == b) {
+            return 0.0;
+        }
+        long cell = a > b ? cellOffset(a) + b : cellOffset(b) + a;
+        return segments[(int) (cell >>> SEGMENT_SHIFT)].get((int) (cell & SEGMENT_MASK));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        data.close();
+    }
+
+    private int append(LocationDTO point) {
+        if (count == latitudes.length) {
+            latitudes = Arrays.copyOf(latitudes, count * 2);
+            longitudes = Arrays.copyOf(longitudes, count * 2);
+        }
+        latitudes[count] = point.getLatitude();
+        longitudes[count] = point.getLongitude();
+        return count++;
+    }
+
+    private void rollback(int first) {
+        count = first;
+    }
+
+    /**
+     * Calcule et écrit les lignes des emplacements [first, count), puis les ajoute à l'index.
+     */
+    private void persist(int first, List<LocationDTO> points, int[] slots, DistanceProvider provider) {
+        int last = count;
+        ensureCapacity(cellOffset(last));
+        List<LocationDTO> stored = new ArrayList<>(last);
+        for (int slot = 0; slot < last; slot++) {
+            stored.add(new LocationDTO(null, latitudes[slot], longitudes[slot], BigDecimal.ZERO));
+        }
+        try {
+            for (int block = first; block < last; block += LIGNES_PAR_BLOC) {
+                int end = Math.min(last, block + LIGNES_PAR_BLOC);
+                double[][] rows = provider.distances(stored.subList(block, end), stored.subList(0, end));
+                for (int slot = block; slot < end; slot++) {
+                    writeRow(slot, rows[slot - block]);
+                }
+            }
+        } catch (RuntimeException e) {
+            rollback(first);
+            throw e;
+        }
+
+        // Identifiant de chaque nouvel emplacement, dans l'ordre des emplacements
+        String[] ids = new String[last - first];
+        for (int k = 0; k < slots.length; k++) {
+            if (slots[k] >= first) {
+                ids[slots[k] - first] = points.get(k).getPointId();
+            }
+        }
+        try {
+            for (MappedByteBuffer buffer : mapped) {
+                buffer.force();
+            }
+            StringBuilder lines = new StringBuilder();
+            for (int slot = first; slot < last; slot++) {
+                lines.append(latitudes[slot]).append(';').append(longitudes[slot]).append(';').append(ids[slot - first]).append('\n');
+            }
+            try (Writer writer = Files.newBufferedWriter(indexPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(lines.toString());
+            }
+        } catch (IOException e) {
+            rollback(first);
+            throw new UncheckedIOException("Écriture du stock de distances impossible: " + indexPath, e);
+        }
+        for (int slot = first; slot < last; slot++) {
+            slotsById.put(ids[slot - first], slot);
+        }
+    }
+
+    // Ligne de l'emplacement : ses distances vers 0..slot-1 (début de row)
+    private void writeRow(int slot, double[] row) {
+        DoubleBuffer[] views = segments;
+        long cell = cellOffset(slot);
+        int written = 0;
+        while (written < slot) {
+            int segment = (int) (cell >>> SEGMENT_SHIFT);
+            int offset = (int) (cell & SEGMENT_MASK);
+            int length = Math.min(slot - written, SEGMENT_CELLS - offset);
+            views[segment].put(offset, row, written, length);
+            written += length;
+            cell += length;
+        }
+    }
+
+    private void ensureCapacity(long cells) {
+        int needed = (int) ((cells + SEGMENT_CELLS - 1) >>> SEGMENT_SHIFT);
+        if (needed <= mapped.length) {
+            return;
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(mapped, needed);
+        DoubleBuffer[] views = Arrays.copyOf(segments, needed);
+        try {
+            for (int segment = mapped.length; segment < needed; segment++) {
+                grown[segment] = data.map(FileChannel.MapMode.READ_WRITE, segment * SEGMENT_BYTES, SEGMENT_BYTES);
+                views[segment] = grown[segment].order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Projection du stock de distances impossible", e);
+        }
+        mapped = grown;
+        segments = views;
+    }
+
+    private void loadIndex() throws IOException {
+        if (!Files.exists(indexPath)) {
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(indexPath);
+        int start = 0;
+        int valid = 0;
+        for (int end = 0; end < bytes.length; end++) {
+            if (bytes[end] != '\n') {
+                continue;
+            }
+            String[] fields = new String(bytes, start, end - start, StandardCharsets.UTF_8).split(";", 3);
+            if (fields.length != 3) {
+                break;
+            }
+            try {
+                latitudes = count == latitudes.length ? Arrays.copyOf(latitudes, count * 2) : latitudes;
+                longitudes = count == longitudes.length ? Arrays.copyOf(longitudes, count * 2) : longitudes;
+                latitudes[count] = Double.parseDouble(fields[0]);
+                longitudes[count] = Double.parseDouble(fields[1]);
+            } catch (NumberFormatException e) {
+                break;
+            }
+            slotsById.put(fields[2], count++);
+            start = end + 1;
+            valid = start;
+        }
+        // Ligne incomplète (arrêt pendant l'écriture) : tronquée, l'emplacement sera recalculé
+        if (valid < bytes.length) {
+            try (FileChannel index = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+                index.truncate(valid);
+            }
+        }
+    }
+
+    private boolean sameCoordinates(int slot, LocationDTO point) {
+        return Math.round(latitudes[slot] * PRECISION_COORDONNEES) == Math.round(point.getLatitude() * PRECISION_COORDONNEES)
+                && Math.round(longitudes[slot] * PRECISION_COORDONNEES) == Math.round(point.getLongitude() * PRECISION_COORDONNEES);
+    }
+
+    /**
+     * Première cellule de la ligne de l'emplacement s : s(s-1)/2.
+     */
+    static long cellOffset(int slot) {
+        return (long) slot * (slot - 1) / 2;
+    }
+}
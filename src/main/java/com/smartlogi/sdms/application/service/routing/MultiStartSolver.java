@@ -0,0 +1,130 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Multi-départ parallèle : N constructions Clarke-Wright randomisées (forme des économies
+ * et bruit tirés au hasard), chacune suivie de la recherche locale, exécutées sur un
+ * pool fork-join dédié. La meilleure solution est conservée : le plus d'arrêts servis, puis le
+ * moindre coût au profil de chaque véhicule ({@link RoutingProblem#routeCost}, comme l'ALNS).
+ * <p>
+ * Reproductible : chaque départ reçoit un générateur dérivé de la graine dans l'ordre des
+ * départs (avant soumission), et les égalités sont départagées par le numéro du départ,
+ * donc le résultat ne dépend pas de l'ordonnancement des threads. Le départ 0 est le
+ * Clarke-Wright déterministe : le multi-départ n'est jamais moins bon que ClarkeWright+LS.
+ * À l'échéance du {@link SearchBudget}, les départs non commencés sont abandonnés ; le
+ * départ 0 garantit toujours une solution.
+ */
+@Component
+public class MultiStartSolver {
+
+    private static final double FORME_MIN = 0.6;
+    private static final double FORME_MAX = 1.6;
+
+    @Value("${application.routing.multi-start.runs:32}")
+    private int runs = 32;
+
+    // 0 = nombre de cœurs disponibles
+    @Value("${application.routing.multi-start.parallelism:0}")
+    private int parallelism;
+
+    @Value("${application.routing.multi-start.seed:42}")
+    private long seed = 42L;
+
+    private ForkJoinPool pool;
+
+    public List<PlannedRoute> solve(RoutingProblem problem, List<RouteImprover> improvers) {
+        return solve(problem, improvers, SearchBudget.unlimited());
+    }
+
+    public List<PlannedRoute> solve(RoutingProblem problem, List<RouteImprover> improvers, SearchBudget budget) {
+        SplittableRandom master = new SplittableRandom(seed);
+        List<Callable<Candidate>> tasks = new ArrayList<>(runs);
+        for (int run = 0; run < Math.max(1, runs); run++) {
+            int runIndex = run;
+            SplittableRandom random = master.split();
+            tasks.add(() -> runOnce(problem, improvers, runIndex, random, budget));
+        }
+
+        List<Candidate> candidates = new ArrayList<>(tasks.size());
+        try {
+            for (Future<Candidate> future : pool().invokeAll(tasks)) {
+                Candidate candidate = future.get();
+                if (candidate != null) {
+                    candidates.add(candidate);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Optimisation multi-départ interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Échec d'un départ de l'optimisation multi-départ", e.getCause());
+        }
+        return candidates.stream().min(Candidate.ORDRE).orElseThrow().routes();
+    }
+
+    private Candidate runOnce(RoutingProblem problem, List<RouteImprover> improvers, int run,
+                              SplittableRandom random, SearchBudget budget) {
+        if (run > 0 && budget.expired()) {
+            return null;
+        }
+        List<PlannedRoute> routes = run == 0
+                ? ClarkeWrightSolver.solve(problem)
+                : ClarkeWrightSolver.solve(problem, FORME_MIN + (FORME_MAX - FORME_MIN) * random.nextDouble(), random);
+        routes = LocalSearch.improve(problem, routes, improvers, budget);
+
+        int served = 0;
+        double cost = 0.0;
+        double distance = 0.0;
+        for (PlannedRoute route : routes) {
+            served += route.stops().length;
+            cost += problem.routeCost(route.vehicle(), route.stops());
+            distance += problem.routeDistance(route.stops());
+        }
+        return new Candidate(run, routes, served, cost, distance);
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    void configure(int runs, int parallelism, long seed) {
+        this.runs = runs;
+        this.parallelism = parallelism;
+        this.seed = seed;
+    }
+
+    /**
+     * Résultat d'un départ ; ordre : plus d'arrêts servis, puis coût, puis distance, puis numéro de départ.
+     */
+    private record Candidate(int run, List<PlannedRoute> routes, int served, double cost, double distance) {
+        static final Comparator<Candidate> ORDRE = Comparator
+                .comparingInt((Candidate c) -> -c.served())
+                .thenComparingDouble(Candidate::cost)
+                .thenComparingDouble(Candidate::distance)
+                .thenComparingInt(Candidate::run);
+    }
+}
@@ -0,0 +1,149 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Construction d'une tournée par plus proche voisin, sous contrainte de capacité.
+ * <p>
+ * Deux variantes donnent le même ordre de visite :
+ * <ul>
+ *     <li>{@link #scan} : balayage de tous les arrêts non visités à chaque pas, O(n²) ;</li>
+ *     <li>{@link #indexed} : requêtes sur un {@link SpatialIndex}, ~O(n log n).</li>
+ * </ul>
+ * {@link #build} choisit selon {@link #SEUIL_INDEX_SPATIAL}, mesuré par
+ * {@code NearestNeighborBenchmark} (l'arbre ne paie sa construction qu'au-delà). L'arbre compare
+ * des distances à vol d'oiseau : il n'est utilisé que si la matrice l'est aussi
+ * ({@link DistanceMatrix#geometric()}), sinon (distances routières) le balayage lit la matrice.
+ */
+public final class NearestNeighborConstruction {
+
+    public static final int SEUIL_INDEX_SPATIAL = 300;
+
+    private NearestNeighborConstruction() {
+    }
+
+    /**
+     * Ordre de visite (indices de points) depuis le dépôt ; les arrêts qui ne tiennent
+     * plus dans {@code capacity} ne sont pas visités.
+     */
+    public static int[] build(RoutingProblem problem, double capacity) {
+        return useIndex(problem) ? indexed(problem, capacity) : scan(problem, capacity);
+    }
+
+    private static boolean useIndex(RoutingProblem problem) {
+        return problem.stopCount() >= SEUIL_INDEX_SPATIAL && problem.getMatrix().geometric();
+    }
+
+    /**
+     * Tournée du véhicule {@code vehicle} : sa capacité, et seulement les arrêts auxquels il a accès
+     * (un camion ne visite pas les arrêts en zone restreinte).
+     */
+    public static int[] forVehicle(RoutingProblem problem, int vehicle) {
+        double capacity = problem.capacity(vehicle);
+        if (!problem.hasRestrictedStops() || problem.canServeRestricted(vehicle)) {
+            return build(problem, capacity);
+        }
+        boolean[] excluded = new boolean[problem.size()];
+        for (int stop = 1; stop < problem.size(); stop++) {
+            excluded[stop] = !problem.canServe(vehicle, stop);
+        }
+        return useIndex(problem) ? indexed(problem, capacity, excluded) : scan(problem, capacity, excluded);
+    }
+
+    public static int[] scan(RoutingProblem problem, double capacity) {
+        return scan(problem, capacity, new boolean[problem.size()]);
+    }
+
+    // Les arrêts exclus sont traités comme déjà visités
+    private static int[] scan(RoutingProblem problem, double capacity, boolean[] excluded) {
+        int n = problem.stopCount();
+        boolean[] visited = excluded.clone();
+        int[] order = new int[n];
+        int count = 0;
+        int current = 0;
+        double load = 0.0;
+
+        while (count < n) {
+            int nearest = -1;
+            double minDistance = Double.MAX_VALUE;
+            for (int k = 1; k <= n; k++) {
+                if (visited[k]) {
+                    continue;
+                }
+                double distance = problem.distance(current, k);
+                if (distance < minDistance && problem.demand(k) <= capacity - load) {
+                    minDistance = distance;
+                    nearest = k;
+                }
+            }
+            if (nearest == -1) {
+                // La capacité est atteinte pour les clients restants
+                break;
+            }
+            visited[nearest] = true;
+            load += problem.demand(nearest);
+            order[count++] = nearest;
+            current = nearest;
+        }
+        return Arrays.copyOf(order, count);
+    }
+
+    /**
+     * Ordre de visite d'un sous-ensemble d'arrêts déjà compatible avec la capacité (un cluster),
+     * par balayage O(m²) du sous-ensemble.
+     */
+    public static int[] scan(RoutingProblem problem, int[] stops) {
+        int m = stops.length;
+        int[] remaining = Arrays.copyOf(stops, m);
+        int[] order = new int[m];
+        int current = 0;
+        for (int count = 0; count < m; count++) {
+            int nearest = count;
+            double minDistance = Double.MAX_VALUE;
+            for (int k = count; k < m; k++) {
+                double distance = problem.distance(current, remaining[k]);
+                if (distance < minDistance) {
+                    minDistance = distance;
+                    nearest = k;
+                }
+            }
+            // Les arrêts restants occupent remaining[count + 1..m - 1]
+            current = remaining[nearest];
+            remaining[nearest] = remaining[count];
+            order[count] = current;
+        }
+        return order;
+    }
+
+    public static int[] indexed(RoutingProblem problem, double capacity) {
+        return indexed(problem, capacity, null);
+    }
+
+    private static int[] indexed(RoutingProblem problem, double capacity, boolean[] excluded) {
+        int n = problem.stopCount();
+        SpatialIndex index = new SpatialIndex(problem);
+        if (excluded != null) {
+            for (int stop = 1; stop <= n; stop++) {
+                if (excluded[stop]) {
+                    index.remove(stop);
+                }
+            }
+        }
+        int[] order = new int[n];
+        int count = 0;
+        int current = 0;
+        double load = 0.0;
+
+        while (!index.isEmpty()) {
+            int nearest = index.nearest(current, capacity - load);
+            if (nearest == -1) {
+                break;
+            }
+            index.remove(nearest);
+            load += problem.demand(nearest);
+            order[count++] = nearest;
+            current = nearest;
+        }
+        return Arrays.copyOf(order, count);
+    }
+}
@@ -0,0 +1,48 @@
+package com.smartlogi.sdms.application.service.routing;
+
+/**
+ * Listes des k plus proches voisins, triées par distance croissante, stockées dans
+ * un tableau plat : les voisins du point {@code points[row]} occupent
+ * {@code [row * k, row * k + k)}.
+ */
+public final class NeighborLists {
+
+    private NeighborLists() {
+    }
+
+    /**
+     * Pour chaque point de {@code points}, ses {@code k} plus proches voisins parmi {@code points}
+     * (lui-même exclu). {@code k} doit être inférieur à {@code points.length}.
+     */
+    public static int[] nearest(DistanceMatrix matrix, int[] points, int k) {
+        int[] neighbors = new int[points.length * k];
+        if (k == 0) {
+            return neighbors;
+        }
+        double[] best = new double[k];
+        for (int row = 0; row < points.length; row++) {
+            int point = points[row];
+            int base = row * k;
+            int filled = 0;
+            for (int other : points) {
+                if (other == point) {
+                    continue;
+                }
+                double d = matrix.get(point, other);
+                if (filled == k && d >= best[k - 1]) {
+                    continue;
+                }
+                // Insertion triée dans la liste bornée
+                int slot = filled < k ? filled++ : k - 1;
+                while (slot > 0 && best[slot - 1] > d) {
+                    best[slot] = best[slot - 1];
+                    neighbors[base + slot] = neighbors[base + slot - 1];
+                    slot--;
+                }
+                best[slot] = d;
+                neighbors[base + slot] = other;
+            }
+        }
+        return neighbors;
+    }
+}
@@ -0,0 +1,108 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Tas binaire min indexé sur des nœuds 0..n-1 (clé double) : insertion, mise à jour de clé
+ * (à la hausse comme à la baisse) et extraction en O(log n), sans allocation après construction.
+ */
+final class NodeHeap {
+
+    private final int[] heap;
+    private final double[] keys;
+    // Position de chaque nœud dans le tas, -1 s'il n'y est pas
+    private final int[] position;
+    private int size;
+
+    NodeHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new double[capacity];
+        this.position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    double peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Insère le nœud, ou remplace sa clé s'il est déjà dans le tas.
+     */
+    void push(int node, double key) {
+        int index = position[node];
+        if (index < 0) {
+            index = size++;
+            heap[index] = node;
+            position[node] = index;
+            keys[node] = key;
+            siftUp(index);
+            return;
+        }
+        double previous = keys[node];
+        keys[node] = key;
+        if (key < previous) {
+            siftUp(index);
+        } else {
+            siftDown(index);
+        }
+    }
+
+    int pop() {
+        int top = heap[0];
+        position[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        int node = heap[index];
+        double key = keys[node];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+
+    private void siftDown(int index) {
+        int node = heap[index];
+        double key = keys[node];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+}
@@ -0,0 +1,91 @@
+package com.smartlogi.sdms.application.service.routing;
+
+/**
+ * Or-opt : déplace une chaîne de 1 à 3 arrêts consécutifs (éventuellement inversée)
+ * à côté de l'un des plus proches voisins de ses extrémités. Le gain se calcule en O(1)
+ * à partir des trois arêtes retirées et des trois arêtes créées.
+ */
+public class OrOptImprover implements RouteImprover {
+
+    public static final String NAME = "oropt";
+    private static final int LONGUEUR_MAX_SEGMENT = 3;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int improve(TourState tour, SearchBudget budget) {
+        int m = tour.length();
+        int moves = 0;
+        boolean improved = true;
+        while (improved && !budget.expired()) {
+            improved = false;
+            for (int length = 1; length <= LONGUEUR_MAX_SEGMENT && length < m; length++) {
+                if (budget.expired()) {
+                    break;
+                }
+                for (int start = 1; start + length - 1 <= m; start++) {
+                    if (tryRelocate(tour, start, length)) {
+                        moves++;
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    private boolean tryRelocate(TourState tour, int start, int length) {
+        int end = start + length - 1;
+        int first = tour.at(start);
+        int last = tour.at(end);
+        int prev = tour.at(start - 1);
+        int next = tour.at(end + 1);
+        double removeGain = tour.distance(prev, first) + tour.distance(last, next) - tour.distance(prev, next);
+        if (removeGain <= TourState.EPSILON) {
+            return false;
+        }
+
+        for (int side = 0; side < 2; side++) {
+            int endpoint = side == 0 ? first : last;
+            for (int r = 0; r < tour.neighborCount(); r++) {
+                int c = tour.neighbor(endpoint, r);
+                if (tour.distance(endpoint, c) >= removeGain) {
+                    break;
+                }
+                int q = tour.positionOf(c);
+                if (q >= start && q <= end) {
+                    continue;
+                }
+                // Extrémité collée à c, côté successeur (arête q, q+1) puis côté prédécesseur (arête q-1, q)
+                if (tryInsert(tour, start, length, q, endpoint == last, removeGain)
+                        || tryInsert(tour, start, length, q - 1, endpoint == first, removeGain)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Insertion entre tour[after] et tour[after+1] ; {@code reversed} place {@code last} côté tour[after].
+     */
+    private boolean tryInsert(TourState tour, int start, int length, int after, boolean reversed, double removeGain) {
+        int end = start + length - 1;
+        if (after >= start - 1 && after <= end) {
+            return false;
+        }
+        int x = tour.at(after);
+        int y = tour.at(after + 1);
+        int head = reversed ? tour.at(end) : tour.at(start);
+        int tail = reversed ? tour.at(start) : tour.at(end);
+        double insertCost = tour.distance(x, head) + tour.distance(tail, y) - tour.distance(x, y);
+        if (insertCost - removeGain < -TourState.EPSILON) {
+            tour.moveSegment(start, length, after, reversed);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,257 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.infrastructure.utils.Haversine;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lecture d'un extrait OpenStreetMap XML ({@code .osm}, ou {@code .osm.gz}) en graphe routier non orienté.
+ * <p>
+ * Deux passes en flux (StAX) : les voies carrossables d'abord ({@code highway} de {@link #VOIES}, sauf
+ * accès interdit), puis les coordonnées de leurs seuls nœuds, sans charger tout l'extrait en mémoire.
+ * Les sens uniques sont ignorés (distances symétriques, comme toutes les matrices de l'optimiseur) et
+ * seule la plus grande composante connexe est gardée : tout point s'y raccroche.
+ */
+final class OsmRoadReader {
+
+    static final Set<String> VOIES = Set.of(
+            "motorway", "motorway_link", "trunk", "trunk_link", "primary", "primary_link",
+            "secondary", "secondary_link", "tertiary", "tertiary_link", "unclassified",
+            "residential", "living_street", "service", "road");
+
+    /**
+     * Graphe lu : nœuds 0..n-1 et tronçons (from[k], to[k]) de longueur {@code lengths[k]} km.
+     */
+    record RoadGraph(double[] latitudes, double[] longitudes, int[] from, int[] to, double[] lengths) {
+
+        int nodeCount() {
+            return latitudes.length;
+        }
+
+        int edgeCount() {
+            return from.length;
+        }
+    }
+
+    private OsmRoadReader() {
+    }
+
+    static RoadGraph read(Path osmFile) throws IOException {
+        Map<Long, Integer> nodeIndex = new HashMap<>();
+        LongList segments = new LongList();
+        try (InputStream input = open(osmFile)) {
+            readWays(reader(input), nodeIndex, segments);
+        } catch (XMLStreamException e) {
+            throw new IOException("Extrait OSM invalide: " + osmFile, e);
+        }
+
+        double[] latitudes = new double[nodeIndex.size()];
+        double[] longitudes = new double[nodeIndex.size()];
+        Arrays.fill(latitudes, Double.NaN);
+        try (InputStream input = open(osmFile)) {
+            readNodes(reader(input), nodeIndex, latitudes, longitudes);
+        } catch (XMLStreamException e) {
+            throw new IOException("Extrait OSM invalide: " + osmFile, e);
+        }
+        return largestComponent(latitudes, longitudes, segments);
+    }
+
+    private static void readWays(XMLStreamReader xml, Map<Long, Integer> nodeIndex, LongList segments) throws XMLStreamException {
+        LongList refs = new LongList();
+        boolean inWay = false;
+        boolean carrossable = false;
+        boolean interdit = false;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "way" -> {
+                        inWay = true;
+                        carrossable = false;
+                        interdit = false;
+                        refs.clear();
+                    }
+                    case "nd" -> {
+                        if (inWay) {
+                            refs.add(Long.parseLong(xml.getAttributeValue(null, "ref")));
+                        }
+                    }
+                    case "tag" -> {
+                        if (inWay) {
+                            String key = xml.getAttributeValue(null, "k");
+                            String value = xml.getAttributeValue(null, "v");
+                            if ("highway".equals(key)) {
+                                carrossable = VOIES.contains(value);
+                            } else if (("access".equals(key) || "motor_vehicle".equals(key) || "motorcar".equals(key))
+                                    && "no".equals(value)) {
+                                interdit = true;
+                            }
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "way".equals(xml.getLocalName())) {
+                inWay = false;
+                if (carrossable && !interdit) {
+                    for (int k = 1; k < refs.size(); k++) {
+                        long from = refs.get(k - 1);
+                        long to = refs.get(k);
+                        if (from != to) {
+                            segments.add(nodeIndex.computeIfAbsent(from, id -> nodeIndex.size()));
+                            segments.add(nodeIndex.computeIfAbsent(to, id -> nodeIndex.size()));
+                        }
+                    }
+                }
+            }
+        }
+        xml.close();
+    }
+
+    private static void readNodes(XMLStreamReader xml, Map<Long, Integer> nodeIndex,
+                                  double[] latitudes, double[] longitudes) throws XMLStreamException {
+        while (xml.hasNext()) {
+            if (xml.next() == XMLStreamConstants.START_ELEMENT && "node".equals(xml.getLocalName())) {
+                Integer index = nodeIndex.get(Long.parseLong(xml.getAttributeValue(null, "id")));
+                if (index != null) {
+                    latitudes[index] = Double.parseDouble(xml.getAttributeValue(null, "lat"));
+                    longitudes[index] = Double.parseDouble(xml.getAttributeValue(null, "lon"));
+                }
+            }
+        }
+        xml.close();
+    }
+
+    /**
+     * Garde la plus grande composante connexe (union-find) et renumérote ses nœuds.
+     */
+    private static RoadGraph largestComponent(double[] latitudes, double[] longitudes, LongList segments) {
+        int n = latitudes.length;
+        int[] parent = new int[n];
+        int[] componentSize = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            componentSize[i] = 1;
+        }
+        int segmentCount = segments.size() / 2;
+        for (int k = 0; k < segmentCount; k++) {
+            int a = (int) segments.get(2 * k);
+            int b = (int) segments.get(2 * k + 1);
+            if (Double.isNaN(latitudes[a]) || Double.isNaN(latitudes[b])) {
+                continue; // Nœud absent de l'extrait (voie coupée à la frontière)
+            }
+            int ra = find(parent, a);
+            int rb = find(parent, b);
+            if (ra != rb) {
+                if (componentSize[ra] < componentSize[rb]) {
+                    int swap = ra;
+                    ra = rb;
+                    rb = swap;
+                }
+                parent[rb] = ra;
+                componentSize[ra] += componentSize[rb];
+            }
+        }
+        int best = -1;
+        for (int i = 0; i < n; i++) {
+            if (!Double.isNaN(latitudes[i]) && parent[i] == i && (best < 0 || componentSize[i] > componentSize[best])) {
+                best = i;
+            }
+        }
+
+        int[] renumber = new int[n];
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            renumber[i] = best >= 0 && !Double.isNaN(latitudes[i]) && find(parent, i) == best ? kept++ : -1;
+        }
+        double[] keptLatitudes = new double[kept];
+        double[] keptLongitudes = new double[kept];
+        for (int i = 0; i < n; i++) {
+            if (renumber[i] >= 0) {
+                keptLatitudes[renumber[i]] = latitudes[i];
+                keptLongitudes[renumber[i]] = longitudes[i];
+            }
+        }
+        LongList edges = new LongList();
+        for (int k = 0; k < segmentCount; k++) {
+            int a = renumber[(int) segments.get(2 * k)];
+            int b = renumber[(int) segments.get(2 * k + 1)];
+            if (a >= 0 && b >= 0) {
+                edges.add(a);
+                edges.add(b);
+            }
+        }
+        int edgeCount = edges.size() / 2;
+        int[] from = new int[edgeCount];
+        int[] to = new int[edgeCount];
+        double[] lengths = new double[edgeCount];
+        for (int k = 0; k < edgeCount; k++) {
+            from[k] = (int) edges.get(2 * k);
+            to[k] = (int) edges.get(2 * k + 1);
+            lengths[k] = Haversine.distance(keptLatitudes[from[k]], keptLongitudes[from[k]],
+                    keptLatitudes[to[k]], keptLongitudes[to[k]]);
+        }
+        return new RoadGraph(keptLatitudes, keptLongitudes, from, to, lengths);
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private static InputStream open(Path osmFile) throws IOException {
+        InputStream input = new BufferedInputStream(Files.newInputStream(osmFile), 1 << 16);
+        return osmFile.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(input, 1 << 16) : input;
+    }
+
+    private static XMLStreamReader reader(InputStream input) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory.createXMLStreamReader(input);
+    }
+
+    /**
+     * Liste de long primitifs extensible.
+     */
+    private static final class LongList {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tournées collecte-livraison : chaque mission est une paire (collecte, livraison) à servir
+ * par le même livreur, collecte d'abord ; une livraison sans collecte part du dépôt, une
+ * collecte sans livraison y revient (voir {@link RoutingProblem#pickupOf}).
+ * <ul>
+ *     <li>Construction : insertion par regret-2 des paires entières, chacune à la meilleure
+ *     position (collecte en i, livraison en j &ge; i) de la tournée qui la regrette le plus ;</li>
+ *     <li>Amélioration : déplacement de paires (retrait puis meilleure réinsertion, toutes
+ *     tournées confondues) jusqu'à stabilité ou échéance du {@link SearchBudget}.</li>
+ * </ul>
+ * Faisabilité incrémentale : chaque tournée garde la charge à bord sur chacun de ses arcs. Insérer
+ * une paire de poids q ajoute q sur les arcs [i, j] ; le balayage de j à i fixé entretient le
+ * maximum courant et s'arrête dès que la capacité est dépassée, sans jamais rejouer la tournée.
+ * Les étapes 2opt / oropt ne s'appliquent pas ici : elles casseraient la précédence.
+ */
+public final class PickupDeliverySolver {
+
+    private PickupDeliverySolver() {
+    }
+
+    public static List<PlannedRoute> solve(RoutingProblem problem, SearchBudget budget) {
+        Instance instance = new Instance(problem);
+        instance.construct();
+        instance.relocate(budget);
+        List<PlannedRoute> routes = instance.toRoutes();
+        double total = 0;
+        for (PlannedRoute route : routes) {
+            total += problem.routeDistance(route.stops());
+        }
+        budget.reportDistance(total);
+        return routes;
+    }
+
+    private static final class Instance {
+
+        private final RoutingProblem problem;
+        // Paires : collecte (0 = dépôt), livraison (0 = dépôt), poids
+        private final int[] pickups;
+        private final int[] deliveries;
+        private final double[] quantities;
+        private final int[] routeOfRequest;
+        private final Tour[] tours;
+        private final Insertion scratch = new Insertion();
+
+        Instance(RoutingProblem problem) {
+            this.problem = problem;
+            int n = problem.stopCount();
+            int[] p = new int[n];
+            int[] d = new int[n];
+            double[] q = new double[n];
+            int count = 0;
+            for (int stop = 1; stop <= n; stop++) {
+                if (problem.pickup(stop)) {
+                    p[count] = stop;
+                    d[count] = problem.deliveryOf(stop);
+                } else if (problem.pickupOf(stop) == 0) {
+                    p[count] = 0;
+                    d[count] = stop;
+                } else {
+                    continue; // Livraison couverte par sa collecte
+                }
+                q[count++] = problem.demand(stop);
+            }
+            this.pickups = Arrays.copyOf(p, count);
+            this.deliveries = Arrays.copyOf(d, count);
+            this.quantities = Arrays.copyOf(q, count);
+            this.routeOfRequest = new int[count];
+            Arrays.fill(routeOfRequest, -1);
+
+            int routeCount = Math.max(1, problem.vehicleCount());
+            this.tours = new Tour[routeCount];
+            for (int t = 0; t < routeCount; t++) {
+                tours[t] = new Tour(problem, problem.vehicleCount() == 0 ? -1 : t);
+            }
+        }
+
+        // --- Construction par regret-2 ---
+
+        void construct() {
+            int requests = pickups.length;
+            int routes = tours.length;
+            int[] positionsI = new int[requests * routes];
+            int[] positionsJ = new int[requests * routes];
+            int[] pending = new int[requests];
+            for (int r = 0; r < requests; r++) {
+                pending[r] = r;
+            }
+            Insertion best = new Insertion();
+            RegretInsertion insertion = new RegretInsertion((request, route) -> {
+                tours[route].bestInsertion(pickups[request], deliveries[request], quantities[request], route, scratch);
+                positionsI[request * routes + route] = scratch.i;
+                positionsJ[request * routes + route] = scratch.j;
+                return scratch.cost;
+            }, (request, route) -> {
+                best.set(0, route, positionsI[request * routes + route], positionsJ[request * routes + route]);
+                apply(request, best);
+            });
+            // Les paires qui ne tiennent plus nulle part restent non affectées
+            insertion.insertAll(pending, requests, routes, true);
+        }
+
+        // --- Déplacement de paires ---
+
+        void relocate(SearchBudget budget) {
+            Insertion best = new Insertion();
+            Insertion candidate = new Insertion();
+            boolean improved = true;
+            while (improved && !budget.expired()) {
+                improved = false;
+                for (int r = 0; r < pickups.length && !budget.expired(); r++) {
+                    int route = routeOfRequest[r];
+                    double saving = 0;
+                    int[] backup = null;
+                    if (route >= 0) {
+                        Tour tour = tours[route];
+                        backup = tour.snapshot();
+                        double before = tour.cost;
+                        tour.remove(pickups[r], deliveries[r]);
+                        saving = before - tour.cost;
+                        routeOfRequest[r] = -1;
+                    }
+                    best.set(Double.POSITIVE_INFINITY, -1, -1, -1);
+                    for (int t = 0; t < tours.length; t++) {
+                        tours[t].bestInsertion(pickups[r], deliveries[r], quantities[r], t, candidate);
+                        if (candidate.cost < best.cost) {
+                            best.set(candidate.cost, t, candidate.i, candidate.j);
+                        }
+                    }
+                    if (best.route >= 0 && (route < 0 || best.cost < saving - TourState.EPSILON)) {
+                        apply(r, best);
+                        improved = true;
+                        budget.recordMoves(1);
+                    } else if (route >= 0) {
+                        tours[route].restore(backup);
+                        routeOfRequest[r] = route;
+                    }
+                }
+            }
+        }
+
+        private void apply(int request, Insertion insertion) {
+            tours[insertion.route].insert(pickups[request], deliveries[request], insertion.i, insertion.j);
+            routeOfRequest[request] = insertion.route;
+        }
+
+        List<PlannedRoute> toRoutes() {
+            List<PlannedRoute> routes = new ArrayList<>();
+            for (Tour tour : tours) {
+                if (tour.length > 0) {
+                    routes.add(new PlannedRoute(tour.vehicle, Arrays.copyOf(tour.stops, tour.length)));
+                }
+            }
+            return routes;
+        }
+    }
+
+    /**
+     * Meilleure insertion trouvée : coût, tournée, positions de la collecte (i) et de la livraison (j).
+     */
+    private static final class Insertion {
+        double cost = Double.POSITIVE_INFINITY;
+        int route = -1;
+        int i = -1;
+        int j = -1;
+
+        void set(double cost, int route, int i, int j) {
+            this.cost = cost;
+            this.route = route;
+            this.i = i;
+            this.j = j;
+        }
+    }
+
+    /**
+     * Tournée d'un véhicule avec la charge à bord sur chaque arc : arcLoad[m] = charge en arrivant
+     * à la position m (arc m - 1 -> m, l'arc length étant le retour au dépôt).
+     */
+    private static final class Tour {
+
+        private final RoutingProblem problem;
+        private final int vehicle;
+        private final double capacity;
+        private int[] stops = new int[8];
+        private int length;
+        private double[] arcLoad = new double[9];
+        private double[] suffixMax = new double[9];
+        private double distance;
+        private double cost;
+
+        Tour(RoutingProblem problem, int vehicle) {
+            this.problem = problem;
+            this.vehicle = vehicle;
+            this.capacity = problem.capacity(vehicle);
+        }
+
+        /**
+         * Meilleure insertion de la paire (collecte {@code p}, livraison {@code d}, poids {@code q}) ;
+         * coût infini si aucune position ne respecte la capacité ou l'accès du véhicule.
+         */
+        void bestInsertion(int p, int d, double q, int route, Insertion best) {
+            best.set(Double.POSITIVE_INFINITY, route, -1, -1);
+            if ((p != 0 && !problem.canServe(vehicle, p)) || (d != 0 && !problem.canServe(vehicle, d)) || q > capacity) {
+                return;
+            }
+            double perKm = problem.costPerKm(vehicle);
+            double fixed = length == 0 ? problem.fixedCost(vehicle) : 0.0;
+            if (p == 0) {
+                // Colis chargé au dépôt : charge + q sur les arcs [0, j]
+                double max = Double.NEGATIVE_INFINITY;
+                for (int j = 0; j <= length; j++) {
+                    max = Math.max(max, arcLoad[j]);
+                    if (max + q > capacity) {
+                        break;
+                    }
+                    consider(best, delta(d, j) * perKm + fixed, 0, j);
+                }
+                return;
+            }
+            for (int i = 0; i <= length; i++) {
+                if (arcLoad[i] + q > capacity) {
+                    continue;
+                }
+                double pickupDelta = delta(p, i);
+                if (d == 0) {
+                    // Colis ramené au dépôt : charge + q sur les arcs [i, length]
+                    if (suffixMax[i] + q <= capacity) {
+                        consider(best, pickupDelta * perKm + fixed, i, length);
+                    }
+                    continue;
+                }
+                // Paire sur le même arc : prev -> p -> d -> next
+                int prev = i == 0 ? 0 : stops[i - 1];
+                int next = i == length ? 0 : stops[i];
+                double adjacent = problem.distance(prev, p) + problem.distance(p, d) + problem.distance(d, next)
+                        - problem.distance(prev, next);
+                consider(best, adjacent * perKm + fixed, i, i);
+                double max = arcLoad[i];
+                for (int j = i + 1; j <= length; j++) {
+                    max = Math.max(max, arcLoad[j]);
+                    if (max + q > capacity) {
+                        break;
+                    }
+                    consider(best, (pickupDelta + delta(d, j)) * perKm + fixed, i, j);
+                }
+            }
+        }
+
+        private static void consider(Insertion best, double cost, int i, int j) {
+            if (cost < best.cost) {
+                best.cost = cost;
+                best.i = i;
+                best.j = j;
+            }
+        }
+
+        // Surcoût de l'insertion du point sur l'arc m (entre les positions m - 1 et m)
+        private double delta(int point, int m) {
+            int prev = m == 0 ? 0 : stops[m - 1];
+            int next = m == length ? 0 : stops[m];
+            return problem.distance(prev, point) + problem.distance(point, next) - problem.distance(prev, next);
+        }
+
+        /**
+         * Insère la collecte sur l'arc i et la livraison sur l'arc j (positions dans la tournée
+         * avant insertion, i &le; j) ; un point 0 (dépôt) n'est pas inséré.
+         */
+        void insert(int p, int d, int i, int j) {
+            int added = (p != 0 ? 1 : 0) + (d != 0 ? 1 : 0);
+            int[] next = new int[Math.max(stops.length, length + added)];
+            int w = 0;
+            for (int k = 0; k <= length; k++) {
+                if (k == i && p != 0) {
+                    next[w++] = p;
+                }
+                if (k == j && d != 0) {
+                    next[w++] = d;
+                }
+                if (k < length) {
+                    next[w++] = stops[k];
+                }
+            }
+            stops = next;
+            length = w;
+            refresh();
+        }
+
+        void remove(int p, int d) {
+            int w = 0;
+            for (int k = 0; k < length; k++) {
+                if (stops[k] != p && stops[k] != d) {
+                    stops[w++] = stops[k];
+                }
+            }
+            length = w;
+            refresh();
+        }
+
+        int[] snapshot() {
+            return Arrays.copyOf(stops, length);
+        }
+
+        void restore(int[] snapshot) {
+            if (stops.length < snapshot.length) {
+                stops = new int[snapshot.length];
+            }
+            System.arraycopy(snapshot, 0, stops, 0, snapshot.length);
+            length = snapshot.length;
+            refresh();
+        }
+
+        // Charges par arc, maxima suffixes, distance et coût : O(longueur), après chaque modification
+        private void refresh() {
+            if (arcLoad.length < length + 1) {
+                arcLoad = new double[stops.length + 1];
+                suffixMax = new double[stops.length + 1];
+            }
+            double load = 0;
+            for (int k = 0; k < length; k++) {
+                int stop = stops[k];
+                if (!problem.pickup(stop) && problem.pickupOf(stop) == 0) {
+                    load += problem.demand(stop);
+                }
+            }
+            distance = 0;
+            int previous = 0;
+            for (int k = 0; k < length; k++) {
+                int stop = stops[k];
+                arcLoad[k] = load;
+                load += problem.pickup(stop) ? problem.demand(stop) : -problem.demand(stop);
+                distance += problem.distance(previous, stop);
+                previous = stop;
+            }
+            arcLoad[length] = load;
+            distance += problem.distance(previous, 0);
+            suffixMax[length] = arcLoad[length];
+            for (int k = length - 1; k >= 0; k--) {
+                suffixMax[k] = Math.max(arcLoad[k], suffixMax[k + 1]);
+            }
+            cost = length == 0 ? 0.0 : problem.fixedCost(vehicle) + problem.costPerKm(vehicle) * distance;
+        }
+    }
+}
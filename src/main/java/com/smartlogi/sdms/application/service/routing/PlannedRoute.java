@@ -0,0 +1,12 @@
+package com.smartlogi.sdms.application.service.routing;
+
+/**
+ * Tournée interne d'un solveur : le véhicule (indice dans {@code request.getLivreurs()},
+ * -1 si aucun livreur n'est fourni) et l'ordre des arrêts (indices de la matrice, dépôt exclu).
+ */
+public record PlannedRoute(int vehicle, int[] stops) {
+
+    public PlannedRoute withStops(int[] newStops) {
+        return new PlannedRoute(vehicle, newStops);
+    }
+}
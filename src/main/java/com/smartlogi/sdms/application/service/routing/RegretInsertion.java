@@ -0,0 +1,103 @@
+package com.smartlogi.sdms.application.service.routing;
+
+/**
+ * Insertion d'éléments en attente (arrêts, paires collecte-livraison) dans des tournées, par regret-2
+ * (d'abord l'élément qui perdrait le plus à ne pas obtenir sa meilleure tournée) ou au meilleur coût.
+ * <p>
+ * Le coût d'insertion de chaque élément dans chaque tournée est mis en cache ; après une insertion,
+ * seule la colonne de la tournée modifiée est réévaluée. L'appelant calcule les coûts et mémorise la
+ * meilleure position de chaque couple (élément, tournée) : c'est elle qu'il applique à l'insertion.
+ * Les tampons sont réutilisés d'un appel à l'autre.
+ */
+final class RegretInsertion {
+
+    @FunctionalInterface
+    interface Evaluator {
+        /**
+         * Coût de la meilleure insertion de {@code item} dans {@code route},
+         * {@link Double#POSITIVE_INFINITY} si elle est impossible.
+         */
+        double cost(int item, int route);
+    }
+
+    @FunctionalInterface
+    interface Inserter {
+        /**
+         * Insère {@code item} dans {@code route}, à la position mémorisée lors de sa dernière évaluation.
+         */
+        void insert(int item, int route);
+    }
+
+    private final Evaluator evaluator;
+    private final Inserter inserter;
+    private double[] costs = new double[0];
+
+    RegretInsertion(Evaluator evaluator, Inserter inserter) {
+        this.evaluator = evaluator;
+        this.inserter = inserter;
+    }
+
+    /**
+     * Insère les {@code count} premiers éléments de {@code pending} (modifié) tant qu'il en reste un
+     * qui tient ; les autres restent non affectés. À égalité, le moindre coût puis le premier dans
+     * {@code pending} l'emporte.
+     *
+     * @param regret regret-2 si vrai, meilleur coût sinon
+     */
+    void insertAll(int[] pending, int count, int routes, boolean regret) {
+        if (costs.length < count * routes) {
+            costs = new double[count * routes];
+        }
+        for (int row = 0; row < count; row++) {
+            for (int route = 0; route < routes; route++) {
+                costs[row * routes + route] = evaluator.cost(pending[row], route);
+            }
+        }
+
+        while (count > 0) {
+            int chosen = -1;
+            int chosenRoute = -1;
+            double chosenKey = Double.NEGATIVE_INFINITY;
+            double chosenCost = Double.POSITIVE_INFINITY;
+            for (int row = 0; row < count; row++) {
+                int base = row * routes;
+                int bestRoute = -1;
+                double first = Double.POSITIVE_INFINITY;
+                double second = Double.POSITIVE_INFINITY;
+                for (int route = 0; route < routes; route++) {
+                    double cost = costs[base + route];
+                    if (cost < first) {
+                        second = first;
+                        first = cost;
+                        bestRoute = route;
+                    } else if (cost < second) {
+                        second = cost;
+                    }
+                }
+                if (bestRoute < 0) {
+                    continue;
+                }
+                // Une seule tournée possible : regret maximal, départagé par le coût
+                double key = regret ? (second == Double.POSITIVE_INFINITY ? Double.MAX_VALUE : second - first) : -first;
+                if (key > chosenKey || (key == chosenKey && first < chosenCost)) {
+                    chosen = row;
+                    chosenRoute = bestRoute;
+                    chosenKey = key;
+                    chosenCost = first;
+                }
+            }
+            if (chosen < 0) {
+                return;
+            }
+            inserter.insert(pending[chosen], chosenRoute);
+
+            // La dernière ligne prend la place de la ligne insérée
+            count--;
+            pending[chosen] = pending[count];
+            System.arraycopy(costs, count * routes, costs, chosen * routes, routes);
+            for (int row = 0; row < count; row++) {
+                costs[row * routes + chosenRoute] = evaluator.cost(pending[row], chosenRoute);
+            }
+        }
+    }
+}
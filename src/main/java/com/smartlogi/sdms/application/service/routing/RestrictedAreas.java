@@ -0,0 +1,81 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.infrastructure.utils.Haversine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zones à circulation restreinte (anciennes médinas) : cercles {@code latitude,longitude,rayonKm}
+ * séparés par des {@code ;} dans {@code application.routing.restricted-areas}.
+ * <p>
+ * Les arrêts situés dans l'une de ces zones sont marqués {@link LocationDTO#isAccesRestreint()}
+ * avant l'optimisation ; les solveurs ne les confient alors qu'aux véhicules qui y ont accès
+ * (pas aux camions). Un marquage déjà posé par l'appelant est conservé.
+ */
+@Component
+public class RestrictedAreas {
+
+    private final List<double[]> areas = new ArrayList<>();
+
+    public RestrictedAreas() {
+    }
+
+    @Autowired
+    public RestrictedAreas(@Value("${application.routing.restricted-areas:}") String areas) {
+        configure(areas);
+    }
+
+    /**
+     * Marque les arrêts de la requête situés dans une zone restreinte.
+     */
+    public void mark(RouteRequest request) {
+        mark(request.getLocations());
+    }
+
+    public void mark(List<LocationDTO> locations) {
+        if (areas.isEmpty() || locations == null) {
+            return;
+        }
+        for (LocationDTO location : locations) {
+            if (!location.isAccesRestreint() && contains(location.getLatitude(), location.getLongitude())) {
+                location.setAccesRestreint(true);
+            }
+        }
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        for (double[] area : areas) {
+            if (Haversine.distance(latitude, longitude, area[0], area[1]) <= area[2]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void configure(String definition) {
+        areas.clear();
+        if (definition == null || definition.isBlank()) {
+            return;
+        }
+        for (String area : definition.split(";")) {
+            if (area.isBlank()) {
+                continue;
+            }
+            String[] parts = area.trim().split("\\s*,\\s*");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Zone restreinte invalide (latitude,longitude,rayonKm attendu): " + area);
+            }
+            try {
+                areas.add(new double[]{Double.parseDouble(parts[0]), Double.parseDouble(parts[1]), Double.parseDouble(parts[2])});
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Zone restreinte invalide (latitude,longitude,rayonKm attendu): " + area, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.infrastructure.utils.Haversine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Réseau routier hors ligne sous forme de hiérarchie de contraction (nœuds numérotés par rang,
+ * arêtes montantes en CSR), construit depuis un extrait OpenStreetMap ({@link OsmRoadReader},
+ * {@link ContractionHierarchy}) puis gardé en cache binaire à côté de l'extrait ({@code <extrait>.ch}).
+ * <p>
+ * Requêtes :
+ * <ul>
+ *     <li>{@link #manyToMany} : algorithme des seaux, recherches montantes depuis les cibles (seaux)
+ *     puis depuis les sources, chacune en parallèle ;</li>
+ *     <li>{@link #oneToAll} : PHAST, recherche montante puis balayage des rangs décroissants, pour une
+ *     source face à beaucoup de cibles.</li>
+ * </ul>
+ * Immuable après construction ; les tampons de recherche sont propres à chaque thread.
+ */
+@Slf4j
+public final class RoadNetwork {
+
+    private static final int MAGIC = 0x53444348; // "SDCH"
+    private static final int VERSION = 1;
+    private static final double CELLULE_DEGRES = 0.01;
+    private static final int CELLULES_MAX = 1 << 22;
+    private static final double KM_PAR_DEGRE = 111.19;
+    // En dessous, les recherches restent sur le thread appelant
+    private static final int RECHERCHES_PARALLELE = 8;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] upFirst;
+    private final int[] upTarget;
+    private final double[] upWeight;
+
+    // Grille d'accrochage : nœuds triés par cellule
+    private double minLatitude;
+    private double minLongitude;
+    private double cellDegrees;
+    private int rows;
+    private int columns;
+    private int[] cellFirst;
+    private int[] cellNodes;
+
+    private final ThreadLocal<Search> searches;
+
+    RoadNetwork(double[] latitudes, double[] longitudes, int[] upFirst, int[] upTarget, double[] upWeight) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.upFirst = upFirst;
+        this.upTarget = upTarget;
+        this.upWeight = upWeight;
+        this.searches = ThreadLocal.withInitial(() -> new Search(latitudes.length));
+        buildGrid();
+    }
+
+    /**
+     * Charge le réseau de l'extrait : depuis le cache {@code .ch} s'il est plus récent que l'extrait,
+     * sinon lecture et contraction (puis écriture du cache, sans échec si elle est impossible).
+     *
+     * @throws IllegalStateException si l'extrait ne contient aucune voie carrossable
+     */
+    public static RoadNetwork load(Path osmFile) {
+        Path cache = osmFile.resolveSibling(osmFile.getFileName() + ".ch");
+        try {
+            if (Files.exists(cache) && Files.getLastModifiedTime(cache).compareTo(Files.getLastModifiedTime(osmFile)) >= 0) {
+                try {
+                    RoadNetwork network = read(cache);
+                    log.info("Réseau routier chargé depuis {} ({} nœuds)", cache, network.nodeCount());
+                    return network;
+                } catch (IOException e) {
+                    log.warn("Cache du réseau routier {} illisible, reconstruction: {}", cache, e.getMessage());
+                }
+            }
+            long start = System.nanoTime();
+            OsmRoadReader.RoadGraph graph = OsmRoadReader.read(osmFile);
+            if (graph.nodeCount() == 0) {
+                throw new IllegalStateException("Aucune voie carrossable dans l'extrait OSM: " + osmFile);
+            }
+            RoadNetwork network = ContractionHierarchy.build(graph);
+            log.info("Réseau routier {} contracté en {} ms ({} nœuds, {} tronçons, {} arêtes montantes)", osmFile,
+                    (System.nanoTime() - start) / 1_000_000, graph.nodeCount(), graph.edgeCount(), network.upTarget.length);
+            try {
+                network.save(cache);
+            } catch (IOException e) {
+                log.warn("Écriture du cache du réseau routier {} impossible: {}", cache, e.getMessage());
+            }
+            return network;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Extrait OSM illisible: " + osmFile, e);
+        }
+    }
+
+    public int nodeCount() {
+        return latitudes.length;
+    }
+
+    /**
+     * Identifie le réseau (taille du graphe contracté) : un autre extrait donne une autre signature.
+     */
+    public String signature() {
+        return latitudes.length + "-" + upTarget.length;
+    }
+
+    double latitude(int node) {
+        return latitudes[node];
+    }
+
+    double longitude(int node) {
+        return longitudes[node];
+    }
+
+    /**
+     * Nœud le plus proche (Haversine) : anneaux de cellules autour du point, jusqu'à ce qu'aucune
+     * cellule plus lointaine ne puisse contenir mieux.
+     */
+    int nearestNode(double latitude, double longitude) {
+        int row = clamp((int) Math.floor((latitude - minLatitude) / cellDegrees), rows);
+        int column = clamp((int) Math.floor((longitude - minLongitude) / cellDegrees), columns);
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        int maxRing = Math.max(rows, columns);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = row - ring; r <= row + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                boolean edgeRow = r == row - ring || r == row + ring;
+                for (int c = column - ring; c <= column + ring; c += edgeRow ? 1 : 2 * Math.max(ring, 1)) {
+                    if (c < 0 || c >= columns) {
+                        continue;
+                    }
+                    int cell = r * columns + c;
+                    for (int k = cellFirst[cell]; k < cellFirst[cell + 1]; k++) {
+                        int node = cellNodes[k];
+                        double distance = Haversine.distance(latitude, longitude, latitudes[node], longitudes[node]);
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            best = node;
+                        }
+                    }
+                }
+            }
+            // Les cellules de l'anneau suivant sont à au moins ring cellules du point
+            double latitudeMax = Math.min(89.0, Math.abs(latitude) + (ring + 1) * cellDegrees);
+            if (best >= 0 && bestDistance <= ring * cellDegrees * KM_PAR_DEGRE * Math.cos(Math.toRadians(latitudeMax))) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Distances routières (km) : {@code result[s][t]} entre {@code sources[s]} et {@code targets[t]}.
+     */
+    double[][] manyToMany(int[] sources, int[] targets) {
+        // Recherches montantes depuis les cibles
+        int[][] reachedNodes = new int[targets.length][];
+        double[][] reachedDistances = new double[targets.length][];
+        range(targets.length).forEach(t -> {
+            Search search = searches.get();
+            search.upward(targets[t]);
+            reachedNodes[t] = Arrays.copyOf(search.touched, search.touchedCount);
+            reachedDistances[t] = new double[search.touchedCount];
+            for (int k = 0; k < search.touchedCount; k++) {
+                reachedDistances[t][k] = search.dist[search.touched[k]];
+            }
+            search.reset();
+        });
+
+        // Seaux triés par nœud : (nœud << 32 | entrée)
+        int entries = 0;
+        for (int[] nodes : reachedNodes) {
+            entries += nodes.length;
+        }
+        long[] keys = new long[entries];
+        int[] entryTarget = new int[entries];
+        double[] entryDistance = new double[entries];
+        int entry = 0;
+        for (int t = 0; t < targets.length; t++) {
+            for (int k = 0; k < reachedNodes[t].length; k++) {
+                keys[entry] = ((long) reachedNodes[t][k] << 32) | entry;
+                entryTarget[entry] = t;
+                entryDistance[entry] = reachedDistances[t][k];
+                entry++;
+            }
+        }
+        Arrays.sort(keys);
+        int[] bucketNode = new int[entries];
+        int[] bucketTarget = new int[entries];
+        double[] bucketDistance = new double[entries];
+        for (int k = 0; k < entries; k++) {
+            int index = (int) keys[k];
+            bucketNode[k] = (int) (keys[k] >>> 32);
+            bucketTarget[k] = entryTarget[index];
+            bucketDistance[k] = entryDistance[index];
+        }
+
+        // Recherches montantes depuis les sources, rencontre dans les seaux
+        double[][] result = new double[sources.length][targets.length];
+        range(sources.length).forEach(s -> {
+            double[] row = result[s];
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+            Search search = searches.get();
+            search.upward(sources[s]);
+            for (int k = 0; k < search.touchedCount; k++) {
+                int node = search.touched[k];
+                double fromSource = search.dist[node];
+                for (int b = firstBucket(bucketNode, node); b < bucketNode.length && bucketNode[b] == node; b++) {
+                    double candidate = fromSource + bucketDistance[b];
+                    if (candidate < row[bucketTarget[b]]) {
+                        row[bucketTarget[b]] = candidate;
+                    }
+                }
+            }
+            search.reset();
+        });
+        return result;
+    }
+
+    /**
+     * Distances routières (km) de {@code source} vers tous les nœuds (PHAST).
+     */
+    double[] oneToAll(int source) {
+        double[] all = new double[latitudes.length];
+        Arrays.fill(all, Double.POSITIVE_INFINITY);
+        Search search = searches.get();
+        search.upward(source);
+        for (int k = 0; k < search.touchedCount; k++) {
+            all[search.touched[k]] = search.dist[search.touched[k]];
+        }
+        search.reset();
+        // Rangs décroissants : les voisins montants sont déjà définitifs
+        for (int node = latitudes.length - 1; node >= 0; node--) {
+            double best = all[node];
+            for (int e = upFirst[node]; e < upFirst[node + 1]; e++) {
+                double candidate = all[upTarget[e]] + upWeight[e];
+                if (candidate < best) {
+                    best = candidate;
+                }
+            }
+            all[node] = best;
+        }
+        return all;
+    }
+
+    private static IntStream range(int count) {
+        IntStream indices = IntStream.range(0, count);
+        return count >= RECHERCHES_PARALLELE ? indices.parallel() : indices;
+    }
+
+    private static int firstBucket(int[] bucketNode, int node) {
+        int low = 0;
+        int high = bucketNode.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (bucketNode[middle] < node) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int clamp(int index, int size) {
+        return Math.max(0, Math.min(size - 1, index));
+    }
+
+    private void buildGrid() {
+        int n = latitudes.length;
+        double maxLatitude = Double.NEGATIVE_INFINITY;
+        double maxLongitude = Double.NEGATIVE_INFINITY;
+        minLatitude = Double.POSITIVE_INFINITY;
+        minLongitude = Double.POSITIVE_INFINITY;
+        for (int node = 0; node < n; node++) {
+            minLatitude = Math.min(minLatitude, latitudes[node]);
+            minLongitude = Math.min(minLongitude, longitudes[node]);
+            maxLatitude = Math.max(maxLatitude, latitudes[node]);
+            maxLongitude = Math.max(maxLongitude, longitudes[node]);
+        }
+        if (n == 0) {
+            minLatitude = minLongitude = maxLatitude = maxLongitude = 0.0;
+        }
+        cellDegrees = CELLULE_DEGRES;
+        do {
+            rows = (int) ((maxLatitude - minLatitude) / cellDegrees) + 1;
+            columns = (int) ((maxLongitude - minLongitude) / cellDegrees) + 1;
+            if ((long) rows * columns > CELLULES_MAX) {
+                cellDegrees *= 2;
+            }
+        } while ((long) rows * columns > CELLULES_MAX);
+
+        int[] cellOf = new int[n];
+        cellFirst = new int[rows * columns + 1];
+        for (int node = 0; node < n; node++) {
+            int row = clamp((int) ((latitudes[node] - minLatitude) / cellDegrees), rows);
+            int column = clamp((int) ((longitudes[node] - minLongitude) / cellDegrees), columns);
+            cellOf[node] = row * columns + column;
+            cellFirst[cellOf[node] + 1]++;
+        }
+        for (int cell = 0; cell < rows * columns; cell++) {
+            cellFirst[cell + 1] += cellFirst[cell];
+        }
+        cellNodes = new int[n];
+        int[] fill = Arrays.copyOf(cellFirst, rows * columns);
+        for (int node = 0; node < n; node++) {
+            cellNodes[fill[cellOf[node]]++] = node;
+        }
+    }
+
+    void save(Path cache) throws IOException {
+        Path temporary = cache.resolveSibling(cache.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(latitudes.length);
+            for (int node = 0; node < latitudes.length; node++) {
+                out.writeDouble(latitudes[node]);
+                out.writeDouble(longitudes[node]);
+            }
+            for (int first : upFirst) {
+                out.writeInt(first);
+            }
+            out.writeInt(upTarget.length);
+            for (int e = 0; e < upTarget.length; e++) {
+                out.writeInt(upTarget[e]);
+                out.writeDouble(upWeight[e]);
+            }
+        }
+        // Jamais de cache à moitié écrit sous le nom définitif
+        Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static RoadNetwork read(Path cache) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Format de cache inconnu");
+            }
+            int n = in.readInt();
+            double[] latitudes = new double[n];
+            double[] longitudes = new double[n];
+            for (int node = 0; node < n; node++) {
+                latitudes[node] = in.readDouble();
+                longitudes[node] = in.readDouble();
+            }
+            int[] upFirst = new int[n + 1];
+            for (int node = 0; node <= n; node++) {
+                upFirst[node] = in.readInt();
+            }
+            int m = in.readInt();
+            if (m != upFirst[n]) {
+                throw new IOException("Cache incohérent");
+            }
+            int[] upTarget = new int[m];
+            double[] upWeight = new double[m];
+            for (int e = 0; e < m; e++) {
+                upTarget[e] = in.readInt();
+                upWeight[e] = in.readDouble();
+            }
+            return new RoadNetwork(latitudes, longitudes, upFirst, upTarget, upWeight);
+        }
+    }
+
+    /**
+     * Tampons d'une recherche montante (Dijkstra sur les seules arêtes vers un rang supérieur). Les nœuds
+     * bloqués gardent une distance majorée, sans effet sur les minimums des requêtes.
+     */
+    private final class Search {
+
+        final double[] dist;
+        final int[] touched;
+        int touchedCount;
+        final NodeHeap heap;
+
+        Search(int n) {
+            this.dist = new double[n];
+            this.touched = new int[n];
+            this.heap = new NodeHeap(n);
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        }
+
+        void upward(int source) {
+            dist[source] = 0.0;
+            touched[touchedCount++] = source;
+            heap.push(source, 0.0);
+            while (!heap.isEmpty()) {
+                int node = heap.pop();
+                double d = dist[node];
+                if (stalled(node, d)) {
+                    continue;
+                }
+                for (int e = upFirst[node]; e < upFirst[node + 1]; e++) {
+                    int next = upTarget[e];
+                    double candidate = d + upWeight[e];
+                    if (candidate < dist[next]) {
+                        if (dist[next] == Double.POSITIVE_INFINITY) {
+                            touched[touchedCount++] = next;
+                        }
+                        dist[next] = candidate;
+                        heap.push(next, candidate);
+                    }
+                }
+            }
+        }
+
+        // Stall-on-demand : un voisin plus haut déjà atteint fait mieux, le nœud n'est pas sur un plus court chemin montant
+        private boolean stalled(int node, double d) {
+            for (int e = upFirst[node]; e < upFirst[node + 1]; e++) {
+                if (dist[upTarget[e]] + upWeight[e] < d) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void reset() {
+            for (int k = 0; k < touchedCount; k++) {
+                dist[touched[k]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+        }
+    }
+}
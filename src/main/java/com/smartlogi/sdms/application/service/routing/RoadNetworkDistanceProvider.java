@@ -0,0 +1,106 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.infrastructure.utils.Haversine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Distances routières sur un {@link RoadNetwork} hors ligne.
+ * <p>
+ * Chaque point est accroché au nœud routier le plus proche ; la distance entre deux points est
+ * l'accroche du premier + le plus court chemin entre leurs nœuds + l'accroche du second (à vol
+ * d'oiseau si les deux points partagent le même nœud). Les nœuds sont dédoublonnés avant la requête
+ * plusieurs-à-plusieurs ; une source face à beaucoup plus de cibles passe par PHAST.
+ */
+public final class RoadNetworkDistanceProvider implements DistanceProvider {
+
+    // Au-delà de ce rapport cibles / sources, un balayage PHAST par source bat les seaux
+    private static final int RAPPORT_PHAST = 64;
+
+    private final RoadNetwork network;
+    private final boolean floatStorage;
+
+    public RoadNetworkDistanceProvider(RoadNetwork network, boolean floatStorage) {
+        this.network = network;
+        this.floatStorage = floatStorage;
+    }
+
+    @Override
+    public String name() {
+        return (floatStorage ? "float/" : "double/") + "road/" + network.signature();
+    }
+
+    @Override
+    public DistanceMatrix matrix(List<LocationDTO> points) {
+        Snapped snapped = snap(points);
+        double[][] between = network.manyToMany(snapped.nodes, snapped.nodes);
+        int size = points.size();
+        TriangularDistanceMatrix matrix = new TriangularDistanceMatrix(size, floatStorage);
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                matrix.set(i, j, distance(points.get(i), points.get(j), snapped, i, snapped, j, between[snapped.index[i]][snapped.index[j]]));
+            }
+        }
+        return matrix;
+    }
+
+    @Override
+    public double[][] distances(List<LocationDTO> sources, List<LocationDTO> targets) {
+        Snapped from = snap(sources);
+        Snapped to = snap(targets);
+        double[][] between;
+        if ((long) from.nodes.length * RAPPORT_PHAST < to.nodes.length) {
+            between = new double[from.nodes.length][];
+            IntStream.range(0, from.nodes.length).parallel().forEach(s -> {
+                double[] all = network.oneToAll(from.nodes[s]);
+                between[s] = new double[to.nodes.length];
+                for (int t = 0; t < to.nodes.length; t++) {
+                    between[s][t] = all[to.nodes[t]];
+                }
+            });
+        } else {
+            between = network.manyToMany(from.nodes, to.nodes);
+        }
+        double[][] rows = new double[sources.size()][targets.size()];
+        for (int s = 0; s < sources.size(); s++) {
+            for (int t = 0; t < targets.size(); t++) {
+                rows[s][t] = distance(sources.get(s), targets.get(t), from, s, to, t, between[from.index[s]][to.index[t]]);
+            }
+        }
+        return rows;
+    }
+
+    private static double distance(LocationDTO a, LocationDTO b, Snapped snappedA, int i, Snapped snappedB, int j, double road) {
+        if (snappedA.nodes[snappedA.index[i]] == snappedB.nodes[snappedB.index[j]]) {
+            return Haversine.distance(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+        }
+        return snappedA.offsets[i] + road + snappedB.offsets[j];
+    }
+
+    private Snapped snap(List<LocationDTO> points) {
+        Map<Integer, Integer> distinct = new HashMap<>();
+        int[] index = new int[points.size()];
+        double[] offsets = new double[points.size()];
+        int[] nodes = new int[points.size()];
+        for (int k = 0; k < points.size(); k++) {
+            LocationDTO point = points.get(k);
+            int node = network.nearestNode(point.getLatitude(), point.getLongitude());
+            offsets[k] = Haversine.distance(point.getLatitude(), point.getLongitude(), network.latitude(node), network.longitude(node));
+            Integer position = distinct.putIfAbsent(node, distinct.size());
+            index[k] = position == null ? distinct.size() - 1 : position;
+            nodes[index[k]] = node;
+        }
+        return new Snapped(Arrays.copyOf(nodes, distinct.size()), index, offsets);
+    }
+
+    /**
+     * Points accrochés : nœuds distincts, et pour chaque point l'indice de son nœud et la longueur de l'accroche.
+     */
+    private record Snapped(int[] nodes, int[] index, double[] offsets) {
+    }
+}
@@ -0,0 +1,364 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cache inter-requêtes des matrices de distances et des réponses complètes, pour les
+ * tournées recalculées à l'identique (mêmes points, même flotte, même algorithme).
+ * <p>
+ * Clés : SHA-256 d'une forme canonique (coordonnées arrondies à 1e-7°, poids normalisés,
+ * ordre des locations conservé car il fixe les indices de la matrice). La matrice ne
+ * dépend que des coordonnées et du mode de calcul ; la réponse dépend aussi des IDs, des poids, des livreurs
+ * et de l'algorithme.
+ * <p>
+ * Niveau 1 : cache local Caffeine (taille en Mo pour les matrices, en entrées pour les
+ * réponses, TTL commun). Niveau 2 optionnel : Redis, partagé entre instances ; une panne
+ * Redis dégrade seulement le taux de succès. Métriques : {@code routing.cache.requests}
+ * (cache, result) et les statistiques Caffeine ({@code cache.*}) via l'actuator.
+ */
+@Slf4j
+@Component
+public class RouteCache {
+
+    private static final String PREFIXE_REDIS = "routing:";
+    private static final double PRECISION_COORDONNEES = 1e7;
+    private static final String METRIQUE = "routing.cache.requests";
+
+    @Value("${application.routing.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${application.routing.cache.ttl-minutes:30}")
+    private long ttlMinutes = 30;
+
+    @Value("${application.routing.cache.matrix-max-mb:256}")
+    private long matrixMaxMb = 256;
+
+    @Value("${application.routing.cache.response-max-entries:1000}")
+    private long responseMaxEntries = 1000;
+
+    @Value("${application.routing.cache.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    // Les matrices plus grosses restent en local (transfert plus coûteux que le recalcul)
+    @Value("${application.routing.cache.redis.max-matrix-mb:16}")
+    private long redisMaxMatrixMb = 16;
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    private Cache<String, DistanceMatrix> matrices;
+    private Cache<String, OptimizedRouteResponse> responses;
+
+    @Autowired
+    public RouteCache(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                      ObjectProvider<StringRedisTemplate> redisTemplateProvider) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.redisTemplateProvider = redisTemplateProvider;
+    }
+
+    /**
+     * Cache local uniquement (tests, usage hors Spring).
+     */
+    public RouteCache() {
+        this(new SimpleMeterRegistry(), new ObjectMapper(), null);
+    }
+
+    // --- Matrices ---
+
+    /**
+     * @param variant mode de calcul de la matrice ({@link DistanceProvider#name()}) : fait partie de la clé
+     */
+    public DistanceMatrix matrix(LocationDTO depot, List<LocationDTO> locations, String variant,
+                                 Supplier<DistanceMatrix> builder) {
+        if (!enabled) {
+            return builder.get();
+        }
+        String key = matrixKey(depot, locations, variant);
+        String[] source = {"local"};
+        // Calcul atomique par clé : deux requêtes identiques simultanées ne calculent qu'une matrice
+        DistanceMatrix matrix = matrices().get(key, k -> {
+            DistanceMatrix remote = remoteMatrix(k);
+            if (remote != null) {
+                source[0] = "redis";
+                return remote;
+            }
+            source[0] = "miss";
+            return builder.get();
+        });
+        record("matrix", source[0]);
+        if ("miss".equals(source[0])) {
+            storeRemoteMatrix(key, matrix);
+        }
+        return matrix;
+    }
+
+    public String matrixKey(LocationDTO depot, List<LocationDTO> locations, String variant) {
+        KeyBuilder key = new KeyBuilder("matrix");
+        key.put(variant);
+        key.putCoordinates(depot);
+        key.put(locations.size());
+        for (LocationDTO location : locations) {
+            key.putCoordinates(location);
+        }
+        return key.hex();
+    }
+
+    // --- Réponses ---
+
+    /**
+     * @return la réponse en cache, ou null
+     */
+    public OptimizedRouteResponse response(String key) {
+        if (!enabled) {
+            return null;
+        }
+        OptimizedRouteResponse response = responses().getIfPresent(key);
+        if (response != null) {
+            record("response", "local");
+            return response;
+        }
+        byte[] bytes = remoteGet("response:" + key);
+        if (bytes != null) {
+            try {
+                response = objectMapper.readValue(bytes, OptimizedRouteResponse.class);
+                responses().put(key, response);
+                record("response", "redis");
+                return response;
+            } catch (IOException e) {
+                log.warn("Réponse en cache Redis illisible ({}): {}", key, e.getMessage());
+            }
+        }
+        record("response", "miss");
+        return null;
+    }
+
+    /**
+     * Les réponses en cache sont partagées : les appelants ne doivent pas les modifier.
+     */
+    public void storeResponse(String key, OptimizedRouteResponse response) {
+        if (!enabled) {
+            return;
+        }
+        responses().put(key, response);
+        if (redis() != null) {
+            try {
+                remotePut("response:" + key, objectMapper.writeValueAsBytes(response));
+            } catch (IOException e) {
+                log.warn("Réponse non sérialisable pour le cache Redis: {}", e.getMessage());
+            }
+        }
+    }
+
+    public String responseKey(RouteRequest request, String algorithm, String provider) {
+        KeyBuilder key = new KeyBuilder("response");
+        key.put(algorithm);
+        key.put(provider);
+        key.putLocation(request.getDepot());
+        key.put(request.getLocations().size());
+        for (LocationDTO location : request.getLocations()) {
+            key.putLocation(location);
+        }
+        List<RouteRequest.LivreurData> livreurs = request.getLivreurs() == null ? List.of() : request.getLivreurs();
+        key.put(livreurs.size());
+        for (RouteRequest.LivreurData livreur : livreurs) {
+            key.put(livreur.getLivreurId());
+            key.put(Double.doubleToLongBits(livreur.getCapaciteVehicule()));
+            key.put(livreur.getTypeVehicule() == null ? null : livreur.getTypeVehicule().name());
+            key.put(String.valueOf(livreur.getVitesseKmh()));
+            key.put(String.valueOf(livreur.getCoutFixe()));
+            key.put(String.valueOf(livreur.getCoutParKm()));
+        }
+        return key.hex();
+    }
+
+    public void invalidateAll() {
+        matrices().invalidateAll();
+        responses().invalidateAll();
+    }
+
+    // --- Niveau local ---
+
+    private synchronized Cache<String, DistanceMatrix> matrices() {
+        if (matrices == null) {
+            matrices = Caffeine.newBuilder()
+                    .maximumWeight(matrixMaxMb * 1024 * 1024)
+                    .weigher((String key, DistanceMatrix matrix) -> weight(matrix))
+                    .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, matrices, "routing.matrices");
+        }
+        return matrices;
+    }
+
+    private synchronized Cache<String, OptimizedRouteResponse> responses() {
+        if (responses == null) {
+            responses = Caffeine.newBuilder()
+                    .maximumSize(responseMaxEntries)
+                    .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, responses, "routing.responses");
+        }
+        return responses;
+    }
+
+    private static int weight(DistanceMatrix matrix) {
+        long bytes = matrix instanceof TriangularDistanceMatrix triangular
+                ? triangular.sizeInBytes()
+                : 8L * matrix.size() * matrix.size();
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private void record(String cache, String result) {
+        meterRegistry.counter(METRIQUE, "cache", cache, "result", result).increment();
+    }
+
+    // --- Niveau Redis (optionnel) ---
+
+    private DistanceMatrix remoteMatrix(String key) {
+        byte[] bytes = remoteGet("matrix:" + key);
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return TriangularDistanceMatrix.fromBytes(bytes);
+        } catch (RuntimeException e) {
+            log.warn("Matrice en cache Redis illisible ({}): {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void storeRemoteMatrix(String key, DistanceMatrix matrix) {
+        if (redis() != null && matrix instanceof TriangularDistanceMatrix triangular
+                && triangular.sizeInBytes() <= redisMaxMatrixMb * 1024 * 1024) {
+            remotePut("matrix:" + key, triangular.toBytes());
+        }
+    }
+
+    private StringRedisTemplate redis() {
+        return redisEnabled && redisTemplateProvider != null ? redisTemplateProvider.getIfAvailable() : null;
+    }
+
+    private byte[] remoteGet(String key) {
+        StringRedisTemplate redis = redis();
+        if (redis == null) {
+            return null;
+        }
+        byte[] redisKey = (PREFIXE_REDIS + key).getBytes(StandardCharsets.UTF_8);
+        try {
+            return redis.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(redisKey));
+        } catch (RuntimeException e) {
+            log.warn("Cache Redis indisponible, lecture ignorée: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void remotePut(String key, byte[] value) {
+        StringRedisTemplate redis = redis();
+        if (redis == null) {
+            return;
+        }
+        byte[] redisKey = (PREFIXE_REDIS + key).getBytes(StandardCharsets.UTF_8);
+        try {
+            redis.execute((RedisCallback<Boolean>) connection -> connection.stringCommands().set(redisKey, value,
+                    Expiration.from(Duration.ofMinutes(ttlMinutes)), RedisStringCommands.SetOption.upsert()));
+        } catch (RuntimeException e) {
+            log.warn("Cache Redis indisponible, écriture ignorée: {}", e.getMessage());
+        }
+    }
+
+    void configure(boolean enabled, long ttlMinutes, long matrixMaxMb, long responseMaxEntries) {
+        this.enabled = enabled;
+        this.ttlMinutes = ttlMinutes;
+        this.matrixMaxMb = matrixMaxMb;
+        this.responseMaxEntries = responseMaxEntries;
+    }
+
+    /**
+     * Empreinte SHA-256 d'une suite de champs typés (longueurs préfixées : pas d'ambiguïté).
+     */
+    private static final class KeyBuilder {
+
+        private final MessageDigest digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+
+        KeyBuilder(String kind) {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 indisponible", e);
+            }
+            put(kind);
+        }
+
+        void put(long value) {
+            buffer.clear();
+            digest.update(buffer.putLong(value).array());
+        }
+
+        void put(String value) {
+            if (value == null) {
+                put(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            put(bytes.length);
+            digest.update(bytes);
+        }
+
+        void putCoordinates(LocationDTO location) {
+            put(Math.round(location.getLatitude() * PRECISION_COORDONNEES));
+            put(Math.round(location.getLongitude() * PRECISION_COORDONNEES));
+        }
+
+        void putLocation(LocationDTO location) {
+            put(location.getId());
+            putCoordinates(location);
+            BigDecimal demand = location.getPoidsDemande();
+            // 10 et 10.00 : même poids, même clé
+            put(demand == null ? "0" : demand.stripTrailingZeros().toPlainString());
+            put(location.isAccesRestreint() ? "R" : "-");
+            put(location.getTypeMission() == null ? null : location.getTypeMission().name());
+            put(location.getCollecteId());
+            put(location.getPriorite() == null ? null : location.getPriorite().name());
+            put(String.valueOf(location.getFenetreDebutHeures()));
+            put(String.valueOf(location.getFenetreFinHeures()));
+            put(location.isFenetreStricte() ? "S" : "-");
+        }
+
+        String hex() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.smartlogi.sdms.application.service.routing;
+
+/**
+ * Étape de post-optimisation appliquée à chaque tournée après la construction.
+ * Les implémentations ne modifient que l'ordre de visite (la charge ne change pas).
+ */
+public interface RouteImprover {
+
+    /**
+     * Nom utilisé dans le paramètre {@code algorithm} (ex : {@code ClarkeWright+2opt}).
+     */
+    String name();
+
+    /**
+     * Applique des mouvements améliorants jusqu'à un optimum local, ou jusqu'à l'échéance du budget.
+     *
+     * @return le nombre de mouvements appliqués
+     */
+    int improve(TourState tour, SearchBudget budget);
+}
@@ -0,0 +1,174 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Tournée d'un véhicule avec son calendrier : arrivées (avant), marges et pénalités (arrière).
+ * Partagée par {@link TimeWindowSolver} et {@link CheapestInsertion}.
+ * <p>
+ * La tournée part du dépôt à l'heure 0, ou, en re-planification, d'un point {@code origin} de
+ * {@code matrix} (position du livreur) à l'heure {@code departure} ; elle finit toujours au dépôt.
+ */
+final class RouteSchedule {
+
+    static final double EPSILON = 1e-9;
+
+    final RoutingProblem problem;
+    final int vehicle;
+    final double speed;
+    final DistanceMatrix matrix;
+    final int origin;
+    final double departure;
+    int[] stops = new int[8];
+    int size;
+    double load;
+    double distance;
+    double penalty;
+    // arrival[k] : début de service au k-ième arrêt (attente comprise), wait[k] : attente d'ouverture
+    double[] arrival = new double[8];
+    double[] wait = new double[8];
+    // slack[k] : retard maximal en k sans dépasser de fenêtre stricte de k à la fin
+    double[] slack = new double[8];
+    // rate[k] : pénalité horaire (MAD/h) subie par un retard en k, majorée (attentes ignorées)
+    double[] rate = new double[8];
+
+    RouteSchedule(RoutingProblem problem, int vehicle) {
+        this(problem, vehicle, problem.getMatrix(), 0, 0.0);
+    }
+
+    RouteSchedule(RoutingProblem problem, int vehicle, DistanceMatrix matrix, int origin, double departure) {
+        this.problem = problem;
+        this.vehicle = vehicle;
+        this.speed = problem.speedKmh(vehicle);
+        this.matrix = matrix;
+        this.origin = origin;
+        this.departure = departure;
+    }
+
+    // Tournée existante, calendrier calculé une seule fois
+    static RouteSchedule of(RoutingProblem problem, int vehicle, int[] stops) {
+        return of(new RouteSchedule(problem, vehicle), stops);
+    }
+
+    static RouteSchedule of(RouteSchedule schedule, int[] stops) {
+        schedule.ensureCapacity(stops.length + 1);
+        System.arraycopy(stops, 0, schedule.stops, 0, stops.length);
+        schedule.size = stops.length;
+        schedule.load = schedule.problem.routeLoad(stops);
+        schedule.refresh();
+        return schedule;
+    }
+
+    boolean accepts(int stop) {
+        return problem.canServe(vehicle, stop) && load + problem.demand(stop) <= problem.capacity(vehicle) + EPSILON;
+    }
+
+    double objective() {
+        return size == 0 ? 0.0 : problem.fixedCost(vehicle) + problem.costPerKm(vehicle) * distance + penalty;
+    }
+
+    /**
+     * Surcoût estimé de l'insertion de stop avant la position {@code position}, {@code +inf} si
+     * une fenêtre stricte serait dépassée (exact).
+     */
+    double insertionCost(int position, int stop) {
+        int previous = position == 0 ? origin : stops[position - 1];
+        int next = position == size ? 0 : stops[position];
+        double start = position == 0 ? departure : arrival[position - 1];
+        double at = Math.max(start + matrix.get(previous, stop) / speed, problem.earliest(stop));
+        if (problem.hardWindow(stop) && at > problem.latest(stop) + EPSILON) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double delay = 0.0;
+        if (position < size) {
+            double nextAt = Math.max(at + matrix.get(stop, next) / speed, problem.earliest(next));
+            delay = Math.max(0.0, nextAt - arrival[position]);
+            if (delay > slack[position] + EPSILON) {
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+        double detour = matrix.get(previous, stop) + matrix.get(stop, next) - matrix.get(previous, next);
+        return (size == 0 ? problem.fixedCost(vehicle) : 0.0)
+                + problem.costPerKm(vehicle) * detour
+                + problem.priorityPenalty(stop) * at
+                + problem.latenessPenalty(stop) * Math.max(0.0, at - problem.latest(stop))
+                + (position < size ? delay * rate[position] : 0.0);
+    }
+
+    void insert(int position, int stop) {
+        ensureCapacity(size + 1);
+        System.arraycopy(stops, position, stops, position + 1, size - position);
+        stops[position] = stop;
+        size++;
+        load += problem.demand(stop);
+        refresh();
+    }
+
+    void remove(int position) {
+        load -= problem.demand(stops[position]);
+        System.arraycopy(stops, position + 1, stops, position, size - position - 1);
+        size--;
+        refresh();
+    }
+
+    RouteSchedule copy() {
+        RouteSchedule copy = new RouteSchedule(problem, vehicle, matrix, origin, departure);
+        copy.stops = stops.clone();
+        copy.arrival = arrival.clone();
+        copy.wait = wait.clone();
+        copy.slack = slack.clone();
+        copy.rate = rate.clone();
+        copy.size = size;
+        copy.load = load;
+        copy.distance = distance;
+        copy.penalty = penalty;
+        return copy;
+    }
+
+    // Calendrier complet en O(taille) : arrivées vers l'avant, marges et pénalités vers l'arrière
+    private void refresh() {
+        double time = departure;
+        int previous = origin;
+        distance = 0.0;
+        penalty = 0.0;
+        for (int k = 0; k < size; k++) {
+            int stop = stops[k];
+            distance += matrix.get(previous, stop);
+            double reached = time + matrix.get(previous, stop) / speed;
+            time = Math.max(reached, problem.earliest(stop));
+            arrival[k] = time;
+            wait[k] = time - reached;
+            double lateness = Math.max(0.0, time - problem.latest(stop));
+            penalty += problem.priorityPenalty(stop) * time + problem.latenessPenalty(stop) * lateness;
+            if (problem.hardWindow(stop) && lateness > EPSILON) {
+                penalty = Double.POSITIVE_INFINITY;
+            }
+            previous = stop;
+        }
+        distance += size == 0 ? 0.0 : matrix.get(previous, 0);
+
+        double nextSlack = Double.POSITIVE_INFINITY;
+        double nextRate = 0.0;
+        for (int k = size - 1; k >= 0; k--) {
+            int stop = stops[k];
+            double own = problem.hardWindow(stop) ? problem.latest(stop) - arrival[k] : Double.POSITIVE_INFINITY;
+            slack[k] = Math.min(own, nextSlack);
+            // Un retard à l'arrêt précédent est d'abord absorbé par l'attente d'ouverture de celui-ci
+            nextSlack = wait[k] + slack[k];
+            boolean late = arrival[k] >= problem.latest(stop) - EPSILON;
+            rate[k] = problem.priorityPenalty(stop) + (late ? problem.latenessPenalty(stop) : 0.0) + nextRate;
+            nextRate = rate[k];
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > stops.length) {
+            int length = Math.max(needed, stops.length * 2);
+            stops = Arrays.copyOf(stops, length);
+            arrival = Arrays.copyOf(arrival, length);
+            wait = Arrays.copyOf(wait, length);
+            slack = Arrays.copyOf(slack, length);
+            rate = Arrays.copyOf(rate, length);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Métriques de l'optimiseur de tournées, exposées par l'actuator ({@code /actuator/prometheus}) :
+ * <ul>
+ *     <li>{@code routing.optimization} : durée de chaque optimisation calculée (matrice comprise, hors
+ *     réponses servies par le cache), histogramme de percentiles pour {@code histogram_quantile} ;
+ *     tags {@code algorithm} (construction réellement exécutée), {@code improved} (étapes d'amélioration),
+ *     {@code stops} (tranche de taille) et {@code outcome} ({@code success} / {@code error}) ;</li>
+ *     <li>{@code routing.optimizations.active} : optimisations en cours ;</li>
+ *     <li>{@code routing.stops.unassigned} : arrêts laissés sans tournée, par algorithme ;</li>
+ *     <li>{@code routing.capacity.violations} : tournées dont la charge dépasse la capacité du véhicule
+ *     (toujours 0 attendu : une hausse signale une régression d'un solveur).</li>
+ * </ul>
+ * Le nom complet de l'algorithme n'est pas un tag : les chaînes d'amélioration viennent de la requête
+ * et rendraient la cardinalité illimitée.
+ */
+@Component
+public class RoutingMetrics {
+
+    static final String DUREE = "routing.optimization";
+    static final String EN_COURS = "routing.optimizations.active";
+    static final String NON_AFFECTES = "routing.stops.unassigned";
+    static final String DEPASSEMENTS_CAPACITE = "routing.capacity.violations";
+
+    // Bornes supérieures (incluses) des tranches de nombre d'arrêts
+    private static final int[] TRANCHES = {50, 200, 500, 1000, 2000};
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger active = new AtomicInteger();
+
+    @Autowired
+    public RoutingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(EN_COURS, active, AtomicInteger::get)
+                .description("Optimisations de tournées en cours")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registre local (tests, usage hors Spring).
+     */
+    public RoutingMetrics() {
+        this(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Exécute une optimisation en la comptant comme en cours, puis enregistre sa durée et ses arrêts non affectés.
+     *
+     * @param algorithm nom demandé, utilisé en cas d'échec ; sinon c'est celui de la réponse (choix d'{@code Auto})
+     * @param stops     nombre d'arrêts du problème
+     */
+    public OptimizedRouteResponse record(String algorithm, int stops, Supplier<OptimizedRouteResponse> optimization) {
+        active.incrementAndGet();
+        long start = System.nanoTime();
+        String executed = algorithm;
+        String outcome = "error";
+        try {
+            OptimizedRouteResponse response = optimization.get();
+            executed = response.getAlgorithm();
+            outcome = "success";
+            unassigned(executed, response.getUnassignedStops() == null ? 0 : response.getUnassignedStops().size());
+            return response;
+        } finally {
+            active.decrementAndGet();
+            timer(executed, stops, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void unassigned(String algorithm, int count) {
+        if (count > 0) {
+            meterRegistry.counter(NON_AFFECTES, "algorithm", construction(algorithm)).increment(count);
+        }
+    }
+
+    public void capacityViolations(String algorithm, int count) {
+        if (count > 0) {
+            meterRegistry.counter(DEPASSEMENTS_CAPACITE, "algorithm", construction(algorithm)).increment(count);
+        }
+    }
+
+    private Timer timer(String algorithm, int stops, String outcome) {
+        // Enregistré une fois par combinaison de tags, retrouvé ensuite par le registre
+        return Timer.builder(DUREE)
+                .description("Durée des optimisations de tournées")
+                .tags("algorithm", construction(algorithm),
+                        "improved", String.valueOf(algorithm != null && algorithm.indexOf('+') >= 0),
+                        "stops", sizeBucket(stops),
+                        "outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tranche de taille : {@code 0-50}, {@code 51-200}, ..., {@code 2001+}.
+     */
+    static String sizeBucket(int stops) {
+        int lower = -1;
+        for (int upper : TRANCHES) {
+            if (stops <= upper) {
+                return (lower + 1) + "-" + upper;
+            }
+            lower = upper;
+        }
+        return (lower + 1) + "+";
+    }
+
+    // Construction seule (ex : ClarkeWright pour ClarkeWright+2opt+oropt)
+    private static String construction(String algorithm) {
+        if (algorithm == null || algorithm.isBlank()) {
+            return "unknown";
+        }
+        int plus = algorithm.indexOf('+');
+        return (plus < 0 ? algorithm : algorithm.substring(0, plus)).trim();
+    }
+}
@@ -0,0 +1,469 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.domain.model.enums.MissionType;
+import com.smartlogi.sdms.domain.model.enums.PriorityColis;
+import com.smartlogi.sdms.domain.model.enums.TypeVehicule;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vue primitive d'une {@link RouteRequest} partagée par les solveurs :
+ * coordonnées et demandes sont converties une seule fois en tableaux indexés
+ * comme la {@link DistanceMatrix} (0 = dépôt, k = locations[k - 1]).
+ * <p>
+ * Le profil de chaque véhicule (vitesse, coût fixe, coût kilométrique, accès aux zones
+ * restreintes) est résolu ici : valeurs de la requête, sinon celles du {@link TypeVehicule},
+ * sinon {@link #VITESSE_PAR_DEFAUT_KMH} et un coût égal à la distance. Le coût d'une tournée
+ * est {@code coutFixe + coutParKm · distance} ; c'est lui que les solveurs minimisent.
+ * <p>
+ * Collectes et livraisons : un arrêt {@link MissionType#COLLECTE} charge son poids dans le
+ * véhicule, une livraison qui le référence ({@code collecteId}) le décharge et doit venir après
+ * lui dans la même tournée (le poids de la collecte fait foi pour la paire). Une livraison sans
+ * collecte part du dépôt, une collecte sans livraison y revient.
+ * <p>
+ * Horaires : l'heure d'arrivée (ETA, en heures depuis le départ) suit la conduite à la vitesse du
+ * véhicule ; un arrêt atteint avant le début de sa fenêtre attend son ouverture. Une fenêtre
+ * stricte ne peut pas être dépassée, une fenêtre souple coûte {@link #PENALITE_RETARD_PAR_HEURE}
+ * par heure de retard, et chaque heure d'attente d'un colis prioritaire coûte
+ * {@link PriorityColis#getPenaliteParHeure()} ({@link #timePenalty}).
+ */
+public final class RoutingProblem {
+
+    public static final double VITESSE_PAR_DEFAUT_KMH = 40.0;
+    public static final double PENALITE_RETARD_PAR_HEURE = 100.0;
+
+    private final RouteRequest request;
+    private final DistanceMatrix matrix;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] demands;
+    private final boolean[] restricted;
+    private final boolean anyRestricted;
+    // pickupOf[livraison] = collecte associée, deliveryOf[collecte] = livraison associée (0 = dépôt)
+    private final boolean[] pickups;
+    private final int[] pickupOf;
+    private final int[] deliveryOf;
+    private final boolean anyPickup;
+    private final double[] speeds;
+    private final double[] fixedCosts;
+    private final double[] costsPerKm;
+    private final boolean[] restrictedAccess;
+    // Fenêtres horaires (heures depuis le départ) et pénalités horaires, 0 / +inf sans borne
+    private final double[] earliest;
+    private final double[] latest;
+    private final boolean[] hardWindows;
+    private final double[] priorityPenalties;
+    private final boolean anyTimeConstraint;
+    private final boolean anyHardWindow;
+
+    private RoutingProblem(RouteRequest request, DistanceMatrix matrix) {
+        List<LocationDTO> locations = request.getLocations();
+        int size = locations.size() + 1;
+        if (matrix.size() != size) {
+            throw new IllegalArgumentException("La matrice (" + matrix.size() + ") ne correspond pas à la requête (" + size + ")");
+        }
+        this.request = request;
+        this.matrix = matrix;
+        this.latitudes = new double[size];
+        this.longitudes = new double[size];
+        this.demands = new double[size];
+        this.restricted = new boolean[size];
+        latitudes[0] = request.getDepot().getLatitude();
+        longitudes[0] = request.getDepot().getLongitude();
+        for (int k = 1; k < size; k++) {
+            LocationDTO location = locations.get(k - 1);
+            latitudes[k] = location.getLatitude();
+            longitudes[k] = location.getLongitude();
+            demands[k] = demandKg(location);
+            restricted[k] = location.isAccesRestreint();
+        }
+        boolean any = false;
+        for (boolean flag : restricted) {
+            any |= flag;
+        }
+        this.anyRestricted = any;
+
+        this.earliest = new double[size];
+        this.latest = new double[size];
+        this.hardWindows = new boolean[size];
+        this.priorityPenalties = new double[size];
+        latest[0] = Double.POSITIVE_INFINITY;
+        boolean timed = false;
+        boolean hard = false;
+        for (int k = 1; k < size; k++) {
+            LocationDTO location = locations.get(k - 1);
+            earliest[k] = location.getFenetreDebutHeures() != null ? location.getFenetreDebutHeures() : 0.0;
+            latest[k] = location.getFenetreFinHeures() != null ? location.getFenetreFinHeures() : Double.POSITIVE_INFINITY;
+            if (latest[k] < earliest[k]) {
+                throw new IllegalArgumentException("Fenêtre horaire invalide pour " + location.getId() + ": ["
+                        + earliest[k] + ", " + latest[k] + "]");
+            }
+            hardWindows[k] = location.isFenetreStricte() && location.getFenetreFinHeures() != null;
+            priorityPenalties[k] = location.getPriorite() != null ? location.getPriorite().getPenaliteParHeure() : 0.0;
+            timed |= earliest[k] > 0 || latest[k] != Double.POSITIVE_INFINITY || priorityPenalties[k] > 0;
+            hard |= hardWindows[k];
+        }
+        this.anyTimeConstraint = timed;
+        this.anyHardWindow = hard;
+
+        this.pickups = new boolean[size];
+        this.pickupOf = new int[size];
+        this.deliveryOf = new int[size];
+        Map<String, Integer> pickupIndex = new HashMap<>();
+        for (int k = 1; k < size; k++) {
+            if (locations.get(k - 1).getTypeMission() == MissionType.COLLECTE) {
+                pickups[k] = true;
+                if (pickupIndex.put(locations.get(k - 1).getId(), k) != null) {
+                    throw new IllegalArgumentException("Collecte en double: " + locations.get(k - 1).getId());
+                }
+            }
+        }
+        this.anyPickup = !pickupIndex.isEmpty();
+        for (int k = 1; k < size; k++) {
+            LocationDTO location = locations.get(k - 1);
+            if (location.getCollecteId() == null) {
+                continue;
+            }
+            Integer pickup = pickupIndex.get(location.getCollecteId());
+            if (pickups[k] || pickup == null) {
+                throw new IllegalArgumentException("La livraison " + location.getId() + " référence une collecte inconnue: " + location.getCollecteId());
+            }
+            if (deliveryOf[pickup] != 0) {
+                throw new IllegalArgumentException("La collecte " + location.getCollecteId() + " a plusieurs livraisons");
+            }
+            pickupOf[k] = pickup;
+            deliveryOf[pickup] = k;
+            demands[k] = demands[pickup];
+        }
+
+        List<RouteRequest.LivreurData> livreurs = request.getLivreurs() == null ? List.of() : request.getLivreurs();
+        this.speeds = new double[livreurs.size()];
+        this.fixedCosts = new double[livreurs.size()];
+        this.costsPerKm = new double[livreurs.size()];
+        this.restrictedAccess = new boolean[livreurs.size()];
+        for (int v = 0; v < livreurs.size(); v++) {
+            RouteRequest.LivreurData livreur = livreurs.get(v);
+            TypeVehicule type = livreur.getTypeVehicule();
+            speeds[v] = livreur.getVitesseKmh() != null ? livreur.getVitesseKmh()
+                    : type != null ? type.getVitesseMoyenneKmh() : VITESSE_PAR_DEFAUT_KMH;
+            fixedCosts[v] = livreur.getCoutFixe() != null ? livreur.getCoutFixe()
+                    : type != null ? type.getCoutFixe() : 0.0;
+            costsPerKm[v] = costPerKm(livreur);
+            restrictedAccess[v] = canServeRestricted(livreur);
+            if (speeds[v] <= 0) {
+                throw new IllegalArgumentException("Vitesse invalide pour le livreur " + livreur.getLivreurId() + ": " + speeds[v]);
+            }
+        }
+    }
+
+    public static RoutingProblem of(RouteRequest request, DistanceMatrix matrix) {
+        return new RoutingProblem(request, matrix);
+    }
+
+    /**
+     * Coût kilométrique d'un livreur : valeur fournie, sinon celle de son type de véhicule, sinon 1.
+     */
+    public static double costPerKm(RouteRequest.LivreurData livreur) {
+        if (livreur.getCoutParKm() != null) {
+            return livreur.getCoutParKm();
+        }
+        return livreur.getTypeVehicule() != null ? livreur.getTypeVehicule().getCoutParKm() : 1.0;
+    }
+
+    /**
+     * Accès aux zones restreintes : refusé aux seuls types de véhicule qui l'interdisent (camions).
+     */
+    public static boolean canServeRestricted(RouteRequest.LivreurData livreur) {
+        return livreur.getTypeVehicule() == null || livreur.getTypeVehicule().isAccesZoneRestreinte();
+    }
+
+    public RouteRequest getRequest() {
+        return request;
+    }
+
+    public DistanceMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Nombre de points, dépôt inclus.
+     */
+    public int size() {
+        return demands.length;
+    }
+
+    /**
+     * Nombre d'arrêts à desservir (dépôt exclu).
+     */
+    public int stopCount() {
+        return demands.length - 1;
+    }
+
+    public double distance(int i, int j) {
+        return matrix.get(i, j);
+    }
+
+    /**
+     * Demande (kg) de l'arrêt {@code point}, convertie une fois à la construction du problème.
+     */
+    public double demand(int point) {
+        return demands[point];
+    }
+
+    /**
+     * Seule conversion de {@code poidsDemande} (déjà en kg) en primitif ; 0 si la location n'a pas de poids.
+     */
+    static double demandKg(LocationDTO location) {
+        return location.getPoidsDemande() != null ? location.getPoidsDemande().doubleValue() : 0.0;
+    }
+
+    public double latitude(int point) {
+        return latitudes[point];
+    }
+
+    public double longitude(int point) {
+        return longitudes[point];
+    }
+
+    /**
+     * Nombre de livreurs disponibles dans la requête.
+     */
+    public int vehicleCount() {
+        return request.getLivreurs() == null ? 0 : request.getLivreurs().size();
+    }
+
+    /**
+     * Identifiant du livreur {@code vehicle}, ou {@code LIVREUR_DEFAULT} si la requête n'en fournit aucun (-1).
+     */
+    public String livreurId(int vehicle) {
+        return vehicle < 0 ? "LIVREUR_DEFAULT" : request.getLivreurs().get(vehicle).getLivreurId();
+    }
+
+    /**
+     * Capacité du véhicule {@code vehicle}, illimitée si la requête ne fournit aucun livreur (-1).
+     */
+    public double capacity(int vehicle) {
+        return vehicle < 0 ? Double.MAX_VALUE : request.getLivreurs().get(vehicle).getCapaciteVehicule();
+    }
+
+    /**
+     * Vitesse moyenne (km/h) du véhicule {@code vehicle}.
+     */
+    public double speedKmh(int vehicle) {
+        return vehicle < 0 ? VITESSE_PAR_DEFAUT_KMH : speeds[vehicle];
+    }
+
+    public double fixedCost(int vehicle) {
+        return vehicle < 0 ? 0.0 : fixedCosts[vehicle];
+    }
+
+    public double costPerKm(int vehicle) {
+        return vehicle < 0 ? 1.0 : costsPerKm[vehicle];
+    }
+
+    /**
+     * Vrai si l'arrêt est dans une zone à circulation restreinte (médina).
+     */
+    public boolean restricted(int point) {
+        return restricted[point];
+    }
+
+    /**
+     * Vrai si au moins un arrêt est dans une zone restreinte : sinon tout véhicule peut tout servir.
+     */
+    public boolean hasRestrictedStops() {
+        return anyRestricted;
+    }
+
+    /**
+     * Le véhicule peut-il desservir ce point (accès aux zones restreintes) ?
+     */
+    public boolean canServe(int vehicle, int point) {
+        return !restricted[point] || canServeRestricted(vehicle);
+    }
+
+    /**
+     * Le véhicule a-t-il accès aux zones restreintes (tous, si la requête ne fournit aucun livreur) ?
+     */
+    public boolean canServeRestricted(int vehicle) {
+        return vehicle < 0 || restrictedAccess[vehicle];
+    }
+
+    /**
+     * Vrai si le point est une collecte (le poids monte dans le véhicule).
+     */
+    public boolean pickup(int point) {
+        return pickups[point];
+    }
+
+    /**
+     * Collecte qui doit précéder cette livraison dans la même tournée, 0 si le colis part du dépôt.
+     */
+    public int pickupOf(int delivery) {
+        return pickupOf[delivery];
+    }
+
+    /**
+     * Livraison associée à cette collecte, 0 si le colis revient au dépôt.
+     */
+    public int deliveryOf(int pickup) {
+        return deliveryOf[pickup];
+    }
+
+    /**
+     * Vrai si la requête contient des collectes : seuls les solveurs collecte-livraison s'appliquent.
+     */
+    public boolean hasPickups() {
+        return anyPickup;
+    }
+
+    /**
+     * Début de la fenêtre horaire du point (heures depuis le départ, 0 sans borne).
+     */
+    public double earliest(int point) {
+        return earliest[point];
+    }
+
+    /**
+     * Fin de la fenêtre horaire du point ({@code +inf} sans borne).
+     */
+    public double latest(int point) {
+        return latest[point];
+    }
+
+    /**
+     * Vrai si l'arrivée après {@link #latest} est interdite (et non simplement pénalisée).
+     */
+    public boolean hardWindow(int point) {
+        return hardWindows[point];
+    }
+
+    /**
+     * Coût (MAD) d'une heure de retard au-delà de la fin de fenêtre : 0 pour une fenêtre stricte.
+     */
+    public double latenessPenalty(int point) {
+        return hardWindows[point] || latest[point] == Double.POSITIVE_INFINITY ? 0.0 : PENALITE_RETARD_PAR_HEURE;
+    }
+
+    /**
+     * Coût (MAD) de chaque heure écoulée avant la livraison, selon la priorité du colis.
+     */
+    public double priorityPenalty(int point) {
+        return priorityPenalties[point];
+    }
+
+    /**
+     * Vrai si la requête contient des fenêtres horaires ou des colis prioritaires.
+     */
+    public boolean hasTimeConstraints() {
+        return anyTimeConstraint;
+    }
+
+    /**
+     * Vrai si au moins une fenêtre est stricte : seul le solveur à fenêtres horaires la garantit.
+     */
+    public boolean hasHardWindows() {
+        return anyHardWindow;
+    }
+
+    /**
+     * Heure d'arrivée (ETA, heures depuis le départ du dépôt) à chaque arrêt de la tournée, attente
+     * d'ouverture de fenêtre comprise.
+     */
+    public double[] arrivalTimes(int vehicle, int[] stops) {
+        double[] arrivals = new double[stops.length];
+        double speed = speedKmh(vehicle);
+        double time = 0.0;
+        int previous = 0;
+        for (int k = 0; k < stops.length; k++) {
+            time = Math.max(time + matrix.get(previous, stops[k]) / speed, earliest[stops[k]]);
+            arrivals[k] = time;
+            previous = stops[k];
+        }
+        return arrivals;
+    }
+
+    /**
+     * Pénalité horaire de la tournée : priorités et retards sur fenêtres souples ;
+     * {@code +inf} si une fenêtre stricte est dépassée.
+     */
+    public double timePenalty(int vehicle, int[] stops) {
+        if (!anyTimeConstraint) {
+            return 0.0;
+        }
+        double[] arrivals = arrivalTimes(vehicle, stops);
+        double penalty = 0.0;
+        for (int k = 0; k < stops.length; k++) {
+            int stop = stops[k];
+            double lateness = Math.max(0.0, arrivals[k] - latest[stop]);
+            if (hardWindows[stop] && lateness > 1e-9) {
+                return Double.POSITIVE_INFINITY;
+            }
+            penalty += priorityPenalties[stop] * arrivals[k] + latenessPenalty(stop) * lateness;
+        }
+        return penalty;
+    }
+
+    public LocationDTO location(int point) {
+        return point == 0 ? request.getDepot() : request.getLocations().get(point - 1);
+    }
+
+    /**
+     * Distance d'une tournée dépôt -> stops... -> dépôt.
+     */
+    public double routeDistance(int[] stops) {
+        if (stops.length == 0) {
+            return 0.0;
+        }
+        double distance = matrix.get(0, stops[0]);
+        for (int k = 1; k < stops.length; k++) {
+            distance += matrix.get(stops[k - 1], stops[k]);
+        }
+        return distance + matrix.get(stops[stops.length - 1], 0);
+    }
+
+    /**
+     * Coût d'une tournée confiée au véhicule {@code vehicle} (0 si elle est vide : le véhicule ne sort pas).
+     */
+    public double routeCost(int vehicle, int[] stops) {
+        return stops.length == 0 ? 0.0 : fixedCost(vehicle) + costPerKm(vehicle) * routeDistance(stops);
+    }
+
+    /**
+     * Durée estimée (heures) de la tournée jusqu'au retour au dépôt, à la vitesse du véhicule, attente
+     * d'ouverture de fenêtre comprise : jamais inférieure à l'ETA du dernier arrêt.
+     */
+    public double routeTimeHours(int vehicle, int[] stops) {
+        if (stops.length == 0) {
+            return 0.0;
+        }
+        double[] arrivals = arrivalTimes(vehicle, stops);
+        return arrivals[stops.length - 1] + matrix.get(stops[stops.length - 1], 0) / speedKmh(vehicle);
+    }
+
+    /**
+     * Charge maximale à bord au cours de la tournée : colis chargés au dépôt au départ, puis
+     * + collecte / - livraison. Sans collecte, c'est la somme des demandes.
+     */
+    public double routeLoad(int[] stops) {
+        double load = 0.0;
+        for (int stop : stops) {
+            if (!pickups[stop] && pickupOf[stop] == 0) {
+                load += demands[stop];
+            }
+        }
+        if (!anyPickup) {
+            return load;
+        }
+        double peak = load;
+        for (int stop : stops) {
+            load += pickups[stop] ? demands[stop] : -demands[stop];
+            peak = Math.max(peak, load);
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,112 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Budget de temps d'une optimisation « anytime » : les étapes d'amélioration consultent
+ * {@link #expired()} et s'arrêtent proprement à l'échéance, en gardant la meilleure
+ * solution courante. La construction initiale est toujours menée à terme.
+ * <p>
+ * Compte aussi les mouvements améliorants appliqués et suit la meilleure distance totale
+ * trouvée (progression des tâches asynchrones) ; partagé entre threads (multi-départ).
+ */
+public final class SearchBudget {
+
+    private final long deadlineNanos;
+    private final LongAdder iterations = new LongAdder();
+    private volatile boolean exhausted;
+    private volatile boolean cancelled;
+    private double bestDistance = Double.POSITIVE_INFINITY;
+    private DoubleConsumer progressListener;
+
+    private SearchBudget(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static SearchBudget unlimited() {
+        return new SearchBudget(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxMillis durée maximale ; {@code null} ou &lt;= 0 = sans limite
+     */
+    public static SearchBudget ofMillis(Long maxMillis) {
+        if (maxMillis == null || maxMillis <= 0) {
+            return unlimited();
+        }
+        return new SearchBudget(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxMillis));
+    }
+
+    /**
+     * Vrai si l'échéance est passée ; la recherche est alors marquée comme non convergée.
+     */
+    public boolean expired() {
+        if (exhausted) {
+            return true;
+        }
+        if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0) {
+            exhausted = true;
+        }
+        return exhausted;
+    }
+
+    /**
+     * Arrêt demandé de l'extérieur (annulation d'une tâche) : se comporte comme une échéance dépassée.
+     */
+    public void cancel() {
+        cancelled = true;
+        exhausted = true;
+    }
+
+    public boolean cancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @param listener appelé (dans le thread du solveur) à chaque nouvelle meilleure distance totale
+     */
+    public synchronized SearchBudget onProgress(DoubleConsumer listener) {
+        this.progressListener = listener;
+        return this;
+    }
+
+    /**
+     * Distance totale d'une solution complète ; notifie l'écouteur si c'est la meilleure vue jusqu'ici.
+     */
+    public void reportDistance(double totalDistance) {
+        DoubleConsumer listener;
+        synchronized (this) {
+            if (totalDistance >= bestDistance) {
+                return;
+            }
+            bestDistance = totalDistance;
+            listener = progressListener;
+        }
+        if (listener != null) {
+            listener.accept(totalDistance);
+        }
+    }
+
+    public synchronized double bestDistance() {
+        return bestDistance;
+    }
+
+    public void recordMoves(int moves) {
+        if (moves > 0) {
+            iterations.add(moves);
+        }
+    }
+
+    public long iterations() {
+        return iterations.sum();
+    }
+
+    /**
+     * Vrai si la recherche s'est terminée d'elle-même (optimum local atteint, tous les départs exécutés).
+     */
+    public boolean converged() {
+        return !exhausted;
+    }
+}
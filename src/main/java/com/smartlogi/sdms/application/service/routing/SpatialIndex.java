@@ -0,0 +1,248 @@
+package com.smartlogi.sdms.application.service.routing;
+
+/**
+ * Arbre k-d sur les arrêts d'un {@link RoutingProblem}, pour la requête
+ * « arrêt non visité le plus proche dont la demande tient dans la capacité restante ».
+ * <p>
+ * Les points sont projetés sur la sphère unité (x, y, z) : la distance euclidienne
+ * (corde) y est strictement croissante avec la distance orthodromique, donc le plus
+ * proche voisin trouvé est exactement celui de Haversine, et l'élagage par plan
+ * séparateur reste exact. Chaque sous-arbre mémorise la plus petite demande encore
+ * présente pour élaguer les branches qui ne rentrent plus dans le véhicule.
+ * <p>
+ * L'arbre est implicite (médianes dans un tableau) : construction O(n log n),
+ * suppression O(log n), requête ~O(log n) en moyenne.
+ */
+public final class SpatialIndex {
+
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+    private final double[] demands;
+
+    // Position dans l'arbre -> indice du point ; chaque plage [lo, hi) a sa médiane en (lo + hi) >>> 1
+    private final int[] tree;
+    private final byte[] axis;
+    private final boolean[] alive;
+    // Plus petite demande encore présente dans le sous-arbre dont la racine est à cette position
+    private final double[] subtreeMinDemand;
+    private final int[] positionOf;
+    private int aliveCount;
+
+    /**
+     * Indexe les arrêts 1..n du problème (le dépôt n'est jamais candidat).
+     */
+    public SpatialIndex(RoutingProblem problem) {
+        int size = problem.size();
+        this.x = new double[size];
+        this.y = new double[size];
+        this.z = new double[size];
+        this.demands = new double[size];
+        for (int p = 0; p < size; p++) {
+            double lat = Math.toRadians(problem.latitude(p));
+            double lon = Math.toRadians(problem.longitude(p));
+            x[p] = Math.cos(lat) * Math.cos(lon);
+            y[p] = Math.cos(lat) * Math.sin(lon);
+            z[p] = Math.sin(lat);
+            demands[p] = problem.demand(p);
+        }
+
+        int count = size - 1;
+        this.tree = new int[count];
+        this.axis = new byte[count];
+        this.alive = new boolean[count];
+        this.subtreeMinDemand = new double[count];
+        this.positionOf = new int[size];
+        for (int k = 0; k < count; k++) {
+            tree[k] = k + 1;
+        }
+        build(0, count);
+        this.aliveCount = count;
+    }
+
+    public boolean isEmpty() {
+        return aliveCount == 0;
+    }
+
+    /**
+     * Retire un arrêt de l'index (il ne sera plus jamais retourné).
+     */
+    public void remove(int point) {
+        int position = positionOf[point];
+        if (!alive[position]) {
+            return;
+        }
+        alive[position] = false;
+        aliveCount--;
+        refresh(0, tree.length, position);
+    }
+
+    /**
+     * Arrêt encore présent le plus proche de {@code from} avec une demande {@code <= maxDemand},
+     * ou -1 s'il n'en existe aucun.
+     */
+    public int nearest(int from, double maxDemand) {
+        if (aliveCount == 0) {
+            return -1;
+        }
+        Search search = new Search(x[from], y[from], z[from], maxDemand);
+        search(0, tree.length, search);
+        return search.best;
+    }
+
+    private double build(int lo, int hi) {
+        if (lo >= hi) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int mid = (lo + hi) >>> 1;
+        byte splitAxis = widestAxis(lo, hi);
+        select(lo, hi - 1, mid, splitAxis);
+        axis[mid] = splitAxis;
+        alive[mid] = true;
+        positionOf[tree[mid]] = mid;
+        double min = Math.min(demands[tree[mid]],
+                Math.min(build(lo, mid), build(mid + 1, hi)));
+        subtreeMinDemand[mid] = min;
+        return min;
+    }
+
+    /**
+     * Recalcule le minimum des sous-arbres sur le chemin racine -> position.
+     */
+    private double refresh(int lo, int hi, int position) {
+        if (lo >= hi) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int mid = (lo + hi) >>> 1;
+        double left;
+        double right;
+        if (position < mid) {
+            left = refresh(lo, mid, position);
+            right = mid + 1 < hi ? subtreeMinDemand[(mid + 1 + hi) >>> 1] : Double.POSITIVE_INFINITY;
+        } else if (position > mid) {
+            left = lo < mid ? subtreeMinDemand[(lo + mid) >>> 1] : Double.POSITIVE_INFINITY;
+            right = refresh(mid + 1, hi, position);
+        } else {
+            left = lo < mid ? subtreeMinDemand[(lo + mid) >>> 1] : Double.POSITIVE_INFINITY;
+            right = mid + 1 < hi ? subtreeMinDemand[(mid + 1 + hi) >>> 1] : Double.POSITIVE_INFINITY;
+        }
+        double self = alive[mid] ? demands[tree[mid]] : Double.POSITIVE_INFINITY;
+        double min = Math.min(self, Math.min(left, right));
+        subtreeMinDemand[mid] = min;
+        return min;
+    }
+
+    private void search(int lo, int hi, Search search) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (subtreeMinDemand[mid] > search.maxDemand) {
+            return;
+        }
+        int point = tree[mid];
+        if (alive[mid] && demands[point] <= search.maxDemand) {
+            double dx = x[point] - search.qx;
+            double dy = y[point] - search.qy;
+            double dz = z[point] - search.qz;
+            double d2 = dx * dx + dy * dy + dz * dz;
+            if (d2 < search.bestDistance2 || (d2 == search.bestDistance2 && point < search.best)) {
+                search.bestDistance2 = d2;
+                search.best = point;
+            }
+        }
+        double delta = coordinate(point, axis[mid]) - search.coordinate(axis[mid]);
+        boolean leftFirst = delta > 0;
+        if (leftFirst) {
+            search(lo, mid, search);
+        } else {
+            search(mid + 1, hi, search);
+        }
+        if (delta * delta <= search.bestDistance2) {
+            if (leftFirst) {
+                search(mid + 1, hi, search);
+            } else {
+                search(lo, mid, search);
+            }
+        }
+    }
+
+    private byte widestAxis(int lo, int hi) {
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        double minZ = Double.POSITIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int k = lo; k < hi; k++) {
+            int p = tree[k];
+            minX = Math.min(minX, x[p]);
+            maxX = Math.max(maxX, x[p]);
+            minY = Math.min(minY, y[p]);
+            maxY = Math.max(maxY, y[p]);
+            minZ = Math.min(minZ, z[p]);
+            maxZ = Math.max(maxZ, z[p]);
+        }
+        double spreadX = maxX - minX;
+        double spreadY = maxY - minY;
+        double spreadZ = maxZ - minZ;
+        if (spreadX >= spreadY && spreadX >= spreadZ) {
+            return 0;
+        }
+        return spreadY >= spreadZ ? (byte) 1 : (byte) 2;
+    }
+
+    /**
+     * Quickselect : place en {@code k} l'élément de rang k selon l'axe, plus petits à gauche.
+     */
+    private void select(int lo, int hi, int k, byte splitAxis) {
+        while (lo < hi) {
+            double pivot = coordinate(tree[(lo + hi) >>> 1], splitAxis);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (coordinate(tree[i], splitAxis) < pivot) {
+                    i++;
+                }
+                while (coordinate(tree[j], splitAxis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = tree[i];
+                    tree[i] = tree[j];
+                    tree[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double coordinate(int point, byte splitAxis) {
+        return splitAxis == 0 ? x[point] : splitAxis == 1 ? y[point] : z[point];
+    }
+
+    private static final class Search {
+        private final double qx;
+        private final double qy;
+        private final double qz;
+        private final double maxDemand;
+        private int best = -1;
+        private double bestDistance2 = Double.POSITIVE_INFINITY;
+
+        private Search(double qx, double qy, double qz, double maxDemand) {
+            this.qx = qx;
+            this.qy = qy;
+            this.qz = qz;
+            this.maxDemand = maxDemand;
+        }
+
+        private double coordinate(byte splitAxis) {
+            return splitAxis == 0 ? qx : splitAxis == 1 ? qy : qz;
+        }
+    }
+}
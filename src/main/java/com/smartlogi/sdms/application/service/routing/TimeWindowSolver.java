@@ -0,0 +1,185 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tournées avec fenêtres horaires (strictes ou souples) et colis prioritaires.
+ * <p>
+ * Objectif : coût des véhicules + {@link RoutingProblem#timePenalty} (attente des colis
+ * prioritaires, retards sur fenêtres souples) ; une fenêtre stricte n'est jamais dépassée.
+ * <ul>
+ *     <li>Construction : insertion séquentielle, fenêtres strictes les plus serrées d'abord puis
+ *     colis les plus prioritaires, chacun à la position la moins chère toutes tournées confondues ;</li>
+ *     <li>Amélioration : déplacement d'arrêts (même tournée ou autre) tant que l'objectif exact
+ *     baisse, jusqu'à stabilité ou échéance du {@link SearchBudget}.</li>
+ * </ul>
+ * Évaluation d'une insertion en O(1) : chaque tournée garde l'heure d'arrivée à chaque arrêt
+ * (calcul avant) et, calculés en arrière, le retard maximal absorbable à partir de chaque arrêt
+ * sans dépasser une fenêtre stricte (les attentes d'ouverture l'absorbent en partie) ainsi que
+ * la pénalité horaire des arrêts suivants. Le retard causé par l'insertion est comparé à la
+ * marge du successeur ; son coût est majoré par la pénalité horaire en aval.
+ * Les étapes 2opt / oropt ne s'appliquent pas ici : elles ignorent les horaires.
+ * <p>
+ * {@link #improveFrom} applique le même objectif et les mêmes déplacements à la fin d'une tournée
+ * commencée (re-planification depuis la position du livreur).
+ */
+public final class TimeWindowSolver {
+
+    static final double EPSILON = RouteSchedule.EPSILON;
+    static final int MAX_PASSES = 50;
+
+    private TimeWindowSolver() {
+    }
+
+    public static List<PlannedRoute> solve(RoutingProblem problem, SearchBudget budget) {
+        List<RouteSchedule> routes = new ArrayList<>();
+        if (problem.vehicleCount() == 0) {
+            routes.add(new RouteSchedule(problem, -1));
+        }
+        for (int v = 0; v < problem.vehicleCount(); v++) {
+            routes.add(new RouteSchedule(problem, v));
+        }
+
+        int[] stops = new int[problem.stopCount()];
+        for (int k = 0; k < stops.length; k++) {
+            stops[k] = k + 1;
+        }
+        for (int stop : insertionOrder(problem, stops)) {
+            Insertion best = bestInsertion(routes, stop, null, -1);
+            if (best != null) {
+                routes.get(best.route).insert(best.position, stop);
+            }
+        }
+        relocate(routes, budget);
+
+        List<PlannedRoute> planned = new ArrayList<>();
+        double total = 0;
+        for (RouteSchedule route : routes) {
+            if (route.size > 0) {
+                planned.add(new PlannedRoute(route.vehicle, Arrays.copyOf(route.stops, route.size)));
+                total += route.distance;
+            }
+        }
+        budget.reportDistance(total);
+        return planned;
+    }
+
+    /**
+     * Ré-ordonne les arrêts restants d'une tournée commencée, sur le chemin {@code start} (point de
+     * {@code matrix} hors du problème : la position du livreur) -> arrêts -> dépôt, au départ de
+     * {@code startHours} : déplacements d'arrêts tant que l'objectif de {@link #solve} baisse.
+     * <p>
+     * Un déplacement qui ferait dépasser une fenêtre stricte est refusé. Si l'ordre prévu en dépasse
+     * déjà une (retard pris en route), la tournée est reconstruite par insertion ; l'ordre prévu est
+     * gardé tel quel si aucun ordre ne les respecte toutes.
+     */
+    public static int[] improveFrom(RoutingProblem problem, DistanceMatrix matrix, int vehicle, int start,
+                                    double startHours, int[] stops, SearchBudget budget) {
+        RouteSchedule route = RouteSchedule.of(new RouteSchedule(problem, vehicle, matrix, start, startHours), stops);
+        if (route.penalty == Double.POSITIVE_INFINITY) {
+            RouteSchedule rebuilt = new RouteSchedule(problem, vehicle, matrix, start, startHours);
+            for (int stop : insertionOrder(problem, stops)) {
+                Insertion best = bestInsertion(List.of(rebuilt), stop, null, -1);
+                if (best == null) {
+                    return stops;
+                }
+                rebuilt.insert(best.position, stop);
+            }
+            route = rebuilt;
+        }
+        List<RouteSchedule> routes = new ArrayList<>(List.of(route));
+        relocate(routes, budget);
+        return Arrays.copyOf(routes.get(0).stops, routes.get(0).size);
+    }
+
+    // Fenêtres strictes par fin croissante, puis pénalité horaire décroissante, puis fin de fenêtre,
+    // puis arrêts éloignés du dépôt d'abord ; indice croissant à égalité
+    private static int[] insertionOrder(RoutingProblem problem, int[] stops) {
+        Integer[] order = new Integer[stops.length];
+        for (int k = 0; k < order.length; k++) {
+            order[k] = stops[k];
+        }
+        Arrays.sort(order, (a, b) -> {
+            if (problem.hardWindow(a) != problem.hardWindow(b)) {
+                return problem.hardWindow(a) ? -1 : 1;
+            }
+            if (problem.hardWindow(a) && problem.latest(a) != problem.latest(b)) {
+                return Double.compare(problem.latest(a), problem.latest(b));
+            }
+            double rateA = problem.priorityPenalty(a) + problem.latenessPenalty(a);
+            double rateB = problem.priorityPenalty(b) + problem.latenessPenalty(b);
+            if (rateA != rateB) {
+                return Double.compare(rateB, rateA);
+            }
+            if (problem.latest(a) != problem.latest(b)) {
+                return Double.compare(problem.latest(a), problem.latest(b));
+            }
+            int byDistance = Double.compare(problem.distance(0, b), problem.distance(0, a));
+            return byDistance != 0 ? byDistance : Integer.compare(a, b);
+        });
+        int[] result = new int[order.length];
+        for (int k = 0; k < order.length; k++) {
+            result[k] = order[k];
+        }
+        return result;
+    }
+
+    // Meilleure insertion (estimée) de stop ; replaced remplace la tournée d'indice replacedIndex (-1 : aucune)
+    private static Insertion bestInsertion(List<RouteSchedule> routes, int stop, RouteSchedule replaced, int replacedIndex) {
+        Insertion best = null;
+        for (int r = 0; r < routes.size(); r++) {
+            RouteSchedule route = r == replacedIndex ? replaced : routes.get(r);
+            if (!route.accepts(stop)) {
+                continue;
+            }
+            for (int position = 0; position <= route.size; position++) {
+                double cost = route.insertionCost(position, stop);
+                if (cost < Double.POSITIVE_INFINITY && (best == null || cost < best.cost - EPSILON)) {
+                    best = new Insertion(r, position, cost);
+                }
+            }
+        }
+        return best;
+    }
+
+    // Déplacement d'un arrêt : retrait exact, réinsertion estimée en O(1), puis vérification exacte
+    private static void relocate(List<RouteSchedule> routes, SearchBudget budget) {
+        boolean improved = true;
+        for (int pass = 0; improved && pass < MAX_PASSES && !budget.expired(); pass++) {
+            improved = false;
+            int moves = 0;
+            for (int r = 0; r < routes.size() && !budget.expired(); r++) {
+                for (int k = 0; k < routes.get(r).size; k++) {
+                    RouteSchedule source = routes.get(r);
+                    int stop = source.stops[k];
+                    RouteSchedule without = source.copy();
+                    without.remove(k);
+                    Insertion best = bestInsertion(routes, stop, without, r);
+                    if (best == null) {
+                        continue;
+                    }
+                    RouteSchedule target = (best.route == r ? without : routes.get(best.route)).copy();
+                    target.insert(best.position, stop);
+                    double delta = best.route == r
+                            ? target.objective() - source.objective()
+                            : without.objective() + target.objective() - source.objective() - routes.get(best.route).objective();
+                    if (delta < -EPSILON) {
+                        routes.set(r, best.route == r ? target : without);
+                        if (best.route != r) {
+                            routes.set(best.route, target);
+                        }
+                        moves++;
+                        improved = true;
+                    }
+                }
+            }
+            budget.recordMoves(moves);
+        }
+    }
+
+    private record Insertion(int route, int position, double cost) {
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.util.Arrays;
+
+/**
+ * État mutable d'une tournée pendant la recherche locale.
+ * <p>
+ * La tournée est stockée avec le dépôt en sentinelle aux deux extrémités
+ * ({@code tour[0] = tour[m + 1] = 0}), ce qui permet d'évaluer chaque mouvement
+ * en O(1) à partir des seules arêtes modifiées. Pour une tournée déjà commencée, la sentinelle
+ * de départ est la position courante du livreur : les mouvements ne touchent jamais aux
+ * sentinelles, le chemin position -> arrêts -> dépôt est optimisé tel quel. Chaque arrêt dispose d'une liste
+ * de ses plus proches voisins <em>dans la tournée</em>, utilisée pour restreindre
+ * les mouvements candidats.
+ */
+public final class TourState {
+
+    static final double EPSILON = 1e-9;
+    private static final int VOISINS = 12;
+
+    private final DistanceMatrix matrix;
+    private final int[] tour;
+    private final int[] position;
+    private final int[] neighbors;
+    private final int[] neighborRow;
+    private final int neighborCount;
+
+    public TourState(DistanceMatrix matrix, int[] stops) {
+        this(matrix, 0, stops);
+    }
+
+    /**
+     * @param start point de départ (indice de la matrice), le retour se fait au dépôt
+     */
+    public TourState(DistanceMatrix matrix, int start, int[] stops) {
+        this.matrix = matrix;
+        int m = stops.length;
+        this.tour = new int[m + 2];
+        tour[0] = start;
+        System.arraycopy(stops, 0, tour, 1, m);
+        this.position = new int[matrix.size()];
+        this.neighborRow = new int[matrix.size()];
+        Arrays.fill(position, -1);
+        Arrays.fill(neighborRow, -1);
+        for (int p = 1; p <= m; p++) {
+            position[tour[p]] = p;
+            neighborRow[tour[p]] = p - 1;
+        }
+        this.neighborCount = Math.min(VOISINS, Math.max(0, m - 1));
+        this.neighbors = NeighborLists.nearest(matrix, stops, neighborCount);
+    }
+
+    /**
+     * Nombre d'arrêts (dépôt exclu).
+     */
+    public int length() {
+        return tour.length - 2;
+    }
+
+    /**
+     * Point à la position {@code index} (0 = départ, {@code length() + 1} = dépôt).
+     */
+    public int at(int index) {
+        return tour[index];
+    }
+
+    public int positionOf(int point) {
+        return position[point];
+    }
+
+    public double distance(int a, int b) {
+        return matrix.get(a, b);
+    }
+
+    public int neighborCount() {
+        return neighborCount;
+    }
+
+    /**
+     * r-ième plus proche voisin de l'arrêt {@code point} dans la tournée.
+     */
+    public int neighbor(int point, int rank) {
+        return neighbors[neighborRow[point] * neighborCount + rank];
+    }
+
+    /**
+     * Gain (négatif si amélioration) du 2-opt qui remplace les arêtes (i, i+1) et (j, j+1)
+     * par (i, j) et (i+1, j+1), pour 0 <= i < j <= length().
+     */
+    public double twoOptDelta(int i, int j) {
+        return matrix.get(tour[i], tour[j]) + matrix.get(tour[i + 1], tour[j + 1])
+                - matrix.get(tour[i], tour[i + 1]) - matrix.get(tour[j], tour[j + 1]);
+    }
+
+    /**
+     * Inverse le segment tour[from..to].
+     */
+    public void reverse(int from, int to) {
+        while (from < to) {
+            int tmp = tour[from];
+            tour[from] = tour[to];
+            tour[to] = tmp;
+            position[tour[from]] = from;
+            position[tour[to]] = to;
+            from++;
+            to--;
+        }
+    }
+
+    /**
+     * Déplace le segment tour[start..start+length-1] entre tour[after] et tour[after+1]
+     * (positions exprimées avant le déplacement), éventuellement inversé.
+     */
+    public void moveSegment(int start, int length, int after, boolean reversed) {
+        int[] segment = new int[length];
+        for (int k = 0; k < length; k++) {
+            segment[k] = reversed ? tour[start + length - 1 - k] : tour[start + k];
+        }
+        int from;
+        int to;
+        if (after < start) {
+            // Décaler tour[after+1..start-1] vers la droite
+            System.arraycopy(tour, after + 1, tour, after + 1 + length, start - after - 1);
+            System.arraycopy(segment, 0, tour, after + 1, length);
+            from = after + 1;
+            to = start + length - 1;
+        } else {
+            // Décaler tour[start+length..after] vers la gauche
+            System.arraycopy(tour, start + length, tour, start, after - start - length + 1);
+            System.arraycopy(segment, 0, tour, after - length + 1, length);
+            from = start;
+            to = after;
+        }
+        for (int p = from; p <= to; p++) {
+            position[tour[p]] = p;
+        }
+    }
+
+    public int[] stops() {
+        int[] stops = new int[length()];
+        System.arraycopy(tour, 1, stops, 0, stops.length);
+        return stops;
+    }
+
+    public double totalDistance() {
+        double total = 0.0;
+        for (int p = 0; p < tour.length - 1; p++) {
+            total += matrix.get(tour[p], tour[p + 1]);
+        }
+        return total;
+    }
+}
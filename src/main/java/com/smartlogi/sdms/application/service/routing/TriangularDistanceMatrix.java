@@ -0,0 +1,140 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Matrice de distances stockée dans un tableau primitif plat qui ne contient que le
+ * triangle supérieur strict (i < j) : n(n-1)/2 cellules au lieu de n².
+ * <p>
+ * Les cellules d'une ligne i sont contiguës ({@link #rowOffset(int)}), ce qui permet
+ * de remplir chaque ligne indépendamment (et donc en parallèle).
+ * Le stockage {@code float} divise encore la mémoire par deux (précision ~1 m sur 10 000 km).
+ */
+public final class TriangularDistanceMatrix implements DistanceMatrix {
+
+    private final int size;
+    private final double[] doubleCells;
+    private final float[] floatCells;
+    private final boolean geometric;
+
+    public TriangularDistanceMatrix(int size, boolean floatStorage) {
+        this(size, floatStorage, false);
+    }
+
+    /**
+     * @param geometric distances à vol d'oiseau ({@link DistanceMatrix#geometric()})
+     */
+    public TriangularDistanceMatrix(int size, boolean floatStorage, boolean geometric) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Taille de matrice invalide: " + size);
+        }
+        long cells = (long) size * (size - 1) / 2;
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Trop de points pour une matrice en mémoire: " + size);
+        }
+        this.size = size;
+        this.doubleCells = floatStorage ? null : new double[(int) cells];
+        this.floatCells = floatStorage ? new float[(int) cells] : null;
+        this.geometric = geometric;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        if (i == j) {
+            return 0.0;
+        }
+        int index = i < j ? index(i, j) : index(j, i);
+        return doubleCells != null ? doubleCells[index] : floatCells[index];
+    }
+
+    /**
+     * Écrit la distance d(i, j) pour i < j.
+     */
+    public void set(int i, int j, double distance) {
+        int index = index(i, j);
+        if (doubleCells != null) {
+            doubleCells[index] = distance;
+        } else {
+            floatCells[index] = (float) distance;
+        }
+    }
+
+    /**
+     * Écrit d'un bloc la ligne i (cellules (i, i+1) .. (i, n-1)) depuis {@code row[0..n-i-2]}.
+     */
+    void setRow(int i, double[] row) {
+        int offset = rowOffset(i);
+        int length = size - i - 1;
+        if (doubleCells != null) {
+            System.arraycopy(row, 0, doubleCells, offset, length);
+        } else {
+            for (int k = 0; k < length; k++) {
+                floatCells[offset + k] = (float) row[k];
+            }
+        }
+    }
+
+    @Override
+    public boolean geometric() {
+        return geometric;
+    }
+
+    public boolean isFloatStorage() {
+        return floatCells != null;
+    }
+
+    /**
+     * Taille approximative en mémoire (poids dans le cache des matrices).
+     */
+    public long sizeInBytes() {
+        return doubleCells != null ? 8L * doubleCells.length : 4L * floatCells.length;
+    }
+
+    /**
+     * Sérialisation binaire (cache distribué) : taille, indicateurs (bit 0 : stockage float, bit 1 :
+     * distances géométriques) puis les cellules.
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(5 + (int) sizeInBytes());
+        buffer.putInt(size);
+        buffer.put((byte) ((isFloatStorage() ? 1 : 0) | (geometric ? 2 : 0)));
+        if (doubleCells != null) {
+            buffer.asDoubleBuffer().put(doubleCells);
+        } else {
+            buffer.asFloatBuffer().put(floatCells);
+        }
+        return buffer.array();
+    }
+
+    public static TriangularDistanceMatrix fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int size = buffer.getInt();
+        byte flags = buffer.get();
+        TriangularDistanceMatrix matrix = new TriangularDistanceMatrix(size, (flags & 1) != 0, (flags & 2) != 0);
+        if (bytes.length != 5 + matrix.sizeInBytes()) {
+            throw new IllegalArgumentException("Matrice sérialisée invalide (" + bytes.length + " octets)");
+        }
+        if (matrix.doubleCells != null) {
+            buffer.asDoubleBuffer().get(matrix.doubleCells);
+        } else {
+            buffer.asFloatBuffer().get(matrix.floatCells);
+        }
+        return matrix;
+    }
+
+    /**
+     * Position dans le tableau plat de la cellule (i, i + 1), première cellule de la ligne i.
+     */
+    int rowOffset(int i) {
+        return (int) ((long) i * (2L * size - i - 1) / 2);
+    }
+
+    private int index(int i, int j) {
+        return rowOffset(i) + (j - i - 1);
+    }
+}
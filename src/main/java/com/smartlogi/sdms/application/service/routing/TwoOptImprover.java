@@ -0,0 +1,57 @@
+package com.smartlogi.sdms.application.service.routing;
+
+/**
+ * 2-opt restreint aux listes de voisins : on ne teste que les échanges qui créent une
+ * arête vers l'un des plus proches voisins, et on arrête la liste dès que cette arête
+ * est plus longue que les deux arêtes actuelles du point (aucun gain possible).
+ */
+public class TwoOptImprover implements RouteImprover {
+
+    public static final String NAME = "2opt";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int improve(TourState tour, SearchBudget budget) {
+        int m = tour.length();
+        int moves = 0;
+        boolean improved = true;
+        while (improved && !budget.expired()) {
+            improved = false;
+            for (int p = 1; p <= m; p++) {
+                int a = tour.at(p);
+                double longestEdge = Math.max(tour.distance(a, tour.at(p - 1)), tour.distance(a, tour.at(p + 1)));
+                for (int r = 0; r < tour.neighborCount(); r++) {
+                    int c = tour.neighbor(a, r);
+                    if (tour.distance(a, c) >= longestEdge) {
+                        break;
+                    }
+                    int q = tour.positionOf(c);
+                    int low = Math.min(p, q);
+                    int high = Math.max(p, q);
+                    // Nouvelle arête (a, c) avec les successeurs, puis avec les prédécesseurs
+                    if (tryMove(tour, low, high) || tryMove(tour, low - 1, high - 1)) {
+                        moves++;
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    private boolean tryMove(TourState tour, int i, int j) {
+        if (i < 0 || j <= i + 1) {
+            return false;
+        }
+        if (tour.twoOptDelta(i, j) < -TourState.EPSILON) {
+            tour.reverse(i + 1, j);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,126 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stock persistant des distances par zone, hors du tas Java ({@link MappedDistanceFile}).
+ * <p>
+ * Les dépôts et les adresses des destinataires reviennent d'une semaine à l'autre : leurs distances
+ * sont calculées une seule fois (par le {@link DistanceProvider} configuré), gardées sur disque sous
+ * {@code directory} et relues par projection mémoire, y compris après un redémarrage. Une requête n'y
+ * passe que si le dépôt et toutes les locations portent un {@code pointId} stable ; il y a un stock
+ * par dépôt et par fournisseur de distances.
+ * <p>
+ * Désactivé si {@code application.routing.matrix.store.directory} est vide.
+ */
+@Slf4j
+@Component
+public class ZoneDistanceStore {
+
+    @Value("${application.routing.matrix.store.directory:}")
+    private String directory = "";
+
+    // Taille du fichier : n(n-1)/2 × 8 octets (20 000 points ≈ 1,6 Go)
+    @Value("${application.routing.matrix.store.max-points:20000}")
+    private int maxPoints = 20_000;
+
+    private final Map<String, MappedDistanceFile> files = new ConcurrentHashMap<>();
+
+    /**
+     * Matrice (indice 0 = dépôt) lue dans le stock de la zone du dépôt, complétée au besoin des points nouveaux.
+     *
+     * @return null si le stock est désactivé, si un point n'a pas d'identifiant stable ou si la zone
+     * dépasserait {@code max-points} points : l'appelant construit alors la matrice en mémoire
+     */
+    public DistanceMatrix matrix(LocationDTO depot, List<LocationDTO> locations, DistanceProvider provider) {
+        if (directory == null || directory.isBlank() || depot.getPointId() == null
+                || locations.stream().anyMatch(location -> location.getPointId() == null)) {
+            return null;
+        }
+        List<LocationDTO> points = new ArrayList<>(locations.size() + 1);
+        points.add(depot);
+        points.addAll(locations);
+
+        MappedDistanceFile file = files.computeIfAbsent(fileName(depot.getPointId(), provider.name()),
+                name -> MappedDistanceFile.open(Path.of(directory), name));
+        int[] slots = file.slots(points, maxPoints, provider);
+        if (slots == null) {
+            log.warn("Stock de distances {} plein ({} points max.) : matrice calculée en mémoire", depot.getPointId(), maxPoints);
+            return null;
+        }
+        return new StoredDistanceMatrix(file, slots, provider.geometric());
+    }
+
+    /**
+     * Nombre de points déjà stockés pour la zone de ce dépôt et ce fournisseur (0 si le stock n'est pas encore ouvert).
+     */
+    public int pointCount(String depotPointId, DistanceProvider provider) {
+        MappedDistanceFile file = files.get(fileName(depotPointId, provider.name()));
+        return file == null ? 0 : file.pointCount();
+    }
+
+    @PreDestroy
+    public void close() {
+        for (MappedDistanceFile file : files.values()) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                log.warn("Fermeture du stock de distances impossible: {}", e.getMessage());
+            }
+        }
+        files.clear();
+    }
+
+    void configure(String directory, int maxPoints) {
+        close();
+        this.directory = directory;
+        this.maxPoints = maxPoints;
+    }
+
+    // Nom de fichier sûr, quel que soit l'identifiant du dépôt
+    static String fileName(String depotPointId, String providerName) {
+        return (depotPointId + "_" + providerName).replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    /**
+     * Vue d'une requête sur le stock : indice de la requête → emplacement dans le fichier.
+     */
+    private static final class StoredDistanceMatrix implements DistanceMatrix {
+
+        private final MappedDistanceFile file;
+        private final int[] slots;
+        private final boolean geometric;
+
+        StoredDistanceMatrix(MappedDistanceFile file, int[] slots, boolean geometric) {
+            this.file = file;
+            this.slots = slots;
+            this.geometric = geometric;
+        }
+
+        @Override
+        public int size() {
+            return slots.length;
+        }
+
+        @Override
+        public double get(int i, int j) {
+            return file.distance(slots[i], slots[j]);
+        }
+
+        @Override
+        public boolean geometric() {
+            return geometric;
+        }
+    }
+}
@@ -102,4 +102,8 @@ public class Colis {
     @Column(name = "ordre_livraison")
     private Integer ordreLivraison;
 
+    // Heure d'arrivée estimée, en heures depuis le départ de la tournée
+    @Column(name = "eta_heures")
+    private Double etaHeures;
+
 }
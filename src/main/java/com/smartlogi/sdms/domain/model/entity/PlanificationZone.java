@@ -0,0 +1,61 @@
+package com.smartlogi.sdms.domain.model.entity;
+
+import com.smartlogi.sdms.domain.model.enums.StatutPlanification;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Avancement de la planification journalière d'une zone : une ligne par (date, zone).
+ * Une zone TERMINEE ou IGNOREE n'est pas replanifiée quand le traitement est relancé pour la même date.
+ */
+@Entity
+@Table(name = "planifications_zones",
+        uniqueConstraints = @UniqueConstraint(name = "uc_planifications_zones_date_zone",
+                columnNames = {"date_planification", "zone_id"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanificationZone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "date_planification", nullable = false)
+    private LocalDate datePlanification;
+
+    @Column(name = "zone_id", nullable = false)
+    private String zoneId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatutPlanification statut;
+
+    @Column
+    private Integer nbTournees;
+
+    @Column
+    private Integer nbColis;
+
+    @Column
+    private Integer nbColisNonAffectes; // Colis de la zone restés sans tournée (capacité, livreurs)
+
+    @Column
+    private Double distanceTotaleKm;
+
+    @Column(length = 500)
+    private String message; // Raison d'une zone ignorée ou en échec
+
+    @Column
+    private LocalDateTime debut;
+
+    @Column
+    private LocalDateTime fin;
+}
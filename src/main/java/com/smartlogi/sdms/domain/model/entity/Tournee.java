@@ -20,8 +20,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Tournee {
 
+    // Séquence (et non IDENTITY) pour que Hibernate puisse regrouper les INSERT en lots JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tournees_seq")
+    @SequenceGenerator(name = "tournees_seq", sequenceName = "tournees_seq", allocationSize = 50)
     private long id;
 
     @Column(nullable = false)
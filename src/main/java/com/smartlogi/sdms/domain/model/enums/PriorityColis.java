@@ -3,9 +3,23 @@ package com.smartlogi.sdms.domain.model.enums;
 
 /**
  * Enum représentant la priorité d'un colis.
+ * <p>
+ * Pour l'optimisation des tournées, chaque heure écoulée entre le départ du dépôt et la
+ * livraison d'un colis coûte {@code penaliteParHeure} (MAD) : les colis urgents sont ainsi
+ * servis en début de tournée tant que le détour reste raisonnable.
  */
 public enum PriorityColis {
-    HAUTE,      // Priorité élevée → livraison urgente
-    NORMALE,    // Priorité normale
-    BASSE       // Priorité faible → livraison moins urgente
-}
\ No newline at end of file
+    HAUTE(30.0),      // Priorité élevée → livraison urgente
+    NORMALE(0.0),    // Priorité normale
+    BASSE(0.0);       // Priorité faible → livraison moins urgente
+
+    private final double penaliteParHeure;
+
+    PriorityColis(double penaliteParHeure) {
+        this.penaliteParHeure = penaliteParHeure;
+    }
+
+    public double getPenaliteParHeure() {
+        return penaliteParHeure;
+    }
+}
@@ -0,0 +1,9 @@
+package com.smartlogi.sdms.domain.model.enums;
+
+public enum StatutOptimisation {
+    EN_ATTENTE,
+    EN_COURS,
+    TERMINEE,
+    ECHOUEE,
+    ANNULEE
+}
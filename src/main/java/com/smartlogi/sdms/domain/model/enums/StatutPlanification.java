@@ -0,0 +1,8 @@
+package com.smartlogi.sdms.domain.model.enums;
+
+public enum StatutPlanification {
+    EN_COURS,
+    TERMINEE,
+    IGNOREE,
+    ECHOUEE
+}
@@ -3,9 +3,42 @@ package com.smartlogi.sdms.domain.model.enums;
 /*
  **
  * Enum représentant le type de véhicule utilisé par un livreur.
+ * <p>
+ * Chaque type porte son profil par défaut pour l'optimisation des tournées : vitesse moyenne
+ * en ville, coût fixe de sortie (MAD), coût kilométrique (MAD/km) et accès aux zones à
+ * circulation restreinte (ruelles des anciennes médinas). Une requête d'optimisation peut
+ * surcharger vitesse et coûts livreur par livreur.
  */
 public enum TypeVehicule {
-    MOTO,       // Pour petites livraisons urbaines rapides
-    VOITURE,    // Pour colis moyens ou multiples
-    CAMION      // Pour gros colis ou grandes quantités
+    MOTO(30.0, 40.0, 0.6, true),        // Pour petites livraisons urbaines rapides
+    VOITURE(35.0, 100.0, 1.5, true),    // Pour colis moyens ou multiples
+    CAMION(25.0, 250.0, 3.5, false);    // Pour gros colis ou grandes quantités
+
+    private final double vitesseMoyenneKmh;
+    private final double coutFixe;
+    private final double coutParKm;
+    private final boolean accesZoneRestreinte;
+
+    TypeVehicule(double vitesseMoyenneKmh, double coutFixe, double coutParKm, boolean accesZoneRestreinte) {
+        this.vitesseMoyenneKmh = vitesseMoyenneKmh;
+        this.coutFixe = coutFixe;
+        this.coutParKm = coutParKm;
+        this.accesZoneRestreinte = accesZoneRestreinte;
+    }
+
+    public double getVitesseMoyenneKmh() {
+        return vitesseMoyenneKmh;
+    }
+
+    public double getCoutFixe() {
+        return coutFixe;
+    }
+
+    public double getCoutParKm() {
+        return coutParKm;
+    }
+
+    public boolean isAccesZoneRestreinte() {
+        return accesZoneRestreinte;
+    }
 }
@@ -1,10 +1,25 @@
 package com.smartlogi.sdms.domain.model.enums;
 
-// Enum pour l'unité de poids
+import java.math.BigDecimal;
+
+// Enum pour l'unité de poids (ordre persisté : ne pas réordonner)
 
 public enum UnitePoids {
-    KG, //kilogramme
-    G, //Gramme
-    T //tone
+    KG(BigDecimal.ONE), //kilogramme
+    G(new BigDecimal("0.001")), //Gramme
+    T(new BigDecimal("1000")); //tone
+
+    // Valeur d'une unité en kilogrammes
+    private final BigDecimal kilogrammes;
+
+    UnitePoids(BigDecimal kilogrammes) {
+        this.kilogrammes = kilogrammes;
+    }
 
+    /**
+     * Conversion exacte d'une valeur exprimée dans cette unité en kilogrammes.
+     */
+    public BigDecimal enKilogrammes(BigDecimal valeur) {
+        return valeur.multiply(kilogrammes);
+    }
 }
@@ -35,6 +35,13 @@ public record Poids(
         valeur = valeur.stripTrailingZeros();
     }
 
+    /**
+     * Poids en kilogrammes, l'unité des capacités de véhicule et des demandes de l'optimiseur.
+     */
+    public BigDecimal enKilogrammes() {
+        return unite.enKilogrammes(valeur).stripTrailingZeros();
+    }
+
     // Méthode utilitaire pour affichage
     public String format() {
         return valeur + " " + unite;
@@ -47,4 +47,7 @@ public interface ColisRepository extends JpaRepository<Colis, String>, JpaSpecif
 
     Optional<Colis> findByTrackingCode(String trackingCode);
 
+    // Colis d'une zone à planifier : au statut demandé et pas encore rattachés à une tournée
+    List<Colis> findAllByZoneDestinationIdAndStatutAndTourneeIsNull(String zoneId, StatusColis statut);
+
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.smartlogi.sdms.domain.repository;
+
+import com.smartlogi.sdms.domain.model.entity.PlanificationZone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PlanificationZoneRepository extends JpaRepository<PlanificationZone, Long> {
+
+    List<PlanificationZone> findByDatePlanification(LocalDate datePlanification);
+}
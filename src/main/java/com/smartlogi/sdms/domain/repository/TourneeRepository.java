@@ -23,6 +23,9 @@ public interface TourneeRepository extends JpaRepository<Tournee, Long> {
 
     List<Tournee> findByZoneId( String zoneId);
 
+    @Query("select t.livreur.id from Tournee t where t.zone.id = :zoneId and t.dateTournee = :date")
+    List<String> findLivreurIdsByZoneIdAndDateTournee(@Param("zoneId") String zoneId, @Param("date") LocalDate date);
+
     Optional<Tournee> findByIdAndLivreurId(long id, String livreurId);
     @Query("""
     select distinct t
@@ -21,6 +21,7 @@ import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -50,6 +51,19 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST); // Renvoie 400
     }
 
+    /**
+     * File des optimisations asynchrones pleine : le client doit réessayer plus tard.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorDetails> handleRejectedExecutionException(RejectedExecutionException exception, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                "Trop d'optimisations en attente. Veuillez réessayer plus tard.",
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.SERVICE_UNAVAILABLE); // Renvoie 503
+    }
+
     // --- CORRECTION REQUISE ---
     /**
      * Gère les échecs d'authentification (ex: mauvais mot de passe).
@@ -2,6 +2,7 @@ package com.smartlogi.sdms.presentation.controller;
 
 import com.smartlogi.sdms.application.dto.mission.MissionRequestDTO;
 import com.smartlogi.sdms.application.dto.mission.MissionResponseDTO;
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
 import com.smartlogi.sdms.application.service.MissionService;
 import jakarta.mail.MessagingException;
 import jakarta.validation.Valid;
@@ -12,6 +13,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.function.EntityResponse;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/missions")
 @RequiredArgsConstructor
@@ -33,5 +36,16 @@ public class MissionController {
 
     }
 
-
-}
\ No newline at end of file
+    /**
+     * Tournée collecte-livraison d'un livreur sur les missions données (une paire origine ->
+     * destination par mission), sans limite de temps si {@code maxMillis} est absent.
+     */
+    @PostMapping("/livreur/{livreurId}/optimize")
+    @PreAuthorize("hasAuthority('TOURNEE_GENERATE')")
+    public ResponseEntity<OptimizedRouteResponse> optimiserMissions(
+            @PathVariable String livreurId,
+            @RequestBody List<String> missionIds,
+            @RequestParam(name = "maxMillis", required = false) Long maxMillis) {
+        return ResponseEntity.ok(missionService.optimiserMissions(livreurId, missionIds, maxMillis));
+    }
+}
@@ -0,0 +1,38 @@
+package com.smartlogi.sdms.presentation.controller;
+
+import com.smartlogi.sdms.application.dto.tournee.PlanificationRapportDTO;
+import com.smartlogi.sdms.application.service.PlanificationJournaliereService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/planifications")
+@RequiredArgsConstructor
+public class PlanificationController {
+
+    private final PlanificationJournaliereService planificationJournaliereService;
+
+    /**
+     * Planifie toutes les zones pour la date (yyyy-MM-dd) ; relancer la même date reprend les zones non terminées.
+     */
+    @PostMapping("/{date}")
+    public ResponseEntity<PlanificationRapportDTO> planifier(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(name = "algorithm", required = false) String algorithm,
+            @RequestParam(name = "maxMillis", required = false) Long maxMillis) {
+        return ResponseEntity.ok(planificationJournaliereService.planifier(date, algorithm, maxMillis));
+    }
+
+    /**
+     * Rapport de la planification d'une date (zones terminées, ignorées, en échec ou en cours).
+     */
+    @GetMapping("/{date}")
+    public ResponseEntity<PlanificationRapportDTO> getRapport(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(planificationJournaliereService.getRapport(date));
+    }
+}
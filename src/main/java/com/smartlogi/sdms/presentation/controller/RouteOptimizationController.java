@@ -1,11 +1,13 @@
 package com.smartlogi.sdms.presentation.controller;
 
+import com.smartlogi.sdms.application.dto.routes.MultiDepotRouteRequest;
 import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
 import com.smartlogi.sdms.application.dto.routes.RouteRequest;
 import com.smartlogi.sdms.application.service.RouteOptimizationService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,33 +23,46 @@ public class RouteOptimizationController {
     /**
      * Endpoint pour lancer l'optimisation des tournées.
      * @param request Le corps JSON contenant le dépôt, les livreurs et les missions.
-     * @param algorithm L'algorithme à utiliser (NearestNeighbor ou ClarkeWright)
+     * @param algorithm L'algorithme à utiliser (Auto, Exact, NearestNeighbor, ClarkeWright, MultiStart, Alns, PickupDelivery ou TimeWindows), avec étapes d'amélioration optionnelles (ex: ClarkeWright+2opt+oropt).
+     *                  Auto (défaut) : solution exacte pour les petites tournées, Clarke-Wright + recherche locale au-delà
+     * @param maxMillis Échéance optionnelle : la meilleure solution trouvée à temps est renvoyée (converged = false)
      * @return Un JSON avec les tournées optimisées.
      */
     @PostMapping("/optimized")
     public ResponseEntity<OptimizedRouteResponse> getOptimizedRoutes(
             @RequestBody RouteRequest request,
-            @RequestParam(name = "algorithm", defaultValue = "NearestNeighbor") String algorithm) {
+            @RequestParam(name = "algorithm", defaultValue = "Auto") String algorithm,
+            @RequestParam(name = "maxMillis", required = false) Long maxMillis) {
 
-        OptimizedRouteResponse response = routeOptimizationService.optimizeRoutes(request, algorithm);
+        OptimizedRouteResponse response = routeOptimizationService.optimizeRoutes(request, algorithm, maxMillis);
         return ResponseEntity.ok(response);
     }
 
     /**
-     * Endpoint pour comparer les deux algorithmes.
+     * Endpoint pour optimiser plusieurs dépôts (zones voisines) en un seul plan.
+     * @param request Les dépôts avec leurs livreurs, et les missions à répartir entre eux
+     * @return Les tournées de tous les dépôts (depotId renseigné), totaux cumulés
      */
-    @PostMapping("/compare")
-    public ResponseEntity<Map<String, OptimizedRouteResponse>> compareAlgorithms(
-            @RequestBody RouteRequest request) {
+    @PostMapping("/multi-depot")
+    public ResponseEntity<OptimizedRouteResponse> getMultiDepotRoutes(
+            @RequestBody MultiDepotRouteRequest request,
+            @RequestParam(name = "algorithm", defaultValue = "Auto") String algorithm,
+            @RequestParam(name = "maxMillis", required = false) Long maxMillis) {
 
-        OptimizedRouteResponse nnResponse = routeOptimizationService.optimizeRoutes(request, "NearestNeighbor");
-        OptimizedRouteResponse cwResponse = routeOptimizationService.optimizeRoutes(request, "ClarkeWright");
+        return ResponseEntity.ok(routeOptimizationService.optimizeMultiDepot(request, algorithm, maxMillis));
+    }
 
-        Map<String, OptimizedRouteResponse> comparison = Map.of(
-                "NearestNeighbor", nnResponse,
-                "ClarkeWright", cwResponse
-        );
+    /**
+     * Endpoint pour comparer plusieurs algorithmes sur la même matrice des distances, en parallèle.
+     * @param algorithms Liste séparée par des virgules (ex: NearestNeighbor,ClarkeWright%2B2opt,MultiStart)
+     * @return Les réponses par algorithme, avec temps de calcul (computeTimeMs) et allocations (allocatedBytes)
+     */
+    @PostMapping("/compare")
+    public ResponseEntity<Map<String, OptimizedRouteResponse>> compareAlgorithms(
+            @RequestBody RouteRequest request,
+            @RequestParam(name = "algorithms", defaultValue = "NearestNeighbor,ClarkeWright") List<String> algorithms,
+            @RequestParam(name = "maxMillis", required = false) Long maxMillis) {
 
-        return ResponseEntity.ok(comparison);
+        return ResponseEntity.ok(routeOptimizationService.compareAlgorithms(request, algorithms, maxMillis));
     }
 }
\ No newline at end of file
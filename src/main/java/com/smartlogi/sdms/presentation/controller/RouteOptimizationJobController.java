@@ -0,0 +1,66 @@
+package com.smartlogi.sdms.presentation.controller;
+
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import com.smartlogi.sdms.application.dto.routes.RouteJobDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.application.service.RouteOptimizationJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/routes/jobs")
+@RequiredArgsConstructor
+public class RouteOptimizationJobController {
+
+    private final RouteOptimizationJobService routeOptimizationJobService;
+
+    /**
+     * Soumet une optimisation en arrière-plan (mêmes paramètres que /api/v1/routes/optimized).
+     * @return 202 avec l'ID de la tâche, 503 si la file d'attente est pleine.
+     */
+    @PostMapping
+    public ResponseEntity<RouteJobDTO> submitJob(
+            @RequestBody RouteRequest request,
+            @RequestParam(name = "algorithm", defaultValue = "Auto") String algorithm,
+            @RequestParam(name = "maxMillis", required = false) Long maxMillis) {
+        RouteJobDTO job = routeOptimizationJobService.submit(request, algorithm, maxMillis);
+        return new ResponseEntity<>(job, HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Statut et meilleure distance trouvée jusqu'ici (polling).
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<RouteJobDTO> getJobStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(routeOptimizationJobService.getStatus(jobId));
+    }
+
+    /**
+     * Flux SSE : événements "progress" (meilleure distance) puis "done" à la fin de la tâche.
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJobProgress(@PathVariable String jobId) {
+        return routeOptimizationJobService.subscribe(jobId);
+    }
+
+    /**
+     * Résultat de l'optimisation ; 409 tant que la tâche n'est pas terminée avec succès.
+     */
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<OptimizedRouteResponse> getJobResult(@PathVariable String jobId) {
+        OptimizedRouteResponse result = routeOptimizationJobService.getResult(jobId);
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<RouteJobDTO> cancelJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(routeOptimizationJobService.cancel(jobId));
+    }
+}
@@ -1,5 +1,9 @@
 package com.smartlogi.sdms.presentation.controller;
 
+import com.smartlogi.sdms.application.dto.tournee.TourneeAjoutColisRequestDTO;
+import com.smartlogi.sdms.application.dto.tournee.TourneeMultiZoneRequestDTO;
+import com.smartlogi.sdms.application.dto.tournee.TourneeMultiZoneResponseDTO;
+import com.smartlogi.sdms.application.dto.tournee.TourneeReplanificationRequestDTO;
 import com.smartlogi.sdms.application.dto.tournee.TourneeRequestDTO;
 import com.smartlogi.sdms.application.dto.tournee.TourneeResponseDTO;
 import com.smartlogi.sdms.application.service.TourneeService;
@@ -25,6 +29,38 @@ public class TourneeController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    /**
+     * Planifie plusieurs zones voisines en un seul plan (colis répartis entre les dépôts selon le coût).
+     */
+    @PostMapping("/optimize/multi-zones")
+    public ResponseEntity<TourneeMultiZoneResponseDTO> planifierMultiZones(
+            @Valid @RequestBody TourneeMultiZoneRequestDTO requestDTO) {
+        TourneeMultiZoneResponseDTO response = tourneeService.planifierMultiZones(requestDTO);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    /**
+     * Ajoute des colis à une tournée planifiée, aux positions les moins chères, sans la re-optimiser.
+     */
+    @PostMapping("/{id}/colis")
+    public ResponseEntity<TourneeResponseDTO> ajouterColis(
+            @PathVariable Long id,
+            @Valid @RequestBody TourneeAjoutColisRequestDTO requestDTO) {
+        TourneeResponseDTO response = tourneeService.ajouterColis(id, requestDTO.getColisIds());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Re-planifie la fin d'une tournée en cours depuis la position actuelle du livreur.
+     */
+    @PostMapping("/{id}/replanification")
+    public ResponseEntity<TourneeResponseDTO> replanifier(
+            @PathVariable Long id,
+            @Valid @RequestBody TourneeReplanificationRequestDTO requestDTO) {
+        TourneeResponseDTO response = tourneeService.replanifier(id, requestDTO);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Récupère une tournée par son ID.
      */
@@ -2,17 +2,25 @@ package com.smartlogi.sdms.application.service;
 
 import com.smartlogi.sdms.application.dto.mission.MissionRequestDTO;
 import com.smartlogi.sdms.application.dto.mission.MissionResponseDTO;
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
 import com.smartlogi.sdms.application.mapper.ColisMapper;
 import com.smartlogi.sdms.application.mapper.MissionMapper;
 import com.smartlogi.sdms.application.service.email.EmailExpediteurEvent;
 import com.smartlogi.sdms.domain.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.domain.model.entity.Colis;
 import com.smartlogi.sdms.domain.model.entity.Mission;
+import com.smartlogi.sdms.domain.model.entity.Zone;
 import com.smartlogi.sdms.domain.model.entity.users.ClientExpediteur;
 import com.smartlogi.sdms.domain.model.entity.users.Livreur;
 import com.smartlogi.sdms.domain.model.enums.MissionType;
 import com.smartlogi.sdms.domain.model.enums.StatutMission;
+import com.smartlogi.sdms.domain.model.enums.TypeVehicule;
+import com.smartlogi.sdms.domain.model.enums.UnitePoids;
 import com.smartlogi.sdms.domain.model.vo.Adresse;
+import com.smartlogi.sdms.domain.model.vo.Poids;
+import com.smartlogi.sdms.domain.model.vo.Vehicule;
 import com.smartlogi.sdms.domain.repository.ColisRepository;
 import com.smartlogi.sdms.domain.repository.LivreurRepository;
 import com.smartlogi.sdms.domain.repository.MissionRepository;
@@ -26,7 +34,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,6 +59,8 @@ class MissionServiceTest {
     private ColisMapper colisMapper; // Mocké car injecté, même si non utilisé dans createMission
     @Mock
     private EmailExpediteurEvent emailExpediteurEvent;
+    @Mock
+    private RouteOptimizationService routeOptimizationService;
 
     // Le service à tester
     @InjectMocks
@@ -217,4 +229,93 @@ class MissionServiceTest {
         verify(missionRepository, times(1)).save(any(Mission.class));
         verify(missionMapper, never()).toResponseDto(any());
     }
-}
\ No newline at end of file
+
+    // --- Tests pour optimiserMissions ---
+
+    @Test
+    @DisplayName("optimiserMissions devrait apparier collecte et livraison de chaque mission")
+    void optimiserMissions_ShouldBuildPickupDeliveryPairs() {
+        // Arrange : une collecte client -> client et une livraison depuis le dépôt (origine non géolocalisée)
+        Adresse depot = new Adresse("D", "Rue Depot", "CASABLANCA", "20000", "MAROC", 33.57, -7.59);
+        Adresse client = new Adresse("1", "Rue A", "CASABLANCA", "20000", "MAROC", 33.58, -7.60);
+        Adresse destinataire = new Adresse("2", "Rue B", "CASABLANCA", "20000", "MAROC", 33.59, -7.61);
+        livreur.setVehicule(new Vehicule(TypeVehicule.MOTO, "MOTO-1", 40.0));
+        livreur.setZoneAssignee(Zone.builder().id("Z1").adresseDepot(depot).build());
+        colis.setPoids(new Poids(BigDecimal.valueOf(5), UnitePoids.KG));
+        Mission collecte = Mission.builder().id("M1").type(MissionType.COLLECTE).colis(colis)
+                .livreur(livreur).statut(StatutMission.AFFECTEE)
+                .origineAdresse(client).destinationAdresse(destinataire).build();
+        Mission livraison = Mission.builder().id("M2").type(MissionType.LIVRAISON).colis(colis)
+                .livreur(livreur).statut(StatutMission.ENCOURS)
+                .origineAdresse(new Adresse("D", "Rue Depot", "CASABLANCA", "20000", "MAROC"))
+                .destinationAdresse(destinataire).build();
+        when(livreurRepository.findById(livreurId)).thenReturn(Optional.of(livreur));
+        when(missionRepository.findAllById(List.of("M1", "M2"))).thenReturn(List.of(collecte, livraison));
+        ArgumentCaptor<RouteRequest> requestCaptor = ArgumentCaptor.forClass(RouteRequest.class);
+        OptimizedRouteResponse optimized = OptimizedRouteResponse.builder().algorithm("PickupDelivery").build();
+        when(routeOptimizationService.optimizeRoutes(requestCaptor.capture(), eq("PickupDelivery"), eq(500L))).thenReturn(optimized);
+
+        // Act : M1 en double, comptée une fois
+        OptimizedRouteResponse result = missionService.optimiserMissions(livreurId, List.of("M1", "M2", "M1"), 500L);
+
+        // Assert
+        assertSame(optimized, result);
+        RouteRequest request = requestCaptor.getValue();
+        assertEquals(TypeVehicule.MOTO, request.getLivreurs().get(0).getTypeVehicule());
+        List<LocationDTO> locations = request.getLocations();
+        assertEquals(3, locations.size());
+        assertEquals("M1/COLLECTE", locations.get(0).getId());
+        assertEquals(MissionType.COLLECTE, locations.get(0).getTypeMission());
+        assertEquals("M1/COLLECTE", locations.get(1).getCollecteId());
+        assertEquals("M2/LIVRAISON", locations.get(2).getId());
+        assertNull(locations.get(2).getCollecteId(), "Le colis livré part du dépôt");
+    }
+
+    @Test
+    @DisplayName("optimiserMissions devrait lever ResourceNotFoundException si une mission manque")
+    void optimiserMissions_ShouldThrow_WhenMissionIsMissing() {
+        // Arrange
+        livreur.setVehicule(new Vehicule(TypeVehicule.MOTO, "MOTO-1", 40.0));
+        livreur.setZoneAssignee(Zone.builder().id("Z1")
+                .adresseDepot(new Adresse("D", "Rue Depot", "CASABLANCA", "20000", "MAROC", 33.57, -7.59)).build());
+        when(livreurRepository.findById(livreurId)).thenReturn(Optional.of(livreur));
+        when(missionRepository.findAllById(List.of("M1", "M9"))).thenReturn(List.of(Mission.builder().id("M1").build()));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> missionService.optimiserMissions(livreurId, List.of("M1", "M9"), null));
+        verifyNoInteractions(routeOptimizationService);
+    }
+
+    @Test
+    @DisplayName("optimiserMissions devrait refuser la mission d'un autre livreur")
+    void optimiserMissions_ShouldThrow_WhenMissionBelongsToAnotherLivreur() {
+        // Arrange
+        livreur.setVehicule(new Vehicule(TypeVehicule.MOTO, "MOTO-1", 40.0));
+        livreur.setZoneAssignee(Zone.builder().id("Z1")
+                .adresseDepot(new Adresse("D", "Rue Depot", "CASABLANCA", "20000", "MAROC", 33.57, -7.59)).build());
+        Livreur autre = Livreur.builder().id("livreur-456").build();
+        when(livreurRepository.findById(livreurId)).thenReturn(Optional.of(livreur));
+        when(missionRepository.findAllById(List.of("M1"))).thenReturn(List.of(
+                Mission.builder().id("M1").livreur(autre).statut(StatutMission.AFFECTEE).build()));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> missionService.optimiserMissions(livreurId, List.of("M1"), null));
+        verifyNoInteractions(routeOptimizationService);
+    }
+
+    @Test
+    @DisplayName("optimiserMissions devrait refuser une mission terminée")
+    void optimiserMissions_ShouldThrow_WhenMissionIsFinished() {
+        // Arrange
+        livreur.setVehicule(new Vehicule(TypeVehicule.MOTO, "MOTO-1", 40.0));
+        livreur.setZoneAssignee(Zone.builder().id("Z1")
+                .adresseDepot(new Adresse("D", "Rue Depot", "CASABLANCA", "20000", "MAROC", 33.57, -7.59)).build());
+        when(livreurRepository.findById(livreurId)).thenReturn(Optional.of(livreur));
+        when(missionRepository.findAllById(List.of("M1"))).thenReturn(List.of(
+                Mission.builder().id("M1").livreur(livreur).statut(StatutMission.TERMINEE).build()));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> missionService.optimiserMissions(livreurId, List.of("M1"), null));
+        verifyNoInteractions(routeOptimizationService);
+    }
+}
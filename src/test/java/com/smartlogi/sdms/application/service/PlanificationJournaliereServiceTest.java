@@ -0,0 +1,174 @@
+package com.smartlogi.sdms.application.service;
+
+import com.smartlogi.sdms.application.dto.tournee.PlanificationRapportDTO;
+import com.smartlogi.sdms.application.dto.tournee.PlanificationZoneDTO;
+import com.smartlogi.sdms.domain.exception.ResourceNotFoundException;
+import com.smartlogi.sdms.domain.model.entity.PlanificationZone;
+import com.smartlogi.sdms.domain.model.entity.Zone;
+import com.smartlogi.sdms.domain.model.enums.StatutPlanification;
+import com.smartlogi.sdms.domain.repository.PlanificationZoneRepository;
+import com.smartlogi.sdms.domain.repository.ZoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlanificationJournaliereServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 10, 19);
+
+    @Mock
+    private TourneeService tourneeService;
+    @Mock
+    private ZoneRepository zoneRepository;
+    @Mock
+    private PlanificationZoneRepository planificationZoneRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PlanificationJournaliereService service;
+
+    // Lignes planifications_zones "en base", par zone
+    private final Map<String, PlanificationZone> etats = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new PlanificationJournaliereService(tourneeService, zoneRepository, planificationZoneRepository,
+                new TransactionTemplate(transactionManager));
+        service.configure(2, "Auto", 5000L);
+        lenient().when(planificationZoneRepository.save(any(PlanificationZone.class))).thenAnswer(invocation -> {
+            PlanificationZone etat = invocation.getArgument(0);
+            etats.put(etat.getZoneId(), etat);
+            return etat;
+        });
+        lenient().when(planificationZoneRepository.findByDatePlanification(DATE))
+                .thenAnswer(invocation -> new ArrayList<>(etats.values()));
+    }
+
+    private static Zone zone(String id) {
+        return Zone.builder().id(id).nom("Zone " + id).build();
+    }
+
+    private static PlanificationZoneDTO resultat(String zoneId, StatutPlanification statut, int nbTournees, int nbColis) {
+        return PlanificationZoneDTO.builder()
+                .zoneId(zoneId)
+                .statut(statut)
+                .nbTournees(nbTournees)
+                .nbColis(nbColis)
+                .nbColisNonAffectes(0)
+                .distanceTotaleKm(nbTournees * 10.0)
+                .build();
+    }
+
+    @Test
+    @DisplayName("planifier devrait traiter chaque zone et agréger le rapport, une zone en échec n'arrêtant pas les autres")
+    void planifier_ShouldAggregateReport() {
+        // Arrange
+        Zone a = zone("A");
+        Zone b = zone("B");
+        Zone c = zone("C");
+        when(zoneRepository.findAll()).thenReturn(List.of(a, b, c));
+        when(tourneeService.planifierZone(eq(a), eq(DATE), eq("Auto"), eq(5000L))).thenReturn(resultat("A", StatutPlanification.TERMINEE, 2, 12));
+        when(tourneeService.planifierZone(eq(b), eq(DATE), eq("Auto"), eq(5000L))).thenThrow(new IllegalStateException("Dépôt sans coordonnées"));
+        when(tourneeService.planifierZone(eq(c), eq(DATE), eq("Auto"), eq(5000L))).thenReturn(resultat("C", StatutPlanification.IGNOREE, 0, 0));
+
+        // Act
+        PlanificationRapportDTO rapport = service.planifier(DATE, null, null);
+
+        // Assert
+        assertEquals(3, rapport.getNbZones());
+        assertEquals(1, rapport.getZonesTerminees());
+        assertEquals(1, rapport.getZonesEchouees());
+        assertEquals(1, rapport.getZonesIgnorees());
+        assertEquals(0, rapport.getZonesEnCours());
+        assertEquals(2, rapport.getNbTournees());
+        assertEquals(12, rapport.getNbColis());
+        assertEquals(20.0, rapport.getDistanceTotaleKm(), 1e-9);
+        assertNotNull(rapport.getDureeMs());
+        assertEquals(List.of("A", "B", "C"), rapport.getZones().stream().map(PlanificationZoneDTO::getZoneId).toList());
+        assertEquals("Dépôt sans coordonnées", etats.get("B").getMessage());
+        assertNotNull(etats.get("A").getFin());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("planifier devrait reprendre après un arrêt : seules les zones sans résultat validé sont replanifiées")
+    void planifier_ShouldResumeUnfinishedZones() {
+        // Arrange : A validée lors de l'exécution interrompue, B restée EN_COURS
+        etats.put("A", PlanificationZone.builder().datePlanification(DATE).zoneId("A")
+                .statut(StatutPlanification.TERMINEE).nbTournees(3).nbColis(20).nbColisNonAffectes(0).distanceTotaleKm(30.0).build());
+        etats.put("B", PlanificationZone.builder().datePlanification(DATE).zoneId("B").statut(StatutPlanification.EN_COURS).build());
+        Zone a = zone("A");
+        Zone b = zone("B");
+        when(zoneRepository.findAll()).thenReturn(List.of(a, b));
+        when(tourneeService.planifierZone(eq(b), eq(DATE), eq("Auto"), eq(5000L))).thenReturn(resultat("B", StatutPlanification.TERMINEE, 1, 5));
+
+        // Act
+        PlanificationRapportDTO rapport = service.planifier(DATE, null, null);
+
+        // Assert
+        verify(tourneeService, never()).planifierZone(eq(a), any(), any(), any());
+        assertEquals(1, rapport.getZonesReprises());
+        assertEquals(2, rapport.getZonesTerminees());
+        assertEquals(4, rapport.getNbTournees());
+        assertEquals(25, rapport.getNbColis());
+    }
+
+    @Test
+    @DisplayName("planifier ne devrait pas traiter plus de zones à la fois que le parallélisme configuré")
+    void planifier_ShouldBoundConcurrency() {
+        // Arrange
+        List<Zone> zones = new ArrayList<>();
+        for (int k = 0; k < 6; k++) {
+            zones.add(zone("Z" + k));
+        }
+        when(zoneRepository.findAll()).thenReturn(zones);
+        AtomicInteger enCours = new AtomicInteger();
+        AtomicInteger maxEnCours = new AtomicInteger();
+        when(tourneeService.planifierZone(any(Zone.class), eq(DATE), eq("NearestNeighbor"), anyLong())).thenAnswer(invocation -> {
+            maxEnCours.accumulateAndGet(enCours.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            enCours.decrementAndGet();
+            Zone zone = invocation.getArgument(0);
+            return resultat(zone.getId(), StatutPlanification.TERMINEE, 1, 1);
+        });
+
+        // Act
+        PlanificationRapportDTO rapport = service.planifier(DATE, "NearestNeighbor", 1000L);
+
+        // Assert
+        assertEquals(6, rapport.getZonesTerminees());
+        assertTrue(maxEnCours.get() <= 2, "Au plus 2 zones en parallèle, observé : " + maxEnCours.get());
+    }
+
+    @Test
+    @DisplayName("planifier devrait rejeter un algorithme inconnu avant de toucher aux zones")
+    void planifier_ShouldThrow_WhenAlgorithmUnknown() {
+        assertThrows(IllegalArgumentException.class, () -> service.planifier(DATE, "Inconnu", null));
+        verifyNoInteractions(zoneRepository, tourneeService);
+    }
+
+    @Test
+    @DisplayName("getRapport devrait lever ResourceNotFound si la date n'a jamais été planifiée")
+    void getRapport_ShouldThrow_WhenNothingPlanned() {
+        assertThrows(ResourceNotFoundException.class, () -> service.getRapport(DATE));
+    }
+}
@@ -0,0 +1,138 @@
+package com.smartlogi.sdms.application.service;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import com.smartlogi.sdms.application.dto.routes.RouteJobDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.application.service.routing.AlnsSolver;
+import com.smartlogi.sdms.application.service.routing.ClusterSolver;
+import com.smartlogi.sdms.application.service.routing.DistanceMatrixBuilder;
+import com.smartlogi.sdms.application.service.routing.ExactSolver;
+import com.smartlogi.sdms.application.service.routing.MultiStartSolver;
+import com.smartlogi.sdms.application.service.routing.RestrictedAreas;
+import com.smartlogi.sdms.application.service.routing.RouteCache;
+import com.smartlogi.sdms.application.service.routing.RoutingMetrics;
+import com.smartlogi.sdms.application.service.routing.SearchBudget;
+import com.smartlogi.sdms.application.service.routing.ZoneDistanceStore;
+import com.smartlogi.sdms.domain.exception.ResourceNotFoundException;
+import com.smartlogi.sdms.domain.model.enums.StatutOptimisation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteOptimizationJobServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private RouteOptimizationJobService jobService;
+
+    private final RouteRequest request = new RouteRequest(
+            new LocationDTO("DEPOT", 0.0, 0.0, BigDecimal.ZERO),
+            List.of(new LocationDTO("A", 1.0, 1.0, BigDecimal.valueOf(10)),
+                    new LocationDTO("B", 5.0, 5.0, BigDecimal.valueOf(20))),
+            List.of(new RouteRequest.LivreurData("L1", 100.0)));
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        jobService.shutdown();
+    }
+
+    private RouteOptimizationService realService() {
+        return new RouteOptimizationService(new DistanceMatrixBuilder(), new MultiStartSolver(), new ExactSolver(), new AlnsSolver(), new ClusterSolver(), new RestrictedAreas(), new RouteCache(), new ZoneDistanceStore(), new RoutingMetrics());
+    }
+
+    // Service qui bloque jusqu'à release.countDown() : simule une optimisation longue
+    private RouteOptimizationService blockingService() {
+        return new RouteOptimizationService(new DistanceMatrixBuilder(), new MultiStartSolver(), new ExactSolver(), new AlnsSolver(), new ClusterSolver(), new RestrictedAreas(), new RouteCache(), new ZoneDistanceStore(), new RoutingMetrics()) {
+            @Override
+            public OptimizedRouteResponse runOptimization(RouteRequest routeRequest, String algorithm, SearchBudget budget) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.runOptimization(routeRequest, algorithm, budget);
+            }
+        };
+    }
+
+    private RouteJobDTO awaitStatus(String jobId, StatutOptimisation expected) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            RouteJobDTO status = jobService.getStatus(jobId);
+            if (status.getStatut() == expected) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Statut attendu non atteint: " + expected);
+    }
+
+    @Test
+    @DisplayName("Une tâche soumise devrait se terminer et exposer son résultat")
+    void submit_ShouldCompleteAndExposeResult() throws InterruptedException {
+        // Arrange
+        jobService = new RouteOptimizationJobService(realService());
+
+        // Act
+        RouteJobDTO submitted = jobService.submit(request, "ClarkeWright+2opt", null);
+        RouteJobDTO finished = awaitStatus(submitted.getJobId(), StatutOptimisation.TERMINEE);
+
+        // Assert
+        OptimizedRouteResponse result = jobService.getResult(submitted.getJobId());
+        assertNotNull(result);
+        assertEquals("ClarkeWright+2opt", result.getAlgorithm());
+        assertEquals(result.getTotalDistanceKm(), finished.getBestDistanceKm(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("La soumission devrait être refusée quand la file d'attente est pleine")
+    void submit_ShouldRejectWhenQueueIsFull() throws InterruptedException {
+        // Arrange : 1 thread, 1 place en file
+        jobService = new RouteOptimizationJobService(blockingService());
+        jobService.configure(1, 1);
+        RouteJobDTO running = jobService.submit(request, "NearestNeighbor", null);
+        awaitStatus(running.getJobId(), StatutOptimisation.EN_COURS);
+        jobService.submit(request, "NearestNeighbor", null);
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit(request, "NearestNeighbor", null));
+    }
+
+    @Test
+    @DisplayName("Une tâche annulée en file ne devrait jamais démarrer ni produire de résultat")
+    void cancel_ShouldStopQueuedJob() throws InterruptedException {
+        // Arrange
+        jobService = new RouteOptimizationJobService(blockingService());
+        jobService.configure(1, 5);
+        RouteJobDTO running = jobService.submit(request, "NearestNeighbor", null);
+        RouteJobDTO queued = jobService.submit(request, "NearestNeighbor", null);
+
+        // Act
+        RouteJobDTO cancelled = jobService.cancel(queued.getJobId());
+        release.countDown();
+        awaitStatus(running.getJobId(), StatutOptimisation.TERMINEE);
+
+        // Assert
+        assertEquals(StatutOptimisation.ANNULEE, cancelled.getStatut());
+        assertEquals(StatutOptimisation.ANNULEE, jobService.getStatus(queued.getJobId()).getStatut());
+        assertNull(jobService.getResult(queued.getJobId()));
+    }
+
+    @Test
+    @DisplayName("Devrait lever ResourceNotFoundException pour une tâche inconnue")
+    void getStatus_ShouldThrowForUnknownJob() {
+        // Arrange
+        jobService = new RouteOptimizationJobService(realService());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> jobService.getStatus("inconnue"));
+        assertThrows(IllegalArgumentException.class, () -> jobService.submit(request, "Dijkstra", null));
+    }
+}
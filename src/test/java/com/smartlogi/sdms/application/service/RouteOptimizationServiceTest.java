@@ -1,17 +1,32 @@
 package com.smartlogi.sdms.application.service;
 
 import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.MultiDepotRouteRequest;
 import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
 import com.smartlogi.sdms.application.dto.routes.RouteRequest;
-import com.smartlogi.sdms.infrastructure.utils.Haversine;
+import com.smartlogi.sdms.application.service.routing.AlnsSolver;
+import com.smartlogi.sdms.application.service.routing.ClusterSolver;
+import com.smartlogi.sdms.application.service.routing.DistanceMatrixBuilder;
+import com.smartlogi.sdms.application.service.routing.ExactSolver;
+import com.smartlogi.sdms.application.service.routing.MultiStartSolver;
+import com.smartlogi.sdms.application.service.routing.RestrictedAreas;
+import com.smartlogi.sdms.application.service.routing.RouteCache;
+import com.smartlogi.sdms.application.service.routing.RoutingMetrics;
+import com.smartlogi.sdms.application.service.routing.SearchBudget;
+import com.smartlogi.sdms.application.service.routing.ZoneDistanceStore;
+import com.smartlogi.sdms.domain.model.enums.MissionType;
+import com.smartlogi.sdms.domain.model.enums.PriorityColis;
+import com.smartlogi.sdms.domain.model.enums.TypeVehicule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-// AJOUT DE L'IMPORT POUR LA RÉFLEXION
-import java.lang.reflect.Method;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -32,7 +47,7 @@ class RouteOptimizationServiceTest {
     @BeforeEach
     void setUp() {
         // Instanciation directe du service
-        routeOptimizationService = new RouteOptimizationService();
+        routeOptimizationService = new RouteOptimizationService(new DistanceMatrixBuilder(), new MultiStartSolver(), new ExactSolver(), new AlnsSolver(), new ClusterSolver(), new RestrictedAreas(), new RouteCache(), new ZoneDistanceStore(), new RoutingMetrics());
 
         // Le dépôt est à l'origine (0, 0)
         depot = new LocationDTO("DEPOT", 0.0, 0.0, BigDecimal.ZERO);
@@ -47,65 +62,6 @@ class RouteOptimizationServiceTest {
         livreur = new RouteRequest.LivreurData("L1", 100.0);
     }
 
-    // --- NOUVEAU TEST POUR calculateDistanceMatrix (méthode privée) ---
-    @Test
-    @DisplayName("calculateDistanceMatrix devrait créer une matrice (N+1)x(N+1) et calculer les distances Haversine")
-    void calculateDistanceMatrix_ShouldCreateCorrectSizedMatrixAndSymmetricDistances() throws Exception {
-        // Arrange
-        // Coordonnées réelles pour avoir des distances non nulles (Casa et Rabat)
-        LocationDTO depotCasa = new LocationDTO("DEPOT", 33.5731, -7.5898, BigDecimal.ZERO);
-        LocationDTO locRabat = new LocationDTO("RABAT", 34.0209, -6.8417, BigDecimal.valueOf(10));
-        LocationDTO locCasaSame = new LocationDTO("CASA2", 33.5731, -7.5898, BigDecimal.valueOf(5)); // Même point que dépôt
-        List<LocationDTO> locations = List.of(locRabat, locCasaSame); // N=2 locations
-
-        // La taille attendue est (2+1) x (2+1) = 3x3
-        int expectedSize = locations.size() + 1;
-
-        // 1. Récupérer la méthode privée via Reflection
-        Method method = RouteOptimizationService.class.getDeclaredMethod(
-                "calculateDistanceMatrix",
-                LocationDTO.class,
-                List.class
-        );
-        method.setAccessible(true); // Rendre la méthode accessible
-
-        // Act
-        // 2. Invoquer la méthode privée
-        double[][] matrix = (double[][]) method.invoke(routeOptimizationService, depotCasa, locations);
-
-        // Assert
-        // 1. Taille de la matrice
-        assertNotNull(matrix);
-        assertEquals(expectedSize, matrix.length); // 3 lignes
-        assertEquals(expectedSize, matrix[0].length); // 3 colonnes
-
-        // Les points sont indexés comme : 0=Depot(Casa), 1=LocRabat, 2=LocCasaSame
-
-        // 2. Distance D-D (0-0) doit être 0
-        assertEquals(0.0, matrix[0][0], 0.001);
-
-        // 3. Distance d'un point à lui-même (2-2) doit être 0
-        assertEquals(0.0, matrix[2][2], 0.001);
-
-        // 4. Distances calculées :
-        // D-Rabat (0-1) doit être non nul
-        double distD_Rabat = Haversine.distance(depotCasa.getLatitude(), depotCasa.getLongitude(), locRabat.getLatitude(), locRabat.getLongitude());
-        assertEquals(distD_Rabat, matrix[0][1], 0.001);
-        // D-CasaSame (0-2) doit être 0 (mêmes coordonnées)
-        assertEquals(0.0, matrix[0][2], 0.001);
-
-        // 5. Vérification de la symétrie : dist(i, j) = dist(j, i)
-        // Rabat-D (1-0) = D-Rabat (0-1)
-        assertEquals(matrix[0][1], matrix[1][0], 0.001);
-        // CasaSame-D (2-0) = D-CasaSame (0-2)
-        assertEquals(matrix[0][2], matrix[2][0], 0.001);
-        // Rabat-CasaSame (1-2)
-        double distRabat_CasaSame = Haversine.distance(locRabat.getLatitude(), locRabat.getLongitude(), locCasaSame.getLatitude(), locCasaSame.getLongitude());
-        assertEquals(distRabat_CasaSame, matrix[1][2], 0.001);
-        assertEquals(matrix[1][2], matrix[2][1], 0.001);
-    }
-    // --- FIN NOUVEAU TEST ---
-
     @Test
     @DisplayName("NearestNeighbor devrait retourner la tournée dans l'ordre A, B")
     void optimizeRoutes_NearestNeighbor_ShouldReturnCorrectOrderAndLoad() {
@@ -179,6 +135,422 @@ class RouteOptimizationServiceTest {
         assertEquals(10.0, route.getRouteLoad());
     }
 
+    @Test
+    @DisplayName("NearestNeighbor avec plusieurs livreurs devrait répartir les arrêts au lieu d'en abandonner")
+    void optimizeRoutes_NearestNeighbor_WithSeveralLivreurs_ShouldAssignAllStops() {
+        // Arrange : A (10) + B (20) > 25, deux livreurs disponibles
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB), List.of(
+                new RouteRequest.LivreurData("L1", 25.0), new RouteRequest.LivreurData("L2", 25.0)));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.optimizeRoutes(request, "NearestNeighbor");
+
+        // Assert
+        assertEquals(2, response.getTournees().size());
+        assertTrue(response.getTournees().stream().allMatch(route -> route.getRouteLoad() <= 25.0));
+        assertTrue(response.getUnassignedStops().isEmpty());
+    }
+
+    @Test
+    @DisplayName("ClarkeWright+2opt+oropt devrait améliorer chaque tournée sans perdre d'arrêt")
+    void optimizeRoutes_WithImprovementStages_ShouldKeepStopsAndReportName() {
+        // Arrange
+        LocationDTO locC = new LocationDTO("C", 1.0, 5.0, BigDecimal.valueOf(5));
+        LocationDTO locD = new LocationDTO("D", 5.0, 1.0, BigDecimal.valueOf(5));
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB, locC, locD), List.of(livreur));
+
+        // Act
+        OptimizedRouteResponse plain = routeOptimizationService.optimizeRoutes(request, "ClarkeWright");
+        OptimizedRouteResponse improved = routeOptimizationService.optimizeRoutes(request, "ClarkeWright+2opt+oropt");
+
+        // Assert
+        assertEquals("ClarkeWright+2opt+oropt", improved.getAlgorithm());
+        assertThat(improved.getTournees().get(0).getStopOrder(), containsInAnyOrder("A", "B", "C", "D"));
+        assertTrue(improved.getTotalDistanceKm() <= plain.getTotalDistanceKm() + 1e-9);
+    }
+
+    @Test
+    @DisplayName("ClarkeWright ne devrait pas fusionner des tournées au-delà de la capacité")
+    void optimizeRoutes_ClarkeWright_ShouldRespectCapacity() {
+        // Arrange : A (10) + B (20) > 25, deux livreurs disponibles
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB), List.of(
+                new RouteRequest.LivreurData("L1", 25.0), new RouteRequest.LivreurData("L2", 25.0)));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.optimizeRoutes(request, "ClarkeWright");
+
+        // Assert
+        assertEquals(2, response.getTournees().size());
+        assertTrue(response.getTournees().stream().allMatch(route -> route.getRouteLoad() <= 25.0));
+        assertTrue(response.getUnassignedStops().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Durée et coût devraient suivre le profil du véhicule affecté")
+    void optimizeRoutes_ShouldUseVehicleProfileForTimeAndCost() {
+        // Arrange : une moto (30 km/h, 40 MAD + 0.6 MAD/km) dont la vitesse est surchargée à 20 km/h
+        RouteRequest.LivreurData moto = new RouteRequest.LivreurData("MOTO", 100.0, TypeVehicule.MOTO);
+        moto.setVitesseKmh(20.0);
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB), List.of(moto));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.optimizeRoutes(request, "NearestNeighbor");
+
+        // Assert
+        OptimizedRouteResponse.RouteDetails route = response.getTournees().get(0);
+        assertEquals(route.getRouteDistanceKm() / 20.0, route.getRouteEstimatedTimeHours(), 1e-9);
+        assertEquals(40.0 + 0.6 * route.getRouteDistanceKm(), route.getRouteCost(), 1e-9);
+        assertEquals(route.getRouteCost(), response.getTotalCost(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Un camion ne devrait pas desservir un arrêt situé dans une zone restreinte")
+    void optimizeRoutes_WithRestrictedArea_ShouldKeepTruckOut() {
+        // Arrange : zone restreinte de 5 km autour de A
+        RouteOptimizationService service = new RouteOptimizationService(new DistanceMatrixBuilder(), new MultiStartSolver(),
+                new ExactSolver(), new AlnsSolver(), new ClusterSolver(), new RestrictedAreas("1.0,1.0,5"), new RouteCache(), new ZoneDistanceStore(), new RoutingMetrics());
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB), List.of(
+                new RouteRequest.LivreurData("CAMION", 100.0, TypeVehicule.CAMION)));
+
+        // Act
+        OptimizedRouteResponse response = service.optimizeRoutes(request, "ClarkeWright");
+
+        // Assert
+        assertEquals(List.of("A"), response.getUnassignedStops());
+        assertEquals(List.of("B"), response.getTournees().get(0).getStopOrder());
+    }
+
+    @Test
+    @DisplayName("Avec des collectes, Auto devrait choisir PickupDelivery et les autres algorithmes refuser")
+    void optimizeRoutes_WithPickups_ShouldRequirePickupDelivery() {
+        // Arrange : B est collecté puis livré en A
+        LocationDTO collecte = new LocationDTO("P", 5.0, 5.0, BigDecimal.valueOf(20));
+        collecte.setTypeMission(MissionType.COLLECTE);
+        LocationDTO livraison = new LocationDTO("D", 1.0, 1.0, BigDecimal.valueOf(20));
+        livraison.setCollecteId("P");
+        RouteRequest request = new RouteRequest(depot, List.of(livraison, collecte), List.of(livreur));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.optimizeRoutes(request, "Auto");
+
+        // Assert
+        assertEquals("PickupDelivery", response.getAlgorithm());
+        assertEquals(List.of("P", "D"), response.getTournees().get(0).getStopOrder());
+        assertEquals(20.0, response.getTournees().get(0).getRouteLoad());
+        assertThrows(IllegalArgumentException.class, () -> routeOptimizationService.optimizeRoutes(request, "ClarkeWright"));
+        assertThrows(IllegalArgumentException.class, () -> routeOptimizationService.optimizeRoutes(request, "PickupDelivery+2opt"));
+
+        // Priorités et fenêtres ne sont pas gérées avec des collectes : refusées plutôt qu'ignorées
+        livraison.setPriorite(PriorityColis.HAUTE);
+        RouteRequest prioritaire = new RouteRequest(depot, List.of(livraison, collecte), List.of(livreur));
+        assertThrows(IllegalArgumentException.class, () -> routeOptimizationService.optimizeRoutes(prioritaire, "Auto"));
+    }
+
+    @Test
+    @DisplayName("NearestNeighbor devrait signaler les arrêts non affectés faute de capacité")
+    void optimizeRoutes_NearestNeighbor_ShouldReportUnassignedStops() {
+        // Arrange
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB), List.of(new RouteRequest.LivreurData("L2", 15.0)));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.optimizeRoutes(request, "NearestNeighbor");
+
+        // Assert
+        assertEquals(List.of("B"), response.getUnassignedStops());
+    }
+
+    @Test
+    @DisplayName("Une échéance généreuse devrait laisser la recherche converger")
+    void optimizeRoutes_WithDeadline_ShouldReportConvergence() {
+        // Arrange
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB), List.of(livreur));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.optimizeRoutes(request, "ClarkeWright+2opt", 10_000L);
+
+        // Assert
+        assertTrue(response.isConverged());
+        assertThat(response.getTournees().get(0).getStopOrder(), containsInAnyOrder("A", "B"));
+    }
+
+    @Test
+    @DisplayName("Une requête identique devrait être servie par le cache, sauf si la recherche a été interrompue")
+    void optimizeRoutes_ShouldReuseOnlyConvergedResponses() throws InterruptedException {
+        // Arrange : au moins 3 arrêts, sinon il n'y a rien à améliorer
+        LocationDTO locC = new LocationDTO("C", 1.0, 5.0, BigDecimal.valueOf(5));
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB, locC), List.of(livreur));
+        SearchBudget expired = SearchBudget.ofMillis(1L);
+        Thread.sleep(5);
+
+        // Act
+        OptimizedRouteResponse interrupted = routeOptimizationService.runOptimization(request, "ClarkeWright+2opt", expired);
+        OptimizedRouteResponse first = routeOptimizationService.optimizeRoutes(request, "ClarkeWright+2opt");
+        OptimizedRouteResponse second = routeOptimizationService.optimizeRoutes(request, "ClarkeWright+2opt");
+
+        // Assert
+        assertFalse(interrupted.isConverged());
+        assertNotSame(interrupted, first);
+        assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("compareAlgorithms devrait résoudre chaque algorithme demandé et mesurer son temps de calcul")
+    void compareAlgorithms_ShouldReturnOneMeasuredResponsePerAlgorithm() {
+        // Arrange
+        LocationDTO locC = new LocationDTO("C", 1.0, 5.0, BigDecimal.valueOf(5));
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB, locC), List.of(livreur));
+        List<String> algorithms = List.of("NearestNeighbor", "ClarkeWright 2opt", "MultiStart", "NearestNeighbor");
+
+        // Act
+        Map<String, OptimizedRouteResponse> comparison = routeOptimizationService.compareAlgorithms(request, algorithms, null);
+
+        // Assert : doublons ignorés, ordre de la demande conservé
+        assertEquals(List.of("NearestNeighbor", "ClarkeWright 2opt", "MultiStart"), List.copyOf(comparison.keySet()));
+        assertEquals("ClarkeWright+2opt", comparison.get("ClarkeWright 2opt").getAlgorithm());
+        for (OptimizedRouteResponse response : comparison.values()) {
+            assertThat(response.getTournees().get(0).getStopOrder(), containsInAnyOrder("A", "B", "C"));
+            assertNotNull(response.getComputeTimeMs());
+            assertTrue(response.getComputeTimeMs() >= 0);
+        }
+        assertNull(routeOptimizationService.optimizeRoutes(request, "NearestNeighbor").getComputeTimeMs());
+    }
+
+    @Test
+    @DisplayName("compareAlgorithms devrait rejeter la liste entière si un algorithme est inconnu")
+    void compareAlgorithms_ShouldRejectUnknownAlgorithm() {
+        // Arrange
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB), List.of(livreur));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> routeOptimizationService.compareAlgorithms(request, List.of("ClarkeWright", "Dijkstra"), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> routeOptimizationService.compareAlgorithms(request, List.of(), null));
+    }
+
+    @Test
+    @DisplayName("optimizeMultiDepot devrait confier chaque arrêt au dépôt le plus proche et fusionner les tournées")
+    void optimizeMultiDepot_ShouldAssignStopsByCostAndMergeRoutes() {
+        // Arrange : deux dépôts éloignés, chacun avec deux arrêts proches (dont un près de la frontière)
+        LocationDTO depotNord = new LocationDTO("DEPOT_NORD", 0.0, 0.0, BigDecimal.ZERO);
+        LocationDTO depotSud = new LocationDTO("DEPOT_SUD", 2.0, 0.0, BigDecimal.ZERO);
+        List<LocationDTO> locations = List.of(
+                new LocationDTO("N1", 0.1, 0.1, BigDecimal.ONE), new LocationDTO("N2", 0.9, 0.0, BigDecimal.ONE),
+                new LocationDTO("S1", 1.9, 0.1, BigDecimal.ONE), new LocationDTO("S2", 1.1, 0.0, BigDecimal.ONE));
+        MultiDepotRouteRequest request = new MultiDepotRouteRequest(List.of(
+                new MultiDepotRouteRequest.DepotData(depotNord, List.of(new RouteRequest.LivreurData("LN", 10.0))),
+                new MultiDepotRouteRequest.DepotData(depotSud, List.of(new RouteRequest.LivreurData("LS", 10.0)))),
+                locations);
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.optimizeMultiDepot(request, "ClarkeWright", null);
+
+        // Assert
+        assertEquals(2, response.getTournees().size());
+        for (OptimizedRouteResponse.RouteDetails route : response.getTournees()) {
+            String prefix = route.getDepotId().equals("DEPOT_NORD") ? "N" : "S";
+            assertEquals(route.getDepotId().equals("DEPOT_NORD") ? "LN" : "LS", route.getLivreurId());
+            assertTrue(route.getStopOrder().stream().allMatch(id -> id.startsWith(prefix)), "Arrêt servi par le mauvais dépôt: " + route);
+        }
+        double sum = response.getTournees().stream().mapToDouble(OptimizedRouteResponse.RouteDetails::getRouteDistanceKm).sum();
+        assertEquals(sum, response.getTotalDistanceKm(), 1e-9);
+        assertTrue(response.getUnassignedStops().isEmpty());
+        assertTrue(response.isConverged());
+    }
+
+    @Test
+    @DisplayName("optimizeMultiDepot devrait déborder sur le dépôt voisin quand la capacité locale est épuisée")
+    void optimizeMultiDepot_ShouldSpillOverWhenDepotIsFull() {
+        // Arrange : trois arrêts près du nord, mais le livreur du nord ne peut en prendre que deux
+        LocationDTO depotNord = new LocationDTO("DEPOT_NORD", 0.0, 0.0, BigDecimal.ZERO);
+        LocationDTO depotSud = new LocationDTO("DEPOT_SUD", 0.5, 0.0, BigDecimal.ZERO);
+        List<LocationDTO> locations = List.of(new LocationDTO("A", 0.05, 0.0, BigDecimal.TEN),
+                new LocationDTO("B", 0.0, 0.05, BigDecimal.TEN), new LocationDTO("C", 0.2, 0.0, BigDecimal.TEN));
+        MultiDepotRouteRequest request = new MultiDepotRouteRequest(List.of(
+                new MultiDepotRouteRequest.DepotData(depotNord, List.of(new RouteRequest.LivreurData("LN", 20.0))),
+                new MultiDepotRouteRequest.DepotData(depotSud, List.of(new RouteRequest.LivreurData("LS", 20.0)))),
+                locations);
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.optimizeMultiDepot(request, "Auto", null);
+
+        // Assert : C, le moins pénalisé par le détour, part au sud
+        Map<String, List<String>> stopsByDepot = new HashMap<>();
+        response.getTournees().forEach(route -> stopsByDepot.put(route.getDepotId(), route.getStopOrder()));
+        assertThat(stopsByDepot.get("DEPOT_NORD"), containsInAnyOrder("A", "B"));
+        assertEquals(List.of("C"), stopsByDepot.get("DEPOT_SUD"));
+        assertTrue(response.getUnassignedStops().isEmpty());
+    }
+
+    @Test
+    @DisplayName("optimizeMultiDepot devrait rejeter une requête sans dépôt")
+    void optimizeMultiDepot_WithoutDepot_ShouldThrow() {
+        MultiDepotRouteRequest request = new MultiDepotRouteRequest(List.of(), List.of(locA));
+        assertThrows(IllegalArgumentException.class,
+                () -> routeOptimizationService.optimizeMultiDepot(request, "Auto", null));
+    }
+
+    @Test
+    @DisplayName("insertStops devrait garder l'ordre existant et signaler le colis qui ne tient pas")
+    void insertStops_ShouldKeepExistingOrderAndReportUnassigned() {
+        // Arrange : tournée B puis A (ordre non optimal conservé), C entre les deux, D trop lourd
+        LocationDTO locC = new LocationDTO("C", 3.0, 3.0, BigDecimal.valueOf(10));
+        LocationDTO locD = new LocationDTO("D", 2.0, 2.0, BigDecimal.valueOf(80));
+        RouteRequest request = new RouteRequest(depot, List.of(locB, locA, locC, locD), List.of(livreur));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.insertStops(request, 2);
+
+        // Assert
+        assertEquals("CheapestInsertion", response.getAlgorithm());
+        assertEquals(List.of("B", "C", "A"), response.getTournees().get(0).getStopOrder());
+        assertEquals(List.of("D"), response.getUnassignedStops());
+        assertEquals(40.0, response.getTournees().get(0).getRouteLoad(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("replanRemaining devrait figer les arrêts servis et repartir de la position du livreur")
+    void replanRemaining_ShouldKeepPrefixAndStartFromPosition() {
+        // Arrange : A servi ; livreur en (6, 6), au-delà de B ; C prévu avant B
+        LocationDTO locC = new LocationDTO("C", 3.0, 3.0, BigDecimal.valueOf(10));
+        LocationDTO position = new LocationDTO("POSITION", 6.0, 6.0, BigDecimal.ZERO);
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locC, locB), List.of(livreur));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.replanRemaining(request, 1, position, 2.0, null);
+
+        // Assert
+        OptimizedRouteResponse.RouteDetails route = response.getTournees().get(0);
+        assertEquals(List.of("B", "C"), route.getStopOrder());
+        assertTrue(route.getStopEtaHours().get(0) > 2.0);
+        assertTrue(route.getStopEtaHours().get(0) < route.getStopEtaHours().get(1));
+        assertEquals(30.0, route.getRouteLoad(), 1e-9);
+        assertTrue(response.isConverged());
+    }
+
+    @Test
+    @DisplayName("replanRemaining ne devrait pas dépasser une fenêtre stricte pour raccourcir la tournée")
+    void replanRemaining_ShouldKeepHardWindows() {
+        // Arrange : A servi ; livreur en (6, 6) ; passer d'abord par B, plus court, ferait arriver C après 11 h
+        LocationDTO locC = new LocationDTO("C", 3.0, 6.0, BigDecimal.valueOf(10));
+        locC.setFenetreFinHeures(11.0);
+        locC.setFenetreStricte(true);
+        LocationDTO position = new LocationDTO("POSITION", 6.0, 6.0, BigDecimal.ZERO);
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locC, locB), List.of(livreur));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.replanRemaining(request, 1, position, 2.0, null);
+
+        // Assert
+        OptimizedRouteResponse.RouteDetails route = response.getTournees().get(0);
+        assertEquals(List.of("C", "B"), route.getStopOrder());
+        assertTrue(route.getStopEtaHours().get(0) <= 11.0);
+        assertTrue(response.getLateStops().isEmpty());
+        assertTrue(route.getRouteEstimatedTimeHours() > route.getStopEtaHours().get(1));
+    }
+
+    @Test
+    @DisplayName("Auto devrait choisir TimeWindows pour un colis HAUTE et donner l'ETA de chaque arrêt")
+    void optimizeRoutes_Auto_WithHighPriority_ShouldUseTimeWindows() {
+        // Arrange
+        locB.setPriorite(PriorityColis.HAUTE);
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB), List.of(livreur));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.optimizeRoutes(request, "Auto");
+
+        // Assert
+        assertEquals("TimeWindows", response.getAlgorithm());
+        OptimizedRouteResponse.RouteDetails route = response.getTournees().get(0);
+        assertEquals(route.getStopOrder().size(), route.getStopEtaHours().size());
+        assertTrue(route.getStopEtaHours().get(0) < route.getStopEtaHours().get(1));
+        assertTrue(response.getLateStops().isEmpty());
+    }
+
+    @Test
+    @DisplayName("La durée d'une tournée devrait inclure l'attente d'ouverture de fenêtre")
+    void optimizeRoutes_TimeWindows_ShouldIncludeWaitingInRouteTime() {
+        // Arrange : A n'ouvre qu'après 10 h, bien après l'arrivée du livreur
+        locA.setFenetreDebutHeures(10.0);
+        RouteRequest request = new RouteRequest(depot, List.of(locA), List.of(livreur));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.optimizeRoutes(request, "TimeWindows");
+
+        // Assert
+        OptimizedRouteResponse.RouteDetails route = response.getTournees().get(0);
+        assertEquals(10.0, route.getStopEtaHours().get(0), 1e-9);
+        assertTrue(route.getRouteEstimatedTimeHours() > route.getStopEtaHours().get(0));
+        assertEquals(route.getRouteEstimatedTimeHours(), response.getTotalEstimatedTimeHours(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Une fenêtre stricte devrait être refusée par NearestNeighbor, une fenêtre souple dépassée signalée")
+    void optimizeRoutes_TimeWindows_ShouldRejectHardAndReportLateSoft() {
+        // Arrange : B (~785 km) ne peut pas être atteint en une heure
+        locB.setFenetreFinHeures(1.0);
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB), List.of(livreur));
+
+        // Act
+        OptimizedRouteResponse response = routeOptimizationService.optimizeRoutes(request, "NearestNeighbor");
+
+        // Assert
+        assertEquals(List.of("B"), response.getLateStops());
+
+        locB.setFenetreStricte(true);
+        RouteRequest strict = new RouteRequest(depot, List.of(locA, locB), List.of(livreur));
+        assertThrows(IllegalArgumentException.class, () -> routeOptimizationService.optimizeRoutes(strict, "NearestNeighbor"));
+        // TimeWindows laisse l'arrêt inatteignable non affecté plutôt que de dépasser sa fenêtre
+        assertEquals(List.of("B"), routeOptimizationService.optimizeRoutes(strict, "TimeWindows").getUnassignedStops());
+    }
+
+    @Test
+    @DisplayName("Auto devrait résoudre exactement une petite tournée et se rabattre sur l'heuristique sinon")
+    void optimizeRoutes_Auto_ShouldUseExactOnlyWhenApplicable() {
+        // Arrange
+        LocationDTO locC = new LocationDTO("C", 1.0, 5.0, BigDecimal.valueOf(5));
+        LocationDTO locD = new LocationDTO("D", 5.0, 1.0, BigDecimal.valueOf(5));
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB, locC, locD), List.of(livreur));
+        RouteRequest overloaded = new RouteRequest(depot, List.of(locA, locB, locC, locD),
+                List.of(new RouteRequest.LivreurData("L1", 25.0), new RouteRequest.LivreurData("L2", 25.0)));
+
+        // Act
+        OptimizedRouteResponse exact = routeOptimizationService.optimizeRoutes(request, "Auto");
+        OptimizedRouteResponse heuristic = routeOptimizationService.optimizeRoutes(request, "ClarkeWright+2opt+oropt");
+        OptimizedRouteResponse fallback = routeOptimizationService.optimizeRoutes(overloaded, "Auto");
+
+        // Assert
+        assertEquals("Exact", exact.getAlgorithm());
+        assertTrue(exact.isConverged());
+        assertThat(exact.getTournees().get(0).getStopOrder(), containsInAnyOrder("A", "B", "C", "D"));
+        assertTrue(exact.getTotalDistanceKm() <= heuristic.getTotalDistanceKm() + 1e-9);
+        assertEquals("ClarkeWright+2opt+oropt", fallback.getAlgorithm());
+        assertTrue(fallback.getUnassignedStops().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Seule l'optimisation calculée devrait être chronométrée, pas la réponse servie par le cache")
+    void optimizeRoutes_ShouldRecordMetricsForComputedOptimizationsOnly() {
+        // Arrange : capacité pour A seulement
+        MeterRegistry registry = new SimpleMeterRegistry();
+        RouteOptimizationService service = new RouteOptimizationService(new DistanceMatrixBuilder(), new MultiStartSolver(),
+                new ExactSolver(), new AlnsSolver(), new ClusterSolver(), new RestrictedAreas(), new RouteCache(),
+                new ZoneDistanceStore(), new RoutingMetrics(registry));
+        RouteRequest request = new RouteRequest(depot, List.of(locA, locB), List.of(new RouteRequest.LivreurData("L1", 15.0)));
+
+        // Act
+        service.optimizeRoutes(request, "ClarkeWright+2opt");
+        service.optimizeRoutes(request, "ClarkeWright+2opt");
+
+        // Assert
+        assertEquals(1, registry.get("routing.optimization")
+                .tags("algorithm", "ClarkeWright", "improved", "true", "stops", "0-50", "outcome", "success")
+                .timer().count());
+        assertEquals(1.0, registry.get("routing.stops.unassigned").tags("algorithm", "ClarkeWright").counter().count());
+        assertNull(registry.find("routing.capacity.violations").counter());
+        assertEquals(0.0, registry.get("routing.optimizations.active").gauge().value());
+    }
+
     @Test
     @DisplayName("Devrait lever IllegalArgumentException pour un algorithme inconnu")
     void optimizeRoutes_ShouldThrowException_ForUnsupportedAlgorithm() {
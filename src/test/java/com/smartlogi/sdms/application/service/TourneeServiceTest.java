@@ -1,7 +1,12 @@
 package com.smartlogi.sdms.application.service;
 
+import com.smartlogi.sdms.application.dto.routes.MultiDepotRouteRequest;
 import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
 import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.application.dto.tournee.PlanificationZoneDTO;
+import com.smartlogi.sdms.application.dto.tournee.TourneeMultiZoneRequestDTO;
+import com.smartlogi.sdms.application.dto.tournee.TourneeMultiZoneResponseDTO;
+import com.smartlogi.sdms.application.dto.tournee.TourneeReplanificationRequestDTO;
 import com.smartlogi.sdms.application.dto.tournee.TourneeRequestDTO;
 import com.smartlogi.sdms.application.dto.tournee.TourneeResponseDTO;
 import com.smartlogi.sdms.application.mapper.TourneeMapper;
@@ -11,6 +16,9 @@ import com.smartlogi.sdms.domain.model.entity.Tournee;
 import com.smartlogi.sdms.domain.model.entity.Zone;
 import com.smartlogi.sdms.domain.model.entity.users.Destinataire;
 import com.smartlogi.sdms.domain.model.entity.users.Livreur;
+import com.smartlogi.sdms.domain.model.enums.StatusColis;
+import com.smartlogi.sdms.domain.model.enums.StatusLivreur;
+import com.smartlogi.sdms.domain.model.enums.StatutPlanification;
 import com.smartlogi.sdms.domain.model.enums.StatutTournee;
 import com.smartlogi.sdms.domain.model.enums.TypeVehicule;
 import com.smartlogi.sdms.domain.model.enums.UnitePoids;
@@ -36,6 +44,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -103,12 +112,15 @@ class TourneeServiceTest {
                 .id(colisId1)
                 .destinataire(destinataire)
                 .poids(new Poids(BigDecimal.TEN, UnitePoids.KG))
+                .statut(StatusColis.EN_STOCK)
+                .zoneDestination(zone)
                 .build();
 
         // --- Simulation de la réponse d'optimisation ---
         OptimizedRouteResponse.RouteDetails routeDetails = OptimizedRouteResponse.RouteDetails.builder()
                 .livreurId(livreurId)
                 .stopOrder(List.of(colisId1)) // Ordre optimisé
+                .stopEtaHours(List.of(0.4))
                 .routeDistanceKm(10.5)
                 .routeEstimatedTimeHours(1.2)
                 .build();
@@ -141,7 +153,7 @@ class TourneeServiceTest {
         when(zoneRepository.findById(zoneId)).thenReturn(Optional.of(zone));
         when(colisRepository.findAllById(List.of(colisId1))).thenReturn(List.of(colis1));
 
-        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), eq("NearestNeighbor")))
+        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), eq("NearestNeighbor"), any()))
                 .thenReturn(optimizedResponse);
 
         // Simule la sauvegarde initiale (avant mise à jour des colis)
@@ -164,16 +176,42 @@ class TourneeServiceTest {
         verify(colisRepository, times(1)).save(colisCaptor.capture());
         assertEquals(savedTournee, colisCaptor.getValue().getTournee());
         assertEquals(1, colisCaptor.getValue().getOrdreLivraison());
+        assertEquals(0.4, colisCaptor.getValue().getEtaHeures());
+
+        // La tournée porte ses colis : c'est d'eux que le mapper tire les livraisons et les étapes
+        assertEquals(List.of(colis1), savedTournee.getLivraisons());
 
         // Vérification des appels
         verify(livreurRepository, times(1)).findById(livreurId);
         verify(zoneRepository, times(1)).findById(zoneId);
         verify(colisRepository, times(1)).findAllById(anyList());
-        verify(routeOptimizationService, times(1)).optimizeRoutes(any(), anyString());
+        verify(routeOptimizationService, times(1)).optimizeRoutes(any(), anyString(), any());
         verify(tourneeRepository, times(1)).save(any(Tournee.class)); // Sauvegarde initiale
         verify(tourneeRepository, times(1)).findById(tourneeId); // Recherche finale
     }
 
+    @Test
+    @DisplayName("createAndOptimizeTournee devrait envoyer les poids en kg, quelle que soit leur unité")
+    void createAndOptimizeTournee_ShouldSendDemandsInKilograms() {
+        // Arrange : un colis de 500 g ne pèse que 0,5 kg face à la capacité du véhicule
+        colis1.setPoids(new Poids(new BigDecimal("500"), UnitePoids.G));
+        when(livreurRepository.findById(livreurId)).thenReturn(Optional.of(livreur));
+        when(zoneRepository.findById(zoneId)).thenReturn(Optional.of(zone));
+        when(colisRepository.findAllById(List.of(colisId1))).thenReturn(List.of(colis1));
+        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), eq("NearestNeighbor"), any()))
+                .thenReturn(optimizedResponse);
+        when(tourneeRepository.save(any(Tournee.class))).thenReturn(savedTournee);
+        when(tourneeRepository.findById(tourneeId)).thenReturn(Optional.of(savedTournee));
+
+        // Act
+        tourneeService.createAndOptimizeTournee(requestDTO);
+
+        // Assert
+        ArgumentCaptor<RouteRequest> requestCaptor = ArgumentCaptor.forClass(RouteRequest.class);
+        verify(routeOptimizationService).optimizeRoutes(requestCaptor.capture(), eq("NearestNeighbor"), any());
+        assertEquals(0, new BigDecimal("0.5").compareTo(requestCaptor.getValue().getLocations().get(0).getPoidsDemande()));
+    }
+
     @Test
     @DisplayName("createAndOptimizeTournee devrait lever ResourceNotFound (Livreur) (Couvre lambda 0)")
     void createAndOptimizeTournee_ShouldThrow_WhenLivreurNotFound() {
@@ -275,7 +313,7 @@ class TourneeServiceTest {
         });
         assertTrue(e.getMessage().contains("n'a pas de véhicule assigné."));
 
-        verify(routeOptimizationService, never()).optimizeRoutes(any(), anyString());
+        verify(routeOptimizationService, never()).optimizeRoutes(any(), anyString(), any());
     }
 
     @Test
@@ -320,6 +358,274 @@ class TourneeServiceTest {
         assertTrue(e.getMessage().contains("n'a pas de destinataire ou d'adresse valide."));
     }
 
+    // --- Tests pour planifierMultiZones ---
+
+    @Test
+    @DisplayName("planifierMultiZones devrait créer une tournée par livreur, rattachée à la zone de son dépôt")
+    void planifierMultiZones_ShouldPersistOneTourneePerRoute() {
+        // Arrange : une deuxième zone, sans livreur disponible (ignorée), et un colis que personne ne peut prendre
+        Colis colis2 = Colis.builder().id("colis-002").destinataire(colis1.getDestinataire())
+                .poids(new Poids(BigDecimal.valueOf(80), UnitePoids.KG)).build();
+        Zone zoneSansLivreur = Zone.builder().id("zone-xyz").nom("Zone B")
+                .adresseDepot(new Adresse("DEP2", "Rue Depot 2", "CASABLANCA", "20300", "MAROC", 33.55, -7.45)).build();
+        TourneeMultiZoneRequestDTO multiRequest = new TourneeMultiZoneRequestDTO();
+        multiRequest.setDateTournee(LocalDate.now());
+        multiRequest.setZoneIds(List.of(zoneId, "zone-xyz"));
+        multiRequest.setColisIds(List.of(colisId1, "colis-002"));
+        multiRequest.setAlgorithme("Auto");
+
+        when(zoneRepository.findAllById(List.of(zoneId, "zone-xyz"))).thenReturn(List.of(zone, zoneSansLivreur));
+        when(colisRepository.findAllById(List.of(colisId1, "colis-002"))).thenReturn(List.of(colis1, colis2));
+        when(livreurRepository.findAllByZoneAssigneeIdAndStatusLivreur(zoneId, StatusLivreur.DISPONIBLE)).thenReturn(List.of(livreur));
+        when(livreurRepository.findAllByZoneAssigneeIdAndStatusLivreur("zone-xyz", StatusLivreur.DISPONIBLE)).thenReturn(List.of());
+
+        OptimizedRouteResponse multiResponse = OptimizedRouteResponse.builder()
+                .tournees(List.of(OptimizedRouteResponse.RouteDetails.builder()
+                        .livreurId(livreurId)
+                        .depotId("DEPOT_" + zoneId)
+                        .stopOrder(List.of(colisId1))
+                        .routeDistanceKm(10.5)
+                        .build()))
+                .unassignedStops(List.of("colis-002"))
+                .build();
+        when(routeOptimizationService.optimizeMultiDepot(any(MultiDepotRouteRequest.class), eq("Auto"), any()))
+                .thenReturn(multiResponse);
+        when(tourneeRepository.save(any(Tournee.class))).thenReturn(savedTournee);
+        when(tourneeMapper.toResponseDTO(savedTournee)).thenReturn(responseDTO);
+
+        // Act
+        TourneeMultiZoneResponseDTO result = tourneeService.planifierMultiZones(multiRequest);
+
+        // Assert
+        assertEquals(List.of(responseDTO), result.getTournees());
+        assertEquals(List.of("colis-002"), result.getColisNonAffectes());
+        assertNull(colis2.getTournee());
+        ArgumentCaptor<MultiDepotRouteRequest> requestCaptor = ArgumentCaptor.forClass(MultiDepotRouteRequest.class);
+        verify(routeOptimizationService).optimizeMultiDepot(requestCaptor.capture(), eq("Auto"), any());
+        assertEquals(1, requestCaptor.getValue().getDepots().size()); // Zone sans livreur écartée
+
+        ArgumentCaptor<Tournee> tourneeCaptor = ArgumentCaptor.forClass(Tournee.class);
+        verify(tourneeRepository).save(tourneeCaptor.capture());
+        assertEquals(zone, tourneeCaptor.getValue().getZone());
+        assertEquals(livreur, tourneeCaptor.getValue().getLivreur());
+        assertEquals(1, colis1.getOrdreLivraison());
+    }
+
+    @Test
+    @DisplayName("planifierMultiZones devrait lever IllegalState si aucune zone n'a de livreur disponible")
+    void planifierMultiZones_ShouldThrow_WhenNoLivreurAvailable() {
+        // Arrange
+        TourneeMultiZoneRequestDTO multiRequest = new TourneeMultiZoneRequestDTO();
+        multiRequest.setZoneIds(List.of(zoneId));
+        multiRequest.setColisIds(List.of(colisId1));
+        multiRequest.setAlgorithme("Auto");
+
+        when(zoneRepository.findAllById(List.of(zoneId))).thenReturn(List.of(zone));
+        when(colisRepository.findAllById(List.of(colisId1))).thenReturn(List.of(colis1));
+        when(livreurRepository.findAllByZoneAssigneeIdAndStatusLivreur(zoneId, StatusLivreur.DISPONIBLE)).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> tourneeService.planifierMultiZones(multiRequest));
+        verify(routeOptimizationService, never()).optimizeMultiDepot(any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("planifierZone devrait écrire toutes les tournées puis tous les colis en lots")
+    void planifierZone_ShouldSaveTourneesAndColisInBatches() {
+        // Arrange : deux livreurs disponibles, dont un déjà planifié ce jour-là
+        LocalDate date = LocalDate.now();
+        Livreur dejaPlanifie = Livreur.builder().id("livreur-456").vehicule(livreur.getVehicule()).build();
+        when(colisRepository.findAllByZoneDestinationIdAndStatutAndTourneeIsNull(zoneId, StatusColis.EN_STOCK)).thenReturn(List.of(colis1));
+        when(tourneeRepository.findLivreurIdsByZoneIdAndDateTournee(zoneId, date)).thenReturn(List.of("livreur-456"));
+        when(livreurRepository.findAllByZoneAssigneeIdAndStatusLivreur(zoneId, StatusLivreur.DISPONIBLE)).thenReturn(List.of(livreur, dejaPlanifie));
+        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), eq("Auto"), eq(5000L))).thenReturn(optimizedResponse);
+        when(tourneeRepository.saveAll(anyList())).thenReturn(List.of(savedTournee));
+
+        // Act
+        PlanificationZoneDTO result = tourneeService.planifierZone(zone, date, "Auto", 5000L);
+
+        // Assert
+        assertEquals(StatutPlanification.TERMINEE, result.getStatut());
+        assertEquals(1, result.getNbTournees());
+        assertEquals(0, result.getNbColisNonAffectes());
+        assertEquals(10.5, result.getDistanceTotaleKm());
+
+        ArgumentCaptor<RouteRequest> requestCaptor = ArgumentCaptor.forClass(RouteRequest.class);
+        verify(routeOptimizationService).optimizeRoutes(requestCaptor.capture(), eq("Auto"), eq(5000L));
+        assertEquals(1, requestCaptor.getValue().getLivreurs().size()); // Livreur déjà planifié écarté
+        verify(tourneeRepository, never()).save(any(Tournee.class));
+        verify(colisRepository).saveAll(List.of(colis1));
+        assertEquals(savedTournee, colis1.getTournee());
+        assertEquals(1, colis1.getOrdreLivraison());
+    }
+
+    @Test
+    @DisplayName("planifierZone devrait ignorer une zone sans colis en stock, sans optimiser")
+    void planifierZone_ShouldBeIgnored_WhenNoColis() {
+        when(colisRepository.findAllByZoneDestinationIdAndStatutAndTourneeIsNull(zoneId, StatusColis.EN_STOCK)).thenReturn(List.of());
+
+        PlanificationZoneDTO result = tourneeService.planifierZone(zone, LocalDate.now(), "Auto", null);
+
+        assertEquals(StatutPlanification.IGNOREE, result.getStatut());
+        assertEquals(0, result.getNbTournees());
+        verify(routeOptimizationService, never()).optimizeRoutes(any(), anyString(), any());
+        verify(tourneeRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("ajouterColis ne devrait réécrire que les colis ajoutés ou déplacés")
+    void ajouterColis_ShouldSaveOnlyChangedColis() {
+        // Arrange : un colis déjà planifié en tête, inchangé après l'insertion
+        Colis existant = Colis.builder()
+                .id("colis-000")
+                .destinataire(colis1.getDestinataire())
+                .poids(new Poids(BigDecimal.ONE, UnitePoids.KG))
+                .tournee(savedTournee)
+                .ordreLivraison(1)
+                .etaHeures(0.2)
+                .build();
+        savedTournee.setLivraisons(new ArrayList<>(List.of(existant)));
+        when(tourneeRepository.findByIdWithAssociations(tourneeId)).thenReturn(Optional.of(savedTournee));
+        when(colisRepository.findAllById(List.of(colisId1))).thenReturn(List.of(colis1));
+
+        OptimizedRouteResponse insertion = OptimizedRouteResponse.builder()
+                .tournees(List.of(OptimizedRouteResponse.RouteDetails.builder()
+                        .livreurId(livreurId)
+                        .stopOrder(List.of("colis-000", colisId1))
+                        .stopEtaHours(List.of(0.2, 0.5))
+                        .routeDistanceKm(12.0)
+                        .routeEstimatedTimeHours(1.4)
+                        .build()))
+                .unassignedStops(List.of())
+                .build();
+        when(routeOptimizationService.insertStops(any(RouteRequest.class), eq(1))).thenReturn(insertion);
+        when(tourneeRepository.save(savedTournee)).thenReturn(savedTournee);
+        when(tourneeMapper.toResponseDTO(savedTournee)).thenReturn(responseDTO);
+
+        // Act
+        TourneeResponseDTO result = tourneeService.ajouterColis(tourneeId, List.of(colisId1));
+
+        // Assert
+        assertEquals(responseDTO, result);
+        ArgumentCaptor<RouteRequest> requestCaptor = ArgumentCaptor.forClass(RouteRequest.class);
+        verify(routeOptimizationService).insertStops(requestCaptor.capture(), eq(1));
+        assertEquals("colis-000", requestCaptor.getValue().getLocations().get(0).getId()); // Existants d'abord
+        verify(colisRepository).saveAll(List.of(colis1));
+        assertEquals(savedTournee, colis1.getTournee());
+        assertEquals(2, colis1.getOrdreLivraison());
+        assertEquals(0.5, colis1.getEtaHeures());
+        assertEquals(12.0, savedTournee.getDistanceTotaleKm());
+        assertEquals(1.4, savedTournee.getDureeEstimeeHeures());
+        assertTrue(savedTournee.getLivraisons().contains(colis1));
+    }
+
+    @Test
+    @DisplayName("ajouterColis devrait lever IllegalState si la tournée est déjà en cours")
+    void ajouterColis_ShouldThrow_WhenTourneeNotPlanned() {
+        savedTournee.setStatut(StatutTournee.EN_COURS);
+        when(tourneeRepository.findByIdWithAssociations(tourneeId)).thenReturn(Optional.of(savedTournee));
+
+        assertThrows(IllegalStateException.class, () -> tourneeService.ajouterColis(tourneeId, List.of(colisId1)));
+        verify(routeOptimizationService, never()).insertStops(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("ajouterColis devrait lever IllegalState si un colis n'est plus en stock")
+    void ajouterColis_ShouldThrow_WhenColisNotInStock() {
+        colis1.setStatut(StatusColis.LIVRE);
+        when(tourneeRepository.findByIdWithAssociations(tourneeId)).thenReturn(Optional.of(savedTournee));
+        when(colisRepository.findAllById(List.of(colisId1))).thenReturn(List.of(colis1));
+
+        assertThrows(IllegalStateException.class, () -> tourneeService.ajouterColis(tourneeId, List.of(colisId1)));
+        verify(routeOptimizationService, never()).insertStops(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("ajouterColis devrait lever IllegalArgument si un colis est destiné à une autre zone")
+    void ajouterColis_ShouldThrow_WhenColisFromAnotherZone() {
+        colis1.setZoneDestination(Zone.builder().id("zone-xyz").build());
+        when(tourneeRepository.findByIdWithAssociations(tourneeId)).thenReturn(Optional.of(savedTournee));
+        when(colisRepository.findAllById(List.of(colisId1))).thenReturn(List.of(colis1));
+
+        assertThrows(IllegalArgumentException.class, () -> tourneeService.ajouterColis(tourneeId, List.of(colisId1)));
+        verify(routeOptimizationService, never()).insertStops(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("ajouterColis devrait lever IllegalState si un colis ne trouve aucune position réalisable")
+    void ajouterColis_ShouldThrow_WhenColisCannotBeInserted() {
+        savedTournee.setLivraisons(new ArrayList<>());
+        when(tourneeRepository.findByIdWithAssociations(tourneeId)).thenReturn(Optional.of(savedTournee));
+        when(colisRepository.findAllById(List.of(colisId1))).thenReturn(List.of(colis1));
+        when(routeOptimizationService.insertStops(any(RouteRequest.class), eq(1))).thenReturn(OptimizedRouteResponse.builder()
+                .tournees(List.of(OptimizedRouteResponse.RouteDetails.builder().stopOrder(List.of()).build()))
+                .unassignedStops(List.of(colisId1))
+                .build());
+
+        assertThrows(IllegalStateException.class, () -> tourneeService.ajouterColis(tourneeId, List.of(colisId1)));
+        verify(colisRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("replanifier devrait figer les colis livrés et ré-ordonner les restants depuis la position du livreur")
+    void replanifier_ShouldKeepDeliveredPrefix() {
+        // Arrange : colis-000 livré en premier, colis1 restant
+        savedTournee.setStatut(StatutTournee.EN_COURS);
+        Colis livre = Colis.builder()
+                .id("colis-000")
+                .destinataire(colis1.getDestinataire())
+                .poids(new Poids(BigDecimal.ONE, UnitePoids.KG))
+                .statut(StatusColis.LIVRE)
+                .tournee(savedTournee)
+                .ordreLivraison(1)
+                .etaHeures(0.3)
+                .build();
+        colis1.setStatut(StatusColis.EN_TRANSIT);
+        colis1.setTournee(savedTournee);
+        colis1.setOrdreLivraison(2);
+        savedTournee.setLivraisons(new ArrayList<>(List.of(colis1, livre)));
+        when(tourneeRepository.findByIdWithAssociations(tourneeId)).thenReturn(Optional.of(savedTournee));
+
+        OptimizedRouteResponse replan = OptimizedRouteResponse.builder()
+                .tournees(List.of(OptimizedRouteResponse.RouteDetails.builder()
+                        .stopOrder(List.of(colisId1))
+                        .stopEtaHours(List.of(0.9))
+                        .routeDistanceKm(14.0)
+                        .routeEstimatedTimeHours(1.1)
+                        .build()))
+                .build();
+        when(routeOptimizationService.replanRemaining(any(RouteRequest.class), eq(1), any(), eq(0.3), any())).thenReturn(replan);
+        when(tourneeRepository.save(savedTournee)).thenReturn(savedTournee);
+        when(tourneeMapper.toResponseDTO(savedTournee)).thenReturn(responseDTO);
+
+        TourneeReplanificationRequestDTO request = new TourneeReplanificationRequestDTO();
+        request.setLatitude(33.55);
+        request.setLongitude(-7.55);
+
+        // Act
+        TourneeResponseDTO result = tourneeService.replanifier(tourneeId, request);
+
+        // Assert : l'heure de départ par défaut est l'ETA du dernier colis livré
+        assertEquals(responseDTO, result);
+        ArgumentCaptor<RouteRequest> requestCaptor = ArgumentCaptor.forClass(RouteRequest.class);
+        verify(routeOptimizationService).replanRemaining(requestCaptor.capture(), eq(1), any(), eq(0.3), any());
+        assertEquals("colis-000", requestCaptor.getValue().getLocations().get(0).getId());
+        verify(colisRepository).saveAll(List.of(colis1)); // Rang inchangé, seule l'ETA change
+        assertEquals(2, colis1.getOrdreLivraison());
+        assertEquals(0.9, colis1.getEtaHeures());
+        assertEquals(14.0, savedTournee.getDistanceTotaleKm());
+    }
+
+    @Test
+    @DisplayName("replanifier devrait lever IllegalState si la tournée n'est pas en cours")
+    void replanifier_ShouldThrow_WhenTourneeNotInProgress() {
+        when(tourneeRepository.findByIdWithAssociations(tourneeId)).thenReturn(Optional.of(savedTournee));
+
+        assertThrows(IllegalStateException.class,
+                () -> tourneeService.replanifier(tourneeId, new TourneeReplanificationRequestDTO()));
+        verify(routeOptimizationService, never()).replanRemaining(any(), anyInt(), any(), anyDouble(), any());
+    }
+
     @Test
     @DisplayName("createAndOptimizeTournee devrait lever IllegalState si l'optimisation retourne une route vide")
     void createAndOptimizeTournee_ShouldThrow_WhenOptimizationReturnsEmpty() {
@@ -330,7 +636,7 @@ class TourneeServiceTest {
         when(zoneRepository.findById(zoneId)).thenReturn(Optional.of(zone));
         when(colisRepository.findAllById(List.of(colisId1))).thenReturn(List.of(colis1));
 
-        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), anyString()))
+        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), anyString(), any()))
                 .thenReturn(emptyResponse);
 
         // Act & Assert
@@ -349,7 +655,7 @@ class TourneeServiceTest {
         when(zoneRepository.findById(zoneId)).thenReturn(Optional.of(zone));
         when(colisRepository.findAllById(List.of(colisId1))).thenReturn(List.of(colis1));
 
-        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), anyString()))
+        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), anyString(), any()))
                 .thenReturn(optimizedResponse);
 
         // 1. Simule la sauvegarde initiale
@@ -0,0 +1,145 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.domain.model.enums.TypeVehicule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.fleet;
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.randomProblem;
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.served;
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.totalDistance;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlnsSolverTest {
+
+    private final DistanceMatrixBuilder distanceMatrixBuilder = new DistanceMatrixBuilder();
+
+    private static AlnsSolver solver(int iterations, int islands, int parallelism, long seed) {
+        AlnsSolver solver = new AlnsSolver();
+        solver.configure(iterations, islands, 50, parallelism, seed);
+        return solver;
+    }
+
+    @Test
+    @DisplayName("L'ALNS devrait respecter les capacités, servir chaque arrêt une fois et battre Clarke-Wright + LS")
+    void solve_ShouldStayFeasibleAndImproveOnClarkeWright() {
+        // Arrange
+        RoutingProblem problem = randomProblem(150, 3, fleet(10, 200.0));
+        List<RouteImprover> improvers = AlgorithmSpec.parse("Alns").improvers();
+        List<PlannedRoute> baseline = LocalSearch.improve(problem, ClarkeWrightSolver.solve(problem), improvers);
+
+        // Act
+        List<PlannedRoute> routes = solver(500, 1, 1, 42L).solve(problem, improvers);
+
+        // Assert
+        Set<Integer> vehicles = new HashSet<>();
+        Set<Integer> seen = new HashSet<>();
+        for (PlannedRoute route : routes) {
+            assertTrue(vehicles.add(route.vehicle()), "Un livreur ne devrait avoir qu'une tournée");
+            assertTrue(problem.routeLoad(route.stops()) <= problem.capacity(route.vehicle()) + 1e-9);
+            for (int stop : route.stops()) {
+                assertTrue(seen.add(stop), "Arrêt servi deux fois : " + stop);
+            }
+        }
+        assertTrue(served(routes) >= served(baseline));
+        assertTrue(totalDistance(problem, routes) < totalDistance(problem, baseline));
+    }
+
+    @Test
+    @DisplayName("Les îles parallèles devraient être reproductibles, quel que soit le nombre de threads")
+    void solve_Islands_ShouldBeReproducibleForSameSeed() {
+        // Arrange
+        RoutingProblem problem = randomProblem(80, 9, fleet(6, 200.0));
+        List<RouteImprover> improvers = AlgorithmSpec.parse("Alns").improvers();
+        AlnsSolver sequential = solver(200, 3, 1, 7L);
+        AlnsSolver parallel = solver(200, 3, 3, 7L);
+
+        try {
+            // Act
+            List<PlannedRoute> first = sequential.solve(problem, improvers);
+            List<PlannedRoute> second = parallel.solve(problem, improvers);
+
+            // Assert
+            assertEquals(first.size(), second.size());
+            for (int r = 0; r < first.size(); r++) {
+                assertEquals(first.get(r).vehicle(), second.get(r).vehicle());
+                assertArrayEquals(first.get(r).stops(), second.get(r).stops());
+            }
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Un budget expiré devrait renvoyer la solution de départ sans itérer")
+    void solve_WithExpiredBudget_ShouldReturnInitialSolution() throws InterruptedException {
+        // Arrange
+        RoutingProblem problem = randomProblem(60, 5, fleet(4, 300.0));
+        SearchBudget budget = SearchBudget.ofMillis(1L);
+        Thread.sleep(5);
+
+        // Act
+        List<PlannedRoute> routes = solver(100_000, 1, 1, 42L).solve(problem, List.of(), budget);
+
+        // Assert
+        assertFalse(budget.converged());
+        assertEquals(totalDistance(problem, ClarkeWrightSolver.solve(problem)), totalDistance(problem, routes), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Avec une flotte mixte, l'ALNS devrait réduire le coût sans envoyer de camion en médina")
+    void solve_HeterogeneousFleet_ShouldLowerCostAndRespectAccess() {
+        // Arrange
+        Random random = new Random(21);
+        LocationDTO depot = new LocationDTO("DEPOT", 33.57, -7.59, BigDecimal.ZERO);
+        List<LocationDTO> locations = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            LocationDTO location = new LocationDTO("C" + i,
+                    33.45 + random.nextDouble() * 0.25,
+                    -7.75 + random.nextDouble() * 0.3,
+                    BigDecimal.valueOf(1 + random.nextInt(10)));
+            location.setAccesRestreint(random.nextInt(4) == 0);
+            locations.add(location);
+        }
+        List<RouteRequest.LivreurData> fleet = new ArrayList<>();
+        for (int l = 0; l < 3; l++) {
+            fleet.add(new RouteRequest.LivreurData("CAMION" + l, 300.0, TypeVehicule.CAMION));
+            fleet.add(new RouteRequest.LivreurData("MOTO" + l, 80.0, TypeVehicule.MOTO));
+        }
+        RoutingProblem problem = RoutingProblem.of(new RouteRequest(depot, locations, fleet),
+                distanceMatrixBuilder.build(depot, locations));
+        List<RouteImprover> improvers = AlgorithmSpec.parse("Alns").improvers();
+        List<PlannedRoute> baseline = LocalSearch.improve(problem, ClarkeWrightSolver.solve(problem), improvers);
+
+        // Act
+        List<PlannedRoute> routes = solver(500, 1, 1, 42L).solve(problem, improvers);
+
+        // Assert
+        double baselineCost = 0;
+        double cost = 0;
+        for (PlannedRoute route : baseline) {
+            baselineCost += problem.routeCost(route.vehicle(), route.stops());
+        }
+        for (PlannedRoute route : routes) {
+            cost += problem.routeCost(route.vehicle(), route.stops());
+            assertTrue(problem.routeLoad(route.stops()) <= problem.capacity(route.vehicle()) + 1e-9);
+            for (int stop : route.stops()) {
+                assertTrue(problem.canServe(route.vehicle(), stop), "Arrêt " + stop + " interdit au livreur " + route.vehicle());
+            }
+        }
+        assertTrue(served(routes) >= served(baseline));
+        if (served(routes) == served(baseline)) {
+            assertTrue(cost <= baselineCost + 1e-6);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.domain.model.enums.MissionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheapestInsertionTest {
+
+    // ~0.009° de latitude = 1 km
+    private static final double KM = 1.0 / 111.2;
+
+    private final DistanceMatrixBuilder distanceMatrixBuilder = new DistanceMatrixBuilder();
+
+    private static LocationDTO stop(String id, double kmEst, double kmNord) {
+        return new LocationDTO(id, 33.0 + kmNord * KM, -7.0 + kmEst * KM / Math.cos(Math.toRadians(33.0)), BigDecimal.ONE);
+    }
+
+    private RoutingProblem problem(List<LocationDTO> locations, double capacite) {
+        LocationDTO depot = stop("DEPOT", 0, 0);
+        return RoutingProblem.of(new RouteRequest(depot, locations, List.of(new RouteRequest.LivreurData("L1", capacite))),
+                distanceMatrixBuilder.build(depot, locations));
+    }
+
+    @Test
+    @DisplayName("Un arrêt sur le trajet devrait être inséré entre ses voisins, sans changer l'ordre existant")
+    void insert_StopOnTheWay_ShouldGoBetweenNeighbours() {
+        // Arrange : tournée dépôt -> A (2 km) -> B (4 km) -> C (6 km), nouvel arrêt à 5 km
+        List<LocationDTO> locations = List.of(stop("A", 2, 0), stop("B", 4, 0), stop("C", 6, 0), stop("N", 5, 0));
+        RoutingProblem problem = problem(locations, 100.0);
+
+        // Act
+        PlannedRoute route = CheapestInsertion.insert(problem, 0, new int[]{1, 2, 3}, new int[]{4});
+
+        // Assert
+        assertArrayEquals(new int[]{1, 2, 4, 3}, route.stops());
+    }
+
+    @Test
+    @DisplayName("L'ordre relatif de la tournée existante devrait être conservé même s'il n'est pas optimal")
+    void insert_ShouldKeepExistingOrder() {
+        // Arrange : tournée existante volontairement sous-optimale (indices décroissants)
+        Random random = new Random(3);
+        List<LocationDTO> locations = new ArrayList<>();
+        for (int k = 0; k < 300; k++) {
+            locations.add(stop("S" + k, random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10));
+        }
+        RoutingProblem problem = problem(locations, 1000.0);
+        int[] existing = new int[295];
+        for (int k = 0; k < existing.length; k++) {
+            existing[k] = existing.length - k;
+        }
+
+        // Act
+        PlannedRoute route = CheapestInsertion.insert(problem, 0, existing, new int[]{296, 297, 298, 299, 300});
+
+        // Assert
+        assertEquals(300, route.stops().length);
+        int next = 0;
+        for (int stop : route.stops()) {
+            if (stop <= existing.length) {
+                assertEquals(existing[next++], stop);
+            }
+        }
+        assertEquals(existing.length, next);
+    }
+
+    @Test
+    @DisplayName("Un arrêt qui dépasserait la capacité du véhicule devrait rester hors de la tournée")
+    void insert_OverCapacity_ShouldLeaveStopOut() {
+        // Arrange : capacité 3, deux colis déjà à bord, deux nouveaux
+        List<LocationDTO> locations = List.of(stop("A", 2, 0), stop("B", 4, 0), stop("N1", 3, 0), stop("N2", 30, 0));
+        RoutingProblem problem = problem(locations, 3.0);
+
+        // Act
+        PlannedRoute route = CheapestInsertion.insert(problem, 0, new int[]{1, 2}, new int[]{4, 3});
+
+        // Assert : le moins cher (N1) est pris, N2 n'a plus de place
+        assertArrayEquals(new int[]{1, 3, 2}, route.stops());
+    }
+
+    @Test
+    @DisplayName("Une fenêtre stricte déjà serrée ne devrait pas être dépassée par l'insertion")
+    void insert_ShouldRespectHardWindowDownstream() {
+        // Arrange : B (10 km, 0,25 h) à livrer avant 0,3 h ; N à 3 km de l'autre côté
+        LocationDTO b = stop("B", 10, 0);
+        b.setFenetreFinHeures(0.3);
+        b.setFenetreStricte(true);
+        RoutingProblem problem = problem(List.of(b, stop("N", -3, 0)), 100.0);
+
+        // Act
+        PlannedRoute route = CheapestInsertion.insert(problem, 0, new int[]{1}, new int[]{2});
+
+        // Assert
+        assertArrayEquals(new int[]{1, 2}, route.stops());
+        assertTrue(problem.timePenalty(0, route.stops()) < Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    @DisplayName("Une requête avec collectes devrait être rejetée")
+    void insert_WithPickups_ShouldThrow() {
+        LocationDTO collecte = stop("P", 1, 0);
+        collecte.setTypeMission(MissionType.COLLECTE);
+        RoutingProblem problem = problem(List.of(collecte, stop("N", 2, 0)), 100.0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CheapestInsertion.insert(problem, 0, new int[]{1}, new int[]{2}));
+    }
+}
@@ -0,0 +1,140 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.domain.model.enums.TypeVehicule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.fleet;
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.randomProblem;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClarkeWrightSolverTest {
+
+    private final DistanceMatrixBuilder distanceMatrixBuilder = new DistanceMatrixBuilder();
+
+    private static void assertFeasibleAndComplete(RoutingProblem problem, List<PlannedRoute> routes) {
+        boolean[] seen = new boolean[problem.size()];
+        boolean[] vehicleUsed = new boolean[problem.vehicleCount()];
+        for (PlannedRoute route : routes) {
+            assertFalse(vehicleUsed[route.vehicle()], "Un livreur ne doit avoir qu'une tournée");
+            vehicleUsed[route.vehicle()] = true;
+            assertTrue(problem.routeLoad(route.stops()) <= problem.capacity(route.vehicle()), "Capacité dépassée");
+            for (int stop : route.stops()) {
+                assertFalse(seen[stop], "Arrêt visité deux fois: " + stop);
+                seen[stop] = true;
+            }
+        }
+        for (int stop = 1; stop < problem.size(); stop++) {
+            assertTrue(seen[stop], "Arrêt oublié: " + stop);
+        }
+    }
+
+    @Test
+    @DisplayName("Les fusions devraient respecter la capacité de chaque véhicule")
+    void solve_ShouldRespectVehicleCapacity() {
+        // Arrange : ~1000 kg de demande pour 10 véhicules de 150 kg
+        RoutingProblem problem = randomProblem(100, 3, fleet(10, 150.0));
+
+        // Act
+        List<PlannedRoute> routes = ClarkeWrightSolver.solve(problem);
+
+        // Assert
+        assertTrue(routes.size() > 1);
+        assertFeasibleAndComplete(problem, routes);
+    }
+
+    @Test
+    @DisplayName("La version granulaire devrait couvrir tous les arrêts d'une grande instance")
+    void solve_Granular_ShouldCoverAllStops() {
+        // Arrange
+        RoutingProblem problem = randomProblem(ClarkeWrightSolver.SEUIL_GRANULAIRE + 300, 5, fleet(40, 300.0));
+
+        // Act
+        List<PlannedRoute> routes = ClarkeWrightSolver.solve(problem);
+
+        // Assert
+        assertFeasibleAndComplete(problem, routes);
+    }
+
+    @Test
+    @DisplayName("Un arrêt plus lourd que tous les véhicules ne devrait être affecté à aucun livreur")
+    void solve_ShouldLeaveOversizedStopUnassigned() {
+        // Arrange
+        LocationDTO depot = new LocationDTO("DEPOT", 0.0, 0.0, BigDecimal.ZERO);
+        List<LocationDTO> locations = List.of(
+                new LocationDTO("A", 0.1, 0.1, BigDecimal.valueOf(10)),
+                new LocationDTO("LOURD", 0.2, 0.1, BigDecimal.valueOf(500)));
+        RouteRequest request = new RouteRequest(depot, locations, List.of(
+                new RouteRequest.LivreurData("L1", 50.0), new RouteRequest.LivreurData("L2", 50.0)));
+        RoutingProblem problem = RoutingProblem.of(request, distanceMatrixBuilder.build(depot, locations));
+
+        // Act
+        List<PlannedRoute> routes = ClarkeWrightSolver.solve(problem);
+
+        // Assert
+        assertEquals(1, routes.size());
+        assertArrayEquals(new int[]{1}, routes.get(0).stops());
+    }
+
+    @Test
+    @DisplayName("Les arrêts en zone restreinte ne devraient jamais être confiés au camion")
+    void solve_ShouldKeepTrucksOutOfRestrictedStops() {
+        // Arrange : un camion de grande capacité et deux motos, un arrêt sur trois en médina
+        Random random = new Random(11);
+        LocationDTO depot = new LocationDTO("DEPOT", 33.57, -7.59, BigDecimal.ZERO);
+        List<LocationDTO> locations = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            LocationDTO location = new LocationDTO("C" + i,
+                    33.45 + random.nextDouble() * 0.25,
+                    -7.75 + random.nextDouble() * 0.3,
+                    BigDecimal.valueOf(1 + random.nextInt(5)));
+            location.setAccesRestreint(i % 3 == 0);
+            locations.add(location);
+        }
+        RouteRequest request = new RouteRequest(depot, locations, List.of(
+                new RouteRequest.LivreurData("CAMION", 1000.0, TypeVehicule.CAMION),
+                new RouteRequest.LivreurData("MOTO1", 80.0, TypeVehicule.MOTO),
+                new RouteRequest.LivreurData("MOTO2", 80.0, TypeVehicule.MOTO)));
+        RoutingProblem problem = RoutingProblem.of(request, distanceMatrixBuilder.build(depot, locations));
+
+        // Act
+        List<PlannedRoute> routes = ClarkeWrightSolver.solve(problem);
+
+        // Assert
+        assertFalse(routes.isEmpty());
+        for (PlannedRoute route : routes) {
+            assertTrue(problem.routeLoad(route.stops()) <= problem.capacity(route.vehicle()), "Capacité dépassée");
+            for (int stop : route.stops()) {
+                assertTrue(problem.canServe(route.vehicle(), stop), "Arrêt " + stop + " interdit au livreur " + route.vehicle());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("À capacité suffisante, la tournée devrait aller au véhicule le moins coûteux")
+    void solve_ShouldPreferCheapestVehicle() {
+        // Arrange
+        LocationDTO depot = new LocationDTO("DEPOT", 33.57, -7.59, BigDecimal.ZERO);
+        List<LocationDTO> locations = List.of(
+                new LocationDTO("A", 33.58, -7.60, BigDecimal.valueOf(5)),
+                new LocationDTO("B", 33.59, -7.58, BigDecimal.valueOf(5)));
+        RouteRequest request = new RouteRequest(depot, locations, List.of(
+                new RouteRequest.LivreurData("CAMION", 500.0, TypeVehicule.CAMION),
+                new RouteRequest.LivreurData("MOTO", 50.0, TypeVehicule.MOTO)));
+        RoutingProblem problem = RoutingProblem.of(request, distanceMatrixBuilder.build(depot, locations));
+
+        // Act
+        List<PlannedRoute> routes = ClarkeWrightSolver.solve(problem);
+
+        // Assert
+        assertEquals(1, routes.size());
+        assertEquals("MOTO", problem.livreurId(routes.get(0).vehicle()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.fleet;
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.randomProblem;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterSolverTest {
+
+    @Test
+    @DisplayName("La partition devrait affecter chaque arrêt à un seul cluster, dans la capacité de son livreur")
+    void partition_ShouldBeCapacityFeasibleAndComplete() {
+        // Arrange : capacité totale 1,2 fois la demande (~2100), flotte hétérogène
+        double[] capacites = {400, 300, 300, 250, 250, 250, 250, 250, 250};
+        RoutingProblem problem = randomProblem(200, 4, fleet(capacites));
+
+        // Act
+        int[][] clusters = ClusterSolver.partition(problem);
+
+        // Assert
+        assertEquals(capacites.length, clusters.length);
+        Set<Integer> seen = new HashSet<>();
+        for (int v = 0; v < clusters.length; v++) {
+            assertTrue(problem.routeLoad(clusters[v]) <= capacites[v] + 1e-9, "Capacité dépassée pour L" + v);
+            for (int stop : clusters[v]) {
+                assertTrue(seen.add(stop), "Arrêt dans deux clusters : " + stop);
+            }
+        }
+        assertEquals(200, seen.size());
+    }
+
+    @Test
+    @DisplayName("Quand la demande dépasse la flotte, seuls les arrêts excédentaires restent non affectés")
+    void partition_ShouldLeaveOnlyOverflowUnassigned() {
+        // Arrange
+        double[] capacites = {100, 100};
+        RoutingProblem problem = randomProblem(60, 8, fleet(capacites));
+
+        // Act
+        int[][] clusters = ClusterSolver.partition(problem);
+
+        // Assert : aucun arrêt restant ne tiendrait encore dans un véhicule
+        Set<Integer> assigned = new HashSet<>();
+        double[] loads = new double[clusters.length];
+        for (int v = 0; v < clusters.length; v++) {
+            loads[v] = problem.routeLoad(clusters[v]);
+            assertTrue(loads[v] <= capacites[v] + 1e-9);
+            for (int stop : clusters[v]) {
+                assigned.add(stop);
+            }
+        }
+        for (int stop = 1; stop <= problem.stopCount(); stop++) {
+            if (!assigned.contains(stop)) {
+                for (int v = 0; v < clusters.length; v++) {
+                    assertTrue(loads[v] + problem.demand(stop) > capacites[v]);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("La résolution parallèle des clusters devrait donner le même résultat que la résolution séquentielle")
+    void solve_ParallelShouldMatchSequential() {
+        // Arrange : au-dessus du seuil de parallélisme
+        double[] capacites = new double[8];
+        Arrays.fill(capacites, 400);
+        RoutingProblem problem = randomProblem(ClusterSolver.SEUIL_PARALLELE + 100, 12, fleet(capacites));
+        List<RouteImprover> improvers = AlgorithmSpec.parse("NearestNeighbor+2opt+oropt").improvers();
+        ClusterSolver solver = new ClusterSolver();
+        solver.configure(4);
+
+        try {
+            // Act
+            List<PlannedRoute> parallel = solver.solve(problem, improvers, SearchBudget.unlimited());
+            int[][] clusters = ClusterSolver.partition(problem);
+
+            // Assert
+            int served = 0;
+            for (PlannedRoute route : parallel) {
+                int[] expected = LocalSearch.improve(problem, NearestNeighborConstruction.scan(problem, clusters[route.vehicle()]), improvers);
+                assertArrayEquals(expected, route.stops());
+                served += route.stops().length;
+            }
+            assertEquals(problem.stopCount(), served);
+        } finally {
+            solver.shutdown();
+        }
+    }
+}
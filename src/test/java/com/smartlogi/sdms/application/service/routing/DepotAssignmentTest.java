@@ -0,0 +1,86 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.MultiDepotRouteRequest;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.domain.model.enums.MissionType;
+import com.smartlogi.sdms.domain.model.enums.TypeVehicule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepotAssignmentTest {
+
+    private static MultiDepotRouteRequest.DepotData depot(String id, double lat, double lon, RouteRequest.LivreurData... livreurs) {
+        return new MultiDepotRouteRequest.DepotData(new LocationDTO(id, lat, lon, BigDecimal.ZERO), List.of(livreurs));
+    }
+
+    @Test
+    @DisplayName("Chaque arrêt devrait rejoindre le dépôt le moins coûteux")
+    void assign_ShouldPickCheapestDepot() {
+        // Arrange : Casablanca-Anfa et Aïn Sebaâ, arrêts de part et d'autre
+        List<MultiDepotRouteRequest.DepotData> depots = List.of(
+                depot("ANFA", 33.59, -7.66, new RouteRequest.LivreurData("L1", 100.0)),
+                depot("AIN_SEBAA", 33.61, -7.53, new RouteRequest.LivreurData("L2", 100.0)));
+        List<LocationDTO> locations = List.of(
+                new LocationDTO("A", 33.58, -7.65, BigDecimal.ONE),
+                new LocationDTO("B", 33.60, -7.55, BigDecimal.ONE));
+
+        // Act
+        int[] depotOf = DepotAssignment.assign(depots, locations);
+
+        // Assert
+        assertArrayEquals(new int[]{0, 1}, depotOf);
+    }
+
+    @Test
+    @DisplayName("Une paire collecte-livraison devrait rester sur un seul dépôt")
+    void assign_ShouldKeepPairsTogether() {
+        // Arrange : collecte près du premier dépôt, livraison près du second
+        List<MultiDepotRouteRequest.DepotData> depots = List.of(
+                depot("D1", 33.50, -7.60, new RouteRequest.LivreurData("L1", 100.0)),
+                depot("D2", 33.70, -7.60, new RouteRequest.LivreurData("L2", 100.0)));
+        LocationDTO collecte = new LocationDTO("P", 33.51, -7.60, BigDecimal.TEN);
+        collecte.setTypeMission(MissionType.COLLECTE);
+        LocationDTO livraison = new LocationDTO("D", 33.69, -7.60, BigDecimal.TEN);
+        livraison.setTypeMission(MissionType.LIVRAISON);
+        livraison.setCollecteId("P");
+
+        // Act
+        int[] depotOf = DepotAssignment.assign(depots, List.of(collecte, livraison));
+
+        // Assert
+        assertTrue(depotOf[0] >= 0);
+        assertEquals(depotOf[0], depotOf[1]);
+    }
+
+    @Test
+    @DisplayName("Un arrêt en zone restreinte ne devrait pas aller à un dépôt qui n'a que des camions")
+    void assign_RestrictedStop_ShouldAvoidTruckOnlyDepot() {
+        // Arrange : le dépôt le plus proche n'a qu'un camion
+        List<MultiDepotRouteRequest.DepotData> depots = List.of(
+                depot("PROCHE", 34.06, -4.97, new RouteRequest.LivreurData("C1", 1000.0, TypeVehicule.CAMION)),
+                depot("LOIN", 34.03, -5.00, new RouteRequest.LivreurData("M1", 50.0, TypeVehicule.MOTO)));
+        LocationDTO medina = new LocationDTO("M", 34.065, -4.975, BigDecimal.ONE);
+        medina.setAccesRestreint(true);
+
+        // Act
+        int[] depotOf = DepotAssignment.assign(depots, List.of(medina));
+
+        // Assert
+        assertArrayEquals(new int[]{1}, depotOf);
+    }
+
+    @Test
+    @DisplayName("Un arrêt trop lourd pour tous les dépôts devrait rester non affecté")
+    void assign_TooHeavy_ShouldStayUnassigned() {
+        List<MultiDepotRouteRequest.DepotData> depots = List.of(
+                depot("D1", 33.50, -7.60, new RouteRequest.LivreurData("L1", 10.0)));
+        int[] depotOf = DepotAssignment.assign(depots, List.of(new LocationDTO("X", 33.51, -7.61, BigDecimal.valueOf(50))));
+        assertArrayEquals(new int[]{-1}, depotOf);
+    }
+}
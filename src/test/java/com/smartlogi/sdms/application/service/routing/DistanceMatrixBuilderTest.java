@@ -0,0 +1,181 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.infrastructure.utils.Haversine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceMatrixBuilderTest {
+
+    private DistanceMatrixBuilder distanceMatrixBuilder;
+
+    @BeforeEach
+    void setUp() {
+        distanceMatrixBuilder = new DistanceMatrixBuilder();
+    }
+
+    @Test
+    @DisplayName("build devrait créer une matrice (N+1)x(N+1) symétrique avec les distances Haversine")
+    void build_ShouldCreateCorrectSizedMatrixAndSymmetricDistances() {
+        // Arrange
+        // Coordonnées réelles pour avoir des distances non nulles (Casa et Rabat)
+        LocationDTO depotCasa = new LocationDTO("DEPOT", 33.5731, -7.5898, BigDecimal.ZERO);
+        LocationDTO locRabat = new LocationDTO("RABAT", 34.0209, -6.8417, BigDecimal.valueOf(10));
+        LocationDTO locCasaSame = new LocationDTO("CASA2", 33.5731, -7.5898, BigDecimal.valueOf(5)); // Même point que dépôt
+
+        // Act
+        DistanceMatrix matrix = distanceMatrixBuilder.build(depotCasa, List.of(locRabat, locCasaSame));
+
+        // Assert
+        // Les points sont indexés comme : 0=Depot(Casa), 1=LocRabat, 2=LocCasaSame
+        assertEquals(3, matrix.size());
+        assertEquals(0.0, matrix.get(0, 0), 0.001);
+        assertEquals(0.0, matrix.get(2, 2), 0.001);
+
+        double distD_Rabat = Haversine.distance(depotCasa.getLatitude(), depotCasa.getLongitude(), locRabat.getLatitude(), locRabat.getLongitude());
+        assertEquals(distD_Rabat, matrix.get(0, 1), 0.001);
+        assertEquals(0.0, matrix.get(0, 2), 0.001);
+
+        // Symétrie : dist(i, j) = dist(j, i)
+        assertEquals(matrix.get(0, 1), matrix.get(1, 0), 0.001);
+        assertEquals(matrix.get(1, 2), matrix.get(2, 1), 0.001);
+    }
+
+    @Test
+    @DisplayName("Le remplissage parallèle devrait donner les mêmes distances que le calcul direct")
+    void build_ParallelFill_ShouldMatchHaversine() {
+        // Arrange : assez de points pour passer par le pool fork-join
+        Random random = new Random(42);
+        List<LocationDTO> points = new ArrayList<>();
+        for (int i = 0; i < DistanceMatrixBuilder.SEUIL_PARALLELE * 2; i++) {
+            points.add(new LocationDTO("P" + i, 33.5 + random.nextDouble() * 0.2, -7.7 + random.nextDouble() * 0.2, BigDecimal.ONE));
+        }
+
+        // Act
+        DistanceMatrix matrix = distanceMatrixBuilder.build(points);
+
+        // Assert
+        assertEquals(points.size(), matrix.size());
+        for (int i = 0; i < points.size(); i += 7) {
+            for (int j = 0; j < points.size(); j += 5) {
+                LocationDTO a = points.get(i);
+                LocationDTO b = points.get(j);
+                double expected = Haversine.distance(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+                assertEquals(expected, matrix.get(i, j), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Le stockage float devrait rester précis au mètre près")
+    void build_FloatStorage_ShouldStayAccurate() {
+        // Arrange
+        distanceMatrixBuilder.setFloatStorage(true);
+        LocationDTO depot = new LocationDTO("DEPOT", 33.5731, -7.5898, BigDecimal.ZERO);
+        LocationDTO rabat = new LocationDTO("RABAT", 34.0209, -6.8417, BigDecimal.ONE);
+
+        // Act
+        DistanceMatrix matrix = distanceMatrixBuilder.build(depot, List.of(rabat));
+
+        // Assert
+        assertTrue(((TriangularDistanceMatrix) matrix).isFloatStorage());
+        double expected = Haversine.distance(33.5731, -7.5898, 34.0209, -6.8417);
+        assertEquals(expected, matrix.get(1, 0), 0.001);
+    }
+
+    @Test
+    @DisplayName("La sérialisation binaire devrait restituer la matrice à l'identique")
+    void toBytes_ShouldRoundTrip() {
+        // Arrange
+        LocationDTO depot = new LocationDTO("DEPOT", 33.5731, -7.5898, BigDecimal.ZERO);
+        List<LocationDTO> locations = List.of(
+                new LocationDTO("A", 34.0209, -6.8417, BigDecimal.ONE),
+                new LocationDTO("B", 31.6295, -7.9811, BigDecimal.ONE));
+        TriangularDistanceMatrix matrix = (TriangularDistanceMatrix) distanceMatrixBuilder.build(depot, locations);
+
+        // Act
+        TriangularDistanceMatrix copy = TriangularDistanceMatrix.fromBytes(matrix.toBytes());
+
+        // Assert
+        assertEquals(matrix.size(), copy.size());
+        assertEquals(matrix.isFloatStorage(), copy.isFloatStorage());
+        assertTrue(copy.geometric());
+        for (int i = 0; i < matrix.size(); i++) {
+            for (int j = 0; j < matrix.size(); j++) {
+                assertEquals(matrix.get(i, j), copy.get(i, j), 0.0);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> TriangularDistanceMatrix.fromBytes(new byte[]{0, 0, 0, 9, 0}));
+    }
+
+    @Test
+    @DisplayName("Le mode équirectangulaire devrait rester dans sa borne d'erreur à l'échelle d'une ville")
+    void build_Equirectangular_ShouldStayWithinErrorBound() {
+        // Arrange : ~30 km autour de Casablanca
+        distanceMatrixBuilder.setEquirectangular(true);
+        Random random = new Random(7);
+        List<LocationDTO> points = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            points.add(new LocationDTO("P" + i, 33.45 + random.nextDouble() * 0.25, -7.75 + random.nextDouble() * 0.3, BigDecimal.ONE));
+        }
+
+        // Act
+        DistanceMatrix matrix = distanceMatrixBuilder.build(points);
+
+        // Assert : erreur relative < 4e-5 (borne documentée dans Haversine)
+        for (int i = 0; i < points.size(); i += 3) {
+            for (int j = i + 1; j < points.size(); j += 7) {
+                LocationDTO a = points.get(i);
+                LocationDTO b = points.get(j);
+                double expected = Haversine.distance(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+                assertEquals(expected, matrix.get(i, j), expected * 4e-5);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Le mode équirectangulaire devrait être ignoré hors de son domaine de validité")
+    void build_Equirectangular_ShouldFallBackForLongDistances() {
+        // Arrange : Casablanca - Rabat - Marrakech, bien au-delà de 100 km
+        distanceMatrixBuilder.setEquirectangular(true);
+        List<LocationDTO> points = List.of(
+                new LocationDTO("CASA", 33.5731, -7.5898, BigDecimal.ZERO),
+                new LocationDTO("RABAT", 34.0209, -6.8417, BigDecimal.ONE),
+                new LocationDTO("MARRAKECH", 31.6295, -7.9811, BigDecimal.ONE));
+
+        // Act
+        DistanceMatrix matrix = distanceMatrixBuilder.build(points);
+
+        // Assert : distances Haversine exactes
+        assertEquals(Haversine.distance(34.0209, -6.8417, 31.6295, -7.9811), matrix.get(1, 2), 1e-9);
+    }
+
+    @Test
+    @DisplayName("extend devrait ajouter un point en dernier indice sans toucher aux distances existantes")
+    void extend_ShouldAppendPointAndKeepBase() {
+        // Arrange
+        List<LocationDTO> points = List.of(
+                new LocationDTO("CASA", 33.5731, -7.5898, BigDecimal.ZERO),
+                new LocationDTO("RABAT", 34.0209, -6.8417, BigDecimal.ONE));
+        DistanceMatrix base = distanceMatrixBuilder.build(points);
+        LocationDTO position = new LocationDTO("POSITION", 33.70, -7.40, BigDecimal.ZERO);
+
+        // Act
+        DistanceMatrix matrix = distanceMatrixBuilder.extend(base, points, position);
+
+        // Assert
+        assertEquals(3, matrix.size());
+        assertEquals(base.get(0, 1), matrix.get(0, 1), 0.0);
+        assertEquals(Haversine.distance(34.0209, -6.8417, 33.70, -7.40), matrix.get(2, 1), 1e-9);
+        assertEquals(matrix.get(2, 0), matrix.get(0, 2), 0.0);
+        assertEquals(0.0, matrix.get(2, 2), 0.0);
+    }
+}
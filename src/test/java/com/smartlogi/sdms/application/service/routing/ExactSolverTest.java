@@ -0,0 +1,104 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.fleet;
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.randomProblem;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExactSolverTest {
+
+    // Énumération de toutes les permutations (référence pour les petites instances)
+    private static double bruteForce(RoutingProblem problem, int[] order, int k) {
+        if (k == order.length) {
+            return problem.routeDistance(order);
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = k; i < order.length; i++) {
+            int tmp = order[k]; order[k] = order[i]; order[i] = tmp;
+            best = Math.min(best, bruteForce(problem, order, k + 1));
+            tmp = order[k]; order[k] = order[i]; order[i] = tmp;
+        }
+        return best;
+    }
+
+    @Test
+    @DisplayName("Held-Karp devrait trouver la même distance que l'énumération exhaustive")
+    void solve_ShouldMatchBruteForce() {
+        for (long seed = 1; seed <= 3; seed++) {
+            // Arrange
+            RoutingProblem problem = randomProblem(8, seed, 5, fleet(1, 1000.0));
+            int[] order = {1, 2, 3, 4, 5, 6, 7, 8};
+
+            // Act
+            List<PlannedRoute> routes = new ExactSolver().solve(problem, SearchBudget.unlimited());
+
+            // Assert
+            assertEquals(1, routes.size());
+            assertEquals(8, routes.get(0).stops().length);
+            assertEquals(bruteForce(problem, order, 0), problem.routeDistance(routes.get(0).stops()), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("Held-Karp ne devrait jamais être moins bon que Clarke-Wright + recherche locale")
+    void solve_ShouldNotBeWorseThanHeuristics() {
+        // Arrange
+        RoutingProblem problem = randomProblem(13, 11, 5, fleet(1, 1000.0));
+        List<PlannedRoute> heuristic = LocalSearch.improve(problem, ClarkeWrightSolver.solve(problem),
+                AlgorithmSpec.parse("ClarkeWright+2opt+oropt").improvers());
+
+        // Act
+        List<PlannedRoute> exact = new ExactSolver().solve(problem, SearchBudget.unlimited());
+
+        // Assert
+        double heuristicDistance = heuristic.stream().mapToDouble(route -> problem.routeDistance(route.stops())).sum();
+        assertTrue(problem.routeDistance(exact.get(0).stops()) <= heuristicDistance + 1e-9);
+    }
+
+    @Test
+    @DisplayName("La garde mémoire et la capacité d'un seul véhicule devraient désactiver l'exact")
+    void supports_ShouldRespectMemoryGuardAndCapacity() {
+        // Arrange
+        ExactSolver solver = new ExactSolver();
+        solver.configure(14, 1);
+        RoutingProblem small = randomProblem(10, 3, 5, fleet(1, 1000.0));
+        RoutingProblem tooBig = randomProblem(18, 3, 5, fleet(1, 1000.0));
+        RoutingProblem overloaded = randomProblem(10, 3, 5, fleet(1, 5.0));
+
+        // Act & Assert : 2^10·10·9 octets < 1 Mo, 2^18·18·9 octets > 1 Mo
+        assertTrue(solver.supports(small));
+        assertFalse(solver.supports(tooBig));
+        assertNull(solver.solve(tooBig, SearchBudget.unlimited()));
+        assertFalse(solver.supports(overloaded));
+        assertFalse(new ExactSolver().supports(randomProblem(ExactSolver.MAX_ARRETS + 1, 3, 5, fleet(1, 1000.0))));
+    }
+
+    @Test
+    @DisplayName("Le mode Auto ne devrait choisir l'exact que sous le seuil configuré")
+    void preferredFor_ShouldApplyAutoThreshold() {
+        // Arrange
+        ExactSolver solver = new ExactSolver();
+        solver.configure(6, 64);
+
+        // Act & Assert
+        assertTrue(solver.preferredFor(randomProblem(6, 4, 5, fleet(1, 1000.0))));
+        assertFalse(solver.preferredFor(randomProblem(7, 4, 5, fleet(1, 1000.0))));
+        assertTrue(solver.supports(randomProblem(7, 4, 5, fleet(1, 1000.0))));
+    }
+
+    @Test
+    @DisplayName("Le mode Auto ne devrait pas choisir l'exact avec plusieurs livreurs")
+    void preferredFor_ShouldRequireSingleLivreur() {
+        // Arrange
+        ExactSolver solver = new ExactSolver();
+        RoutingProblem problem = randomProblem(6, 4, 5, fleet(3, 1000.0));
+
+        // Act & Assert : demandé explicitement, il reste applicable
+        assertFalse(solver.preferredFor(problem));
+        assertTrue(solver.supports(problem));
+    }
+}
@@ -0,0 +1,165 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalSearchTest {
+
+    private final DistanceMatrixBuilder distanceMatrixBuilder = new DistanceMatrixBuilder();
+
+    private RoutingProblem problem(List<LocationDTO> locations) {
+        LocationDTO depot = new LocationDTO("DEPOT", 0.0, 0.0, BigDecimal.ZERO);
+        RouteRequest request = new RouteRequest(depot, locations, List.of(new RouteRequest.LivreurData("L1", 1000.0)));
+        return RoutingProblem.of(request, distanceMatrixBuilder.build(depot, locations));
+    }
+
+    private RoutingProblem randomProblem(int stops, long seed) {
+        Random random = new Random(seed);
+        List<LocationDTO> locations = new ArrayList<>();
+        for (int i = 0; i < stops; i++) {
+            locations.add(new LocationDTO("C" + i, random.nextDouble() * 0.3 - 0.15, random.nextDouble() * 0.3 - 0.15, BigDecimal.ONE));
+        }
+        return problem(locations);
+    }
+
+    @Test
+    @DisplayName("2-opt devrait décroiser une tournée carrée")
+    void twoOpt_ShouldUncrossSquareTour() {
+        // Arrange : carré parcouru en « nœud papillon » (arêtes qui se croisent)
+        RoutingProblem problem = problem(List.of(
+                new LocationDTO("A", 0.0, 0.1, BigDecimal.ONE),
+                new LocationDTO("B", 0.1, 0.1, BigDecimal.ONE),
+                new LocationDTO("C", 0.1, 0.0, BigDecimal.ONE)));
+        int[] crossed = {2, 1, 3};
+
+        // Act
+        int[] improved = LocalSearch.improve(problem, crossed, List.of(new TwoOptImprover()));
+
+        // Assert
+        assertTrue(problem.routeDistance(improved) < problem.routeDistance(crossed));
+        assertTrue(Arrays.equals(new int[]{1, 2, 3}, improved) || Arrays.equals(new int[]{3, 2, 1}, improved));
+    }
+
+    @Test
+    @DisplayName("2-opt + Or-opt ne devraient jamais allonger la tournée et garder tous les arrêts")
+    void improve_ShouldNeverWorsenAndKeepAllStops() {
+        for (long seed = 1; seed <= 10; seed++) {
+            // Arrange : ordre aléatoire
+            RoutingProblem problem = randomProblem(120, seed);
+            int[] stops = new int[problem.stopCount()];
+            for (int k = 0; k < stops.length; k++) {
+                stops[k] = k + 1;
+            }
+
+            // Act
+            int[] improved = LocalSearch.improve(problem, stops, List.of(new TwoOptImprover(), new OrOptImprover()));
+
+            // Assert
+            assertTrue(problem.routeDistance(improved) < problem.routeDistance(stops));
+            int[] sorted = improved.clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(stops, sorted);
+        }
+    }
+
+    @Test
+    @DisplayName("Or-opt devrait replacer un arrêt isolé à sa place")
+    void orOpt_ShouldRelocateMisplacedStop() {
+        // Arrange : points alignés, le point 2 est visité en dernier
+        RoutingProblem problem = problem(List.of(
+                new LocationDTO("A", 0.0, 0.1, BigDecimal.ONE),
+                new LocationDTO("B", 0.0, 0.2, BigDecimal.ONE),
+                new LocationDTO("C", 0.0, 0.3, BigDecimal.ONE),
+                new LocationDTO("D", 0.0, 0.4, BigDecimal.ONE)));
+        int[] stops = {1, 3, 4, 2};
+
+        // Act
+        int[] improved = LocalSearch.improve(problem, stops, List.of(new OrOptImprover()));
+
+        // Assert
+        assertEquals(problem.routeDistance(new int[]{1, 2, 3, 4}), problem.routeDistance(improved), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Depuis une position en cours de tournée, seuls les arrêts restants devraient bouger")
+    void improveFrom_ShouldKeepStartAndReturnToDepot() {
+        // Arrange : livreur au nord (0.5), arrêts alignés entre lui et le dépôt, visités dans le désordre
+        List<LocationDTO> locations = List.of(
+                new LocationDTO("A", 0.0, 0.1, BigDecimal.ONE),
+                new LocationDTO("B", 0.0, 0.2, BigDecimal.ONE),
+                new LocationDTO("C", 0.0, 0.3, BigDecimal.ONE),
+                new LocationDTO("POSITION", 0.0, 0.5, BigDecimal.ZERO));
+        RoutingProblem problem = problem(locations);
+        int[] stops = {1, 3, 2};
+
+        // Act : départ = POSITION (indice 4), retour au dépôt
+        int[] improved = LocalSearch.improveFrom(problem.getMatrix(), 4, stops,
+                List.of(new TwoOptImprover(), new OrOptImprover()), SearchBudget.unlimited());
+
+        // Assert : descente C, B, A vers le dépôt, sans aller-retour
+        assertArrayEquals(new int[]{3, 2, 1}, improved);
+    }
+
+    @Test
+    @DisplayName("Un budget épuisé devrait arrêter l'amélioration et signaler la non-convergence")
+    void improve_ShouldStopWhenBudgetIsExhausted() throws InterruptedException {
+        // Arrange
+        RoutingProblem problem = randomProblem(60, 9);
+        int[] stops = new int[60];
+        for (int i = 0; i < stops.length; i++) {
+            stops[i] = i + 1;
+        }
+        SearchBudget budget = SearchBudget.ofMillis(1L);
+        Thread.sleep(5);
+
+        // Act
+        int[] improved = LocalSearch.improve(problem, stops, List.of(new TwoOptImprover(), new OrOptImprover()), budget);
+
+        // Assert : solution de départ conservée telle quelle
+        assertArrayEquals(stops, improved);
+        assertFalse(budget.converged());
+        assertEquals(0, budget.iterations());
+    }
+
+    @Test
+    @DisplayName("Sans échéance, la recherche devrait converger et compter ses mouvements")
+    void improve_ShouldConvergeAndCountMovesWithoutDeadline() {
+        // Arrange
+        RoutingProblem problem = randomProblem(60, 9);
+        int[] stops = new int[60];
+        for (int i = 0; i < stops.length; i++) {
+            stops[i] = i + 1;
+        }
+        SearchBudget budget = SearchBudget.ofMillis(null);
+
+        // Act
+        LocalSearch.improve(problem, stops, List.of(new TwoOptImprover(), new OrOptImprover()), budget);
+
+        // Assert
+        assertTrue(budget.converged());
+        assertTrue(budget.iterations() > 0);
+    }
+
+    @Test
+    @DisplayName("parse devrait décoder la construction et les étapes d'amélioration")
+    void parse_ShouldDecodeConstructionAndImprovers() {
+        // Act
+        AlgorithmSpec spec = AlgorithmSpec.parse("clarkewright+2opt+OrOpt");
+
+        // Assert
+        assertEquals(AlgorithmSpec.Construction.CLARKE_WRIGHT, spec.construction());
+        assertEquals(2, spec.improvers().size());
+        assertEquals("ClarkeWright+2opt+oropt", spec.name());
+        assertThrows(IllegalArgumentException.class, () -> AlgorithmSpec.parse("ClarkeWright+3opt"));
+    }
+}
@@ -0,0 +1,117 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.domain.model.enums.TypeVehicule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.fleet;
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.randomProblem;
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.totalDistance;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiStartSolverTest {
+
+    private static double totalCost(RoutingProblem problem, List<PlannedRoute> routes) {
+        return routes.stream().mapToDouble(route -> problem.routeCost(route.vehicle(), route.stops())).sum();
+    }
+
+    private static MultiStartSolver solver(int runs, int parallelism, long seed) {
+        MultiStartSolver solver = new MultiStartSolver();
+        solver.configure(runs, parallelism, seed);
+        return solver;
+    }
+
+    @Test
+    @DisplayName("La même graine devrait donner la même solution, quel que soit le parallélisme")
+    void solve_ShouldBeReproducibleForSameSeed() {
+        // Arrange
+        RoutingProblem problem = randomProblem(120, 5, fleet(8, 200.0));
+        List<RouteImprover> improvers = AlgorithmSpec.parse("MultiStart").improvers();
+        MultiStartSolver sequential = solver(16, 1, 7L);
+        MultiStartSolver parallel = solver(16, 4, 7L);
+
+        try {
+            // Act
+            List<PlannedRoute> first = sequential.solve(problem, improvers);
+            List<PlannedRoute> second = parallel.solve(problem, improvers);
+
+            // Assert
+            assertEquals(first.size(), second.size());
+            for (int r = 0; r < first.size(); r++) {
+                assertEquals(first.get(r).vehicle(), second.get(r).vehicle());
+                assertArrayEquals(first.get(r).stops(), second.get(r).stops());
+            }
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Le multi-départ ne devrait jamais être moins bon que ClarkeWright+2opt+oropt")
+    void solve_ShouldNotBeWorseThanDeterministicClarkeWright() {
+        // Arrange
+        RoutingProblem problem = randomProblem(150, 11, fleet(10, 180.0));
+        List<RouteImprover> improvers = AlgorithmSpec.parse("MultiStart").improvers();
+        MultiStartSolver solver = solver(12, 2, 42L);
+
+        try {
+            // Act
+            List<PlannedRoute> multiStart = solver.solve(problem, improvers);
+            List<PlannedRoute> baseline = LocalSearch.improve(problem, ClarkeWrightSolver.solve(problem), improvers);
+
+            // Assert : mêmes arrêts servis, distance inférieure ou égale
+            int served = multiStart.stream().mapToInt(route -> route.stops().length).sum();
+            int baselineServed = baseline.stream().mapToInt(route -> route.stops().length).sum();
+            assertTrue(served >= baselineServed);
+            assertTrue(totalDistance(problem, multiStart) <= totalDistance(problem, baseline) + 1e-9);
+        } finally {
+            solver.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Sur une flotte mixte, le multi-départ devrait retenir le départ le moins coûteux, pas le plus court")
+    void solve_ShouldMinimizeFleetCost() {
+        // Arrange : motos, voitures et camions aux coûts fixes et kilométriques différents
+        RoutingProblem uniform = randomProblem(120, 13, fleet(9, 200.0));
+        TypeVehicule[] types = TypeVehicule.values();
+        List<RouteRequest.LivreurData> fleet = new ArrayList<>();
+        for (int l = 0; l < 9; l++) {
+            fleet.add(new RouteRequest.LivreurData("L" + l, 200.0, types[l % types.length]));
+        }
+        RouteRequest request = uniform.getRequest();
+        RoutingProblem problem = RoutingProblem.of(new RouteRequest(request.getDepot(), request.getLocations(), fleet),
+                uniform.getMatrix());
+        List<RouteImprover> improvers = AlgorithmSpec.parse("MultiStart").improvers();
+        MultiStartSolver solver = solver(12, 2, 42L);
+
+        try {
+            // Act
+            List<PlannedRoute> multiStart = solver.solve(problem, improvers);
+            List<PlannedRoute> baseline = LocalSearch.improve(problem, ClarkeWrightSolver.solve(problem), improvers);
+
+            // Assert : le départ 0 est ClarkeWright+LS, le coût retenu ne peut pas être plus élevé
+            int served = multiStart.stream().mapToInt(route -> route.stops().length).sum();
+            int baselineServed = baseline.stream().mapToInt(route -> route.stops().length).sum();
+            assertTrue(served >= baselineServed);
+            if (served == baselineServed) {
+                assertTrue(totalCost(problem, multiStart) <= totalCost(problem, baseline) + 1e-9);
+            }
+        } finally {
+            solver.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Sans étape explicite, MultiStart devrait utiliser 2opt+oropt")
+    void parse_MultiStartShouldDefaultToLocalSearch() {
+        AlgorithmSpec spec = AlgorithmSpec.parse("MultiStart");
+
+        assertEquals("MultiStart+2opt+oropt", spec.name());
+    }
+}
@@ -0,0 +1,122 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.domain.model.enums.MissionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PickupDeliverySolverTest {
+
+    private final DistanceMatrixBuilder distanceMatrixBuilder = new DistanceMatrixBuilder();
+
+    private static LocationDTO collecte(String id, double lat, double lon, int poids) {
+        LocationDTO location = new LocationDTO(id, lat, lon, BigDecimal.valueOf(poids));
+        location.setTypeMission(MissionType.COLLECTE);
+        return location;
+    }
+
+    private static LocationDTO livraison(String id, double lat, double lon, int poids, String collecteId) {
+        LocationDTO location = new LocationDTO(id, lat, lon, BigDecimal.valueOf(poids));
+        location.setTypeMission(MissionType.LIVRAISON);
+        location.setCollecteId(collecteId);
+        return location;
+    }
+
+    private RoutingProblem problem(List<LocationDTO> locations, List<RouteRequest.LivreurData> fleet) {
+        LocationDTO depot = new LocationDTO("DEPOT", 33.57, -7.59, BigDecimal.ZERO);
+        return RoutingProblem.of(new RouteRequest(depot, locations, fleet), distanceMatrixBuilder.build(depot, locations));
+    }
+
+    // Précédence, même tournée pour chaque paire, charge à bord jamais au-delà de la capacité
+    private static void assertFeasible(RoutingProblem problem, List<PlannedRoute> routes) {
+        int[] routeOf = new int[problem.size()];
+        int[] position = new int[problem.size()];
+        for (int r = 0; r < routes.size(); r++) {
+            int[] stops = routes.get(r).stops();
+            for (int k = 0; k < stops.length; k++) {
+                assertEquals(0, routeOf[stops[k]], "Arrêt servi deux fois : " + stops[k]);
+                routeOf[stops[k]] = r + 1;
+                position[stops[k]] = k;
+            }
+            assertTrue(problem.routeLoad(stops) <= problem.capacity(routes.get(r).vehicle()) + 1e-9, "Capacité dépassée");
+        }
+        for (int stop = 1; stop < problem.size(); stop++) {
+            int pickup = problem.pickupOf(stop);
+            if (pickup != 0 && routeOf[stop] != 0) {
+                assertEquals(routeOf[pickup], routeOf[stop], "Collecte et livraison dans deux tournées");
+                assertTrue(position[pickup] < position[stop], "Livraison avant sa collecte : " + stop);
+            }
+            if (pickup != 0) {
+                assertEquals(routeOf[pickup] != 0, routeOf[stop] != 0, "Paire servie à moitié");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Un véhicule plein après chaque collecte devrait alterner collecte et livraison")
+    void solve_TightCapacity_ShouldInterleavePairs() {
+        // Arrange : trois missions de 10 kg pour une capacité de 10 kg
+        List<LocationDTO> locations = List.of(
+                collecte("P1", 33.58, -7.60, 10), livraison("D1", 33.59, -7.61, 10, "P1"),
+                collecte("P2", 33.60, -7.58, 10), livraison("D2", 33.61, -7.57, 10, "P2"),
+                collecte("P3", 33.55, -7.62, 10), livraison("D3", 33.54, -7.63, 10, "P3"));
+        RoutingProblem problem = problem(locations, List.of(new RouteRequest.LivreurData("L1", 10.0)));
+
+        // Act
+        List<PlannedRoute> routes = PickupDeliverySolver.solve(problem, SearchBudget.unlimited());
+
+        // Assert
+        assertEquals(1, routes.size());
+        assertEquals(6, routes.get(0).stops().length);
+        assertFeasible(problem, routes);
+        assertEquals(10.0, problem.routeLoad(routes.get(0).stops()), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Collectes, livraisons depuis le dépôt et retours au dépôt devraient cohabiter dans plusieurs tournées")
+    void solve_MixedRequests_ShouldStayFeasible() {
+        // Arrange
+        Random random = new Random(4);
+        List<LocationDTO> locations = new ArrayList<>();
+        for (int m = 0; m < 40; m++) {
+            double lat = 33.45 + random.nextDouble() * 0.25;
+            double lon = -7.75 + random.nextDouble() * 0.3;
+            int poids = 1 + random.nextInt(15);
+            switch (m % 3) {
+                case 0 -> {
+                    locations.add(collecte("P" + m, lat, lon, poids));
+                    locations.add(livraison("D" + m, 33.45 + random.nextDouble() * 0.25, -7.75 + random.nextDouble() * 0.3, poids, "P" + m));
+                }
+                case 1 -> locations.add(livraison("D" + m, lat, lon, poids, null));
+                default -> locations.add(collecte("R" + m, lat, lon, poids));
+            }
+        }
+        List<RouteRequest.LivreurData> fleet = List.of(new RouteRequest.LivreurData("L1", 60.0),
+                new RouteRequest.LivreurData("L2", 60.0), new RouteRequest.LivreurData("L3", 60.0));
+        RoutingProblem problem = problem(locations, fleet);
+
+        // Act
+        List<PlannedRoute> routes = PickupDeliverySolver.solve(problem, SearchBudget.unlimited());
+
+        // Assert
+        assertFeasible(problem, routes);
+        int served = routes.stream().mapToInt(route -> route.stops().length).sum();
+        assertEquals(problem.stopCount(), served);
+    }
+
+    @Test
+    @DisplayName("Une livraison qui référence une collecte inconnue devrait être rejetée")
+    void of_WithUnknownPickup_ShouldThrow() {
+        List<LocationDTO> locations = List.of(livraison("D1", 33.59, -7.61, 10, "P1"));
+        assertThrows(IllegalArgumentException.class,
+                () -> problem(locations, List.of(new RouteRequest.LivreurData("L1", 10.0))));
+    }
+}
@@ -0,0 +1,42 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestrictedAreasTest {
+
+    @Test
+    @DisplayName("Seuls les arrêts situés dans un cercle configuré devraient être marqués")
+    void mark_ShouldFlagOnlyLocationsInsideAreas() {
+        // Arrange : médina de Fès (1 km) et ancienne médina de Casablanca (0.5 km)
+        RestrictedAreas areas = new RestrictedAreas("34.0646,-4.9730,1.0; 33.6010,-7.6160,0.5");
+        LocationDTO fes = new LocationDTO("FES", 34.0650, -4.9735, BigDecimal.ONE);
+        LocationDTO maarif = new LocationDTO("MAARIF", 33.5800, -7.6300, BigDecimal.ONE);
+        LocationDTO marque = new LocationDTO("MARQUE", 33.5700, -7.5900, BigDecimal.ONE);
+        marque.setAccesRestreint(true);
+        RouteRequest request = new RouteRequest(new LocationDTO("DEPOT", 33.57, -7.59, BigDecimal.ZERO),
+                List.of(fes, maarif, marque), List.of());
+
+        // Act
+        areas.mark(request);
+
+        // Assert
+        assertTrue(fes.isAccesRestreint());
+        assertFalse(maarif.isAccesRestreint());
+        assertTrue(marque.isAccesRestreint(), "Un marquage de l'appelant devrait être conservé");
+    }
+
+    @Test
+    @DisplayName("Une zone mal définie devrait être rejetée au démarrage")
+    void configure_ShouldRejectMalformedArea() {
+        assertThrows(IllegalArgumentException.class, () -> new RestrictedAreas("34.06,-4.97"));
+        assertThrows(IllegalArgumentException.class, () -> new RestrictedAreas("34.06,nord,1"));
+    }
+}
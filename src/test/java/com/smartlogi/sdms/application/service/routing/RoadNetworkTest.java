@@ -0,0 +1,245 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.infrastructure.utils.Haversine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadNetworkTest {
+
+    private static final int COTE = 15;
+    private static final double PAS = 0.002;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Quartier en grille COTE × COTE (quelques rues manquantes), un chemin piéton en diagonale
+     * et un îlot routier isolé, tous deux à ignorer.
+     */
+    private Path writeExtract(long seed) throws IOException {
+        Random random = new Random(seed);
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<osm version=\"0.6\">\n");
+        for (int r = 0; r < COTE; r++) {
+            for (int c = 0; c < COTE; c++) {
+                xml.append(String.format(Locale.ROOT, "<node id=\"%d\" lat=\"%.6f\" lon=\"%.6f\"/>%n",
+                        nodeId(r, c), 33.5 + r * PAS + random.nextDouble() * 0.0004, -7.6 + c * PAS + random.nextDouble() * 0.0004));
+            }
+        }
+        xml.append("<node id=\"900001\" lat=\"33.60\" lon=\"-7.50\"/>\n<node id=\"900002\" lat=\"33.601\" lon=\"-7.501\"/>\n");
+        long way = 1;
+        for (int r = 0; r < COTE; r++) {
+            for (int c = 0; c < COTE; c++) {
+                if (c + 1 < COTE && random.nextDouble() > 0.15) {
+                    appendWay(xml, way++, "residential", nodeId(r, c), nodeId(r, c + 1));
+                }
+                if (r + 1 < COTE && random.nextDouble() > 0.15) {
+                    appendWay(xml, way++, r % 5 == 0 ? "primary" : "residential", nodeId(r, c), nodeId(r + 1, c));
+                }
+            }
+        }
+        appendWay(xml, way++, "footway", nodeId(0, 0), nodeId(COTE - 1, COTE - 1));
+        appendWay(xml, way, "residential", 900001, 900002);
+        xml.append("</osm>\n");
+        Path extract = directory.resolve("quartier.osm");
+        Files.writeString(extract, xml, StandardCharsets.UTF_8);
+        return extract;
+    }
+
+    private static long nodeId(int r, int c) {
+        return 1000L + r * COTE + c;
+    }
+
+    private static void appendWay(StringBuilder xml, long id, String highway, long... nodes) {
+        xml.append("<way id=\"").append(id).append("\">");
+        for (long node : nodes) {
+            xml.append("<nd ref=\"").append(node).append("\"/>");
+        }
+        xml.append("<tag k=\"highway\" v=\"").append(highway).append("\"/></way>\n");
+    }
+
+    // Dijkstra de référence sur le graphe lu, sans contraction
+    private static double[] dijkstra(OsmRoadReader.RoadGraph graph, int source) {
+        List<List<double[]>> adjacency = new ArrayList<>();
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            adjacency.add(new ArrayList<>());
+        }
+        for (int k = 0; k < graph.edgeCount(); k++) {
+            adjacency.get(graph.from()[k]).add(new double[]{graph.to()[k], graph.lengths()[k]});
+            adjacency.get(graph.to()[k]).add(new double[]{graph.from()[k], graph.lengths()[k]});
+        }
+        double[] dist = new double[graph.nodeCount()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0.0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[1], b[1]));
+        queue.add(new double[]{source, 0.0});
+        while (!queue.isEmpty()) {
+            double[] top = queue.poll();
+            int v = (int) top[0];
+            if (top[1] > dist[v]) {
+                continue;
+            }
+            for (double[] edge : adjacency.get(v)) {
+                int w = (int) edge[0];
+                if (dist[v] + edge[1] < dist[w]) {
+                    dist[w] = dist[v] + edge[1];
+                    queue.add(new double[]{w, dist[w]});
+                }
+            }
+        }
+        return dist;
+    }
+
+    // Nœud du réseau contracté correspondant à chaque nœud du graphe lu (mêmes coordonnées)
+    private static int[] toNetwork(RoadNetwork network, OsmRoadReader.RoadGraph graph) {
+        int[] nodes = new int[graph.nodeCount()];
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            nodes[v] = network.nearestNode(graph.latitudes()[v], graph.longitudes()[v]);
+            assertEquals(graph.latitudes()[v], network.latitude(nodes[v]));
+        }
+        return nodes;
+    }
+
+    @Test
+    @DisplayName("Le chemin piéton et l'îlot isolé devraient être ignorés")
+    void read_ShouldKeepLargestDrivableComponentOnly() throws IOException {
+        OsmRoadReader.RoadGraph graph = OsmRoadReader.read(writeExtract(1));
+
+        assertTrue(graph.nodeCount() <= COTE * COTE);
+        assertTrue(graph.nodeCount() > COTE * COTE / 2);
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            assertTrue(graph.latitudes()[v] < 33.55, "îlot routier conservé");
+        }
+    }
+
+    @Test
+    @DisplayName("Les distances plusieurs-à-plusieurs de la hiérarchie devraient égaler Dijkstra sur le graphe d'origine")
+    void manyToMany_ShouldMatchPlainDijkstra() throws IOException {
+        OsmRoadReader.RoadGraph graph = OsmRoadReader.read(writeExtract(2));
+        RoadNetwork network = ContractionHierarchy.build(graph);
+        int[] nodes = toNetwork(network, graph);
+
+        int[] sources = new int[]{0, 7, graph.nodeCount() / 2, graph.nodeCount() - 1};
+        double[][] result = network.manyToMany(Arrays.stream(sources).map(s -> nodes[s]).toArray(), nodes);
+
+        for (int s = 0; s < sources.length; s++) {
+            double[] expected = dijkstra(graph, sources[s]);
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                assertEquals(expected[v], result[s][v], 1e-9, "d(" + sources[s] + ", " + v + ")");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("PHAST devrait donner les mêmes distances que l'algorithme des seaux")
+    void oneToAll_ShouldMatchManyToMany() throws IOException {
+        OsmRoadReader.RoadGraph graph = OsmRoadReader.read(writeExtract(3));
+        RoadNetwork network = ContractionHierarchy.build(graph);
+        int[] all = new int[network.nodeCount()];
+        for (int v = 0; v < all.length; v++) {
+            all[v] = v;
+        }
+
+        for (int source : new int[]{0, all.length / 3, all.length - 1}) {
+            double[] phast = network.oneToAll(source);
+            double[] buckets = network.manyToMany(new int[]{source}, all)[0];
+            for (int v = 0; v < all.length; v++) {
+                assertEquals(buckets[v], phast[v], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Le réseau devrait être relu depuis son cache .ch avec les mêmes distances")
+    void load_ShouldReuseCachedHierarchy() throws IOException {
+        Path extract = writeExtract(4);
+        RoadNetwork built = RoadNetwork.load(extract);
+        Path cache = directory.resolve("quartier.osm.ch");
+        assertTrue(Files.exists(cache));
+
+        RoadNetwork cached = RoadNetwork.read(cache);
+
+        assertEquals(built.signature(), cached.signature());
+        int[] all = new int[built.nodeCount()];
+        for (int v = 0; v < all.length; v++) {
+            all[v] = v;
+        }
+        assertArrayEquals(built.manyToMany(new int[]{0, 5}, all)[1], cached.manyToMany(new int[]{0, 5}, all)[1]);
+    }
+
+    @Test
+    @DisplayName("Le fournisseur routier devrait donner une matrice symétrique, plus longue que le vol d'oiseau")
+    void provider_ShouldBuildSymmetricRoadMatrix() throws IOException {
+        DistanceMatrixBuilder builder = new DistanceMatrixBuilder();
+        builder.setProvider("road", writeExtract(5).toString());
+        builder.startLoading().join();
+        Random random = new Random(5);
+        List<LocationDTO> points = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            points.add(new LocationDTO("P" + i, 33.5 + random.nextDouble() * PAS * (COTE - 1),
+                    -7.6 + random.nextDouble() * PAS * (COTE - 1), BigDecimal.ONE));
+        }
+
+        DistanceMatrix matrix = builder.build(points);
+        double[][] rows = builder.distances(points.subList(0, 3), points);
+
+        assertTrue(builder.variant().startsWith("double/road/"));
+        assertFalse(matrix.geometric());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(0.0, matrix.get(i, i));
+            for (int j = 0; j < points.size(); j++) {
+                assertEquals(matrix.get(i, j), matrix.get(j, i));
+                double crow = Haversine.distance(points.get(i).getLatitude(), points.get(i).getLongitude(),
+                        points.get(j).getLatitude(), points.get(j).getLongitude());
+                assertTrue(matrix.get(i, j) >= crow - 1e-9, "plus court que le vol d'oiseau");
+                if (i < 3) {
+                    assertEquals(matrix.get(i, j), rows[i][j], 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Un fournisseur inconnu ou road sans extrait devrait être refusé")
+    void provider_ShouldRejectInvalidConfiguration() {
+        DistanceMatrixBuilder builder = new DistanceMatrixBuilder();
+        List<LocationDTO> points = List.of(new LocationDTO("A", 33.5, -7.6, BigDecimal.ONE));
+
+        builder.setProvider("osrm", "");
+        assertThrows(IllegalStateException.class, () -> builder.build(points));
+        builder.setProvider("road", "");
+        assertThrows(IllegalStateException.class, () -> builder.build(points));
+    }
+
+    @Test
+    @DisplayName("Un extrait illisible devrait laisser les requêtes en Haversine plutôt que les faire échouer")
+    void provider_ShouldFallBackToHaversine_WhenLoadingFails() {
+        DistanceMatrixBuilder builder = new DistanceMatrixBuilder();
+        List<LocationDTO> points = List.of(new LocationDTO("A", 33.5, -7.6, BigDecimal.ONE),
+                new LocationDTO("B", 33.6, -7.5, BigDecimal.ONE));
+        Path missing = directory.resolve("absent.osm");
+        builder.setProvider("road", missing.toString());
+
+        assertThrows(CompletionException.class, () -> builder.startLoading().join());
+        DistanceMatrix matrix = builder.build(points);
+        assertEquals("double/haversine", builder.variant());
+        assertTrue(matrix.geometric());
+        assertEquals(Haversine.distance(33.5, -7.6, 33.6, -7.5), matrix.get(0, 1), 1e-6);
+    }
+}
@@ -0,0 +1,92 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteCacheTest {
+
+    private final DistanceMatrixBuilder distanceMatrixBuilder = new DistanceMatrixBuilder();
+    private final LocationDTO depot = new LocationDTO("DEPOT", 33.57, -7.59, BigDecimal.ZERO);
+
+    private DistanceMatrix cachedMatrix(RouteCache cache, List<LocationDTO> locations, AtomicInteger builds) {
+        return cache.matrix(depot, locations, "double/haversine", () -> {
+            builds.incrementAndGet();
+            return distanceMatrixBuilder.build(depot, locations);
+        });
+    }
+
+    @Test
+    @DisplayName("La matrice devrait être réutilisée pour les mêmes coordonnées, même avec d'autres IDs")
+    void matrix_ShouldBeReusedForSameCoordinates() {
+        // Arrange
+        RouteCache cache = new RouteCache();
+        AtomicInteger builds = new AtomicInteger();
+        List<LocationDTO> first = List.of(new LocationDTO("A", 33.60, -7.60, BigDecimal.ONE),
+                new LocationDTO("B", 33.55, -7.50, BigDecimal.TEN));
+        List<LocationDTO> renamed = List.of(new LocationDTO("X", 33.60, -7.60, BigDecimal.ONE),
+                new LocationDTO("Y", 33.55, -7.50, BigDecimal.ONE));
+        List<LocationDTO> moved = List.of(new LocationDTO("A", 33.60, -7.60, BigDecimal.ONE),
+                new LocationDTO("B", 33.56, -7.50, BigDecimal.TEN));
+
+        // Act
+        DistanceMatrix matrix = cachedMatrix(cache, first, builds);
+        DistanceMatrix reused = cachedMatrix(cache, renamed, builds);
+        cachedMatrix(cache, moved, builds);
+
+        // Assert
+        assertSame(matrix, reused);
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    @DisplayName("La clé de réponse devrait ignorer la forme des poids mais pas la flotte, l'algorithme ni le fournisseur de distances")
+    void responseKey_ShouldBeCanonical() {
+        // Arrange
+        RouteCache cache = new RouteCache();
+        List<RouteRequest.LivreurData> fleet = List.of(new RouteRequest.LivreurData("L1", 100.0));
+        RouteRequest request = new RouteRequest(depot,
+                List.of(new LocationDTO("A", 33.60, -7.60, new BigDecimal("10"))), fleet);
+        RouteRequest sameWeight = new RouteRequest(depot,
+                List.of(new LocationDTO("A", 33.60, -7.60, new BigDecimal("10.00"))), fleet);
+        RouteRequest otherFleet = new RouteRequest(depot,
+                List.of(new LocationDTO("A", 33.60, -7.60, new BigDecimal("10"))),
+                List.of(new RouteRequest.LivreurData("L1", 50.0)));
+
+        // Act
+        String key = cache.responseKey(request, "ClarkeWright", "double/haversine");
+
+        // Assert
+        assertEquals(key, cache.responseKey(sameWeight, "ClarkeWright", "double/haversine"));
+        assertNotEquals(key, cache.responseKey(otherFleet, "ClarkeWright", "double/haversine"));
+        assertNotEquals(key, cache.responseKey(request, "NearestNeighbor", "double/haversine"));
+        assertNotEquals(key, cache.responseKey(request, "ClarkeWright", "double/road/0"));
+    }
+
+    @Test
+    @DisplayName("Un cache désactivé ne devrait rien conserver")
+    void disabledCache_ShouldAlwaysRecompute() {
+        // Arrange
+        RouteCache cache = new RouteCache();
+        cache.configure(false, 30, 256, 1000);
+        AtomicInteger builds = new AtomicInteger();
+        List<LocationDTO> locations = List.of(new LocationDTO("A", 33.60, -7.60, BigDecimal.ONE));
+
+        // Act
+        cachedMatrix(cache, locations, builds);
+        cachedMatrix(cache, locations, builds);
+        cache.storeResponse("cle", OptimizedRouteResponse.builder().algorithm("NearestNeighbor").build());
+
+        // Assert
+        assertEquals(2, builds.get());
+        assertNull(cache.response("cle"));
+    }
+}
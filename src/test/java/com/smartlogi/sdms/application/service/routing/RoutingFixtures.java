@@ -0,0 +1,78 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Instances communes aux tests de tournées : dépôt à Casablanca, arrêts tirés au hasard dans un
+ * rectangle d'environ 28 km × 28 km autour, matrice Haversine.
+ * Chaque test ne précise que ce qu'il fait varier (flotte, capacités, plage de poids...).
+ */
+final class RoutingFixtures {
+
+    static final LocationDTO DEPOT = new LocationDTO("DEPOT", 33.57, -7.59, BigDecimal.ZERO);
+
+    private static final int POIDS_MAX = 20;
+    private static final DistanceMatrixBuilder DISTANCES = new DistanceMatrixBuilder();
+
+    private RoutingFixtures() {
+    }
+
+    /**
+     * Instance aléatoire reproductible, poids de 1 à 20.
+     */
+    static RoutingProblem randomProblem(int stops, long seed, List<RouteRequest.LivreurData> fleet) {
+        return randomProblem(stops, seed, POIDS_MAX, fleet);
+    }
+
+    /**
+     * Instance aléatoire reproductible, poids de 1 à {@code maxWeight}.
+     */
+    static RoutingProblem randomProblem(int stops, long seed, int maxWeight, List<RouteRequest.LivreurData> fleet) {
+        Random random = new Random(seed);
+        List<LocationDTO> locations = new ArrayList<>();
+        for (int i = 0; i < stops; i++) {
+            locations.add(new LocationDTO("C" + i,
+                    33.45 + random.nextDouble() * 0.25,
+                    -7.75 + random.nextDouble() * 0.3,
+                    BigDecimal.valueOf(1 + random.nextInt(maxWeight))));
+        }
+        RouteRequest request = new RouteRequest(DEPOT, locations, fleet);
+        return RoutingProblem.of(request, DISTANCES.build(DEPOT, locations));
+    }
+
+    /**
+     * {@code livreurs} livreurs L0, L1, ... de même capacité, sans type de véhicule.
+     */
+    static List<RouteRequest.LivreurData> fleet(int livreurs, double capacite) {
+        List<RouteRequest.LivreurData> fleet = new ArrayList<>();
+        for (int l = 0; l < livreurs; l++) {
+            fleet.add(new RouteRequest.LivreurData("L" + l, capacite));
+        }
+        return fleet;
+    }
+
+    /**
+     * Un livreur L0, L1, ... par capacité, sans type de véhicule.
+     */
+    static List<RouteRequest.LivreurData> fleet(double... capacites) {
+        List<RouteRequest.LivreurData> fleet = new ArrayList<>();
+        for (int l = 0; l < capacites.length; l++) {
+            fleet.add(new RouteRequest.LivreurData("L" + l, capacites[l]));
+        }
+        return fleet;
+    }
+
+    static double totalDistance(RoutingProblem problem, List<PlannedRoute> routes) {
+        return routes.stream().mapToDouble(route -> problem.routeDistance(route.stops())).sum();
+    }
+
+    static int served(List<PlannedRoute> routes) {
+        return routes.stream().mapToInt(route -> route.stops().length).sum();
+    }
+}
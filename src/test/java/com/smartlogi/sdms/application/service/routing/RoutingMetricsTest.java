@@ -0,0 +1,88 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingMetricsTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final RoutingMetrics metrics = new RoutingMetrics(registry);
+
+    private static OptimizedRouteResponse response(String algorithm, List<String> unassignedStops) {
+        return OptimizedRouteResponse.builder()
+                .algorithm(algorithm)
+                .tournees(new ArrayList<>())
+                .unassignedStops(unassignedStops)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Une optimisation devrait être chronométrée par construction exécutée et tranche de taille")
+    void record_ShouldTimeByConstructionAndSizeBucket() {
+        // Act : Auto demandé, Clarke-Wright amélioré exécuté
+        metrics.record("Auto", 120, () -> response("ClarkeWright+2opt+oropt", List.of("A", "B")));
+
+        // Assert
+        assertEquals(1, registry.get("routing.optimization")
+                .tags("algorithm", "ClarkeWright", "improved", "true", "stops", "51-200", "outcome", "success")
+                .timer().count());
+        assertEquals(2.0, registry.get("routing.stops.unassigned").tags("algorithm", "ClarkeWright").counter().count());
+        assertNull(registry.find("routing.optimization").tags("algorithm", "Auto").timer());
+    }
+
+    @Test
+    @DisplayName("La jauge devrait compter l'optimisation pendant son exécution seulement")
+    void record_ShouldTrackInFlightOptimizations() {
+        double[] during = new double[1];
+
+        metrics.record("NearestNeighbor", 10, () -> {
+            during[0] = registry.get("routing.optimizations.active").gauge().value();
+            return response("NearestNeighbor", List.of());
+        });
+
+        assertEquals(1.0, during[0]);
+        assertEquals(0.0, registry.get("routing.optimizations.active").gauge().value());
+        assertNull(registry.find("routing.stops.unassigned").counter());
+    }
+
+    @Test
+    @DisplayName("Un échec devrait être chronométré sous l'algorithme demandé, puis relancé")
+    void record_ShouldTimeFailuresUnderRequestedAlgorithm() {
+        assertThrows(IllegalArgumentException.class, () -> metrics.record("Exact", 3000, () -> {
+            throw new IllegalArgumentException("fenêtres strictes");
+        }));
+
+        assertEquals(1, registry.get("routing.optimization")
+                .tags("algorithm", "Exact", "improved", "false", "stops", "2001+", "outcome", "error")
+                .timer().count());
+        assertEquals(0.0, registry.get("routing.optimizations.active").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Les tranches de taille devraient inclure leur borne supérieure")
+    void sizeBucket_ShouldIncludeUpperBound() {
+        assertEquals("0-50", RoutingMetrics.sizeBucket(0));
+        assertEquals("0-50", RoutingMetrics.sizeBucket(50));
+        assertEquals("51-200", RoutingMetrics.sizeBucket(51));
+        assertEquals("1001-2000", RoutingMetrics.sizeBucket(2000));
+        assertEquals("2001+", RoutingMetrics.sizeBucket(2001));
+    }
+
+    @Test
+    @DisplayName("Les dépassements de capacité ne devraient créer un compteur que s'il y en a")
+    void capacityViolations_ShouldCountOnlyActualViolations() {
+        metrics.capacityViolations("MultiStart+2opt", 0);
+        assertNull(registry.find("routing.capacity.violations").counter());
+
+        metrics.capacityViolations("MultiStart+2opt", 2);
+        assertEquals(2.0, registry.get("routing.capacity.violations").tags("algorithm", "MultiStart").counter().count());
+    }
+}
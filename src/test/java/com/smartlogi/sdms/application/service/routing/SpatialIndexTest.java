@@ -0,0 +1,103 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.fleet;
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.randomProblem;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialIndexTest {
+
+    @Test
+    @DisplayName("nearest devrait retourner le point le plus proche selon Haversine")
+    void nearest_ShouldMatchLinearScan() {
+        // Arrange
+        RoutingProblem problem = randomProblem(300, 7, fleet(1, 500.0));
+        SpatialIndex index = new SpatialIndex(problem);
+        boolean[] removed = new boolean[problem.size()];
+
+        // Act & Assert
+        for (int from = 0; from < problem.size(); from += 13) {
+            removed[from] = true;
+            int expected = -1;
+            double best = Double.MAX_VALUE;
+            for (int k = 1; k < problem.size(); k++) {
+                if (!removed[k] && problem.distance(from, k) < best) {
+                    best = problem.distance(from, k);
+                    expected = k;
+                }
+            }
+            if (from > 0) {
+                index.remove(from);
+            }
+            assertEquals(expected, index.nearest(from, Double.MAX_VALUE));
+        }
+    }
+
+    @Test
+    @DisplayName("nearest devrait ignorer les points supprimés ou trop lourds")
+    void nearest_ShouldSkipRemovedAndTooHeavyPoints() {
+        // Arrange
+        RoutingProblem problem = randomProblem(50, 11, fleet(1, 500.0));
+        SpatialIndex index = new SpatialIndex(problem);
+
+        // Act
+        int first = index.nearest(0, Double.MAX_VALUE);
+        index.remove(first);
+        int second = index.nearest(0, Double.MAX_VALUE);
+        int light = index.nearest(0, 1.0);
+
+        // Assert
+        assertNotEquals(first, second);
+        assertTrue(light == -1 || problem.demand(light) <= 1.0);
+        assertEquals(-1, index.nearest(0, 0.5));
+    }
+
+    @Test
+    @DisplayName("Avec des distances routières, la construction devrait suivre la matrice et non l'arbre géométrique")
+    void build_ShouldScanNonGeometricMatrix() {
+        // Arrange : le plus proche voisin du dépôt à vol d'oiseau est à 1000 km par la route
+        RoutingProblem geometric = randomProblem(400, 3, fleet(1, 500.0));
+        int closest = NearestNeighborConstruction.indexed(geometric, 1500.0)[0];
+        DistanceMatrix base = geometric.getMatrix();
+        DistanceMatrix road = new DistanceMatrix() {
+            @Override
+            public int size() {
+                return base.size();
+            }
+
+            @Override
+            public double get(int i, int j) {
+                return (i == 0 && j == closest) || (i == closest && j == 0) ? 1000.0 : base.get(i, j);
+            }
+        };
+        RoutingProblem problem = RoutingProblem.of(geometric.getRequest(), road);
+
+        // Act
+        int[] order = NearestNeighborConstruction.build(problem, 1500.0);
+
+        // Assert
+        assertTrue(base.geometric());
+        assertFalse(road.geometric());
+        assertEquals(closest, NearestNeighborConstruction.indexed(problem, 1500.0)[0]);
+        assertNotEquals(closest, order[0]);
+        assertArrayEquals(NearestNeighborConstruction.scan(problem, 1500.0), order);
+    }
+
+    @Test
+    @DisplayName("La construction indexée devrait donner le même ordre que le balayage")
+    void indexedConstruction_ShouldMatchScan() {
+        for (long seed = 1; seed <= 5; seed++) {
+            // Arrange
+            RoutingProblem problem = randomProblem(400, seed, fleet(1, 500.0));
+
+            // Act
+            int[] scan = NearestNeighborConstruction.scan(problem, 1500.0);
+            int[] indexed = NearestNeighborConstruction.indexed(problem, 1500.0);
+
+            // Assert
+            assertArrayEquals(scan, indexed);
+        }
+    }
+}
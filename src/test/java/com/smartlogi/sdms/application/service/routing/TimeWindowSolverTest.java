@@ -0,0 +1,145 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.domain.model.enums.PriorityColis;
+import com.smartlogi.sdms.infrastructure.utils.Haversine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.smartlogi.sdms.application.service.routing.RoutingFixtures.served;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeWindowSolverTest {
+
+    // ~0.009° de latitude = 1 km ; sans type de véhicule, 40 km/h
+    private static final double KM = 1.0 / 111.2;
+
+    private final DistanceMatrixBuilder distanceMatrixBuilder = new DistanceMatrixBuilder();
+
+    private static LocationDTO stop(String id, double kmEst, double kmNord) {
+        return new LocationDTO(id, 33.0 + kmNord * KM, -7.0 + kmEst * KM / Math.cos(Math.toRadians(33.0)), BigDecimal.ONE);
+    }
+
+    private RoutingProblem problem(List<LocationDTO> locations, List<RouteRequest.LivreurData> fleet) {
+        LocationDTO depot = stop("DEPOT", 0, 0);
+        return RoutingProblem.of(new RouteRequest(depot, locations, fleet), distanceMatrixBuilder.build(depot, locations));
+    }
+
+    @Test
+    @DisplayName("Un colis HAUTE devrait passer avant les colis normaux quand le détour est nul")
+    void solve_HighPriority_ShouldBeServedFirst() {
+        // Arrange : colis urgent à 20 km à l'est, cinq colis normaux groupés à 2 km à l'ouest
+        List<LocationDTO> locations = new ArrayList<>();
+        for (int k = 0; k < 5; k++) {
+            locations.add(stop("N" + k, -2.0, k * 0.2));
+        }
+        LocationDTO urgent = stop("URGENT", 20.0, 0.0);
+        urgent.setPriorite(PriorityColis.HAUTE);
+        locations.add(urgent);
+        RoutingProblem problem = problem(locations, List.of(new RouteRequest.LivreurData("L1", 100.0)));
+
+        // Act
+        List<PlannedRoute> routes = TimeWindowSolver.solve(problem, SearchBudget.unlimited());
+
+        // Assert
+        assertEquals(1, routes.size());
+        assertEquals(6, routes.get(0).stops().length);
+        assertEquals("URGENT", problem.location(routes.get(0).stops()[0]).getId());
+    }
+
+    @Test
+    @DisplayName("Une fenêtre stricte serrée devrait imposer l'ordre de passage")
+    void solve_HardWindow_ShouldForceOrder() {
+        // Arrange : B à 10 km (0,25 h de route) à livrer avant 0,3 h ; C à 3 km de l'autre côté
+        LocationDTO b = stop("B", 10.0, 0.0);
+        b.setFenetreFinHeures(0.3);
+        b.setFenetreStricte(true);
+        LocationDTO c = stop("C", -3.0, 0.0);
+        RoutingProblem problem = problem(List.of(c, b), List.of(new RouteRequest.LivreurData("L1", 100.0)));
+
+        // Act
+        List<PlannedRoute> routes = TimeWindowSolver.solve(problem, SearchBudget.unlimited());
+
+        // Assert
+        assertEquals(1, routes.size());
+        assertEquals("B", problem.location(routes.get(0).stops()[0]).getId());
+        assertTrue(problem.timePenalty(routes.get(0).vehicle(), routes.get(0).stops()) < Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    @DisplayName("improveFrom devrait reconstruire depuis la position un ordre prévu qui dépasse une fenêtre stricte")
+    void improveFrom_LateOrder_ShouldBeRebuiltWithinHardWindows() {
+        // Arrange : livreur à 1 km à l'ouest ; C prévu avant B, qui n'est alors atteint qu'à 0,375 h
+        LocationDTO b = stop("B", 10.0, 0.0);
+        b.setFenetreFinHeures(0.3);
+        b.setFenetreStricte(true);
+        LocationDTO c = stop("C", -3.0, 0.0);
+        RoutingProblem problem = problem(List.of(c, b), List.of(new RouteRequest.LivreurData("L1", 100.0)));
+        List<LocationDTO> points = List.of(problem.location(0), c, b);
+        DistanceMatrix matrix = distanceMatrixBuilder.current().extend(problem.getMatrix(), points, stop("POSITION", -1.0, 0.0));
+
+        // Act
+        int[] stops = TimeWindowSolver.improveFrom(problem, matrix, 0, problem.size(), 0.0, new int[]{1, 2}, SearchBudget.unlimited());
+
+        // Assert
+        assertArrayEquals(new int[]{2, 1}, stops);
+    }
+
+    @Test
+    @DisplayName("Un arrêt atteint avant l'ouverture de sa fenêtre devrait attendre")
+    void arrivalTimes_EarlyArrival_ShouldWaitForWindow() {
+        LocationDTO a = stop("A", 4.0, 0.0);
+        a.setFenetreDebutHeures(1.0);
+        LocationDTO b = stop("B", 8.0, 0.0);
+        RoutingProblem problem = problem(List.of(a, b), List.of());
+
+        double[] arrivals = problem.arrivalTimes(-1, new int[]{1, 2});
+
+        assertEquals(1.0, arrivals[0], 1e-9);
+        assertEquals(1.0 + problem.distance(1, 2) / RoutingProblem.VITESSE_PAR_DEFAUT_KMH, arrivals[1], 1e-9);
+    }
+
+    @Test
+    @DisplayName("Fenêtres strictes aléatoires : aucune ne devrait être dépassée, capacité comprise")
+    void solve_RandomHardWindows_ShouldStayFeasible() {
+        // Arrange : fenêtres atteignables en direct depuis le dépôt, avec une heure de marge
+        Random random = new Random(7);
+        List<LocationDTO> locations = new ArrayList<>();
+        for (int k = 0; k < 60; k++) {
+            LocationDTO location = stop("S" + k, random.nextDouble() * 30 - 15, random.nextDouble() * 30 - 15);
+            if (k % 3 == 0) {
+                double direct = Haversine.distance(33.0, -7.0, location.getLatitude(), location.getLongitude())
+                        / RoutingProblem.VITESSE_PAR_DEFAUT_KMH;
+                location.setFenetreFinHeures(direct + 1.0 + random.nextDouble());
+                location.setFenetreStricte(true);
+            } else if (k % 3 == 1) {
+                location.setPriorite(PriorityColis.HAUTE);
+            }
+            locations.add(location);
+        }
+        List<RouteRequest.LivreurData> fleet = List.of(new RouteRequest.LivreurData("L1", 25.0),
+                new RouteRequest.LivreurData("L2", 25.0), new RouteRequest.LivreurData("L3", 25.0));
+        RoutingProblem problem = problem(locations, fleet);
+
+        // Act
+        List<PlannedRoute> routes = TimeWindowSolver.solve(problem, SearchBudget.unlimited());
+
+        // Assert
+        boolean[] seen = new boolean[problem.size()];
+        for (PlannedRoute route : routes) {
+            assertTrue(problem.timePenalty(route.vehicle(), route.stops()) < Double.POSITIVE_INFINITY, "Fenêtre stricte dépassée");
+            assertTrue(problem.routeLoad(route.stops()) <= problem.capacity(route.vehicle()) + 1e-9, "Capacité dépassée");
+            for (int stop : route.stops()) {
+                assertFalse(seen[stop], "Arrêt servi deux fois : " + stop);
+                seen[stop] = true;
+            }
+        }
+        assertEquals(problem.stopCount(), served(routes));
+    }
+}
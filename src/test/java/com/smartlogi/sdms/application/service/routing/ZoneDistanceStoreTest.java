@@ -0,0 +1,153 @@
+package com.smartlogi.sdms.application.service.routing;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZoneDistanceStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final ZoneDistanceStore store = new ZoneDistanceStore();
+    private final DistanceMatrixBuilder haversine = new DistanceMatrixBuilder();
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    private static LocationDTO point(String pointId, double latitude, double longitude) {
+        LocationDTO location = new LocationDTO(pointId, latitude, longitude, BigDecimal.ONE);
+        location.setPointId(pointId);
+        return location;
+    }
+
+    private static List<LocationDTO> points(int count, long seed) {
+        Random random = new Random(seed);
+        List<LocationDTO> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            points.add(point("DEST_" + i, 33.5 + random.nextDouble() * 0.2, -7.7 + random.nextDouble() * 0.2));
+        }
+        return points;
+    }
+
+    private static void assertSameDistances(DistanceMatrix expected, DistanceMatrix actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.get(i, j), actual.get(i, j), 1e-12, "d(" + i + ", " + j + ")");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("La matrice lue dans le stock devrait être identique à la matrice Haversine en mémoire")
+    void matrix_ShouldMatchInMemoryMatrix() {
+        store.configure(directory.toString(), 1000);
+        LocationDTO depot = point("DEPOT_Z1", 33.6, -7.6);
+        List<LocationDTO> locations = points(120, 7);
+
+        DistanceMatrix stored = store.matrix(depot, locations, haversine);
+
+        assertSameDistances(haversine.build(depot, locations), stored);
+        assertEquals(121, store.pointCount("DEPOT_Z1", haversine));
+    }
+
+    @Test
+    @DisplayName("Le stock devrait grandir d'un point par nouvelle adresse et survivre à une réouverture")
+    void matrix_ShouldGrowIncrementallyAndSurviveRestart() {
+        store.configure(directory.toString(), 1000);
+        LocationDTO depot = point("DEPOT_Z1", 33.6, -7.6);
+        List<LocationDTO> lundi = points(50, 11);
+        store.matrix(depot, lundi, haversine);
+
+        // Mardi : les mêmes adresses dans un autre ordre, plus une nouvelle, après redémarrage
+        store.close();
+        ZoneDistanceStore restarted = new ZoneDistanceStore();
+        restarted.configure(directory.toString(), 1000);
+        List<LocationDTO> mardi = new ArrayList<>(lundi.subList(10, 50));
+        mardi.add(point("DEST_NOUVEAU", 33.55, -7.65));
+        mardi.addAll(lundi.subList(0, 10));
+
+        DistanceMatrix stored = restarted.matrix(depot, mardi, haversine);
+
+        assertEquals(52, restarted.pointCount("DEPOT_Z1", haversine));
+        assertSameDistances(haversine.build(depot, mardi), stored);
+        restarted.close();
+    }
+
+    @Test
+    @DisplayName("Une adresse dont les coordonnées changent devrait recevoir un nouvel emplacement")
+    void matrix_ShouldReallocate_WhenCoordinatesChange() {
+        store.configure(directory.toString(), 1000);
+        LocationDTO depot = point("DEPOT_Z1", 33.6, -7.6);
+        store.matrix(depot, List.of(point("DEST_A", 33.61, -7.61)), haversine);
+
+        LocationDTO demenage = point("DEST_A", 33.65, -7.55);
+        DistanceMatrix stored = store.matrix(depot, List.of(demenage), haversine);
+
+        assertEquals(3, store.pointCount("DEPOT_Z1", haversine));
+        assertSameDistances(haversine.build(depot, List.of(demenage)), stored);
+    }
+
+    @Test
+    @DisplayName("Un même destinataire deux fois dans la requête devrait partager son emplacement (distance nulle)")
+    void matrix_DuplicatePointId_ShouldShareSlot() {
+        store.configure(directory.toString(), 1000);
+        LocationDTO depot = point("DEPOT_Z1", 33.6, -7.6);
+
+        DistanceMatrix stored = store.matrix(depot, List.of(point("DEST_A", 33.61, -7.61), point("DEST_A", 33.61, -7.61)), haversine);
+
+        assertEquals(2, store.pointCount("DEPOT_Z1", haversine));
+        assertEquals(0.0, stored.get(1, 2));
+        assertEquals(stored.get(0, 1), stored.get(0, 2));
+    }
+
+    @Test
+    @DisplayName("Sans répertoire, sans identifiant stable ou au-delà de max-points, le stock devrait être contourné")
+    void matrix_ShouldReturnNull_WhenNotApplicable() {
+        LocationDTO depot = point("DEPOT_Z1", 33.6, -7.6);
+        assertNull(store.matrix(depot, points(3, 1), haversine));
+
+        store.configure(directory.toString(), 5);
+        List<LocationDTO> sansId = new ArrayList<>(points(2, 1));
+        sansId.add(new LocationDTO("POSITION", 33.6, -7.6, BigDecimal.ZERO));
+        assertNull(store.matrix(depot, sansId, haversine));
+        assertNull(store.matrix(depot, points(5, 1), haversine));
+        assertEquals(0, store.pointCount("DEPOT_Z1", haversine));
+    }
+
+    @Test
+    @DisplayName("Une ligne d'index incomplète (arrêt brutal) devrait être ignorée et l'emplacement recalculé")
+    void matrix_ShouldIgnoreTruncatedIndexLine() throws IOException {
+        store.configure(directory.toString(), 1000);
+        LocationDTO depot = point("DEPOT_Z1", 33.6, -7.6);
+        List<LocationDTO> locations = points(20, 3);
+        store.matrix(depot, locations, haversine);
+        store.close();
+        Files.writeString(directory.resolve(ZoneDistanceStore.fileName("DEPOT_Z1", haversine.name()) + ".idx"), "33.5;-7.6", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        ZoneDistanceStore restarted = new ZoneDistanceStore();
+        restarted.configure(directory.toString(), 1000);
+        DistanceMatrix stored = restarted.matrix(depot, locations, haversine);
+
+        assertEquals(21, restarted.pointCount("DEPOT_Z1", haversine));
+        assertSameDistances(haversine.build(depot, locations), stored);
+        restarted.close();
+    }
+}
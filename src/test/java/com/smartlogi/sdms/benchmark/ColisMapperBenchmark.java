@@ -0,0 +1,44 @@
+package com.smartlogi.sdms.benchmark;
+
+import com.smartlogi.sdms.application.dto.colis.ColisResponseDTO;
+import com.smartlogi.sdms.application.mapper.ColisMapper;
+import com.smartlogi.sdms.domain.model.entity.Colis;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion d'une page de colis en DTO de réponse, comme le font les endpoints de liste
+ * (objets imbriqués, téléphone et adresse en Value Objects, nom complet de l'expéditeur).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColisMapperBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int pageSize;
+
+    private ColisMapper mapper;
+    private List<Colis> page;
+
+    @Setup
+    public void setUp() {
+        mapper = Mappers.getMapper(ColisMapper.class);
+        page = SyntheticInstances.colis(pageSize, 42L);
+    }
+
+    @Benchmark
+    public void toColisResponseDTO(Blackhole blackhole) {
+        for (Colis colis : page) {
+            ColisResponseDTO dto = mapper.toColisResponseDTO(colis);
+            blackhole.consume(dto);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.smartlogi.sdms.benchmark;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.infrastructure.utils.Haversine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remplissage du triangle supérieur d'une matrice (n(n-1)/2 paires) : formule scalaire
+ * appel par appel vs noyau par lots (trigonométrie précalculée) vs approximation
+ * équirectangulaire. Ordre de grandeur observé à 2000 points : ×6 puis ×20 environ.
+ * {@link #distance()} mesure un appel isolé de {@link Haversine#distance}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HaversineBenchmark {
+
+    @Param({"500", "2000"})
+    private int points;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] row;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RouteRequest request = SyntheticInstances.casablanca(points - 1, 42L);
+        List<LocationDTO> locations = request.getLocations();
+        latitudes = new double[points];
+        longitudes = new double[points];
+        latitudes[0] = request.getDepot().getLatitude();
+        longitudes[0] = request.getDepot().getLongitude();
+        for (int i = 1; i < points; i++) {
+            latitudes[i] = locations.get(i - 1).getLatitude();
+            longitudes[i] = locations.get(i - 1).getLongitude();
+        }
+        row = new double[points];
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double distance() {
+        // Paire différente à chaque appel : pas de résultat constant à replier par le JIT
+        int i = next;
+        next = i + 1 == points ? 0 : i + 1;
+        return Haversine.distance(latitudes[0], longitudes[0], latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public double scalar() {
+        double checksum = 0;
+        for (int i = 0; i < points; i++) {
+            for (int j = i + 1; j < points; j++) {
+                row[j] = Haversine.distance(latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+            }
+            checksum += row[points - 1];
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public double batch() {
+        // La préparation (radians, sinus/cosinus) fait partie de la mesure
+        Haversine.Points prepared = Haversine.prepare(latitudes, longitudes);
+        double checksum = 0;
+        for (int i = 0; i < points - 1; i++) {
+            Haversine.distancesFrom(prepared, i, i + 1, points, row, 0);
+            checksum += row[0];
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public double equirectangular() {
+        Haversine.Points prepared = Haversine.prepare(latitudes, longitudes);
+        double checksum = 0;
+        for (int i = 0; i < points - 1; i++) {
+            Haversine.approximateDistancesFrom(prepared, i, i + 1, points, row, 0);
+            checksum += row[0];
+        }
+        return checksum;
+    }
+}
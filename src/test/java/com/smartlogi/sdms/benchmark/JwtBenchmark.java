@@ -0,0 +1,48 @@
+package com.smartlogi.sdms.benchmark;
+
+import com.smartlogi.sdms.application.service.JWTService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérification du jeton à chaque requête authentifiée : lecture des claims (décodage de la clé,
+ * parsing, signature HMAC) et {@code isTokenValid}, qui relit le jeton pour l'email puis pour l'expiration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JWTService jwtService;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JWTService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "e41cd8d26ff1ee82eb8d271b14f247f7c24ff9189aca42f6f3c841f4bb7c60da");
+        ReflectionTestUtils.setField(jwtService, "JWT_EXPIRATION", 3_600_000L);
+        userDetails = new User("bench.user@smartlogi.com", "password", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = jwtService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public Claims extractClaims() {
+        return jwtService.extractClaims(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, userDetails);
+    }
+}
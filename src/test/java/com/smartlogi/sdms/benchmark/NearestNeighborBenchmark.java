@@ -0,0 +1,45 @@
+package com.smartlogi.sdms.benchmark;
+
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.application.service.routing.DistanceMatrixBuilder;
+import com.smartlogi.sdms.application.service.routing.NearestNeighborConstruction;
+import com.smartlogi.sdms.application.service.routing.RoutingProblem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balayage linéaire vs index spatial (k-d tree) pour la construction plus proche voisin.
+ * La matrice est construite dans le setup : seul le coût de la construction est mesuré.
+ * <p>
+ * Le point de bascule observé (~300 arrêts) fixe {@link NearestNeighborConstruction#SEUIL_INDEX_SPATIAL}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearestNeighborBenchmark {
+
+    @Param({"50", "100", "200", "300", "400", "800", "1600"})
+    private int stops;
+
+    private RoutingProblem problem;
+
+    @Setup
+    public void setUp() {
+        RouteRequest request = SyntheticInstances.casablanca(stops, 42L);
+        problem = RoutingProblem.of(request, new DistanceMatrixBuilder().build(request.getDepot(), request.getLocations()));
+    }
+
+    @Benchmark
+    public int[] scan() {
+        return NearestNeighborConstruction.scan(problem, Double.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int[] spatialIndex() {
+        return NearestNeighborConstruction.indexed(problem, Double.MAX_VALUE);
+    }
+}
@@ -0,0 +1,60 @@
+package com.smartlogi.sdms.benchmark;
+
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.application.service.RouteOptimizationService;
+import com.smartlogi.sdms.application.service.routing.AlnsSolver;
+import com.smartlogi.sdms.application.service.routing.ClusterSolver;
+import com.smartlogi.sdms.application.service.routing.DistanceMatrixBuilder;
+import com.smartlogi.sdms.application.service.routing.ExactSolver;
+import com.smartlogi.sdms.application.service.routing.MultiStartSolver;
+import com.smartlogi.sdms.application.service.routing.RestrictedAreas;
+import com.smartlogi.sdms.application.service.routing.RouteCache;
+import com.smartlogi.sdms.application.service.routing.RoutingMetrics;
+import com.smartlogi.sdms.application.service.routing.ZoneDistanceStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optimisation de bout en bout par le service (matrice, construction, réponse) pour les deux
+ * constructions rapides. Les caches de matrices et de réponses sont vidés avant chaque appel :
+ * on mesure une demande jamais vue, pas un accès au cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteOptimizationBenchmark {
+
+    @Param({"50", "500", "2000"})
+    private int stops;
+
+    @Param({"NearestNeighbor", "ClarkeWright"})
+    private String algorithm;
+
+    private RouteOptimizationService service;
+    private RouteCache routeCache;
+    private RouteRequest request;
+
+    @Setup
+    public void setUp() {
+        routeCache = new RouteCache();
+        service = new RouteOptimizationService(new DistanceMatrixBuilder(), new MultiStartSolver(), new ExactSolver(),
+                new AlnsSolver(), new ClusterSolver(), new RestrictedAreas(), routeCache, new ZoneDistanceStore(), new RoutingMetrics());
+        request = SyntheticInstances.casablanca(stops, 42L);
+    }
+
+    // Quelques microsecondes face à des millisecondes mesurées : Level.Invocation reste sans biais ici
+    @Setup(Level.Invocation)
+    public void clearCaches() {
+        routeCache.invalidateAll();
+    }
+
+    @Benchmark
+    public OptimizedRouteResponse optimize() {
+        return service.optimizeRoutes(request, algorithm);
+    }
+}
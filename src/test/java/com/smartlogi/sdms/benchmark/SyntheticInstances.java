@@ -0,0 +1,110 @@
+package com.smartlogi.sdms.benchmark;
+
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.domain.model.entity.Colis;
+import com.smartlogi.sdms.domain.model.entity.Zone;
+import com.smartlogi.sdms.domain.model.entity.users.ClientExpediteur;
+import com.smartlogi.sdms.domain.model.entity.users.Destinataire;
+import com.smartlogi.sdms.domain.model.entity.users.Livreur;
+import com.smartlogi.sdms.domain.model.enums.PriorityColis;
+import com.smartlogi.sdms.domain.model.enums.StatusColis;
+import com.smartlogi.sdms.domain.model.enums.UnitePoids;
+import com.smartlogi.sdms.domain.model.vo.Adresse;
+import com.smartlogi.sdms.domain.model.vo.Poids;
+import com.smartlogi.sdms.domain.model.vo.Telephone;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Générateurs d'instances reproductibles (même graine = même instance) autour d'un dépôt
+ * à Casablanca, pour les benchmarks : demandes de tournées et pages de colis.
+ */
+public final class SyntheticInstances {
+
+    public static final double DEPOT_LAT = 33.5731;
+    public static final double DEPOT_LON = -7.5898;
+
+    private SyntheticInstances() {
+    }
+
+    /**
+     * {@code stops} arrêts répartis sur ~25 km x 30 km, poids de 1 à 20 kg, un livreur par tranche de 40 arrêts.
+     */
+    public static RouteRequest casablanca(int stops, long seed) {
+        Random random = new Random(seed);
+        LocationDTO depot = new LocationDTO("DEPOT", DEPOT_LAT, DEPOT_LON, BigDecimal.ZERO);
+        List<LocationDTO> locations = new ArrayList<>(stops);
+        for (int i = 0; i < stops; i++) {
+            locations.add(new LocationDTO("C" + i,
+                    DEPOT_LAT - 0.12 + random.nextDouble() * 0.24,
+                    DEPOT_LON - 0.16 + random.nextDouble() * 0.32,
+                    BigDecimal.valueOf(1 + random.nextInt(20))));
+        }
+        List<RouteRequest.LivreurData> livreurs = new ArrayList<>();
+        for (int l = 0; l < Math.max(1, stops / 40); l++) {
+            livreurs.add(new RouteRequest.LivreurData("L" + l, 500.0));
+        }
+        return new RouteRequest(depot, locations, livreurs);
+    }
+
+    /**
+     * Page de {@code count} colis entièrement renseignés (expéditeur, destinataire géolocalisé, zone, livreur),
+     * comme en renvoie le repository : 50 expéditeurs, 10 zones et 20 livreurs partagés entre les colis.
+     */
+    public static List<Colis> colis(int count, long seed) {
+        Random random = new Random(seed);
+        List<ClientExpediteur> expediteurs = new ArrayList<>();
+        for (int e = 0; e < 50; e++) {
+            expediteurs.add(ClientExpediteur.builder()
+                    .id("EXP-" + e)
+                    .firstName("Expediteur" + e)
+                    .lastName("Nom" + e)
+                    .telephone(new Telephone("+212", String.format("6%08d", random.nextInt(100_000_000))))
+                    .build());
+        }
+        List<Zone> zones = new ArrayList<>();
+        for (int z = 0; z < 10; z++) {
+            zones.add(Zone.builder().id("Z-" + z).nom("Zone " + z).codePostal(String.valueOf(20000 + z * 10)).build());
+        }
+        List<Livreur> livreurs = new ArrayList<>();
+        for (int l = 0; l < 20; l++) {
+            livreurs.add(Livreur.builder().id("LIV-" + l).firstName("Livreur" + l).lastName("Nom" + l).build());
+        }
+        StatusColis[] statuts = StatusColis.values();
+        PriorityColis[] priorites = PriorityColis.values();
+        LocalDateTime origine = LocalDateTime.of(2024, 1, 1, 8, 0);
+        List<Colis> page = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Zone zone = zones.get(random.nextInt(zones.size()));
+            Destinataire destinataire = Destinataire.builder()
+                    .id("DEST-" + i)
+                    .firstName("Destinataire" + i)
+                    .lastName("Nom" + i)
+                    .adresse(new Adresse(String.valueOf(1 + random.nextInt(200)), "Rue " + random.nextInt(500),
+                            "Casablanca", zone.getCodePostal(), "Maroc",
+                            DEPOT_LAT - 0.12 + random.nextDouble() * 0.24,
+                            DEPOT_LON - 0.16 + random.nextDouble() * 0.32))
+                    .build();
+            page.add(Colis.builder()
+                    .id("COLIS-" + i)
+                    .description("Colis synthétique " + i)
+                    .trackingCode(String.format("SL%010d", i))
+                    .poids(new Poids(BigDecimal.valueOf(1 + random.nextInt(20_000), 3), UnitePoids.KG))
+                    .villeDestination("Casablanca")
+                    .dateCreation(origine.plusMinutes(random.nextInt(60 * 24 * 30)))
+                    .statut(statuts[random.nextInt(statuts.length)])
+                    .priorite(priorites[random.nextInt(priorites.length)])
+                    .clientExpediteur(expediteurs.get(random.nextInt(expediteurs.size())))
+                    .destinataire(destinataire)
+                    .zoneDestination(zone)
+                    .livreurCollecte(livreurs.get(random.nextInt(livreurs.size())))
+                    .build());
+        }
+        return page;
+    }
+}
@@ -25,6 +25,14 @@ class PoidsTest {
         assertEquals("2.5 KG", poids.format());
     }
 
+    @Test
+    @DisplayName("Devrait convertir le poids en kilogrammes selon son unité")
+    void enKilogrammes_ShouldNormalizeUnit() {
+        assertEquals(new BigDecimal("0.5"), new Poids(new BigDecimal("500"), UnitePoids.G).enKilogrammes());
+        assertEquals(new BigDecimal("2.5"), new Poids(new BigDecimal("2.500"), UnitePoids.KG).enKilogrammes());
+        assertEquals(0, new BigDecimal("1200").compareTo(new Poids(new BigDecimal("1.2"), UnitePoids.T).enKilogrammes()));
+    }
+
     @Test
     @DisplayName("Devrait lever une exception si le poids est nul")
     void poids_ShouldThrow_WhenValueIsNull() {
@@ -40,4 +40,41 @@ class HaversineTest {
         // Utiliser une tolérance (delta) pour les calculs en virgule flottante
         assertEquals(expectedDistanceKm, dist, 2.0); // Tolérance de 2 km
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Le calcul par lots devrait donner les mêmes distances que le calcul scalaire")
+    void distancesFrom_ShouldMatchScalarDistance() {
+        // Arrange
+        double[] latitudes = {33.5731, 34.0209, 31.6295, 33.5731, 35.7595, 33.5732};
+        double[] longitudes = {-7.5898, -6.8417, -7.9811, -7.5898, -5.8340, -7.5898};
+        Haversine.Points points = Haversine.prepare(latitudes, longitudes);
+        double[] row = new double[latitudes.length];
+
+        // Act
+        Haversine.distancesFrom(points, 0, 0, latitudes.length, row, 0);
+
+        // Assert : y compris le point confondu (0 km) et le point voisin (~11 m)
+        for (int j = 0; j < latitudes.length; j++) {
+            assertEquals(Haversine.distance(latitudes[0], longitudes[0], latitudes[j], longitudes[j]), row[j], 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("L'approximation équirectangulaire devrait rester précise à l'échelle d'une ville")
+    void approximateDistancesFrom_ShouldStayCloseForShortDistances() {
+        // Arrange : points à moins de 30 km de Casablanca
+        double[] latitudes = {33.5731, 33.6000, 33.4500, 33.7000};
+        double[] longitudes = {-7.5898, -7.4000, -7.7000, -7.5000};
+        Haversine.Points points = Haversine.prepare(latitudes, longitudes);
+        double[] row = new double[latitudes.length];
+
+        // Act
+        Haversine.approximateDistancesFrom(points, 0, 1, latitudes.length, row, 1);
+
+        // Assert
+        for (int j = 1; j < latitudes.length; j++) {
+            double exact = Haversine.distance(latitudes[0], longitudes[0], latitudes[j], longitudes[j]);
+            assertEquals(exact, row[j], exact * 4e-5);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -105,7 +106,7 @@ class RouteOptimizationControllerTest {
     @DisplayName("POST /optimized (NearestNeighbor) - Succès (200 OK)")
     void getOptimizedRoutes_NearestNeighbor_ShouldReturn200() throws Exception {
         // Arrange
-        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), eq("NearestNeighbor")))
+        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), eq("NearestNeighbor"), any()))
                 .thenReturn(nnResponse);
 
         // Act & Assert
@@ -123,7 +124,7 @@ class RouteOptimizationControllerTest {
     @DisplayName("POST /optimized - Algorithme non supporté (500 Internal Server Error)")
     void getOptimizedRoutes_UnsupportedAlgorithm_ShouldReturn500() throws Exception {
         // Arrange
-        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), eq("Dijkstra")))
+        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), eq("Dijkstra"), any()))
                 .thenThrow(new IllegalArgumentException("Algorithme non supporté: Dijkstra"));
 
         // Act & Assert
@@ -142,15 +143,14 @@ class RouteOptimizationControllerTest {
     // ------------------------------------------------------------------------
 
     @Test
-    @DisplayName("POST /compare - Succès (200 OK) avec les deux algorithmes")
+    @DisplayName("POST /compare - Succès (200 OK) avec les deux algorithmes par défaut")
     void compareAlgorithms_ShouldReturn200_WithBothResults() throws Exception {
         // Arrange
-        // Mock l'appel pour NearestNeighbor
-        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), eq("NearestNeighbor")))
-                .thenReturn(nnResponse);
-        // Mock l'appel pour ClarkeWright
-        when(routeOptimizationService.optimizeRoutes(any(RouteRequest.class), eq("ClarkeWright")))
-                .thenReturn(cwResponse);
+        Map<String, OptimizedRouteResponse> comparison = new LinkedHashMap<>();
+        comparison.put("NearestNeighbor", nnResponse);
+        comparison.put("ClarkeWright", cwResponse);
+        when(routeOptimizationService.compareAlgorithms(any(RouteRequest.class), eq(List.of("NearestNeighbor", "ClarkeWright")), any()))
+                .thenReturn(comparison);
 
         // Act & Assert
         mockMvc.perform(post("/api/v1/routes/compare")
@@ -165,4 +165,26 @@ class RouteOptimizationControllerTest {
                 .andExpect(jsonPath("$.ClarkeWright.algorithm", is("ClarkeWright")))
                 .andExpect(jsonPath("$.ClarkeWright.totalDistanceKm", is(11.0)));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST /compare - Liste d'algorithmes fournie en paramètre")
+    void compareAlgorithms_WithAlgorithmList_ShouldPassItToService() throws Exception {
+        // Arrange
+        cwResponse.setAlgorithm("ClarkeWright+2opt");
+        cwResponse.setComputeTimeMs(3.5);
+        cwResponse.setAllocatedBytes(2048L);
+        when(routeOptimizationService.compareAlgorithms(any(RouteRequest.class), eq(List.of("ClarkeWright+2opt")), eq(500L)))
+                .thenReturn(Map.of("ClarkeWright+2opt", cwResponse));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/routes/compare")
+                        .with(csrf())
+                        .param("algorithms", "ClarkeWright+2opt")
+                        .param("maxMillis", "500")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['ClarkeWright+2opt'].computeTimeMs", is(3.5)))
+                .andExpect(jsonPath("$['ClarkeWright+2opt'].allocatedBytes", is(2048)));
+    }
+}
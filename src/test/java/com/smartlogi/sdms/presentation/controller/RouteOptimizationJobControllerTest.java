@@ -0,0 +1,160 @@
+package com.smartlogi.sdms.presentation.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartlogi.sdms.application.dto.routes.LocationDTO;
+import com.smartlogi.sdms.application.dto.routes.OptimizedRouteResponse;
+import com.smartlogi.sdms.application.dto.routes.RouteJobDTO;
+import com.smartlogi.sdms.application.dto.routes.RouteRequest;
+import com.smartlogi.sdms.application.service.JWTService;
+import com.smartlogi.sdms.application.service.RouteOptimizationJobService;
+import com.smartlogi.sdms.domain.exception.ResourceNotFoundException;
+import com.smartlogi.sdms.domain.model.enums.StatutOptimisation;
+import com.smartlogi.sdms.infrastructure.handler.GlobalExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RouteOptimizationJobController.class)
+@Import(GlobalExceptionHandler.class)
+@WithMockUser
+class RouteOptimizationJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private RouteOptimizationJobService routeOptimizationJobService;
+
+    // Mocks requis par Spring Security
+    @MockBean
+    private JWTService jwtService;
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    private RouteRequest validRequest;
+    private RouteJobDTO pendingJob;
+
+    @BeforeEach
+    void setUp() {
+        LocationDTO depot = new LocationDTO("DEPOT", 33.0, -7.0, BigDecimal.ZERO);
+        LocationDTO locA = new LocationDTO("A", 33.1, -7.1, BigDecimal.TEN);
+        validRequest = new RouteRequest(depot, List.of(locA), List.of(new RouteRequest.LivreurData("L1", 100.0)));
+
+        pendingJob = RouteJobDTO.builder()
+                .jobId("job-1")
+                .statut(StatutOptimisation.EN_ATTENTE)
+                .algorithm("ClarkeWright")
+                .build();
+    }
+
+    @Test
+    @DisplayName("POST /jobs - Tâche acceptée (202 Accepted)")
+    void submitJob_ShouldReturn202() throws Exception {
+        // Arrange
+        when(routeOptimizationJobService.submit(any(RouteRequest.class), eq("ClarkeWright"), any()))
+                .thenReturn(pendingJob);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/routes/jobs")
+                        .with(csrf())
+                        .param("algorithm", "ClarkeWright")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId", is("job-1")))
+                .andExpect(jsonPath("$.statut", is("EN_ATTENTE")));
+    }
+
+    @Test
+    @DisplayName("POST /jobs - File pleine (503 Service Unavailable)")
+    void submitJob_QueueFull_ShouldReturn503() throws Exception {
+        // Arrange
+        when(routeOptimizationJobService.submit(any(RouteRequest.class), any(), any()))
+                .thenThrow(new RejectedExecutionException());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/routes/jobs")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @DisplayName("GET /jobs/{id}/result - Tâche non terminée (409 Conflict)")
+    void getJobResult_NotFinished_ShouldReturn409() throws Exception {
+        // Arrange
+        when(routeOptimizationJobService.getResult("job-1")).thenReturn(null);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/routes/jobs/job-1/result"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("GET /jobs/{id}/result - Résultat disponible (200 OK)")
+    void getJobResult_Finished_ShouldReturn200() throws Exception {
+        // Arrange
+        OptimizedRouteResponse response = OptimizedRouteResponse.builder()
+                .algorithm("ClarkeWright")
+                .totalDistanceKm(11.0)
+                .build();
+        when(routeOptimizationJobService.getResult("job-1")).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/routes/jobs/job-1/result"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalDistanceKm", is(11.0)));
+    }
+
+    @Test
+    @DisplayName("GET /jobs/{id} - Tâche inconnue (404 Not Found)")
+    void getJobStatus_UnknownJob_ShouldReturn404() throws Exception {
+        // Arrange
+        when(routeOptimizationJobService.getStatus("inconnue"))
+                .thenThrow(new ResourceNotFoundException("Tâche d'optimisation non trouvée avec l'ID: inconnue"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/routes/jobs/inconnue"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("DELETE /jobs/{id} - Annulation (200 OK)")
+    void cancelJob_ShouldReturnCancelledJob() throws Exception {
+        // Arrange
+        pendingJob.setStatut(StatutOptimisation.ANNULEE);
+        when(routeOptimizationJobService.cancel("job-1")).thenReturn(pendingJob);
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/v1/routes/jobs/job-1").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statut", is("ANNULEE")));
+    }
+}